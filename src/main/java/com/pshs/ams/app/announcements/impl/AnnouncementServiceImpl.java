@@ -10,6 +10,7 @@ import lombok.extern.log4j.Log4j2;
 import com.pshs.ams.app.announcements.models.entities.Announcement;
 import com.pshs.ams.global.models.enums.CodeStatus;
 import com.pshs.ams.app.announcements.services.AnnouncementService;
+import com.pshs.ams.utils.FetchPlans;
 
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
@@ -103,7 +104,7 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 			return Optional.empty();
 		}
 
-		Optional<Announcement> announcement = Announcement.findByIdOptional(id);
+		Optional<Announcement> announcement = FetchPlans.findById(Announcement.class, id, Announcement.WITH_USER);
 		if (announcement.isEmpty()) {
 			log.debug("Announcement id is not found: {}", id);
 		}
@@ -128,10 +129,10 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 
 		if (page == null) {
 			log.debug("Page is null.");
-			return Announcement.listAll(sort);
+			return FetchPlans.apply(Announcement.findAll(sort), Announcement.WITH_USER).list();
 		}
 
-		return Announcement.findAll(sort).page(page).list();
+		return FetchPlans.apply(Announcement.findAll(sort), Announcement.WITH_USER).page(page).list();
 	}
 
 	/**
@@ -151,16 +152,17 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 
 		if (sort == null) {
 			log.debug("Sort is null.");
-			return Announcement.find("title LIKE ?1", "%" + title + "%").list();
+			return FetchPlans.apply(Announcement.find("title LIKE ?1", "%" + title + "%"), Announcement.WITH_USER).list();
 		}
 
 		if (page == null) {
 			log.debug("Page is null.");
-			return Announcement.find("title LIKE ?1", sort, "%" + title + "%").list();
+			return FetchPlans.apply(Announcement.find("title LIKE ?1", sort, "%" + title + "%"), Announcement.WITH_USER).list();
 		}
 
 		log.debug("Search announcements by title: {}", title);
-		return Announcement.find("title LIKE ?1", sort, "%" + title + "%").page(page).list();
+		return FetchPlans.apply(Announcement.find("title LIKE ?1", sort, "%" + title + "%"), Announcement.WITH_USER)
+			.page(page).list();
 	}
 
 	/**
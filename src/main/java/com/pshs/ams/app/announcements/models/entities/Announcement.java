@@ -18,6 +18,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -31,8 +34,18 @@ import lombok.Setter;
 @AttributeOverrides({
 	@AttributeOverride(name = "id", column = @Column(name = "id", nullable = false))
 })
+@NamedEntityGraph(
+	name = Announcement.WITH_USER,
+	attributeNodes = @NamedAttributeNode(value = "user", subgraph = "user"),
+	subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("teacher"))
+)
 public class Announcement extends PanacheEntityBase {
 
+	/**
+	 * Fetch plan of an announcement with its author and the author's teacher profile.
+	 */
+	public static final String WITH_USER = "Announcement.withUser";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	@Column(name = "id", unique = true, updatable = false)
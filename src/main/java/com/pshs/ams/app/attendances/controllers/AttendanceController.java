@@ -7,6 +7,7 @@ import lombok.extern.log4j.Log4j2;
 import org.modelmapper.ModelMapper;
 
 import com.pshs.ams.app.attendances.models.dto.AttendanceDTO;
+import com.pshs.ams.app.attendances.models.enums.AttendanceExportFormat;
 import com.pshs.ams.app.classrooms.models.dto.ClassroomRankingDTO;
 import com.pshs.ams.global.models.custom.DateRange;
 import com.pshs.ams.global.models.custom.LineChart;
@@ -30,6 +31,7 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.NotFoundException;
 
@@ -46,10 +48,7 @@ public class AttendanceController {
 	@Path("/all")
 	public Response getAllAttendances(@BeanParam PageRequest pageRequest, @BeanParam SortRequest sortRequest) {
 		log.debug("AttendanceController - getAllAttendances() - Get all attendances");
-		return Response.ok(
-				Attendance.findAll(sortRequest.toSort()).page(pageRequest.toPage()).stream().map(
-					attendance -> mapper.map(attendance, AttendanceDTO.class)))
-			.build();
+		return Response.ok(attendanceService.getAllAttendances(pageRequest.toPage(), sortRequest.toSort())).build();
 	}
 
 	@POST
@@ -215,6 +214,31 @@ public class AttendanceController {
 		}
 	}
 
+	@GET
+	@Path("/student/{id}/history")
+	public Response getStudentAttendanceHistory(
+		@PathParam("id") Long id, @QueryParam("date") LocalDate date,
+		@QueryParam("timeIn") @DefaultValue("false") boolean includeTimeIn
+	) {
+		if (id == null || id <= 0) {
+			return Response.status(Response.Status.BAD_REQUEST).entity(
+					new MessageResponse(
+						"Student ID is invalid.",
+						CodeStatus.BAD_REQUEST
+					))
+				.build();
+		}
+
+		return attendanceService.getStudentAttendanceHistory(id, date != null ? date : LocalDate.now(), includeTimeIn)
+			.map(history -> Response.ok(history).build())
+			.orElseGet(() -> Response.status(Response.Status.NOT_FOUND).entity(
+					new MessageResponse(
+						"No attendance history for this school year.",
+						CodeStatus.NOT_FOUND
+					))
+				.build());
+	}
+
 	@GET
 	@Path("/{foreignEntity}/{id}/all/count")
 	public Response countStudentTotalAttendance(
@@ -283,13 +307,30 @@ public class AttendanceController {
 				.build();
 		}
 
+		if (pageRequest.isCursor()) {
+			try {
+				return Response.ok(
+						attendanceService.getAllAttendanceByStatusAndDateRange(
+							UtilService.statusStringToList(statuses), dateRange, foreignEntity,
+							id, pageRequest.cursor, pageRequest.size, sortRequest.sortDirection
+						))
+					.build();
+			} catch (IllegalArgumentException e) {
+				return Response.status(Response.Status.BAD_REQUEST).entity(
+						new MessageResponse(
+							e.getMessage(),
+							CodeStatus.BAD_REQUEST
+						))
+					.build();
+			}
+		}
+
 		return Response.ok(
 				attendanceService
 					.getAllAttendanceByStatusAndDateRange(
 						UtilService.statusStringToList(statuses), dateRange, foreignEntity,
 						id, pageRequest.toPage(), sortRequest.toSort()
-					)
-					.stream().map(attendance -> mapper.map(attendance, AttendanceDTO.class)).toList())
+					))
 			.build();
 	}
 
@@ -307,12 +348,61 @@ public class AttendanceController {
 		if (dateRange == null || dateRange.getStartDate() == null || dateRange.getEndDate() == null) {
 			dateRange = new DateRange(LocalDate.now(), LocalDate.now());
 		}
-		List<Attendance> attendances = attendanceService.getFilteredAttendances(
+		if (pageRequest.isCursor()) {
+			try {
+				return Response.ok(attendanceService.getFilteredAttendances(
+					dateRange, classroomId, gradeLevelId,
+					strandId, studentId, pageRequest.cursor, pageRequest.size, sortRequest.sortDirection
+				)).build();
+			} catch (IllegalArgumentException e) {
+				return Response.status(Response.Status.BAD_REQUEST).entity(
+						new MessageResponse(
+							e.getMessage(),
+							CodeStatus.BAD_REQUEST
+						))
+					.build();
+			}
+		}
+		List<AttendanceDTO> attendances = attendanceService.getFilteredAttendances(
 			dateRange, classroomId, gradeLevelId,
 			strandId, studentId, pageRequest.toPage(), sortRequest.toSort()
 		);
-		return Response.ok(
-			attendances.stream().map(attendance -> mapper.map(attendance, AttendanceDTO.class)).toList()).build();
+		return Response.ok(attendances).build();
+	}
+
+	@GET
+	@Path("/filtered/export")
+	public Response exportFilteredAttendances(
+		@QueryParam("classroomId") Integer classroomId,
+		@QueryParam("gradeLevelId") Integer gradeLevelId,
+		@QueryParam("strandId") Integer strandId,
+		@QueryParam("studentId") Long studentId,
+		@QueryParam("format") @DefaultValue("ndjson") String format,
+		@BeanParam DateRange dateRange
+	) {
+		AttendanceExportFormat exportFormat;
+		try {
+			exportFormat = AttendanceExportFormat.valueOf(format.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return Response.status(Response.Status.BAD_REQUEST).entity(
+					new MessageResponse(
+						"Invalid format, expected ndjson or csv",
+						CodeStatus.BAD_REQUEST
+					))
+				.build();
+		}
+		if (dateRange == null || dateRange.getStartDate() == null || dateRange.getEndDate() == null) {
+			dateRange = new DateRange(LocalDate.now(), LocalDate.now());
+		}
+
+		DateRange range = dateRange;
+		StreamingOutput export = output -> attendanceService.exportFilteredAttendances(
+			range, classroomId, gradeLevelId, strandId, studentId, exportFormat, output
+		);
+		return Response.ok(export, exportFormat.getMediaType())
+			.header("Content-Disposition", "attachment; filename=\"attendances_" + range.getStartDate() + "_" +
+				range.getEndDate() + "." + exportFormat.getExtension() + "\"")
+			.build();
 	}
 
 	@GET
@@ -0,0 +1,150 @@
+package com.pshs.ams.app.attendances.impl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pshs.ams.app.attendances.models.entities.Attendance;
+import com.pshs.ams.app.attendances.models.enums.AttendanceExportFormat;
+import io.quarkus.narayana.jta.runtime.TransactionConfiguration;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Streams attendances to a response, one line per attendance, as NDJSON or CSV.
+ * <p>
+ * The rows are read as flat projections through a forward-only cursor, {@code attendance.export.fetch-size} rows at
+ * a time, and written as soon as they are read, so neither the rows nor any entity are kept in memory and the memory
+ * used does not depend on the size of the export.
+ */
+@ApplicationScoped
+public class AttendanceExporter {
+
+	private static final String[] COLUMNS = {
+		"id", "date", "status", "timeIn", "timeOut", "notes", "studentId", "lastName", "firstName", "middleInitial",
+		"classroom", "gradeLevel", "strand"
+	};
+
+	private static final String SELECT = "SELECT a.id, a.date, a.status, a.timeIn, a.timeOut, a.notes, " +
+		"s.id, s.lastName, s.firstName, s.middleInitial, s_c.classroomName, s_g.name, s_st.name " +
+		"FROM Attendance a LEFT JOIN a.student s LEFT JOIN s.classroom s_c LEFT JOIN s.gradeLevel s_g LEFT JOIN s.strand s_st";
+
+	@Inject
+	Logger logger;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	@ConfigProperty(name = "attendance.export.fetch-size", defaultValue = "1000")
+	int fetchSize;
+
+	/**
+	 * Writes the attendances matching the conditions in (date, id) order.
+	 *
+	 * @param where  the conditions, referring to the attendance as {@code a}, its student as {@code s}, and the
+	 *               student's classroom, grade level and strand as {@code s_c}, {@code s_g} and {@code s_st}
+	 * @param params named parameters of the conditions
+	 * @param format the format to write
+	 * @param output the stream to write to
+	 * @throws IOException if the output cannot be written
+	 */
+	@Transactional
+	@TransactionConfiguration(timeout = 600, timeoutFromConfigProperty = "attendance.export.transaction-timeout")
+	public void export(String where, Map<String, Object> params, AttendanceExportFormat format, OutputStream output)
+		throws IOException {
+		SelectionQuery<Object[]> query = Attendance.getEntityManager().unwrap(Session.class)
+			.createSelectionQuery(SELECT + " WHERE " + where + " ORDER BY a.date, a.id", Object[].class)
+			.setFetchSize(fetchSize)
+			.setReadOnly(true);
+		params.forEach(query::setParameter);
+
+		long rows = 0;
+		try (ScrollableResults<Object[]> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+			if (format == AttendanceExportFormat.CSV) {
+				rows = writeCsv(results, output);
+			} else {
+				rows = writeNdjson(results, output);
+			}
+		} finally {
+			logger.debug("Exported " + rows + " attendances as " + format);
+		}
+	}
+
+	private long writeNdjson(ScrollableResults<Object[]> results, OutputStream output) throws IOException {
+		long rows = 0;
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.setRootValueSeparator(null);
+			while (results.next()) {
+				Object[] row = results.get();
+				generator.writeStartObject();
+				for (int i = 0; i < COLUMNS.length; i++) {
+					generator.writeFieldName(COLUMNS[i]);
+					if (row[i] == null) {
+						generator.writeNull();
+					} else if (row[i] instanceof Number number) {
+						generator.writeNumber(number.longValue());
+					} else {
+						generator.writeString(row[i].toString());
+					}
+				}
+				generator.writeEndObject();
+				generator.writeRaw('\n');
+
+				if (++rows % fetchSize == 0) {
+					generator.flush();
+				}
+			}
+		}
+		return rows;
+	}
+
+	private long writeCsv(ScrollableResults<Object[]> results, OutputStream output) throws IOException {
+		long rows = 0;
+		Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+		writer.write(String.join(",", COLUMNS));
+		writer.write("\r\n");
+		while (results.next()) {
+			Object[] row = results.get();
+			for (int i = 0; i < COLUMNS.length; i++) {
+				if (i > 0) {
+					writer.write(',');
+				}
+				if (row[i] != null) {
+					writer.write(csvValue(row[i].toString()));
+				}
+			}
+			writer.write("\r\n");
+
+			if (++rows % fetchSize == 0) {
+				writer.flush();
+			}
+		}
+		writer.flush();
+		return rows;
+	}
+
+	/**
+	 * Quotes a CSV value when it contains a separator, a quote or a line break.
+	 */
+	private static String csvValue(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
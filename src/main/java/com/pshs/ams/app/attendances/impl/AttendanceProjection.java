@@ -0,0 +1,75 @@
+package com.pshs.ams.app.attendances.impl;
+
+import com.pshs.ams.app.attendances.models.dto.AttendanceDTO;
+import com.pshs.ams.app.students.impl.StudentProjection;
+import com.pshs.ams.global.models.custom.CursorPage;
+import com.pshs.ams.utils.Cursors;
+import com.pshs.ams.utils.Projections;
+import com.pshs.ams.utils.Projections.Row;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projection of {@link AttendanceDTO} with its student. Conditions and sorts refer to the attendance as {@code a}
+ * and to its student as {@code s}.
+ */
+final class AttendanceProjection {
+
+	static final String SELECT = "SELECT " +
+		Projections.columns("a", "id", "status", "date", "timeIn", "timeOut", "notes") + ", " + StudentProjection.columns("s") +
+		" FROM Attendance a LEFT JOIN a.student s" + StudentProjection.joins("s");
+
+	private AttendanceProjection() {
+	}
+
+	/**
+	 * @param where  the conditions, or an empty string for every attendance
+	 * @param params named parameters of the conditions
+	 * @param sort   the sort on attendance properties, or null
+	 * @param page   the page to read, or null for every attendance
+	 * @return the attendances
+	 */
+	static List<AttendanceDTO> list(String where, Map<String, Object> params, Sort sort, Page page) {
+		return Projections.list(where.isEmpty() ? SELECT : SELECT + " WHERE " + where, params, sort, "a", page, AttendanceProjection::read);
+	}
+
+	/**
+	 * Reads a page of attendances in (date, id) order, starting after a cursor.
+	 *
+	 * @param where     the conditions, or an empty string for every attendance
+	 * @param params    named parameters of the conditions
+	 * @param cursor    the cursor of the previous page, or null or empty for the first page
+	 * @param size      the page size
+	 * @param direction the direction of the listing
+	 * @return the page of attendances
+	 * @throws IllegalArgumentException if the cursor is malformed or the page size is not positive
+	 */
+	static CursorPage<AttendanceDTO> seek(String where, Map<String, Object> params, String cursor, int size, Sort.Direction direction) {
+		Cursors.checkSize(size);
+		Map<String, Object> seekParams = new HashMap<>(params);
+		if (cursor != null && !cursor.isEmpty()) {
+			String[] key = Cursors.decode(cursor, 2);
+			try {
+				seekParams.put("cursorDate", LocalDate.parse(key[0]));
+				seekParams.put("cursorId", Integer.valueOf(key[1]));
+			} catch (RuntimeException e) {
+				throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+			}
+
+			String after = Cursors.after("a.date, a.id", ":cursorDate, :cursorId", direction == Sort.Direction.Descending);
+			where = where.isEmpty() ? after : "(" + where + ") AND " + after;
+		}
+
+		List<AttendanceDTO> rows = list(where, seekParams, Cursors.sort(direction, "date", "id"), Page.ofSize(size + 1));
+		return Cursors.page(rows, size, attendance -> Cursors.encode(attendance.getDate(), attendance.getId()));
+	}
+
+	static AttendanceDTO read(Row row) {
+		return new AttendanceDTO(row.next(), row.next(), row.next(), row.next(), row.next(), row.next(), StudentProjection.read(row));
+	}
+}
@@ -1,38 +1,51 @@
 package com.pshs.ams.app.attendances.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import com.pshs.ams.app.attendances.models.dto.AttendanceState;
 import com.pshs.ams.app.attendances.models.dto.FingerprintAttendance;
+import com.pshs.ams.app.attendances.models.dto.PendingAttendanceWrite;
+import com.pshs.ams.app.attendances.models.dto.ScanResponse;
+import com.pshs.ams.app.attendances.models.dto.StudentAttendanceHistory;
+import com.pshs.ams.app.attendances.models.enums.ScanMessage;
+import com.pshs.ams.app.rfid_credentials.models.dto.HashedLrnKey;
 import com.pshs.ams.app.attendances.models.entities.Attendance;
 import com.pshs.ams.app.classrooms.models.entities.Classroom;
-import com.pshs.ams.app.rfid_credentials.models.entities.StudentCredential;
+import com.pshs.ams.app.rfid_credentials.impl.StudentCredentialIndex;
+import com.pshs.ams.app.rfid_credentials.models.dto.CredentialEntry;
+import com.pshs.ams.app.rfid_credentials.models.dto.ScheduleEntry;
 import com.pshs.ams.app.student_schedules.models.entities.StudentSchedule;
 import com.pshs.ams.app.students.models.entities.Student;
 import org.jboss.logging.Logger;
-import org.modelmapper.ModelMapper;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.pshs.ams.app.attendances.models.dto.AttendanceDTO;
 import com.pshs.ams.app.attendances.models.dto.ClassroomDemographicsAttendances;
 import com.pshs.ams.app.classrooms.models.dto.ClassroomRankingDTO;
+import com.pshs.ams.global.models.custom.CursorPage;
 import com.pshs.ams.global.models.custom.DateRange;
 import com.pshs.ams.global.models.custom.LineChart;
 import com.pshs.ams.global.models.custom.MessageResponse;
 import com.pshs.ams.global.models.custom.RFIDCard;
+import com.pshs.ams.app.attendances.models.enums.AttendanceExportFormat;
 import com.pshs.ams.app.attendances.models.enums.AttendanceMode;
 import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
 import com.pshs.ams.global.models.enums.CodeStatus;
@@ -43,10 +56,15 @@ import com.pshs.ams.app.attendances.services.AttendanceService;
 import com.pshs.ams.app.classrooms.services.ClassroomService;
 import com.pshs.ams.app.students.services.StudentService;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.cache.CacheResult;
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
 
@@ -65,12 +83,29 @@ public class AttendanceServiceImpl implements AttendanceService {
 	@Inject
 	ClassroomService classroomService;
 
-	private final ObjectMapper objectMapper = new ObjectMapper();
-	private final ModelMapper modelMapper = new ModelMapper();
+	@Inject
+	StudentCredentialIndex studentCredentialIndex;
 
-	public AttendanceServiceImpl() {
-		objectMapper.registerModule(new JavaTimeModule());
-	}
+	@Inject
+	TodayAttendanceCache todayAttendanceCache;
+
+	@Inject
+	AttendanceWriteBehind attendanceWriteBehind;
+
+	@Inject
+	MonthlyAttendanceSummaries monthlyAttendanceSummaries;
+
+	@Inject
+	DailyAttendanceCounts dailyAttendanceCounts;
+
+	@Inject
+	StudentAttendanceHistories studentAttendanceHistories;
+
+	@Inject
+	AttendanceExporter attendanceExporter;
+
+	@Inject
+	MeterRegistry meterRegistry;
 
 	/**
 	 * Creates or updates an attendance record
@@ -105,6 +140,7 @@ public class AttendanceServiceImpl implements AttendanceService {
 				log.debug("Overriding attendance for student: " + attendance.getStudent().getId());
 				Attendance.deleteById(existingAttendance.get().getId());
 				Attendance.flush();
+				todayAttendanceCache.evict(attendance.getStudent().getId(), attendance.getDate());
 			}
 
 			attendance.setId(null);
@@ -118,6 +154,10 @@ public class AttendanceServiceImpl implements AttendanceService {
 			}
 
 			attendance.persistAndFlush();
+			if (attendance.getStudent() != null) {
+				todayAttendanceCache.record(attendance.getStudent().getId(), attendance);
+				monthlyAttendanceSummaries.touch(attendance.getStudent().getId(), attendance.getDate());
+			}
 			return CodeStatus.OK;
 		} catch (Exception e) {
 			log.error("Error creating attendance: " + e.getMessage(), e);
@@ -131,66 +171,99 @@ public class AttendanceServiceImpl implements AttendanceService {
 	 */
 	@Override
 	@Transactional
-	public MessageResponse fromWebSocket(RFIDCard rfidCard) throws JsonProcessingException {
+	public ScanResponse fromWebSocket(RFIDCard rfidCard) throws JsonProcessingException {
 		if (rfidCard == null || rfidCard.getHashedLrn() == null || rfidCard.getMode() == null) {
 			log.debug("RFID Card DTO is null");
-			return new MessageResponse(
+			return new ScanResponse(
 				"RFID Card DTO is null",
-				CodeStatus.BAD_INPUT
+				CodeStatus.BAD_INPUT,
+				ScanMessage.INVALID_FRAME
 			);
 		}
 
-		Optional<StudentCredential> rfidCredential = StudentCredential.find("hashedLrn = ?1", rfidCard.getHashedLrn())
-			.firstResultOptional();
+		Optional<CredentialEntry> rfidCredential = studentCredentialIndex.findByHashedLrn(rfidCard.getHashedLrn());
 		if (rfidCredential.isEmpty()) {
 			log.debug("RFID Card not found: " + rfidCard.getHashedLrn());
-			return new MessageResponse(
-				"RFID Card not found",
-				CodeStatus.NOT_FOUND
-			);
+			return cardNotFound();
 		}
 
-		LocalDate now = LocalDate.now();
-		Attendance attendance = new Attendance();
-		attendance.setStudent(rfidCredential.get().getStudent());
-		attendance.setDate(LocalDate.now());
-		Optional<Attendance> latestAttendanceOptional = Attendance
-			.find("date = ?1 AND student.id = ?2", now, rfidCredential.get().getStudent().getId())
-			.firstResultOptional();
+		return scan(rfidCredential.get(), rfidCard.getMode());
+	}
+
+	@Override
+	@Transactional
+	public ScanResponse fromWebSocket(HashedLrnKey hashedLrn, AttendanceMode mode) throws JsonProcessingException {
+		Optional<CredentialEntry> rfidCredential = studentCredentialIndex.findByHashedLrn(hashedLrn);
+		if (rfidCredential.isEmpty()) {
+			log.debug("RFID Card not found: " + hashedLrn);
+			return cardNotFound();
+		}
+
+		return scan(rfidCredential.get(), mode);
+	}
+
+	private ScanResponse cardNotFound() {
+		return new ScanResponse(
+			"RFID Card not found",
+			CodeStatus.NOT_FOUND,
+			ScanMessage.CARD_NOT_FOUND
+		);
+	}
+
+	/**
+	 * Records a scan of a registered card.
+	 *
+	 * @param credential the scanned student's credential
+	 * @param mode       the scan mode
+	 * @return the response for the scanner
+	 */
+	private ScanResponse scan(CredentialEntry credential, AttendanceMode mode) throws JsonProcessingException {
+		Optional<AttendanceState> todayAttendance = todayAttendanceCache.get(credential.getStudentId());
+		if (attendanceWriteBehind.isEnabled()) {
+			return bufferScan(mode, credential, todayAttendance);
+		}
 
 		// * Now, what we have to do is to calculate the timeIn, timeOut, and status
-		switch (rfidCard.getMode()) {
+		switch (mode) {
 			case IN -> {
 				// Check if the student has the same attendance for today correlated to the date
 				// and status
-				if (latestAttendanceOptional.isPresent()) {
+				if (todayAttendance.isPresent()) {
 					log.debug("Student already has attendance for today correlated to the date and status");
-					return new MessageResponse(
-						"Hi " + rfidCredential.get().getStudent().getLastName() + ", welcome! :D",
-						CodeStatus.CONFLICT
+					return new ScanResponse(
+						"Hi " + credential.getLastName() + ", welcome! :D",
+						CodeStatus.CONFLICT,
+						ScanMessage.ALREADY_CHECKED_IN
 					);
 				}
 
 				// Create attendance
-				log.debug("Creating attendance for student: " + rfidCredential.get().getStudent());
+				log.debug("Creating attendance for student: " + credential.getStudentId());
+				Attendance attendance = new Attendance();
+				attendance.setStudent(Student.getEntityManager().getReference(Student.class, credential.getStudentId()));
+				attendance.setDate(LocalDate.now());
 				attendance.setTimeIn(LocalTime.now());
-				attendance.setStatus(getAttendanceStatus(rfidCard.getMode(), rfidCredential.get().getStudent()));
+				attendance.setStatus(getAttendanceStatus(mode, credential));
 				attendance.persist();
-				realTimeAttendanceService.broadcastMessage(objectMapper.writeValueAsString(
-					modelMapper.map(attendance, AttendanceDTO.class)));
-				return new MessageResponse(
-					"Welcome " + rfidCredential.get().getStudent().getLastName() + ", you are " + attendance.getStatus().name(),
-					CodeStatus.OK
+				todayAttendanceCache.record(credential.getStudentId(), attendance);
+				realTimeAttendanceService.publish(attendance.toDTO(), credential.getStudentId());
+				return new ScanResponse(
+					"Welcome " + credential.getLastName() + ", you are " + attendance.getStatus().name(),
+					CodeStatus.OK,
+					ScanMessage.WELCOME,
+					attendance.getStatus()
 				);
 			}
 
 			case OUT -> {
 				// Get the latest attendance
+				Optional<Attendance> latestAttendanceOptional = todayAttendance.flatMap(state -> findTodayAttendance(credential.getStudentId(), state));
 				if (latestAttendanceOptional.isEmpty()) {
 					log.debug("No attendance found for today");
-					return new MessageResponse(
+					return new ScanResponse(
 						"Not Checked In",
-						CodeStatus.NOT_FOUND
+						CodeStatus.NOT_FOUND,
+						ScanMessage.NOT_CHECKED_IN
 					);
 				}
 
@@ -200,61 +273,77 @@ public class AttendanceServiceImpl implements AttendanceService {
 					log.debug("Updating time out for student");
 					latestAttendance.setTimeOut(LocalTime.now());
 					latestAttendance.persist();
-					return new MessageResponse(
+					todayAttendanceCache.record(credential.getStudentId(), latestAttendance);
+					return new ScanResponse(
 						"Time out updated",
-						CodeStatus.OK
+						CodeStatus.OK,
+						ScanMessage.TIME_OUT_UPDATED
 					);
 				}
 
 				// Update attendance
-				log.debug("Updating attendance for student: " + rfidCredential.get().getStudent());
+				log.debug("Updating attendance for student: " + credential.getStudentId());
 				latestAttendance.setTimeOut(LocalTime.now());
 				latestAttendance.persist();
-				realTimeAttendanceService.broadcastMessage(objectMapper.writeValueAsString(
-					modelMapper.map(latestAttendance, AttendanceDTO.class)));
-				return new MessageResponse(
+				todayAttendanceCache.record(credential.getStudentId(), latestAttendance);
+				realTimeAttendanceService.publish(latestAttendance.toDTO(), credential.getStudentId());
+				return new ScanResponse(
 					"Status: " + latestAttendance.getStatus(),
-					CodeStatus.OK
+					CodeStatus.OK,
+					ScanMessage.CHECKED_OUT,
+					latestAttendance.getStatus()
 				);
 			}
 
 			case EXCUSED -> {
-				if (latestAttendanceOptional.isEmpty()) {
+				if (todayAttendance.isEmpty()) {
 					log.debug(
 						"No attendance found, when excusing student, consult to the administrator or teachers.");
-					return new MessageResponse(
+					return new ScanResponse(
 						"Consult admin/teachers",
-						CodeStatus.OK
+						CodeStatus.OK,
+						ScanMessage.CONSULT_ADMIN
 					);
 				}
-				// Update attendance
-				log.debug("Updating attendance for student: " + rfidCredential.get().getStudent());
-				Attendance latestAttendance = latestAttendanceOptional.get();
-				if (latestAttendance.getStatus() == AttendanceStatus.EXCUSED) {
+				if (todayAttendance.get().getStatus() == AttendanceStatus.EXCUSED) {
 					log.debug("Student already has excused attendance for today correlated to the date and status");
-					return new MessageResponse(
+					return new ScanResponse(
 						"Already Excused",
-						CodeStatus.CONFLICT
+						CodeStatus.CONFLICT,
+						ScanMessage.ALREADY_EXCUSED
 					);
 				}
 
+				// Update attendance
+				log.debug("Updating attendance for student: " + credential.getStudentId());
+				Optional<Attendance> latestAttendanceOptional = findTodayAttendance(credential.getStudentId(), todayAttendance.get());
+				if (latestAttendanceOptional.isEmpty()) {
+					return new ScanResponse(
+						"Consult admin/teachers",
+						CodeStatus.OK,
+						ScanMessage.CONSULT_ADMIN
+					);
+				}
+
+				Attendance latestAttendance = latestAttendanceOptional.get();
 				latestAttendance.setNotes("This student was scanned as excused.");
 				latestAttendance
-					.setStatus(getAttendanceStatus(rfidCard.getMode(), rfidCredential.get().getStudent()));
+					.setStatus(getAttendanceStatus(mode, credential));
 				latestAttendance.setTimeOut(LocalTime.now());
 				latestAttendance.persist();
+				todayAttendanceCache.record(credential.getStudentId(), latestAttendance);
 
-				realTimeAttendanceService.broadcastMessage(
-					objectMapper.writeValueAsString(
-						modelMapper.map(latestAttendance, AttendanceDTO.class)));
-				return new MessageResponse(
+				realTimeAttendanceService.publish(latestAttendance.toDTO(), credential.getStudentId());
+				return new ScanResponse(
 					"Status: EXCUSED",
-					CodeStatus.OK
+					CodeStatus.OK,
+					ScanMessage.EXCUSED,
+					latestAttendance.getStatus()
 				);
 			}
 
 			default -> {
-				throw new Error("Invalid attendance mode: " + rfidCard.getMode());
+				throw new Error("Invalid attendance mode: " + mode);
 			}
 		}
 	}
@@ -267,8 +356,7 @@ public class AttendanceServiceImpl implements AttendanceService {
 			throw new IllegalArgumentException("Fingerprint attendance cannot be null");
 		}
 
-		Optional<StudentCredential> studentCredentialOptional = StudentCredential.find("fingerprintId = ?1", fingerprintAttendance.getFingerprintId())
-			.firstResultOptional();
+		Optional<CredentialEntry> studentCredentialOptional = studentCredentialIndex.findByFingerprintId(fingerprintAttendance.getFingerprintId());
 		if (studentCredentialOptional.isEmpty()) {
 			log.debug("Fingerprint not found: " + fingerprintAttendance.getFingerprintId());
 			new MessageResponse(
@@ -278,12 +366,22 @@ public class AttendanceServiceImpl implements AttendanceService {
 			return;
 		}
 
+		CredentialEntry credential = studentCredentialOptional.get();
+		LocalDate scannedDate = fingerprintAttendance.getDateTime().toLocalDate();
 		Attendance attendance = new Attendance();
-		attendance.setStudent(studentCredentialOptional.get().getStudent());
-		attendance.setDate(fingerprintAttendance.getDateTime().toLocalDate());
-		Optional<Attendance> attendanceScannedDate = Attendance
-			.find("date = ?1 AND student.id = ?2", fingerprintAttendance.getDateTime().toLocalDate(), studentCredentialOptional.get().getStudent().getId())
-			.firstResultOptional();
+		attendance.setStudent(Student.getEntityManager().getReference(Student.class, credential.getStudentId()));
+		attendance.setDate(scannedDate);
+
+		// Today's scans are answered from the cache, older uploads still have to ask the database.
+		Optional<Attendance> attendanceScannedDate;
+		if (scannedDate.equals(LocalDate.now())) {
+			attendanceScannedDate = todayAttendanceCache.get(credential.getStudentId())
+				.flatMap(state -> findTodayAttendance(credential.getStudentId(), state));
+		} else {
+			attendanceScannedDate = Attendance
+				.find("date = ?1 AND student.id = ?2", scannedDate, credential.getStudentId())
+				.firstResultOptional();
+		}
 
 		// * Now, what we have to do is to calculate the timeIn, timeOut, and status
 		switch (fingerprintAttendance.getMode()) {
@@ -293,21 +391,22 @@ public class AttendanceServiceImpl implements AttendanceService {
 				if (attendanceScannedDate.isPresent()) {
 					log.debug("Student already has attendance for today correlated to the date and status");
 					new MessageResponse(
-						"Hi " + studentCredentialOptional.get().getStudent().getLastName() + ", welcome! :D",
+						"Hi " + credential.getLastName() + ", welcome! :D",
 						CodeStatus.CONFLICT
 					);
 					return;
 				}
 
 				// Create attendance
-				log.debug("Creating attendance for student: " + studentCredentialOptional.get().getStudent());
+				log.debug("Creating attendance for student: " + credential.getStudentId());
 				attendance.setTimeIn(fingerprintAttendance.getDateTime().toLocalTime());
-				attendance.setStatus(getAttendanceStatus(fingerprintAttendance.getMode(), studentCredentialOptional.get().getStudent()));
+				attendance.setStatus(getAttendanceStatus(fingerprintAttendance.getMode(), credential));
 				attendance.persist();
-				realTimeAttendanceService.broadcastMessage(objectMapper.writeValueAsString(
-					modelMapper.map(attendance, AttendanceDTO.class)));
+				todayAttendanceCache.record(credential.getStudentId(), attendance);
+				monthlyAttendanceSummaries.touch(credential.getStudentId(), scannedDate);
+				realTimeAttendanceService.publish(attendance.toDTO(), credential.getStudentId());
 				new MessageResponse(
-					"Welcome " + studentCredentialOptional.get().getStudent().getLastName() + ", you are " + attendance.getStatus().name(),
+					"Welcome " + credential.getLastName() + ", you are " + attendance.getStatus().name(),
 					CodeStatus.OK
 				);
 			}
@@ -329,6 +428,8 @@ public class AttendanceServiceImpl implements AttendanceService {
 					log.debug("Updating time out for student");
 					latestAttendance.setTimeOut(fingerprintAttendance.getDateTime().toLocalTime());
 					latestAttendance.persist();
+					todayAttendanceCache.record(credential.getStudentId(), latestAttendance);
+					monthlyAttendanceSummaries.touch(credential.getStudentId(), scannedDate);
 					new MessageResponse(
 						"Time out updated",
 						CodeStatus.OK
@@ -337,11 +438,12 @@ public class AttendanceServiceImpl implements AttendanceService {
 				}
 
 				// Update attendance
-				log.debug("Updating attendance for student: " + studentCredentialOptional.get().getStudent());
+				log.debug("Updating attendance for student: " + credential.getStudentId());
 				latestAttendance.setTimeOut(fingerprintAttendance.getDateTime().toLocalTime());
 				latestAttendance.persist();
-				realTimeAttendanceService.broadcastMessage(objectMapper.writeValueAsString(
-					modelMapper.map(latestAttendance, AttendanceDTO.class)));
+				todayAttendanceCache.record(credential.getStudentId(), latestAttendance);
+				monthlyAttendanceSummaries.touch(credential.getStudentId(), scannedDate);
+				realTimeAttendanceService.publish(latestAttendance.toDTO(), credential.getStudentId());
 				new MessageResponse(
 					"Status: " + latestAttendance.getStatus(),
 					CodeStatus.OK
@@ -359,7 +461,7 @@ public class AttendanceServiceImpl implements AttendanceService {
 					return;
 				}
 				// Update attendance
-				log.debug("Updating attendance for student: " + studentCredentialOptional.get().getStudent());
+				log.debug("Updating attendance for student: " + credential.getStudentId());
 				Attendance latestAttendance = attendanceScannedDate.get();
 				if (latestAttendance.getStatus() == AttendanceStatus.EXCUSED) {
 					log.debug("Student already has excused attendance for today correlated to the date and status");
@@ -372,13 +474,13 @@ public class AttendanceServiceImpl implements AttendanceService {
 
 				latestAttendance.setNotes("This student was scanned as excused.");
 				latestAttendance
-					.setStatus(getAttendanceStatus(fingerprintAttendance.getMode(), studentCredentialOptional.get().getStudent()));
+					.setStatus(getAttendanceStatus(fingerprintAttendance.getMode(), credential));
 				latestAttendance.setTimeOut(fingerprintAttendance.getDateTime().toLocalTime());
 				latestAttendance.persist();
+				todayAttendanceCache.record(credential.getStudentId(), latestAttendance);
+				monthlyAttendanceSummaries.touch(credential.getStudentId(), scannedDate);
 
-				realTimeAttendanceService.broadcastMessage(
-					objectMapper.writeValueAsString(
-						modelMapper.map(latestAttendance, AttendanceDTO.class)));
+				realTimeAttendanceService.publish(latestAttendance.toDTO(), credential.getStudentId());
 				new MessageResponse(
 					"Status: EXCUSED",
 					CodeStatus.OK
@@ -390,12 +492,157 @@ public class AttendanceServiceImpl implements AttendanceService {
 		}
 	}
 
+	/**
+	 * Handles a scan in write-behind mode: the scan is answered from memory and its write is queued for
+	 * {@link AttendanceWriteBehind} instead of being persisted in the current transaction.
+	 *
+	 * @param mode            the scan mode
+	 * @param credential      the scanned student's credential
+	 * @param todayAttendance the student's attendance for today, if any
+	 * @return the response for the scanner
+	 */
+	private ScanResponse bufferScan(AttendanceMode mode, CredentialEntry credential, Optional<AttendanceState> todayAttendance) {
+		Long studentId = credential.getStudentId();
+		LocalDate today = LocalDate.now();
+		LocalTime now = LocalTime.now();
+
+		switch (mode) {
+			case IN -> {
+				AttendanceState state = new AttendanceState(null, getAttendanceStatus(mode, credential), now, null);
+				if (todayAttendance.isPresent() || !todayAttendanceCache.putIfAbsent(studentId, state)) {
+					log.debug("Student already has attendance for today correlated to the date and status");
+					return new ScanResponse(
+						"Hi " + credential.getLastName() + ", welcome! :D",
+						CodeStatus.CONFLICT,
+						ScanMessage.ALREADY_CHECKED_IN
+					);
+				}
+
+				if (!attendanceWriteBehind.offer(new PendingAttendanceWrite(
+					PendingAttendanceWrite.Type.INSERT, studentId, today, state.getStatus(), now, null, null, state, null))) {
+					todayAttendanceCache.remove(studentId, state);
+					return busy();
+				}
+				return new ScanResponse(
+					"Welcome " + credential.getLastName() + ", you are " + state.getStatus().name(),
+					CodeStatus.OK,
+					ScanMessage.WELCOME,
+					state.getStatus()
+				);
+			}
+
+			case OUT -> {
+				if (todayAttendance.isEmpty()) {
+					log.debug("No attendance found for today");
+					return new ScanResponse(
+						"Not Checked In",
+						CodeStatus.NOT_FOUND,
+						ScanMessage.NOT_CHECKED_IN
+					);
+				}
+
+				AttendanceState current = todayAttendance.get();
+				AttendanceState state = new AttendanceState(current.getId(), current.getStatus(), current.getTimeIn(), now);
+				if (!todayAttendanceCache.replace(studentId, current, state)) {
+					return busy();
+				}
+				if (!attendanceWriteBehind.offer(new PendingAttendanceWrite(
+					PendingAttendanceWrite.Type.UPDATE, studentId, today, state.getStatus(), state.getTimeIn(), now, null,
+					state, current))) {
+					todayAttendanceCache.replace(studentId, state, current);
+					return busy();
+				}
+				return new ScanResponse(
+					current.getTimeOut() != null ? "Time out updated" : "Status: " + state.getStatus(),
+					CodeStatus.OK,
+					current.getTimeOut() != null ? ScanMessage.TIME_OUT_UPDATED : ScanMessage.CHECKED_OUT,
+					state.getStatus()
+				);
+			}
+
+			case EXCUSED -> {
+				if (todayAttendance.isEmpty()) {
+					log.debug(
+						"No attendance found, when excusing student, consult to the administrator or teachers.");
+					return new ScanResponse(
+						"Consult admin/teachers",
+						CodeStatus.OK,
+						ScanMessage.CONSULT_ADMIN
+					);
+				}
+
+				AttendanceState current = todayAttendance.get();
+				if (current.getStatus() == AttendanceStatus.EXCUSED) {
+					log.debug("Student already has excused attendance for today correlated to the date and status");
+					return new ScanResponse(
+						"Already Excused",
+						CodeStatus.CONFLICT,
+						ScanMessage.ALREADY_EXCUSED
+					);
+				}
+
+				AttendanceState state = new AttendanceState(current.getId(), getAttendanceStatus(mode, credential), current.getTimeIn(), now);
+				if (!todayAttendanceCache.replace(studentId, current, state)) {
+					return busy();
+				}
+				if (!attendanceWriteBehind.offer(new PendingAttendanceWrite(
+					PendingAttendanceWrite.Type.UPDATE, studentId, today, state.getStatus(), state.getTimeIn(), now,
+					"This student was scanned as excused.", state, current))) {
+					todayAttendanceCache.replace(studentId, state, current);
+					return busy();
+				}
+				return new ScanResponse(
+					"Status: EXCUSED",
+					CodeStatus.OK,
+					ScanMessage.EXCUSED,
+					state.getStatus()
+				);
+			}
+
+			default -> {
+				throw new Error("Invalid attendance mode: " + mode);
+			}
+		}
+	}
+
+	private ScanResponse busy() {
+		return new ScanResponse(
+			"Scanner busy, please tap again",
+			CodeStatus.BUSY,
+			ScanMessage.BUSY
+		);
+	}
+
+	/**
+	 * Loads the attendance behind a cached state so it can be updated.
+	 *
+	 * @param studentId the student the state belongs to
+	 * @param state     today's cached attendance state
+	 * @return the attendance, or empty if the row has been removed since it was cached
+	 */
+	private Optional<Attendance> findTodayAttendance(Long studentId, AttendanceState state) {
+		if (state.getId() == null) {
+			// Written by the write-behind pipeline, which does not report generated ids back.
+			return Attendance.find("date = ?1 AND student.id = ?2", LocalDate.now(), studentId).firstResultOptional();
+		}
+		return Attendance.findByIdOptional(state.getId());
+	}
+
 	private AttendanceStatus getAttendanceStatus(AttendanceMode mode, Student student) {
-		StudentSchedule studentSchedule = student.getStudentSchedule();
+		return getAttendanceStatus(mode, student.getStudentSchedule().getLateTime());
+	}
+
+	private AttendanceStatus getAttendanceStatus(AttendanceMode mode, CredentialEntry credential) {
+		ScheduleEntry schedule = studentCredentialIndex.findSchedule(credential.getScheduleId()).orElseThrow(
+			() -> new IllegalStateException("Student " + credential.getStudentId() + " has no schedule"));
+		return getAttendanceStatus(mode, schedule.getLateTime());
+	}
+
+	private AttendanceStatus getAttendanceStatus(AttendanceMode mode, LocalTime lateTime) {
 		LocalTime now = LocalTime.now();
 		switch (mode) {
 			case IN -> {
-				if (now.isBefore(studentSchedule.getLateTime())) {
+				if (now.isBefore(lateTime)) {
 					return AttendanceStatus.ON_TIME;
 				} else {
 					return AttendanceStatus.LATE;
@@ -424,6 +671,9 @@ public class AttendanceServiceImpl implements AttendanceService {
 
 	/**
 	 * Count total attendance of each status with a classroom filter
+	 * <p>
+	 * Classroom counts are read from {@link DailyAttendanceCounts}; student counts still query the student's
+	 * attendances, which the rollup does not keep apart.
 	 *
 	 * @param attendanceStatus Attendance Status
 	 * @param dateRange        range of dates to filter by
@@ -463,17 +713,10 @@ public class AttendanceServiceImpl implements AttendanceService {
 				return 0;
 			}
 
-			return Attendance.count(
-				"status IN ?1 AND date BETWEEN ?2 AND ?3 AND student.classroom.id = ?4",
-				attendanceStatus,
-				dateRange.getStartDate(), dateRange.getEndDate(), id
-			);
+			return dailyAttendanceCounts.count(dateRange, attendanceStatus, id.intValue(), null, null, null);
 		}
 
-		return Attendance.count(
-			"status IN ?1 BETWEEN ?2 AND ?3", attendanceStatus, dateRange.getStartDate(),
-			dateRange.getEndDate()
-		);
+		return dailyAttendanceCounts.count(dateRange, attendanceStatus, null, null, null, null);
 	}
 
 	/**
@@ -505,14 +748,8 @@ public class AttendanceServiceImpl implements AttendanceService {
 			throw new Error("Classroom not found: " + id);
 		}
 
-		long male = Attendance.count(
-			"status IN ?1 AND date BETWEEN ?2 AND ?3 AND student.classroom.id = ?4 AND cast(student.sex AS text) = ?5",
-			statuses, dateRange.getStartDate(), dateRange.getEndDate(), id, Sex.MALE.name()
-		);
-		long female = Attendance.count(
-			"status IN ?1 AND date BETWEEN ?2 AND ?3 AND student.classroom.id = ?4 AND cast(student.sex AS text) = ?5",
-			statuses, dateRange.getStartDate(), dateRange.getEndDate(), id, Sex.FEMALE.name()
-		);
+		long male = dailyAttendanceCounts.count(dateRange, statuses, id.intValue(), null, null, List.of(Sex.MALE));
+		long female = dailyAttendanceCounts.count(dateRange, statuses, id.intValue(), null, null, List.of(Sex.FEMALE));
 		return new ClassroomDemographicsAttendances(male, female);
 	}
 
@@ -527,10 +764,19 @@ public class AttendanceServiceImpl implements AttendanceService {
 	public long countTotalByAttendanceByStatus(List<AttendanceStatus> attendanceStatus, DateRange dateRange) {
 		log.debug("Count total attendance by status: " + attendanceStatus);
 		log.debug("Date Range: " + dateRange);
-		return Attendance.count(
-			"status IN ?1 AND date BETWEEN ?2 AND ?3", attendanceStatus, dateRange.getStartDate(),
-			dateRange.getEndDate()
-		);
+		return dailyAttendanceCounts.count(dateRange, attendanceStatus, null, null, null, null);
+	}
+
+	/**
+	 * Get all attendance, read with their students through {@link AttendanceProjection}
+	 *
+	 * @param page
+	 * @param sort
+	 * @return list of {@link AttendanceDTO} objects
+	 */
+	@Override
+	public List<AttendanceDTO> getAllAttendances(Page page, Sort sort) {
+		return AttendanceProjection.list("", Map.of(), sort, page);
 	}
 
 	/**
@@ -543,14 +789,37 @@ public class AttendanceServiceImpl implements AttendanceService {
 	 * @return list of {@link AttendanceDTO} objects
 	 */
 	@Override
-	public List<Attendance> getAllAttendanceByStatusAndDateRange(
+	public List<AttendanceDTO> getAllAttendanceByStatusAndDateRange(
 		List<AttendanceStatus> attendanceStatus,
 		DateRange dateRange, Page page, Sort sort
 	) {
-		return Attendance.find(
-			"status IN ?1 BETWEEN ?2 AND ?3", sort, attendanceStatus, dateRange.getStartDate(),
-			dateRange.getEndDate()
-		).page(page).list();
+		return AttendanceProjection.list(
+			"a.status IN :statuses AND a.date BETWEEN :startDate AND :endDate",
+			Map.of("statuses", attendanceStatus, "startDate", dateRange.getStartDate(), "endDate", dateRange.getEndDate()),
+			sort, page
+		);
+	}
+
+	/**
+	 * Get a page of attendance by status and date range, read in (date, id) order after a cursor
+	 *
+	 * @param attendanceStatus Attendance Status
+	 * @param dateRange        range of dates to filter by
+	 * @param cursor           cursor of the previous page, or null or empty for the first page
+	 * @param size             page size
+	 * @param direction        direction of the listing
+	 * @return page of {@link AttendanceDTO} objects
+	 */
+	@Override
+	public CursorPage<AttendanceDTO> getAllAttendanceByStatusAndDateRange(
+		List<AttendanceStatus> attendanceStatus,
+		DateRange dateRange, String cursor, int size, Sort.Direction direction
+	) {
+		return AttendanceProjection.seek(
+			"a.status IN :statuses AND a.date BETWEEN :startDate AND :endDate",
+			Map.of("statuses", attendanceStatus, "startDate", dateRange.getStartDate(), "endDate", dateRange.getEndDate()),
+			cursor, size, direction
+		);
 	}
 
 	/**
@@ -564,9 +833,45 @@ public class AttendanceServiceImpl implements AttendanceService {
 	 * @return list of {@link AttendanceDTO} objects
 	 */
 	@Override
-	public List<Attendance> getAllAttendanceByStatusAndDateRange(
+	public List<AttendanceDTO> getAllAttendanceByStatusAndDateRange(
 		List<AttendanceStatus> attendanceStatus,
 		DateRange dateRange, AttendanceForeignEntity foreignEntity, Integer id, Page page, Sort sort
+	) {
+		Map<String, Object> params = new HashMap<>();
+		String where = foreignEntityConditions(attendanceStatus, dateRange, foreignEntity, id, params);
+		sort = Sort.by("date", "timeIn", "timeOut").descending();
+		log.debug("Sorting by date, time in, and time out");
+		return AttendanceProjection.list(where, params, sort, page);
+	}
+
+	/**
+	 * Get a page of attendance by status, date range, and foreign entity, read in (date, id) order after a cursor
+	 *
+	 * @param attendanceStatus Attendance Status
+	 * @param dateRange        range of dates to filter by
+	 * @param foreignEntity    the foreign entity to filter by
+	 * @param cursor           cursor of the previous page, or null or empty for the first page
+	 * @param size             page size
+	 * @param direction        direction of the listing
+	 * @return page of {@link AttendanceDTO} objects
+	 */
+	@Override
+	public CursorPage<AttendanceDTO> getAllAttendanceByStatusAndDateRange(
+		List<AttendanceStatus> attendanceStatus,
+		DateRange dateRange, AttendanceForeignEntity foreignEntity, Integer id, String cursor, int size,
+		Sort.Direction direction
+	) {
+		Map<String, Object> params = new HashMap<>();
+		String where = foreignEntityConditions(attendanceStatus, dateRange, foreignEntity, id, params);
+		return AttendanceProjection.seek(where, params, cursor, size, direction);
+	}
+
+	/**
+	 * Builds the conditions of the attendance of a foreign entity, filling in their parameters.
+	 */
+	private String foreignEntityConditions(
+		List<AttendanceStatus> attendanceStatus, DateRange dateRange,
+		AttendanceForeignEntity foreignEntity, Integer id, Map<String, Object> params
 	) {
 		// Check if parameters are valid
 		if (attendanceStatus == null || attendanceStatus.isEmpty()) {
@@ -586,23 +891,19 @@ public class AttendanceServiceImpl implements AttendanceService {
 			throw new IllegalArgumentException("Id must be a positive integer");
 		}
 
-		sort = Sort.by("date", "timeIn", "timeOut").descending();
-		log.debug("Sorting by date, time in, and time out");
+		String where = "a.status IN :statuses AND a.date BETWEEN :startDate AND :endDate";
+		params.put("statuses", attendanceStatus);
+		params.put("startDate", dateRange.getStartDate());
+		params.put("endDate", dateRange.getEndDate());
 		if (foreignEntity == AttendanceForeignEntity.STUDENT) {
-			return Attendance
-				.find(
-					"status IN ?1 AND date BETWEEN ?2 AND ?3 AND student.id = ?4", sort, attendanceStatus,
-					dateRange.getStartDate(), dateRange.getEndDate(), id
-				)
-				.page(page).list();
+			params.put("id", id.longValue());
+			return where + " AND s.id = :id";
 		} else if (foreignEntity == AttendanceForeignEntity.CLASSROOM) {
-			return Attendance.find(
-				"status IN ?1 AND date BETWEEN ?2 AND ?3 AND student.classroom.id = ?4", sort,
-				attendanceStatus, dateRange.getStartDate(), dateRange.getEndDate(), id
-			).page(page).list();
+			params.put("id", id);
+			return where + " AND s_c.id = :id";
 		}
 
-		return getAllAttendanceByStatusAndDateRange(attendanceStatus, dateRange, page, sort);
+		return where;
 	}
 
 	/**
@@ -615,55 +916,26 @@ public class AttendanceServiceImpl implements AttendanceService {
 	 * @return list of {@link LineChart} objects
 	 */
 	@Override
+	@Timed(value = "ams.attendance.line-chart", extraTags = {"scope", "entity"})
 	public LineChart getLineChart(
 		List<AttendanceStatus> statuses, DateRange dateRange,
 		AttendanceForeignEntity foreignEntity, Long id, TimeStack stack
 	) {
 		log.debug("Called getLineChart");
-		List<String> labels = new ArrayList<>();
-		List<String> data = new ArrayList<>();
-		Map<DateRange, Long> dailyCounts = new TreeMap<>(Comparator.comparing(DateRange::getStartDate));
-
-		LocalDate currentDate = dateRange.getStartDate();
-		while (currentDate.isBefore(dateRange.getEndDate())) {
-			LocalDate nextDate = switch (stack) {
-				case WEEK -> currentDate.plusWeeks(1);
-				case MONTH -> currentDate.plusMonths(1);
-				case YEAR -> currentDate.plusYears(1);
-				default -> currentDate.plusDays(1);
-			};
-
-			DateRange periodRange = new DateRange(currentDate, nextDate);
-			if (!dailyCounts.containsKey(periodRange)) {
-				dailyCounts.put(periodRange, 0L);
-			}
-
-			log.debug("Count total attendance: " + periodRange);
-			long attendances = 0;
-			if (foreignEntity == AttendanceForeignEntity.STUDENT
-				|| foreignEntity == AttendanceForeignEntity.CLASSROOM) {
-				attendances = countTotalByAttendanceByStatus(statuses, periodRange, id, foreignEntity);
-			}
-			dailyCounts.put(periodRange, dailyCounts.get(periodRange) + Math.toIntExact(attendances));
-
-			currentDate = nextDate;
-		}
+		List<DateRange> buckets = getChartBuckets(dateRange, stack);
+		long[] counts = countPerBucket(buckets, statuses, foreignEntity, id);
 
 		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM d");
 		DateTimeFormatter yearFormatter = DateTimeFormatter.ofPattern("yyyy");
 
-		for (Map.Entry<DateRange, Long> entry : dailyCounts.entrySet()) {
-			LocalDate startDate = entry.getKey().getStartDate();
-			LocalDate endDate = entry.getKey().getEndDate().minusDays(1); // Subtract one day to show inclusive range
+		List<String> labels = new ArrayList<>(buckets.size());
+		List<String> data = new ArrayList<>(buckets.size());
+		for (int i = 0; i < buckets.size(); i++) {
+			LocalDate startDate = buckets.get(i).getStartDate();
+			LocalDate endDate = buckets.get(i).getEndDate().minusDays(1); // Subtract one day to show inclusive range
 
 			String label = switch (stack) {
-				case WEEK -> String.format(
-					"%s to %s, %s",
-					startDate.format(formatter),
-					endDate.format(formatter),
-					startDate.format(yearFormatter)
-				);
-				case MONTH -> String.format(
+				case WEEK, MONTH -> String.format(
 					"%s to %s, %s",
 					startDate.format(formatter),
 					endDate.format(formatter),
@@ -678,7 +950,7 @@ public class AttendanceServiceImpl implements AttendanceService {
 			};
 
 			labels.add(label);
-			data.add(entry.getValue().toString());
+			data.add(String.valueOf(counts[i]));
 		}
 
 		return new LineChart(labels, data);
@@ -691,52 +963,128 @@ public class AttendanceServiceImpl implements AttendanceService {
 	 * @return
 	 */
 	@Override
+	@Timed(value = "ams.attendance.line-chart", extraTags = {"scope", "school"})
 	public LineChart getLineChart(List<AttendanceStatus> statuses, DateRange dateRange, TimeStack stack) {
 		log.debug("Called getLineChart, no foreign entity");
-		List<String> labels = new ArrayList<>();
-		List<String> data = new ArrayList<>();
-		Map<LocalDate, Integer> dailyCounts = new TreeMap<>();
+		List<DateRange> buckets = getChartBuckets(dateRange, stack);
+		long[] counts = countPerBucket(buckets, statuses, null, null);
+
+		List<String> labels = new ArrayList<>(buckets.size());
+		List<String> data = new ArrayList<>(buckets.size());
+		for (int i = 0; i < buckets.size(); i++) {
+			// The school-wide chart is labelled with the end of each period.
+			labels.add(buckets.get(i).getEndDate().format(DateTimeFormatter.ofPattern("MMM dd, yyyy")));
+			data.add(String.valueOf(counts[i]));
+		}
+
+		return new LineChart(labels, data);
+	}
 
+	/**
+	 * Splits a date range into chart periods of one {@link TimeStack}, starting from the first day of the range.
+	 * Each period includes its start date and excludes its end date.
+	 *
+	 * @param dateRange range of dates to split
+	 * @param stack     the length of a period
+	 * @return the periods, in order
+	 */
+	private List<DateRange> getChartBuckets(DateRange dateRange, TimeStack stack) {
+		List<DateRange> buckets = new ArrayList<>();
 		LocalDate currentDate = dateRange.getStartDate();
 		while (currentDate.isBefore(dateRange.getEndDate())) {
-			// String date;
-			LocalDate date;
 			LocalDate nextDate = switch (stack) {
-				case WEEK -> {
-					// date = "Week " + currentDate.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR) + ", " +
-					// currentDate.getYear();
-					date = currentDate.plusWeeks(1);
-					yield currentDate.plusWeeks(1);
-				}
-				case MONTH -> {
-					// date = currentDate.getMonth().toString() + ", " + currentDate.getYear();
-					date = currentDate.plusMonths(1);
-					yield currentDate.plusMonths(1);
-				}
-				default -> {
-					// date = currentDate.toString();
-					date = currentDate.plusDays(1);
-					yield currentDate.plusDays(1);
-				}
+				case WEEK -> currentDate.plusWeeks(1);
+				case MONTH -> currentDate.plusMonths(1);
+				case YEAR -> currentDate.plusYears(1);
+				default -> currentDate.plusDays(1);
 			};
 
-			if (!dailyCounts.containsKey(date)) {
-				dailyCounts.put(date, 0);
+			buckets.add(new DateRange(currentDate, nextDate));
+			currentDate = nextDate;
+		}
+		return buckets;
+	}
+
+	/**
+	 * Counts attendances per chart period with a single query grouped by date, then folds the daily counts into the
+	 * periods in memory. Periods made of whole closed months are read from {@link MonthlyAttendanceSummaries}
+	 * instead, so the query only scans the remaining periods. Periods without attendances stay at zero.
+	 *
+	 * @param buckets       the chart periods, in order
+	 * @param statuses      list of {@link AttendanceStatus} to filter by
+	 * @param foreignEntity the student or classroom to filter by, or null for the whole school
+	 * @param id            id of the student or classroom
+	 * @return the count of each period, in the same order as the periods
+	 */
+	private long[] countPerBucket(
+		List<DateRange> buckets, List<AttendanceStatus> statuses,
+		AttendanceForeignEntity foreignEntity, Long id
+	) {
+		long[] counts = new long[buckets.size()];
+		if (buckets.isEmpty()) {
+			return counts;
+		}
+
+		// Periods covering whole closed months come from the summaries; the others are counted live.
+		List<List<YearMonth>> summarizedMonths = new ArrayList<>(buckets.size());
+		List<YearMonth> allSummarizedMonths = new ArrayList<>();
+		LocalDate liveStartDate = null;
+		LocalDate liveEndDate = null;
+		for (DateRange bucket : buckets) {
+			List<YearMonth> months = monthlyAttendanceSummaries.getClosedMonths(bucket.getStartDate(), bucket.getEndDate());
+			boolean summarized = !months.isEmpty()
+				&& months.getFirst().atDay(1).equals(bucket.getStartDate())
+				&& months.getLast().plusMonths(1).atDay(1).equals(bucket.getEndDate());
+			summarizedMonths.add(summarized ? months : List.of());
+			if (summarized) {
+				allSummarizedMonths.addAll(months);
+			} else {
+				liveStartDate = liveStartDate == null ? bucket.getStartDate() : liveStartDate;
+				liveEndDate = bucket.getEndDate();
 			}
+		}
 
-			log.debug("Count total attendance: " + new DateRange(currentDate, nextDate));
-			long attendances = countTotalByAttendanceByStatus(statuses, new DateRange(currentDate, nextDate));
-			dailyCounts.put(date, dailyCounts.get(date) + (int) attendances);
+		if (!allSummarizedMonths.isEmpty()) {
+			Map<YearMonth, Long> monthCounts = monthlyAttendanceSummaries.countPerMonth(allSummarizedMonths, statuses, foreignEntity, id);
+			for (int i = 0; i < buckets.size(); i++) {
+				for (YearMonth month : summarizedMonths.get(i)) {
+					counts[i] += monthCounts.getOrDefault(month, 0L);
+				}
+			}
+		}
+		if (liveStartDate == null) {
+			return counts;
+		}
 
-			currentDate = nextDate;
+		String scope = "";
+		if (foreignEntity == AttendanceForeignEntity.STUDENT) {
+			scope = " AND a.student.id = :id";
+		} else if (foreignEntity == AttendanceForeignEntity.CLASSROOM) {
+			scope = " AND a.student.classroom.id = :id";
 		}
 
-		for (Map.Entry<LocalDate, Integer> entry : dailyCounts.entrySet()) {
-			labels.add(entry.getKey().format(DateTimeFormatter.ofPattern("MMM dd, yyyy")));
-			data.add(entry.getValue().toString());
+		TypedQuery<Object[]> query = Attendance.getEntityManager().createQuery(
+				"SELECT a.date, COUNT(a) FROM Attendance a " +
+					"WHERE a.status IN :statuses AND a.date >= :startDate AND a.date < :endDate" + scope +
+					" GROUP BY a.date", Object[].class
+			)
+			.setParameter("statuses", statuses)
+			.setParameter("startDate", liveStartDate)
+			.setParameter("endDate", liveEndDate);
+		if (!scope.isEmpty()) {
+			query.setParameter("id", foreignEntity == AttendanceForeignEntity.CLASSROOM ? id.intValue() : id);
 		}
 
-		return new LineChart(labels, data);
+		List<LocalDate> bucketStarts = buckets.stream().map(DateRange::getStartDate).toList();
+		for (Object[] row : query.getResultList()) {
+			int bucket = Collections.binarySearch(bucketStarts, (LocalDate) row[0]);
+			// A date inside a period is found at its insertion point, right after the period's start.
+			bucket = bucket >= 0 ? bucket : -bucket - 2;
+			if (summarizedMonths.get(bucket).isEmpty()) {
+				counts[bucket] += (Long) row[1];
+			}
+		}
+		return counts;
 	}
 
 	/**
@@ -757,23 +1105,17 @@ public class AttendanceServiceImpl implements AttendanceService {
 		if (foreignEntity == AttendanceForeignEntity.STUDENT) {
 			log.debug("Student: " + foreignEntity);
 			return Attendance.count(
-				"status IN ?1 BETWEEN ?2 AND ?3 AND student.id = ?4", statuses,
+				"status IN ?1 AND date BETWEEN ?2 AND ?3 AND student.id = ?4", statuses,
 				dateRange.getStartDate(),
 				dateRange.getEndDate(), id
 			);
 		} else if (foreignEntity == AttendanceForeignEntity.CLASSROOM) {
 			log.debug("Classroom: " + foreignEntity);
-			return Attendance.count(
-				"status IN ?1 BETWEEN ?2 AND ?3 AND classroom.id = ?4", statuses,
-				dateRange.getStartDate(), dateRange.getEndDate(), id
-			);
+			return dailyAttendanceCounts.count(dateRange, statuses, id, null, null, sexes);
 		}
 
 		log.debug("All: " + dateRange);
-		return Attendance.count(
-			"status IN ?1 BETWEEN ?2 AND ?3", statuses, dateRange.getStartDate(),
-			dateRange.getEndDate()
-		);
+		return dailyAttendanceCounts.count(dateRange, statuses, null, null, null, sexes);
 	}
 
 	/**
@@ -787,10 +1129,7 @@ public class AttendanceServiceImpl implements AttendanceService {
 	@Override
 	public long countAttendances(DateRange dateRange, List<AttendanceStatus> statuses, List<Sex> sexes) {
 		log.debug("Count total attendance: " + dateRange);
-		return Attendance.count(
-			"status IN ?1 BETWEEN ?2 AND ?3", statuses, dateRange.getStartDate(),
-			dateRange.getEndDate()
-		);
+		return dailyAttendanceCounts.count(dateRange, statuses, null, null, null, sexes);
 	}
 
 	/**
@@ -802,7 +1141,7 @@ public class AttendanceServiceImpl implements AttendanceService {
 	@Override
 	public long countAttendancesInClass(Long classroomId) {
 		log.debug("Count total attendance in class: " + classroomId);
-		return Attendance.count("classroom.id = ?1", classroomId);
+		return dailyAttendanceCounts.count(null, null, classroomId.intValue(), null, null, null);
 	}
 
 	/**
@@ -830,37 +1169,90 @@ public class AttendanceServiceImpl implements AttendanceService {
 		return Attendance.count("student.id = ?1", studentId);
 	}
 
+	/**
+	 * Get the compact attendance history of a student for one school year, read from
+	 * {@link StudentAttendanceHistories}
+	 *
+	 * @param studentId     student id
+	 * @param date          any date of the school year
+	 * @param includeTimeIn whether to include the time in of every day
+	 * @return the history, or empty if the student has no attendance in that school year
+	 */
 	@Override
-	public List<Attendance> getFilteredAttendances(
+	public Optional<StudentAttendanceHistory> getStudentAttendanceHistory(Long studentId, LocalDate date, boolean includeTimeIn) {
+		log.debug("Get student attendance history: " + studentId + " (" + date + ")");
+		return studentAttendanceHistories.get(studentId, date, includeTimeIn);
+	}
+
+	@Override
+	public List<AttendanceDTO> getFilteredAttendances(
 		DateRange dateRange, Integer classroomId, Integer gradeLevelId,
 		Integer strandId, Long studentId, Page page, Sort sort
 	) {
 		Map<String, Object> params = new HashMap<>();
-		StringBuilder query = new StringBuilder("date BETWEEN :startDate AND :endDate");
+		String where = filteredConditions(dateRange, classroomId, gradeLevelId, strandId, studentId, params);
+		return AttendanceProjection.list(where, params, sort, page);
+	}
+
+	@Override
+	public CursorPage<AttendanceDTO> getFilteredAttendances(
+		DateRange dateRange, Integer classroomId, Integer gradeLevelId,
+		Integer strandId, Long studentId, String cursor, int size, Sort.Direction direction
+	) {
+		Map<String, Object> params = new HashMap<>();
+		String where = filteredConditions(dateRange, classroomId, gradeLevelId, strandId, studentId, params);
+		return AttendanceProjection.seek(where, params, cursor, size, direction);
+	}
+
+	/**
+	 * Streams the filtered attendance to an output, read through {@link AttendanceExporter}
+	 *
+	 * @param format format of the export
+	 * @param output stream to write the export to
+	 * @throws IOException if the output cannot be written
+	 */
+	@Override
+	public void exportFilteredAttendances(
+		DateRange dateRange, Integer classroomId, Integer gradeLevelId,
+		Integer strandId, Long studentId, AttendanceExportFormat format, OutputStream output
+	) throws IOException {
+		Map<String, Object> params = new HashMap<>();
+		String where = filteredConditions(dateRange, classroomId, gradeLevelId, strandId, studentId, params);
+		attendanceExporter.export(where, params, format, output);
+	}
+
+	/**
+	 * Builds the conditions of the filtered attendance listing, filling in their parameters.
+	 */
+	private String filteredConditions(
+		DateRange dateRange, Integer classroomId, Integer gradeLevelId,
+		Integer strandId, Long studentId, Map<String, Object> params
+	) {
+		StringBuilder query = new StringBuilder("a.date BETWEEN :startDate AND :endDate");
 		params.put("startDate", dateRange.getStartDate());
 		params.put("endDate", dateRange.getEndDate());
 
 		if (classroomId != null) {
-			query.append(" and student.classroom.id = :classroomId");
+			query.append(" and s_c.id = :classroomId");
 			params.put("classroomId", classroomId);
 		}
 
 		if (gradeLevelId != null) {
-			query.append(" and student.gradeLevel.id = :gradeLevelId");
+			query.append(" and s_g.id = :gradeLevelId");
 			params.put("gradeLevelId", gradeLevelId);
 		}
 
 		if (strandId != null) {
-			query.append(" and student.strand.id = :strandId");
+			query.append(" and s_st.id = :strandId");
 			params.put("strandId", strandId);
 		}
 
 		if (studentId != null) {
-			query.append(" and student.id = :studentId");
+			query.append(" and s.id = :studentId");
 			params.put("studentId", studentId);
 		}
 
-		return Attendance.find(query.toString(), sort, params).page(page).list();
+		return query.toString();
 	}
 
 	@Override
@@ -868,6 +1260,10 @@ public class AttendanceServiceImpl implements AttendanceService {
 		DateRange dateRange, Integer classroomId, Integer gradeLevelId, Integer strandId,
 		Long studentId
 	) {
+		if (studentId == null) {
+			return dailyAttendanceCounts.count(dateRange, null, classroomId, gradeLevelId, strandId, null);
+		}
+
 		Map<String, Object> params = new HashMap<>();
 		StringBuilder query = new StringBuilder("date BETWEEN :startDate AND :endDate");
 		params.put("startDate", dateRange.getStartDate());
@@ -896,66 +1292,73 @@ public class AttendanceServiceImpl implements AttendanceService {
 		return Attendance.count(query.toString(), params);
 	}
 
+	/**
+	 * Ranks classrooms by present attendances (on time or late) per enrolled student.
+	 * <p>
+	 * Enrollment and attendance counts come from one aggregate query. Whole closed months of the range are counted
+	 * from {@link MonthlyAttendanceSummaries} and left out of that query. Classrooms without students are left out, and
+	 * classrooms with the same rate share a rank. Results are cached per date range and limit for the time configured
+	 * in {@code quarkus.cache.caffeine."classroom-ranking".expire-after-write}.
+	 *
+	 * @param dateRange range of dates to count attendances in
+	 * @param limit     maximum number of classrooms to return, or null for all of them
+	 * @return the ranked classrooms, best first
+	 */
 	@Override
+	@CacheResult(cacheName = "classroom-ranking")
 	public List<ClassroomRankingDTO> getClassroomRanking(DateRange dateRange, Integer limit) {
 		log.debug("Classroom Ranking Date range: " + dateRange);
-		// Get all classrooms
-		List<Classroom> classrooms = Classroom.listAll();
-
-		// Create list to store rankings
-		List<ClassroomRankingDTO> rankings = new ArrayList<>();
-
-		// Calculate attendance rate for each classroom
-		for (Classroom classroom : classrooms) {
-			// Get total number of students in classroom
-			long totalStudents = classroom.getStudents().size();
-
-			if (totalStudents > 0) { // Only include classrooms with students
-				// Count total attendance for this classroom in date range
-				long totalAttendance = Attendance.count(
-					"student.classroom.id = ?1 AND date BETWEEN ?2 AND ?3 AND status in ?4",
-					classroom.getId(), dateRange.getStartDate(), dateRange.getEndDate(),
-					Arrays.asList(AttendanceStatus.ON_TIME, AttendanceStatus.LATE)
-				);
-				log.debug("Total attendance: " + totalAttendance);
-
-				// Calculate attendance rate (attendance per student)
-				double attendanceRate = (double) totalAttendance / totalStudents;
-				log.debug("Attendance rate: " + attendanceRate);
-				// Create ranking DTO
-				ClassroomRankingDTO rankingDTO = new ClassroomRankingDTO()
-					.setClassroomId(classroom.getId())
-					.setClassroomName(classroom.getClassroomName())
-					.setRoom(classroom.getRoom())
-					.setTotalAttendance(totalAttendance)
-					.setAttendanceRate(attendanceRate);
-				log.debug("Ranking: " + rankingDTO);
-
-				rankings.add(rankingDTO);
-			}
+		List<AttendanceStatus> present = List.of(AttendanceStatus.ON_TIME, AttendanceStatus.LATE);
+		List<YearMonth> summarizedMonths = monthlyAttendanceSummaries.getClosedMonths(
+			dateRange.getStartDate(), dateRange.getEndDate().plusDays(1));
+		Map<Integer, Long> summarized = monthlyAttendanceSummaries.countPerClassroom(summarizedMonths, present);
+
+		// Live attendances are counted before and after the summarized months; without any, the second window is empty.
+		LocalDate summaryStartDate = summarizedMonths.isEmpty() ? dateRange.getEndDate().plusDays(1) : summarizedMonths.getFirst().atDay(1);
+		LocalDate summaryEndDate = summarizedMonths.isEmpty() ? dateRange.getEndDate() : summarizedMonths.getLast().atEndOfMonth();
+		List<Object[]> rows = Attendance.getEntityManager().createQuery(
+				"SELECT c.id, c.classroomName, c.room, COUNT(DISTINCT s.id), COUNT(a.id) " +
+					"FROM Classroom c JOIN c.students s " +
+					"LEFT JOIN Attendance a ON a.student = s AND a.status IN :statuses " +
+					"AND (a.date >= :startDate AND a.date < :summaryStartDate OR a.date > :summaryEndDate AND a.date <= :endDate) " +
+					"GROUP BY c.id, c.classroomName, c.room", Object[].class
+			)
+			.setParameter("startDate", dateRange.getStartDate())
+			.setParameter("summaryStartDate", summaryStartDate)
+			.setParameter("summaryEndDate", summaryEndDate)
+			.setParameter("endDate", dateRange.getEndDate())
+			.setParameter("statuses", present)
+			.getResultList();
+		for (Object[] row : rows) {
+			row[4] = (Long) row[4] + summarized.getOrDefault((Integer) row[0], 0L);
 		}
 
-		// Sort by attendance rate in descending order
-		rankings.sort((a, b) -> Double.compare(b.getAttendanceRate(), a.getAttendanceRate()));
+		// Attendance rate is attendance per student; sort the rows by it before building any DTO.
+		rows.sort(Comparator.comparingDouble((Object[] row) -> (Long) row[4] / (double) (Long) row[3]).reversed());
+		int size = limit != null && limit > 0 ? Math.min(limit, rows.size()) : rows.size();
 
-		// Assign ranks (handle ties by giving same rank)
-		int currentRank = 1;
+		// Assign ranks in one pass (ties share the rank of the first classroom with that rate)
+		List<ClassroomRankingDTO> rankings = new ArrayList<>(size);
+		int currentRank = 0;
 		double previousRate = -1;
-
-		for (ClassroomRankingDTO ranking : rankings) {
-			if (ranking.getAttendanceRate() != previousRate) {
-				currentRank = rankings.indexOf(ranking) + 1;
+		for (int i = 0; i < size; i++) {
+			Object[] row = rows.get(i);
+			long totalAttendance = (Long) row[4];
+			double attendanceRate = totalAttendance / (double) (Long) row[3];
+			if (attendanceRate != previousRate) {
+				currentRank = i + 1;
+				previousRate = attendanceRate;
 			}
-			ranking.setRank(currentRank);
-			previousRate = ranking.getAttendanceRate();
-		}
 
-		// Limit results if specified
-		if (limit != null && limit > 0) {
-			return rankings.stream()
-				.limit(limit)
-				.collect(Collectors.toList());
+			rankings.add(new ClassroomRankingDTO()
+				.setClassroomId((Integer) row[0])
+				.setClassroomName((String) row[1])
+				.setRoom((String) row[2])
+				.setTotalAttendance(totalAttendance)
+				.setAttendanceRate(attendanceRate)
+				.setRank(currentRank));
 		}
+
 		log.debug("Rankings: " + rankings);
 		return rankings;
 	}
@@ -969,6 +1372,8 @@ public class AttendanceServiceImpl implements AttendanceService {
 			throw new NotFoundException("Attendance record not found");
 		}
 
+		LocalDate previousDate = attendance.getDate();
+
 		// Update only the allowed fields
 		attendance.setStatus(attendanceDTO.getStatus());
 		attendance.setNotes(attendanceDTO.getNotes());
@@ -978,6 +1383,15 @@ public class AttendanceServiceImpl implements AttendanceService {
 
 		// Persist changes
 		attendance.persist();
+		if (attendance.getStudent() != null) {
+			Long studentId = attendance.getStudent().getId();
+			if (!Objects.equals(previousDate, attendance.getDate())) {
+				todayAttendanceCache.evict(studentId, previousDate);
+				monthlyAttendanceSummaries.touch(studentId, previousDate);
+			}
+			todayAttendanceCache.record(studentId, attendance);
+			monthlyAttendanceSummaries.touch(studentId, attendance.getDate());
+		}
 
 		return attendance;
 	}
@@ -1006,6 +1420,54 @@ public class AttendanceServiceImpl implements AttendanceService {
 			.list();
 	}
 
+	@Override
+	@Transactional
+	public int markAbsentStudents(LocalDate date, LocalTime time) {
+		return markAbsentStudents(date, "sc.absent_time <= :cutoff", time);
+	}
+
+	@Override
+	@Transactional
+	public int markAbsentStudents(LocalDate date, Collection<Integer> scheduleIds) {
+		if (scheduleIds.isEmpty()) {
+			return 0;
+		}
+
+		return markAbsentStudents(date, "sc.id IN (:cutoff)", scheduleIds);
+	}
+
+	private int markAbsentStudents(LocalDate date, String scheduleCondition, Object cutoff) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+
+		// Set-based and idempotent: students that already have an attendance for the day are skipped.
+		@SuppressWarnings("unchecked")
+		List<Object[]> created = Attendance.getEntityManager().createNativeQuery(
+				"INSERT INTO attendances (status, date, time_in, time_out, student_id) " +
+					"SELECT 'ABSENT', :date, NULL, NULL, s.id FROM students s " +
+					"JOIN student_schedules sc ON sc.id = s.student_schedule_id " +
+					"WHERE " + scheduleCondition + " " +
+					"AND NOT EXISTS (SELECT 1 FROM attendances a WHERE a.student_id = s.id AND a.date = :date) " +
+					"ON CONFLICT DO NOTHING " +
+					"RETURNING id, student_id"
+			)
+			.setParameter("date", date)
+			.setParameter("cutoff", cutoff)
+			.getResultList();
+
+		Map<Long, AttendanceState> states = new HashMap<>();
+		for (Object[] row : created) {
+			states.put(((Number) row[1]).longValue(),
+				new AttendanceState(((Number) row[0]).intValue(), AttendanceStatus.ABSENT, null, null));
+		}
+		todayAttendanceCache.record(date, states);
+		monthlyAttendanceSummaries.touch(YearMonth.from(date), states.keySet());
+
+		long elapsed = sample.stop(meterRegistry.timer("ams.attendance.absences.mark"));
+		meterRegistry.counter("ams.attendance.absences.created").increment(created.size());
+		log.info("Marked " + created.size() + " students absent for " + date + " in " + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms");
+		return created.size();
+	}
+
 	@Override
 	public long countLastHourAttendance(List<AttendanceStatus> attendanceStatuses) throws IllegalArgumentException {
 		if (attendanceStatuses == null || attendanceStatuses.isEmpty()) {
@@ -0,0 +1,564 @@
+package com.pshs.ams.app.attendances.impl;
+
+import com.pshs.ams.app.attendances.models.dto.AttendanceDTO;
+import com.pshs.ams.app.attendances.models.dto.AttendanceState;
+import com.pshs.ams.app.attendances.models.dto.PendingAttendanceWrite;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Time;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind pipeline for scan-generated attendances.
+ * <p>
+ * When {@code attendance.write-behind.enabled} is set, scans are validated and acknowledged from memory and their
+ * writes are queued here. A single drainer thread flushes the queue in JDBC batches once either
+ * {@code attendance.write-behind.batch-size} writes are pending or {@code attendance.write-behind.max-latency} has
+ * passed since the first pending write. When the queue is full, {@link #offer(PendingAttendanceWrite)} waits up to
+ * {@code attendance.write-behind.offer-timeout} before rejecting the scan, so the scanner can tell the student to
+ * tap again instead of the server running out of memory.
+ * <p>
+ * A flush that fails because the database cannot be reached is retried up to
+ * {@code attendance.write-behind.max-retries} times, waiting {@code attendance.write-behind.retry-backoff} before
+ * the first retry and twice as long before each following one. A write that still cannot be written, or that the
+ * database rejects, is given up: the scan's entry in {@link TodayAttendanceCache} is undone so the student's next
+ * tap is handled again, and the write is logged as an error.
+ */
+@ApplicationScoped
+public class AttendanceWriteBehind {
+
+	private static final String INSERT_SQL = "INSERT INTO attendances (status, date, time_in, time_out, notes, student_id) " +
+		"SELECT ?, ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM attendances WHERE student_id = ? AND date = ?)";
+
+	private static final String[] ID_COLUMN = {"id"};
+
+	private static final String UPDATE_SQL = "UPDATE attendances SET status = ?, time_out = ?, notes = COALESCE(?, notes) " +
+		"WHERE student_id = ? AND date = ?";
+
+	private static final String PROMOTE_SQL = "UPDATE attendances SET status = ?, time_in = ?, time_out = ?, " +
+		"notes = COALESCE(?, notes) WHERE student_id = ? AND date = ? AND status = 'ABSENT' RETURNING id";
+
+	private static final String SELECT_SQL = "SELECT id, status, time_in, time_out FROM attendances " +
+		"WHERE student_id = ? AND date = ?";
+
+	@Inject
+	Logger logger;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@Inject
+	DataSource dataSource;
+
+	@Inject
+	RealTimeAttendanceService realTimeAttendanceService;
+
+	@Inject
+	TodayAttendanceCache todayAttendanceCache;
+
+	@ConfigProperty(name = "attendance.write-behind.enabled", defaultValue = "false")
+	boolean enabled;
+
+	@ConfigProperty(name = "attendance.write-behind.queue-capacity", defaultValue = "10000")
+	int queueCapacity;
+
+	@ConfigProperty(name = "attendance.write-behind.batch-size", defaultValue = "200")
+	int batchSize;
+
+	@ConfigProperty(name = "attendance.write-behind.max-latency", defaultValue = "PT0.1S")
+	Duration maxLatency;
+
+	@ConfigProperty(name = "attendance.write-behind.offer-timeout", defaultValue = "PT0.05S")
+	Duration offerTimeout;
+
+	@ConfigProperty(name = "attendance.write-behind.max-retries", defaultValue = "5")
+	int maxRetries;
+
+	@ConfigProperty(name = "attendance.write-behind.retry-backoff", defaultValue = "PT0.2S")
+	Duration retryBackoff;
+
+	private BlockingQueue<PendingAttendanceWrite> queue;
+	private Thread drainer;
+	private volatile boolean running;
+
+	/**
+	 * Offers hold the read lock and the shutdown switch the write lock, so no offer can succeed once the switch is
+	 * off and every acknowledged write is already in the queue when {@link #onStop(ShutdownEvent)} drains it.
+	 */
+	private final ReadWriteLock offerLock = new ReentrantReadWriteLock();
+
+	private Timer flushTimer;
+	private Counter rejected;
+	private Counter failed;
+
+	void onStart(@Observes StartupEvent event) {
+		if (!enabled) {
+			return;
+		}
+
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		flushTimer = meterRegistry.timer("ams.attendance.write-behind.flush");
+		rejected = meterRegistry.counter("ams.attendance.write-behind.rejected");
+		failed = meterRegistry.counter("ams.attendance.write-behind.failed");
+		meterRegistry.gaugeCollectionSize("ams.attendance.write-behind.queue.depth", List.of(), queue);
+
+		running = true;
+		drainer = Thread.ofPlatform().name("attendance-write-behind").daemon().start(this::drain);
+		logger.info("Attendance write-behind enabled (batch size " + batchSize + ", max latency " + maxLatency.toMillis() + "ms)");
+	}
+
+	void onStop(@Observes ShutdownEvent event) {
+		if (!enabled) {
+			return;
+		}
+
+		offerLock.writeLock().lock();
+		try {
+			running = false;
+		} finally {
+			offerLock.writeLock().unlock();
+		}
+		try {
+			drainer.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		// Whatever the drainer did not get to is flushed here, so acknowledged scans are never lost.
+		List<PendingAttendanceWrite> remaining = new ArrayList<>();
+		queue.drainTo(remaining);
+		while (!remaining.isEmpty()) {
+			List<PendingAttendanceWrite> batch = remaining.subList(0, Math.min(batchSize, remaining.size()));
+			flushWithRetries(new ArrayList<>(batch));
+			batch.clear();
+		}
+		logger.info("Attendance write-behind stopped");
+	}
+
+	/**
+	 * @return whether scans should be buffered instead of written synchronously
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Queues a write, waiting up to the configured offer timeout when the queue is full.
+	 *
+	 * @param write the write to queue
+	 * @return false if the write was rejected because the queue is full or the pipeline is shutting down
+	 */
+	public boolean offer(PendingAttendanceWrite write) {
+		offerLock.readLock().lock();
+		try {
+			if (running && queue.offer(write, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+				return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			offerLock.readLock().unlock();
+		}
+
+		rejected.increment();
+		return false;
+	}
+
+	private void drain() {
+		List<PendingAttendanceWrite> batch = new ArrayList<>(batchSize);
+		while (running) {
+			try {
+				// Poll rather than block indefinitely so the drainer notices when the application shuts down.
+				PendingAttendanceWrite first = queue.poll(maxLatency.toNanos(), TimeUnit.NANOSECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+
+				long deadline = System.nanoTime() + maxLatency.toNanos();
+				while (batch.size() < batchSize) {
+					long remaining = deadline - System.nanoTime();
+					if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+						if (remaining <= 0) {
+							break;
+						}
+						PendingAttendanceWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+						if (next == null) {
+							break;
+						}
+						batch.add(next);
+					}
+				}
+			} catch (InterruptedException e) {
+				// Flush what was already taken from the queue; onStop handles the rest.
+				logger.debug("Attendance write-behind drainer interrupted");
+				running = false;
+			}
+
+			if (!batch.isEmpty()) {
+				flushWithRetries(batch);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+	}
+
+	/**
+	 * Flushes a batch, retrying with backoff the writes that failed because the database could not be reached.
+	 * The batch stays with the drainer while it is retried, so new writes wait in the queue behind it.
+	 */
+	private void flushWithRetries(List<PendingAttendanceWrite> batch) {
+		long backoff = retryBackoff.toMillis();
+		for (int attempt = 0; !batch.isEmpty(); attempt++) {
+			if (attempt > 0) {
+				logger.warn("Retrying " + batch.size() + " attendance writes in " + backoff + "ms (attempt " + attempt + " of " + maxRetries + ")");
+				try {
+					Thread.sleep(backoff);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					batch.forEach(write -> giveUp(write, "interrupted while waiting to retry"));
+					return;
+				}
+				backoff *= 2;
+			}
+
+			batch = flush(batch);
+			if (!batch.isEmpty() && attempt >= maxRetries) {
+				batch.forEach(write -> giveUp(write, "database unreachable after " + maxRetries + " retries"));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the writes to retry because the database could not be reached
+	 */
+	private List<PendingAttendanceWrite> flush(List<PendingAttendanceWrite> batch) {
+		Map<PendingAttendanceWrite, Integer> written = new LinkedHashMap<>();
+		List<PendingAttendanceWrite> givenUp = new ArrayList<>();
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setAutoCommit(false);
+			try {
+				WriteOutcome outcome = write(connection, batch);
+				connection.commit();
+				settle(outcome);
+				written.putAll(outcome.ids);
+				givenUp.addAll(outcome.conflicts.keySet());
+			} catch (SQLException e) {
+				connection.rollback();
+				if (isUnreachable(e)) {
+					throw e;
+				}
+				logger.warn("Batched attendance flush failed, retrying " + batch.size() + " writes one by one: " + e.getMessage());
+				writeIndividually(connection, batch, written, givenUp);
+			}
+		} catch (SQLException e) {
+			logger.warn("Unable to flush " + (batch.size() - written.size() - givenUp.size()) + " attendance writes: " + e.getMessage());
+		} finally {
+			sample.stop(flushTimer);
+		}
+
+		broadcast(written);
+		List<PendingAttendanceWrite> retry = new ArrayList<>(batch);
+		retry.removeAll(written.keySet());
+		retry.removeAll(givenUp);
+		return retry;
+	}
+
+	/**
+	 * Writes a batch one write per transaction, giving up the writes the database rejects.
+	 *
+	 * @throws SQLException if the database cannot be reached, leaving the remaining writes to be retried
+	 */
+	private void writeIndividually(Connection connection, List<PendingAttendanceWrite> batch,
+	                               Map<PendingAttendanceWrite, Integer> written, List<PendingAttendanceWrite> givenUp) throws SQLException {
+		for (PendingAttendanceWrite write : batch) {
+			try {
+				WriteOutcome outcome = write(connection, List.of(write));
+				connection.commit();
+				settle(outcome);
+				written.putAll(outcome.ids);
+				givenUp.addAll(outcome.conflicts.keySet());
+			} catch (SQLException e) {
+				connection.rollback();
+				if (isUnreachable(e)) {
+					throw e;
+				}
+				giveUp(write, e.getMessage());
+				givenUp.add(write);
+			}
+		}
+	}
+
+	/**
+	 * @return whether an exception means the database could not be reached, rather than that it rejected a write
+	 */
+	private boolean isUnreachable(SQLException e) {
+		return e instanceof SQLTransientException || e instanceof SQLRecoverableException ||
+			(e.getSQLState() != null && e.getSQLState().startsWith("08"));
+	}
+
+	/**
+	 * Undoes the cache entry of a write that will never reach the database, so the student's next tap is handled
+	 * again instead of being answered from the lost state.
+	 */
+	private void giveUp(PendingAttendanceWrite write, String reason) {
+		failed.increment();
+		if (write.getPrevious() == null) {
+			todayAttendanceCache.remove(write.getStudentId(), write.getState());
+		} else {
+			todayAttendanceCache.replace(write.getStudentId(), write.getState(), write.getPrevious());
+		}
+		logger.error("Lost " + write.getType() + " attendance write of student " + write.getStudentId() + " on " +
+			write.getDate() + " (" + write.getStatus() + "): " + reason);
+	}
+
+	/**
+	 * Inserts run before updates, since an update in the same batch can only refer to a row inserted earlier.
+	 * <p>
+	 * An insert writes nothing when the student already has an attendance for the date. If that attendance is the
+	 * ABSENT row of the absence job, which ran between the scan and the flush, it is promoted to the scanned state;
+	 * otherwise the write is a conflict and is dropped, along with the updates of the same student that followed it.
+	 * An update that finds no attendance to update is a conflict as well.
+	 *
+	 * @return the ids of the written attendances and the promoted and conflicting writes, to settle once the
+	 * transaction commits
+	 */
+	private WriteOutcome write(Connection connection, List<PendingAttendanceWrite> batch) throws SQLException {
+		WriteOutcome outcome = new WriteOutcome();
+		List<PendingAttendanceWrite> inserts = new ArrayList<>();
+		List<PendingAttendanceWrite> updates = new ArrayList<>();
+		for (PendingAttendanceWrite write : batch) {
+			(write.getType() == PendingAttendanceWrite.Type.INSERT ? inserts : updates).add(write);
+		}
+
+		if (!inserts.isEmpty()) {
+			try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL, ID_COLUMN)) {
+				for (PendingAttendanceWrite write : inserts) {
+					insert.setString(1, write.getStatus().name());
+					insert.setDate(2, Date.valueOf(write.getDate()));
+					setTime(insert, 3, write.getTimeIn());
+					setTime(insert, 4, write.getTimeOut());
+					insert.setString(5, write.getNotes());
+					insert.setLong(6, write.getStudentId());
+					insert.setLong(7, write.getStudentId());
+					insert.setDate(8, Date.valueOf(write.getDate()));
+					insert.addBatch();
+				}
+
+				List<PendingAttendanceWrite> missing = readIds(insert, inserts, outcome);
+				for (PendingAttendanceWrite write : missing) {
+					promoteOrConflict(connection, write, outcome);
+				}
+			}
+		}
+
+		if (!updates.isEmpty()) {
+			try (PreparedStatement update = connection.prepareStatement(UPDATE_SQL, ID_COLUMN)) {
+				List<PendingAttendanceWrite> added = new ArrayList<>(updates.size());
+				for (PendingAttendanceWrite write : updates) {
+					PendingAttendanceWrite conflict = outcome.conflictOf(write);
+					if (conflict != null) {
+						outcome.conflicts.put(write, outcome.conflicts.get(conflict));
+						continue;
+					}
+
+					update.setString(1, write.getStatus().name());
+					setTime(update, 2, write.getTimeOut());
+					update.setString(3, write.getNotes());
+					update.setLong(4, write.getStudentId());
+					update.setDate(5, Date.valueOf(write.getDate()));
+					update.addBatch();
+					added.add(write);
+				}
+
+				if (!added.isEmpty()) {
+					for (PendingAttendanceWrite write : readIds(update, added, outcome)) {
+						outcome.conflicts.put(write, select(connection, write));
+					}
+				}
+			}
+		}
+		return outcome;
+	}
+
+	/**
+	 * Runs a batch, reading the id of the attendance each write produced.
+	 *
+	 * @param statement the statement, prepared to return the id column
+	 * @param writes    the writes of the batch, in order
+	 * @return the writes that wrote nothing
+	 */
+	private List<PendingAttendanceWrite> readIds(PreparedStatement statement, List<PendingAttendanceWrite> writes,
+	                                             WriteOutcome outcome) throws SQLException {
+		int[] counts = statement.executeBatch();
+		List<PendingAttendanceWrite> missing = new ArrayList<>();
+		try (ResultSet ids = statement.getGeneratedKeys()) {
+			for (int i = 0; i < counts.length; i++) {
+				// SUCCESS_NO_INFO means the row was written without a count; only 0 means nothing was written.
+				if (counts[i] == 0) {
+					missing.add(writes.get(i));
+				} else {
+					outcome.ids.put(writes.get(i), ids.next() ? ids.getInt(1) : null);
+				}
+			}
+		}
+		return missing;
+	}
+
+	/**
+	 * Promotes the ABSENT row of a student that an insert found, or records the insert as a conflict with the
+	 * attendance that is actually saved.
+	 */
+	private void promoteOrConflict(Connection connection, PendingAttendanceWrite write, WriteOutcome outcome) throws SQLException {
+		try (PreparedStatement promote = connection.prepareStatement(PROMOTE_SQL)) {
+			promote.setString(1, write.getStatus().name());
+			setTime(promote, 2, write.getTimeIn());
+			setTime(promote, 3, write.getTimeOut());
+			promote.setString(4, write.getNotes());
+			promote.setLong(5, write.getStudentId());
+			promote.setDate(6, Date.valueOf(write.getDate()));
+			try (ResultSet promoted = promote.executeQuery()) {
+				if (promoted.next()) {
+					outcome.promoted.add(write);
+					outcome.ids.put(write, promoted.getInt(1));
+					return;
+				}
+			}
+		}
+
+		outcome.conflicts.put(write, select(connection, write));
+	}
+
+	/**
+	 * @return the attendance actually saved for the student and date of a write, or null if there is none
+	 */
+	private AttendanceState select(Connection connection, PendingAttendanceWrite write) throws SQLException {
+		try (PreparedStatement select = connection.prepareStatement(SELECT_SQL)) {
+			select.setLong(1, write.getStudentId());
+			select.setDate(2, Date.valueOf(write.getDate()));
+			try (ResultSet row = select.executeQuery()) {
+				if (!row.next()) {
+					return null;
+				}
+
+				Time timeIn = row.getTime(3);
+				Time timeOut = row.getTime(4);
+				return new AttendanceState(row.getInt(1), AttendanceStatus.valueOf(row.getString(2)),
+					timeIn == null ? null : timeIn.toLocalTime(), timeOut == null ? null : timeOut.toLocalTime());
+			}
+		}
+	}
+
+	/**
+	 * Corrects the cache for the writes that did not go as the scan expected, once their transaction committed.
+	 */
+	private void settle(WriteOutcome outcome) {
+		for (PendingAttendanceWrite write : outcome.promoted) {
+			logger.debug("Promoted the absence of student " + write.getStudentId() + " on " + write.getDate() + " to " + write.getStatus());
+			if (LocalDate.now().equals(write.getDate())) {
+				// The absence job records ABSENT in the cache after it commits, over the state of the scan.
+				todayAttendanceCache.replaceStatus(write.getStudentId(), AttendanceStatus.ABSENT, write.getState());
+			}
+		}
+
+		outcome.conflicts.forEach((write, actual) -> {
+			failed.increment();
+			if (LocalDate.now().equals(write.getDate())) {
+				if (actual == null) {
+					todayAttendanceCache.remove(write.getStudentId(), write.getState());
+				} else {
+					todayAttendanceCache.put(write.getStudentId(), actual);
+				}
+			}
+			logger.error("Dropped " + write.getType() + " attendance write of student " + write.getStudentId() + " on " +
+				write.getDate() + " (" + write.getStatus() + "): " +
+				(actual == null ? "no attendance to update" : "already recorded as " + actual.getStatus()));
+		});
+	}
+
+	private void setTime(PreparedStatement statement, int index, LocalTime time) throws SQLException {
+		if (time == null) {
+			statement.setNull(index, Types.TIME);
+		} else {
+			statement.setTime(index, Time.valueOf(time));
+		}
+	}
+
+	/**
+	 * Publishes flushed writes to the real-time dashboard.
+	 */
+	private void broadcast(Map<PendingAttendanceWrite, Integer> written) {
+		for (Map.Entry<PendingAttendanceWrite, Integer> entry : written.entrySet()) {
+			PendingAttendanceWrite write = entry.getKey();
+			realTimeAttendanceService.publish(new AttendanceDTO()
+				.setId(entry.getValue())
+				.setStatus(write.getStatus())
+				.setDate(write.getDate())
+				.setTimeIn(write.getTimeIn())
+				.setTimeOut(write.getTimeOut())
+				.setNotes(write.getNotes()), write.getStudentId());
+		}
+	}
+
+	/**
+	 * What the writes of a transaction did, for the ones that did not go as the scan expected.
+	 */
+	private static final class WriteOutcome {
+
+		/**
+		 * The written writes, in batch order, with the id of their attendance.
+		 */
+		private final Map<PendingAttendanceWrite, Integer> ids = new LinkedHashMap<>();
+
+		private final List<PendingAttendanceWrite> promoted = new ArrayList<>();
+
+		/**
+		 * The conflicting writes, with the attendance actually saved, or null if there is none anymore.
+		 */
+		private final Map<PendingAttendanceWrite, AttendanceState> conflicts = new HashMap<>();
+
+		/**
+		 * @return the earlier conflicting write of the same student and date, or null if there is none
+		 */
+		private PendingAttendanceWrite conflictOf(PendingAttendanceWrite write) {
+			for (PendingAttendanceWrite conflict : conflicts.keySet()) {
+				if (conflict.getStudentId().equals(write.getStudentId()) && conflict.getDate().equals(write.getDate())) {
+					return conflict;
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.pshs.ams.app.attendances.impl;
+
+import com.pshs.ams.app.attendances.models.entities.Attendance;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.global.models.custom.DateRange;
+import com.pshs.ams.global.models.enums.Sex;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Query;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Attendance counts read from {@code daily_attendance_counts}, the per-day rollup of {@code attendances} by
+ * classroom, grade level, strand, sex and status.
+ * <p>
+ * The rollup is maintained by database triggers on every write to {@code attendances}, whichever path it comes
+ * from, and follows students that change classroom, grade level, strand or sex. Counting a range therefore reads a
+ * few rows per day instead of every attendance joined with its student. Attendances of deleted students are not
+ * counted.
+ */
+@ApplicationScoped
+public class DailyAttendanceCounts {
+
+	/**
+	 * Counts attendances. Every filter is optional and left out when null or empty.
+	 *
+	 * @param dateRange    range of dates to count, both ends included
+	 * @param statuses     statuses to count
+	 * @param classroomId  classroom of the students
+	 * @param gradeLevelId grade level of the students
+	 * @param strandId     strand of the students
+	 * @param sexes        sexes of the students
+	 * @return the number of attendances
+	 */
+	public long count(
+		DateRange dateRange, Collection<AttendanceStatus> statuses,
+		Integer classroomId, Integer gradeLevelId, Integer strandId, Collection<Sex> sexes
+	) {
+		Map<String, Object> params = new HashMap<>();
+		StringBuilder sql = new StringBuilder("SELECT COALESCE(SUM(d.count), 0) FROM daily_attendance_counts d WHERE 1 = 1");
+		if (dateRange != null) {
+			sql.append(" AND d.date BETWEEN :startDate AND :endDate");
+			params.put("startDate", dateRange.getStartDate());
+			params.put("endDate", dateRange.getEndDate());
+		}
+
+		if (statuses != null && !statuses.isEmpty()) {
+			sql.append(" AND d.status IN (:statuses)");
+			params.put("statuses", statuses.stream().map(AttendanceStatus::name).toList());
+		}
+
+		if (classroomId != null) {
+			sql.append(" AND d.classroom_id = :classroomId");
+			params.put("classroomId", classroomId);
+		}
+
+		if (gradeLevelId != null) {
+			sql.append(" AND d.grade_level_id = :gradeLevelId");
+			params.put("gradeLevelId", gradeLevelId);
+		}
+
+		if (strandId != null) {
+			sql.append(" AND d.strand_id = :strandId");
+			params.put("strandId", strandId);
+		}
+
+		if (sexes != null && !sexes.isEmpty()) {
+			sql.append(" AND d.sex IN (:sexes)");
+			params.put("sexes", sexes.stream().map(Sex::name).toList());
+		}
+
+		Query query = Attendance.getEntityManager().createNativeQuery(sql.toString());
+		params.forEach(query::setParameter);
+		return ((Number) query.getSingleResult()).longValue();
+	}
+}
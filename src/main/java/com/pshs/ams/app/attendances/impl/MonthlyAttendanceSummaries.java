@@ -0,0 +1,308 @@
+package com.pshs.ams.app.attendances.impl;
+
+import com.pshs.ams.app.attendances.models.entities.Attendance;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.global.models.enums.AttendanceForeignEntity;
+import com.pshs.ams.utils.TransactionCallbacks;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Persisted per-student, per-month attendance counts for closed months, stored in
+ * {@code monthly_attendance_summaries}.
+ * <p>
+ * Each row holds the number of attendances of every {@link AttendanceStatus} and a bitmap of the days of the month
+ * (bit {@code day - 1}) on which the student was present, that is, had an attendance that is not ABSENT. A month is
+ * materialized the first time it is read after it has closed, or by the job running on the first of every month,
+ * and is recorded in {@code monthly_attendance_summary_months}. From then on, every write to an attendance of that
+ * month refreshes the summary rows of the students it touches. The current month is never summarized: readers
+ * count it from {@code attendances} directly.
+ */
+@ApplicationScoped
+public class MonthlyAttendanceSummaries {
+
+	@Inject
+	Logger logger;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@Inject
+	TransactionCallbacks transactionCallbacks;
+
+	/**
+	 * Months known to be materialized. Months missing here are looked up in the database before being built.
+	 */
+	private final Set<YearMonth> materialized = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Gets the closed months that lie entirely inside a date range.
+	 *
+	 * @param startDate the first day of the range
+	 * @param endDate   the day after the last day of the range
+	 * @return the months, in order
+	 */
+	public List<YearMonth> getClosedMonths(LocalDate startDate, LocalDate endDate) {
+		List<YearMonth> months = new ArrayList<>();
+		YearMonth month = YearMonth.from(startDate.getDayOfMonth() == 1 ? startDate : startDate.plusMonths(1));
+		YearMonth currentMonth = YearMonth.now();
+		while (month.isBefore(currentMonth) && !month.plusMonths(1).atDay(1).isAfter(endDate)) {
+			months.add(month);
+			month = month.plusMonths(1);
+		}
+		return months;
+	}
+
+	/**
+	 * Refreshes the summary of one student after an attendance of theirs was written in the current transaction.
+	 * Does nothing unless the month of the attendance is closed and already materialized.
+	 *
+	 * @param studentId the student id
+	 * @param date      the date of the attendance
+	 */
+	@Transactional
+	public void touch(Long studentId, LocalDate date) {
+		if (studentId != null && date != null) {
+			touch(YearMonth.from(date), List.of(studentId));
+		}
+	}
+
+	/**
+	 * Refreshes the summaries of students after attendances of theirs were written in the current transaction.
+	 * Does nothing unless the month is closed and already materialized.
+	 *
+	 * @param month      the month of the attendances
+	 * @param studentIds the students whose attendances were written
+	 */
+	@Transactional
+	public void touch(YearMonth month, Collection<Long> studentIds) {
+		if (studentIds.isEmpty() || !month.isBefore(YearMonth.now()) || !isMaterialized(month)) {
+			return;
+		}
+
+		refresh(month, studentIds);
+	}
+
+	/**
+	 * Builds the summaries of the month that has just closed.
+	 */
+	@Scheduled(cron = "0 15 0 1 * ?", identity = "monthly-attendance-summaries")
+	void summarizePreviousMonth() {
+		ensure(List.of(YearMonth.now().minusMonths(1)));
+	}
+
+	/**
+	 * Materializes the months that are not summarized yet.
+	 *
+	 * @param months closed months
+	 */
+	@Transactional
+	public void ensure(Collection<YearMonth> months) {
+		for (YearMonth month : months) {
+			if (!isMaterialized(month)) {
+				Timer.Sample sample = Timer.start(meterRegistry);
+				int students = refresh(month, null);
+				getEntityManager().createNativeQuery(
+						"INSERT INTO monthly_attendance_summary_months (month) VALUES (:month) " +
+							"ON CONFLICT (month) DO UPDATE SET refreshed_at = now()")
+					.setParameter("month", month.atDay(1))
+					.executeUpdate();
+				transactionCallbacks.afterCommit(() -> materialized.add(month));
+				sample.stop(meterRegistry.timer("ams.attendance.summaries.materialize"));
+				logger.info("Summarized attendances of " + month + " for " + students + " students");
+			}
+		}
+	}
+
+	/**
+	 * Gets the days of a month on which each student of a classroom was present.
+	 *
+	 * @param month       a closed month
+	 * @param classroomId the classroom id
+	 * @return bitmap of present days by student id, bit {@code day - 1} being set for a present day
+	 */
+	@Transactional
+	public Map<Long, Integer> getPresentDays(YearMonth month, Integer classroomId) {
+		ensure(List.of(month));
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = getEntityManager().createNativeQuery(
+				"SELECT m.student_id, m.present_days FROM monthly_attendance_summaries m " +
+					"JOIN students s ON s.id = m.student_id " +
+					"WHERE m.month = :month AND s.classroom_id = :classroomId")
+			.setParameter("month", month.atDay(1))
+			.setParameter("classroomId", classroomId)
+			.getResultList();
+
+		Map<Long, Integer> presentDays = new HashMap<>();
+		for (Object[] row : rows) {
+			presentDays.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+		}
+		return presentDays;
+	}
+
+	/**
+	 * Counts attendances of some statuses per month.
+	 *
+	 * @param months        closed months
+	 * @param statuses      the statuses to count
+	 * @param foreignEntity the student or classroom to filter by, or null for the whole school
+	 * @param id            id of the student or classroom
+	 * @return the count of each month that has attendances
+	 */
+	@Transactional
+	public Map<YearMonth, Long> countPerMonth(
+		Collection<YearMonth> months, Collection<AttendanceStatus> statuses,
+		AttendanceForeignEntity foreignEntity, Long id
+	) {
+		Map<YearMonth, Long> counts = new HashMap<>();
+		if (months.isEmpty() || statuses.isEmpty()) {
+			return counts;
+		}
+
+		ensure(months);
+		String scope = "";
+		if (foreignEntity == AttendanceForeignEntity.STUDENT) {
+			scope = " AND m.student_id = :id";
+		} else if (foreignEntity == AttendanceForeignEntity.CLASSROOM) {
+			scope = " AND m.student_id IN (SELECT s.id FROM students s WHERE s.classroom_id = :id)";
+		}
+
+		Query query = getEntityManager().createNativeQuery(
+				"SELECT m.month, SUM(" + sumOf(statuses) + ") FROM monthly_attendance_summaries m " +
+					"WHERE m.month IN (:months)" + scope + " GROUP BY m.month")
+			.setParameter("months", months.stream().map(month -> month.atDay(1)).toList());
+		if (!scope.isEmpty()) {
+			query.setParameter("id", foreignEntity == AttendanceForeignEntity.CLASSROOM ? id.intValue() : id);
+		}
+
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = query.getResultList();
+		for (Object[] row : rows) {
+			counts.put(YearMonth.from(toLocalDate(row[0])), ((Number) row[1]).longValue());
+		}
+		return counts;
+	}
+
+	/**
+	 * Counts attendances of some statuses per classroom of the students.
+	 *
+	 * @param months   closed months
+	 * @param statuses the statuses to count
+	 * @return the count of each classroom that has attendances
+	 */
+	@Transactional
+	public Map<Integer, Long> countPerClassroom(Collection<YearMonth> months, Collection<AttendanceStatus> statuses) {
+		Map<Integer, Long> counts = new HashMap<>();
+		if (months.isEmpty() || statuses.isEmpty()) {
+			return counts;
+		}
+
+		ensure(months);
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = getEntityManager().createNativeQuery(
+				"SELECT s.classroom_id, SUM(" + sumOf(statuses) + ") FROM monthly_attendance_summaries m " +
+					"JOIN students s ON s.id = m.student_id " +
+					"WHERE m.month IN (:months) AND s.classroom_id IS NOT NULL GROUP BY s.classroom_id")
+			.setParameter("months", months.stream().map(month -> month.atDay(1)).toList())
+			.getResultList();
+		for (Object[] row : rows) {
+			counts.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+		}
+		return counts;
+	}
+
+	private boolean isMaterialized(YearMonth month) {
+		if (materialized.contains(month)) {
+			return true;
+		}
+
+		boolean exists = !getEntityManager().createNativeQuery(
+				"SELECT 1 FROM monthly_attendance_summary_months WHERE month = :month")
+			.setParameter("month", month.atDay(1))
+			.getResultList()
+			.isEmpty();
+		if (exists) {
+			materialized.add(month);
+		}
+		return exists;
+	}
+
+	/**
+	 * Recomputes the summary rows of a month from {@code attendances}.
+	 *
+	 * @param month      the month to summarize
+	 * @param studentIds the students to summarize, or null for all of them
+	 * @return the number of summary rows written
+	 */
+	private int refresh(YearMonth month, Collection<Long> studentIds) {
+		EntityManager entityManager = getEntityManager();
+		// Attendances written earlier in this transaction must be visible to the aggregate.
+		entityManager.flush();
+
+		String attendanceStudents = studentIds == null ? "" : " AND a.student_id IN (:studentIds)";
+		String summaryStudents = studentIds == null ? "" : " AND m.student_id IN (:studentIds)";
+		Query upsert = entityManager.createNativeQuery(
+				"INSERT INTO monthly_attendance_summaries (student_id, month, on_time, late, absent, excused, present_days) " +
+					"SELECT a.student_id, :month, " +
+					"COUNT(*) FILTER (WHERE a.status = 'ON_TIME'), " +
+					"COUNT(*) FILTER (WHERE a.status = 'LATE'), " +
+					"COUNT(*) FILTER (WHERE a.status = 'ABSENT'), " +
+					"COUNT(*) FILTER (WHERE a.status = 'EXCUSED'), " +
+					"COALESCE(BIT_OR(1 << (CAST(EXTRACT(DAY FROM a.date) AS INTEGER) - 1)) FILTER (WHERE a.status <> 'ABSENT'), 0) " +
+					"FROM attendances a " +
+					"WHERE a.date >= :month AND a.date < :nextMonth AND a.student_id IS NOT NULL" + attendanceStudents + " " +
+					"GROUP BY a.student_id " +
+					"ON CONFLICT (student_id, month) DO UPDATE SET on_time = EXCLUDED.on_time, late = EXCLUDED.late, " +
+					"absent = EXCLUDED.absent, excused = EXCLUDED.excused, present_days = EXCLUDED.present_days")
+			.setParameter("month", month.atDay(1))
+			.setParameter("nextMonth", month.plusMonths(1).atDay(1));
+		// Students whose attendances of the month were all deleted or moved to another month
+		Query delete = entityManager.createNativeQuery(
+				"DELETE FROM monthly_attendance_summaries m WHERE m.month = :month" + summaryStudents + " " +
+					"AND NOT EXISTS (SELECT 1 FROM attendances a " +
+					"WHERE a.student_id = m.student_id AND a.date >= :month AND a.date < :nextMonth)")
+			.setParameter("month", month.atDay(1))
+			.setParameter("nextMonth", month.plusMonths(1).atDay(1));
+		if (studentIds != null) {
+			upsert.setParameter("studentIds", studentIds);
+			delete.setParameter("studentIds", studentIds);
+		}
+
+		int written = upsert.executeUpdate();
+		delete.executeUpdate();
+		return written;
+	}
+
+	private String sumOf(Collection<AttendanceStatus> statuses) {
+		return statuses.stream()
+			.distinct()
+			.map(status -> "m." + status.name().toLowerCase())
+			.collect(Collectors.joining(" + "));
+	}
+
+	private LocalDate toLocalDate(Object value) {
+		return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+	}
+
+	private EntityManager getEntityManager() {
+		return Attendance.getEntityManager();
+	}
+}
@@ -1,39 +1,513 @@
 package com.pshs.ams.app.attendances.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pshs.ams.app.attendances.models.dto.AttendanceDTO;
+import com.pshs.ams.app.attendances.models.dto.AttendanceEvent;
+import com.pshs.ams.app.attendances.models.dto.AttendanceSnapshot;
+import com.pshs.ams.app.attendances.models.dto.AttendanceSubscription;
+import com.pshs.ams.app.rfid_credentials.impl.StudentCredentialIndex;
+import com.pshs.ams.app.rfid_credentials.models.dto.CredentialEntry;
+import com.pshs.ams.app.students.models.dto.StudentClassroomDTO;
+import com.pshs.ams.app.students.models.dto.StudentDTO;
+import com.pshs.ams.app.attendances.models.entities.Attendance;
+import com.pshs.ams.app.grade_levels.models.dto.GradeLevelDTO;
+import com.pshs.ams.app.strands.models.dto.StrandDTO;
+import com.pshs.ams.utils.FetchPlans;
+import com.pshs.ams.utils.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.virtual.threads.VirtualThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.websocket.CloseReason;
 import jakarta.websocket.Session;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
+import org.modelmapper.ModelMapper;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Pushes attendance events to the real-time dashboards connected to {@code /ws/real-time-attendances}.
+ * <p>
+ * Events are published once the scan transaction commits and are coalesced off the scan thread: every
+ * {@code attendance.broadcast.interval}, or as soon as {@code attendance.broadcast.max-batch} events are pending,
+ * the pending events are sent as one JSON array frame.
+ * <p>
+ * Sessions may narrow what they receive with an {@link AttendanceSubscription}. Each session is indexed under the
+ * most selective dimension of its filter (classroom, then strand, then grade level), so an event is only checked
+ * against the sessions of its own classroom, strand and grade level plus the sessions without any of those filters.
+ * Sessions that end up with the same events share one serialized frame.
+ * <p>
+ * Every event gets a sequence number, and the last {@code attendance.broadcast.replay-capacity} events of the day
+ * are kept in memory. A dashboard that reconnects can subscribe with
+ * {@link AttendanceSubscription#getResumeFrom()} to receive only the events it missed, or an
+ * {@link AttendanceSnapshot} of today when those events are no longer buffered.
+ * <p>
+ * A session that has not finished receiving the previous frame skips the batch, and is closed once it has skipped
+ * {@code attendance.broadcast.max-skipped} batches in a row.
+ * <p>
+ * The broadcaster thread never waits on the database: the student of an event is taken from the credential index
+ * when it is published, and snapshots are read on a virtual thread.
+ */
 @ApplicationScoped
 public class RealTimeAttendanceService {
 
 	@Inject
 	Logger logger;
 
-	private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+	@Inject
+	ObjectMapper objectMapper;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@Inject
+	TransactionCallbacks transactionCallbacks;
+
+	@Inject
+	StudentCredentialIndex studentCredentialIndex;
+
+	@Inject
+	@VirtualThreads
+	ExecutorService virtualThreads;
+
+	@ConfigProperty(name = "attendance.broadcast.interval", defaultValue = "PT0.1S")
+	Duration interval;
+
+	@ConfigProperty(name = "attendance.broadcast.max-batch", defaultValue = "100")
+	int maxBatch;
+
+	@ConfigProperty(name = "attendance.broadcast.max-skipped", defaultValue = "50")
+	int maxSkipped;
+
+	@ConfigProperty(name = "attendance.broadcast.replay-capacity", defaultValue = "5000")
+	int replayCapacity;
+
+	private final ModelMapper modelMapper = new ModelMapper();
+	private final Map<String, Subscriber> sessions = new ConcurrentHashMap<>();
+	private final Set<Subscriber> unfiltered = ConcurrentHashMap.newKeySet();
+	private final Map<Integer, Set<Subscriber>> byClassroom = new ConcurrentHashMap<>();
+	private final Map<Integer, Set<Subscriber>> byStrand = new ConcurrentHashMap<>();
+	private final Map<Integer, Set<Subscriber>> byGradeLevel = new ConcurrentHashMap<>();
+	private final Queue<PendingEvent> pending = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pendingCount = new AtomicInteger();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+	// Only touched by the broadcaster thread.
+	private final Deque<RecordedEvent> replay = new ArrayDeque<>();
+	private LocalDate replayDate = LocalDate.now();
+
+	/**
+	 * Starts from the boot time so sequence numbers keep increasing across restarts, and a dashboard resuming with a
+	 * sequence number from before a restart is sent a snapshot instead of nothing.
+	 */
+	private volatile long lastSeq = System.currentTimeMillis() * 1000;
+
+	private ScheduledExecutorService broadcaster;
+	private DistributionSummary batchSize;
+	private Counter skipped;
+	private Counter dropped;
+
+	@PostConstruct
+	void start() {
+		batchSize = meterRegistry.summary("ams.realtime.batch.size");
+		skipped = meterRegistry.counter("ams.realtime.batches.skipped");
+		dropped = meterRegistry.counter("ams.realtime.sessions.dropped");
+		meterRegistry.gaugeMapSize("ams.realtime.sessions", List.of(), sessions);
+
+		broadcaster = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("real-time-attendance-broadcaster").daemon().factory());
+		broadcaster.scheduleWithFixedDelay(this::flush, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	void stop() {
+		broadcaster.shutdown();
+	}
 
 	public void registerSession(Session session) {
 		logger.debug("Registering session: " + session.getId());
-		sessions.put(session.getId(), session);
+		Subscriber subscriber = new Subscriber(session);
+		sessions.put(session.getId(), subscriber);
+		unfiltered.add(subscriber);
 	}
 
 	public void unregisterSession(Session session) {
 		logger.debug("Unregistering session: " + session.getId());
 		if (session.getId() != null) {
-			sessions.remove(session.getId());
+			Subscriber subscriber = sessions.remove(session.getId());
+			if (subscriber != null) {
+				unindex(subscriber);
+			}
 		}
 	}
 
-	public void broadcastMessage(String message) {
-		logger.debug("Broadcasting message: " + message);
-		sessions.forEach((key, session) -> {
-			logger.debug("Sending message: " + message + " to session: " + key);
-			session.getAsyncRemote().sendText(message);
+	/**
+	 * Replaces the filter of a session.
+	 *
+	 * @param session      the session
+	 * @param subscription the new filter, or null to receive every attendance
+	 */
+	public synchronized void subscribe(Session session, AttendanceSubscription subscription) {
+		Subscriber subscriber = sessions.get(session.getId());
+		if (subscriber == null) {
+			return;
+		}
+
+		logger.debug("Session " + session.getId() + " subscribed to " + subscription);
+		unindex(subscriber);
+		subscriber.subscription = subscription != null ? subscription : new AttendanceSubscription();
+		bucketOf(subscriber.subscription).add(subscriber);
+
+		if (subscriber.subscription.getResumeFrom() != null) {
+			long resumeFrom = subscriber.subscription.getResumeFrom();
+			broadcaster.execute(() -> resume(subscriber, resumeFrom));
+		}
+	}
+
+	private synchronized void unindex(Subscriber subscriber) {
+		AttendanceSubscription subscription = subscriber.subscription;
+		unfiltered.remove(subscriber);
+		removeFrom(byClassroom, subscription.getClassroomId(), subscriber);
+		removeFrom(byStrand, subscription.getStrandId(), subscriber);
+		removeFrom(byGradeLevel, subscription.getGradeLevelId(), subscriber);
+	}
+
+	private Set<Subscriber> bucketOf(AttendanceSubscription subscription) {
+		if (subscription.getClassroomId() != null) {
+			return byClassroom.computeIfAbsent(subscription.getClassroomId(), id -> ConcurrentHashMap.newKeySet());
+		}
+		if (subscription.getStrandId() != null) {
+			return byStrand.computeIfAbsent(subscription.getStrandId(), id -> ConcurrentHashMap.newKeySet());
+		}
+		if (subscription.getGradeLevelId() != null) {
+			return byGradeLevel.computeIfAbsent(subscription.getGradeLevelId(), id -> ConcurrentHashMap.newKeySet());
+		}
+		return unfiltered;
+	}
+
+	private void removeFrom(Map<Integer, Set<Subscriber>> index, Integer key, Subscriber subscriber) {
+		if (key == null) {
+			return;
+		}
+		index.computeIfPresent(key, (id, subscribers) -> {
+			subscribers.remove(subscriber);
+			return subscribers.isEmpty() ? null : subscribers;
+		});
+	}
+
+	/**
+	 * Publishes an attendance to the dashboards once the current transaction commits.
+	 * The student, along with the classroom, grade level and strand used for routing, is taken from the credential
+	 * index.
+	 *
+	 * @param attendance the attendance, without its student
+	 * @param studentId  the student the attendance belongs to
+	 */
+	public void publish(AttendanceDTO attendance, Long studentId) {
+		CredentialEntry credential = studentCredentialIndex.getByStudentId(studentId).orElse(null);
+		PendingEvent pendingEvent = new PendingEvent(
+			attendance.setStudent(studentOf(studentId, credential)),
+			credential != null ? credential.getClassroomId() : null,
+			credential != null ? credential.getGradeLevelId() : null,
+			credential != null ? credential.getStrandId() : null
+		);
+		transactionCallbacks.afterCommit(() -> {
+			pending.add(pendingEvent);
+			if (pendingCount.incrementAndGet() >= maxBatch && flushRequested.compareAndSet(false, true)) {
+				broadcaster.execute(this::flush);
+			}
 		});
 	}
 
+	private void flush() {
+		flushRequested.set(false);
+		try {
+			while (pendingCount.get() > 0) {
+				List<PendingEvent> batch = new ArrayList<>(Math.min(pendingCount.get(), maxBatch));
+				PendingEvent event;
+				while (batch.size() < maxBatch && (event = pending.poll()) != null) {
+					batch.add(event);
+				}
+				pendingCount.addAndGet(-batch.size());
+				if (batch.isEmpty()) {
+					return;
+				}
+
+				batchSize.record(batch.size());
+				List<RecordedEvent> events = record(batch);
+				if (!sessions.isEmpty()) {
+					send(events);
+				}
+			}
+		} catch (Exception e) {
+			logger.error("Unable to broadcast attendances: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Builds the student of an event from its indexed credential. The classroom, grade level and strand only carry
+	 * their ids, which dashboards resolve from their own lists.
+	 */
+	private static StudentDTO studentOf(Long studentId, CredentialEntry credential) {
+		StudentDTO student = new StudentDTO().setId(studentId);
+		if (credential == null) {
+			return student;
+		}
+
+		return student
+			.setLastName(credential.getLastName())
+			.setFirstName(credential.getFirstName())
+			.setMiddleInitial(credential.getMiddleInitial())
+			.setClassroom(credential.getClassroomId() != null ? new StudentClassroomDTO().setId(credential.getClassroomId()) : null)
+			.setGradeLevel(credential.getGradeLevelId() != null ? new GradeLevelDTO().setId(credential.getGradeLevelId()) : null)
+			.setStrand(credential.getStrandId() != null ? new StrandDTO().setId(credential.getStrandId()) : null);
+	}
+
+	/**
+	 * Numbers the events of a batch and appends them to the replay buffer.
+	 */
+	private List<RecordedEvent> record(List<PendingEvent> batch) {
+		rollReplayOver();
+		List<RecordedEvent> events = new ArrayList<>(batch.size());
+		for (PendingEvent pendingEvent : batch) {
+			RecordedEvent event = new RecordedEvent(
+				AttendanceEvent.of(++lastSeq, pendingEvent.attendance()),
+				pendingEvent.classroomId(),
+				pendingEvent.gradeLevelId(),
+				pendingEvent.strandId()
+			);
+			events.add(event);
+			replay.addLast(event);
+			if (replay.size() > replayCapacity) {
+				replay.removeFirst();
+			}
+		}
+		return events;
+	}
+
+	private void rollReplayOver() {
+		LocalDate today = LocalDate.now();
+		if (!today.equals(replayDate)) {
+			replay.clear();
+			replayDate = today;
+		}
+	}
+
+	/**
+	 * Sends a resuming session the events it missed, or a snapshot of today if they are no longer buffered.
+	 */
+	private void resume(Subscriber subscriber, long resumeFrom) {
+		if (!sessions.containsKey(subscriber.session.getId())) {
+			return;
+		}
+		if (!subscriber.sending.compareAndSet(false, true)) {
+			// Try again once the frame in flight is out, so the replay is never skipped like a live batch.
+			broadcaster.schedule(() -> resume(subscriber, resumeFrom), interval.toMillis(), TimeUnit.MILLISECONDS);
+			return;
+		}
+
+		try {
+			rollReplayOver();
+			AttendanceSubscription subscription = subscriber.subscription;
+			RecordedEvent oldest = replay.peekFirst();
+			String payload;
+			if (resumeFrom == lastSeq) {
+				subscriber.sending.set(false);
+				return;
+			} else if (resumeFrom < lastSeq && oldest != null && oldest.event().getSeq() <= resumeFrom + 1) {
+				List<AttendanceEvent> missed = replay.stream()
+					.filter(event -> event.event().getSeq() > resumeFrom && event.matches(subscription))
+					.map(RecordedEvent::event)
+					.toList();
+				payload = objectMapper.writeValueAsString(missed);
+			} else {
+				// Live batches keep reaching the session while the snapshot is read, so none are lost in between.
+				subscriber.sending.set(false);
+				long seq = lastSeq;
+				CompletableFuture.supplyAsync(() -> snapshot(subscription), virtualThreads).whenComplete((snapshot, failure) -> {
+					if (failure != null) {
+						logger.error("Unable to read the snapshot of session " + subscriber.session.getId() + ": " + failure.getMessage(), failure);
+					} else {
+						broadcaster.execute(() -> sendSnapshot(subscriber, new AttendanceSnapshot(seq, snapshot)));
+					}
+				});
+				return;
+			}
+
+			subscriber.session.getAsyncRemote().sendText(payload, result -> subscriber.sending.set(false));
+		} catch (Exception e) {
+			subscriber.sending.set(false);
+			logger.error("Unable to resume session " + subscriber.session.getId() + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Sends a snapshot to a resuming session once the frame it is receiving, if any, is out.
+	 */
+	private void sendSnapshot(Subscriber subscriber, AttendanceSnapshot snapshot) {
+		if (!sessions.containsKey(subscriber.session.getId())) {
+			return;
+		}
+		if (!subscriber.sending.compareAndSet(false, true)) {
+			broadcaster.schedule(() -> sendSnapshot(subscriber, snapshot), interval.toMillis(), TimeUnit.MILLISECONDS);
+			return;
+		}
+
+		try {
+			subscriber.session.getAsyncRemote().sendText(objectMapper.writeValueAsString(snapshot),
+				result -> subscriber.sending.set(false));
+		} catch (Exception e) {
+			subscriber.sending.set(false);
+			logger.error("Unable to send the snapshot to session " + subscriber.session.getId() + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Loads today's attendances matching a subscription.
+	 */
+	private List<AttendanceDTO> snapshot(AttendanceSubscription subscription) {
+		StringBuilder query = new StringBuilder(
+			"SELECT a FROM Attendance a JOIN a.student s WHERE a.date = :date");
+		Map<String, Object> params = new HashMap<>();
+		params.put("date", LocalDate.now());
+		if (subscription.getClassroomId() != null) {
+			query.append(" AND s.classroom.id = :classroomId");
+			params.put("classroomId", subscription.getClassroomId());
+		}
+		if (subscription.getGradeLevelId() != null) {
+			query.append(" AND s.gradeLevel.id = :gradeLevelId");
+			params.put("gradeLevelId", subscription.getGradeLevelId());
+		}
+		if (subscription.getStrandId() != null) {
+			query.append(" AND s.strand.id = :strandId");
+			params.put("strandId", subscription.getStrandId());
+		}
+		if (subscription.getStatuses() != null && !subscription.getStatuses().isEmpty()) {
+			query.append(" AND a.status IN :statuses");
+			params.put("statuses", subscription.getStatuses());
+		}
+		query.append(" ORDER BY a.id");
+
+		return QuarkusTransaction.requiringNew().call(() ->
+			FetchPlans.apply(Attendance.<Attendance>find(query.toString(), params), Attendance.WITH_STUDENT).stream()
+				.map(attendance -> attendance.toDTO().setStudent(modelMapper.map(attendance.getStudent(), StudentDTO.class)))
+				.toList()
+		);
+	}
+
+	/**
+	 * Routes a batch to the sessions whose filter matches, serializing each distinct selection of events once.
+	 */
+	private void send(List<RecordedEvent> batch) throws Exception {
+		Map<Subscriber, BitSet> selections = new IdentityHashMap<>();
+		for (int i = 0; i < batch.size(); i++) {
+			RecordedEvent event = batch.get(i);
+			select(unfiltered, event, i, selections);
+			select(candidates(byClassroom, event.classroomId()), event, i, selections);
+			select(candidates(byStrand, event.strandId()), event, i, selections);
+			select(candidates(byGradeLevel, event.gradeLevelId()), event, i, selections);
+		}
+
+		Map<BitSet, String> payloads = new HashMap<>();
+		for (Map.Entry<Subscriber, BitSet> selection : selections.entrySet()) {
+			BitSet events = selection.getValue();
+			String payload = payloads.get(events);
+			if (payload == null) {
+				payload = objectMapper.writeValueAsString(events.stream().mapToObj(index -> batch.get(index).event()).toList());
+				payloads.put(events, payload);
+			}
+			send(selection.getKey(), payload);
+		}
+	}
+
+	private Set<Subscriber> candidates(Map<Integer, Set<Subscriber>> index, Integer key) {
+		return key != null ? index.getOrDefault(key, Set.of()) : Set.of();
+	}
+
+	private void select(Set<Subscriber> candidates, RecordedEvent event, int index, Map<Subscriber, BitSet> selections) {
+		for (Subscriber subscriber : candidates) {
+			if (event.matches(subscriber.subscription)) {
+				selections.computeIfAbsent(subscriber, key -> new BitSet()).set(index);
+			}
+		}
+	}
+
+	private void send(Subscriber subscriber, String payload) {
+		String key = subscriber.session.getId();
+		if (!subscriber.sending.compareAndSet(false, true)) {
+			skipped.increment();
+			if (subscriber.skipped.incrementAndGet() >= maxSkipped) {
+				drop(key, subscriber);
+			}
+			return;
+		}
+
+		subscriber.skipped.set(0);
+		subscriber.session.getAsyncRemote().sendText(payload, result -> {
+			subscriber.sending.set(false);
+			if (!result.isOK()) {
+				logger.debug("Unable to send to session " + key + ": " + result.getException().getMessage());
+			}
+		});
+	}
+
+	private void drop(String key, Subscriber subscriber) {
+		logger.debug("Dropping slow session: " + key);
+		if (sessions.remove(key, subscriber)) {
+			unindex(subscriber);
+		}
+		dropped.increment();
+		try {
+			subscriber.session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Too slow"));
+		} catch (IOException e) {
+			logger.debug("Unable to close session " + key + ": " + e.getMessage());
+		}
+	}
+
+	private record PendingEvent(AttendanceDTO attendance, Integer classroomId, Integer gradeLevelId, Integer strandId) {
+	}
+
+	private record RecordedEvent(AttendanceEvent event, Integer classroomId, Integer gradeLevelId, Integer strandId) {
+
+		private boolean matches(AttendanceSubscription subscription) {
+			return subscription.matches(classroomId, gradeLevelId, strandId, event.getStatus());
+		}
+	}
+
+	private static class Subscriber {
+		private final Session session;
+		private final AtomicBoolean sending = new AtomicBoolean();
+		private final AtomicInteger skipped = new AtomicInteger();
+		private volatile AttendanceSubscription subscription = new AttendanceSubscription();
+
+		private Subscriber(Session session) {
+			this.session = session;
+		}
+	}
 }
@@ -0,0 +1,91 @@
+package com.pshs.ams.app.attendances.impl;
+
+import com.pshs.ams.app.attendances.models.dto.StudentAttendanceHistory;
+import com.pshs.ams.app.attendances.models.entities.Attendance;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the per-student, per-school-year attendance bitmaps of {@code student_attendance_histories}.
+ * <p>
+ * The bitmaps are written by a database trigger on {@code attendances}, so every write path, including the JDBC
+ * batches of the write-behind and the fingerprint import, keeps them current in its own transaction. A whole year
+ * of a student is a single row of under a kilobyte, and the totals and streaks are computed from it without loading
+ * any {@link Attendance}.
+ */
+@ApplicationScoped
+public class StudentAttendanceHistories {
+
+	/**
+	 * Status codes stored in the bitmaps, in code order.
+	 */
+	private static final AttendanceStatus[] CODES = {
+		AttendanceStatus.ON_TIME, AttendanceStatus.LATE, AttendanceStatus.EXCUSED, AttendanceStatus.ABSENT
+	};
+
+	/**
+	 * Gets the history of a student for the school year that contains a date.
+	 *
+	 * @param studentId     the student id
+	 * @param date          any date of the school year
+	 * @param includeTimeIn whether to include the time in of every day
+	 * @return the history, or empty if the student has no attendance in that school year
+	 */
+	public Optional<StudentAttendanceHistory> get(Long studentId, LocalDate date, boolean includeTimeIn) {
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = Attendance.getEntityManager().createNativeQuery(
+				"SELECT h.starts_on, h.recorded, h.statuses" + (includeTimeIn ? ", h.time_in" : "") + " " +
+					"FROM student_attendance_histories h " +
+					"WHERE h.student_id = :studentId AND h.starts_on = school_year_start(:date)")
+			.setParameter("studentId", studentId)
+			.setParameter("date", date)
+			.getResultList();
+		if (rows.isEmpty()) {
+			return Optional.empty();
+		}
+
+		Object[] row = rows.getFirst();
+		LocalDate startDate = row[0] instanceof Date sqlDate ? sqlDate.toLocalDate() : (LocalDate) row[0];
+		StudentAttendanceHistory history = new StudentAttendanceHistory()
+			.setStudentId(studentId)
+			.setStartDate(startDate)
+			.setEndDate(startDate.plusYears(1).minusDays(1))
+			.setRecorded((byte[]) row[1])
+			.setStatuses((byte[]) row[2])
+			.setTimeIn(includeTimeIn ? (byte[]) row[3] : null);
+		summarize(history);
+		return Optional.of(history);
+	}
+
+	private void summarize(StudentAttendanceHistory history) {
+		byte[] recorded = history.getRecorded();
+		byte[] statuses = history.getStatuses();
+		long[] totals = new long[CODES.length];
+		int streak = 0;
+		int longestStreak = 0;
+
+		int days = Math.min(recorded.length * 8, statuses.length * 4);
+		for (int day = 0; day < days; day++) {
+			if ((recorded[day >> 3] >> (day & 7) & 1) == 0) {
+				continue;
+			}
+
+			int code = statuses[day >> 2] >> ((day & 3) * 2) & 3;
+			totals[code]++;
+			streak = CODES[code] == AttendanceStatus.ABSENT ? 0 : streak + 1;
+			longestStreak = Math.max(longestStreak, streak);
+		}
+
+		history.setOnTime(totals[0])
+			.setLate(totals[1])
+			.setExcused(totals[2])
+			.setAbsent(totals[3])
+			.setCurrentStreak(streak)
+			.setLongestStreak(longestStreak);
+	}
+}
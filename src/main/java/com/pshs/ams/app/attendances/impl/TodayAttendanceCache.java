@@ -0,0 +1,215 @@
+package com.pshs.ams.app.attendances.impl;
+
+import com.pshs.ams.app.attendances.models.dto.AttendanceState;
+import com.pshs.ams.app.attendances.models.entities.Attendance;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.utils.TransactionCallbacks;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Day-scoped view of every student's attendance for today, keyed by student id.
+ * <p>
+ * The cache is warmed from the database on the first access of the day and rolls over at midnight. Every write path
+ * of {@link AttendanceServiceImpl} reports its result here once the surrounding transaction commits, so the scan
+ * path can decide between conflict, insert and update without querying the attendances table.
+ */
+@ApplicationScoped
+public class TodayAttendanceCache {
+
+	@Inject
+	Logger logger;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@Inject
+	TransactionCallbacks transactionCallbacks;
+
+	private volatile Day today = new Day(LocalDate.now());
+
+	@PostConstruct
+	void registerMetrics() {
+		meterRegistry.gauge("ams.attendance.today.size", this, cache -> cache.today.states.size());
+	}
+
+	/**
+	 * Gets today's attendance of a student, warming the cache first if this is the first access of the day.
+	 *
+	 * @param studentId the student id
+	 * @return the student's attendance for today, if any
+	 */
+	public Optional<AttendanceState> get(Long studentId) {
+		return Optional.ofNullable(warmedDay().states.get(studentId));
+	}
+
+	/**
+	 * Sets today's attendance of a student immediately, without waiting for a transaction.
+	 * Used by the write-behind scan path, where the write itself happens later.
+	 *
+	 * @param studentId the student id
+	 * @param state     the new state
+	 * @return false if the student already had an attendance for today, in which case nothing is changed
+	 */
+	public boolean putIfAbsent(Long studentId, AttendanceState state) {
+		return warmedDay().states.putIfAbsent(studentId, state) == null;
+	}
+
+	/**
+	 * Replaces today's attendance of a student immediately, if it is still the expected one.
+	 *
+	 * @param studentId the student id
+	 * @param expected  the state the caller read
+	 * @param state     the new state
+	 * @return false if another scan changed the student's attendance in the meantime
+	 */
+	public boolean replace(Long studentId, AttendanceState expected, AttendanceState state) {
+		return warmedDay().states.replace(studentId, expected, state);
+	}
+
+	/**
+	 * Removes today's attendance of a student immediately, if it is still the expected one.
+	 *
+	 * @param studentId the student id
+	 * @param expected  the state to remove
+	 */
+	public void remove(Long studentId, AttendanceState expected) {
+		warmedDay().states.remove(studentId, expected);
+	}
+
+	/**
+	 * Sets today's attendance of a student immediately, whatever it was.
+	 * Used to correct the cache when a queued write finds another attendance already saved.
+	 *
+	 * @param studentId the student id
+	 * @param state     the saved state
+	 */
+	public void put(Long studentId, AttendanceState state) {
+		warmedDay().states.put(studentId, state);
+	}
+
+	/**
+	 * Replaces today's attendance of a student immediately, if it is missing or still has the given status.
+	 *
+	 * @param studentId the student id
+	 * @param status    the status of the state to replace
+	 * @param state     the new state
+	 */
+	public void replaceStatus(Long studentId, AttendanceStatus status, AttendanceState state) {
+		warmedDay().states.compute(studentId, (id, current) ->
+			current == null || current.getStatus() == status ? state : current);
+	}
+
+	/**
+	 * Records the saved state of an attendance once the current transaction commits.
+	 * Attendances that are not dated today are ignored.
+	 *
+	 * @param studentId  the student the attendance belongs to
+	 * @param attendance the attendance that was saved
+	 */
+	public void record(Long studentId, Attendance attendance) {
+		if (studentId == null) {
+			return;
+		}
+
+		record(attendance.getDate(), Map.of(studentId, AttendanceState.of(attendance)));
+	}
+
+	/**
+	 * Records the states of several attendances of the same date once the current transaction commits.
+	 * Attendances that are not dated today are ignored.
+	 *
+	 * @param date   the date of the attendances
+	 * @param states the saved states, by student id
+	 */
+	public void record(LocalDate date, Map<Long, AttendanceState> states) {
+		if (states.isEmpty() || !LocalDate.now().equals(date)) {
+			return;
+		}
+
+		transactionCallbacks.afterCommit(() -> currentDay().states.putAll(states));
+	}
+
+	/**
+	 * Forgets today's attendance of a student once the current transaction commits.
+	 *
+	 * @param studentId the student whose attendance was removed or moved to another date
+	 * @param date      the date of the attendance that was removed
+	 */
+	public void evict(Long studentId, LocalDate date) {
+		if (studentId == null || !LocalDate.now().equals(date)) {
+			return;
+		}
+
+		transactionCallbacks.afterCommit(() -> currentDay().states.remove(studentId));
+	}
+
+	@Scheduled(cron = "0 0 0 * * ?", identity = "today-attendance-cache-rollover")
+	void rollOver() {
+		currentDay();
+	}
+
+	private Day currentDay() {
+		Day day = today;
+		LocalDate now = LocalDate.now();
+		if (!day.date.equals(now)) {
+			synchronized (this) {
+				day = today;
+				if (!day.date.equals(now)) {
+					logger.debug("Rolling over today's attendance cache to " + now);
+					day = new Day(now);
+					today = day;
+				}
+			}
+		}
+		return day;
+	}
+
+	private Day warmedDay() {
+		Day day = currentDay();
+		if (!day.warmed) {
+			synchronized (day) {
+				if (!day.warmed) {
+					warm(day);
+					day.warmed = true;
+				}
+			}
+		}
+		return day;
+	}
+
+	private void warm(Day day) {
+		List<Object[]> rows = Attendance.getEntityManager().createQuery(
+			"SELECT a.student.id, a.id, a.status, a.timeIn, a.timeOut FROM Attendance a " +
+				"WHERE a.date = ?1 AND a.student IS NOT NULL ORDER BY a.id", Object[].class
+		).setParameter(1, day.date).getResultList();
+
+		for (Object[] row : rows) {
+			// Later rows win, matching the most recent attendance a student has for the day.
+			day.states.put((Long) row[0], new AttendanceState(
+				(Integer) row[1], (AttendanceStatus) row[2], (LocalTime) row[3], (LocalTime) row[4]));
+		}
+		logger.info("Today's attendance cache warmed for " + day.date + " with " + day.states.size() + " students");
+	}
+
+	private static class Day {
+		private final LocalDate date;
+		private final Map<Long, AttendanceState> states = new ConcurrentHashMap<>();
+		private volatile boolean warmed;
+
+		private Day(LocalDate date) {
+			this.date = date;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.pshs.ams.app.attendances.models.dto;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * An {@link AttendanceDTO} as pushed to the real-time dashboards, tagged with its broadcast sequence number.
+ * Sequence numbers only ever increase, also across restarts, so a dashboard can resume from the last one it saw.
+ */
+@Getter
+@Setter
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class AttendanceEvent extends AttendanceDTO {
+	private long seq;
+
+	public static AttendanceEvent of(long seq, AttendanceDTO attendance) {
+		AttendanceEvent event = new AttendanceEvent();
+		event.setSeq(seq);
+		event.setId(attendance.getId());
+		event.setStatus(attendance.getStatus());
+		event.setDate(attendance.getDate());
+		event.setTimeIn(attendance.getTimeIn());
+		event.setTimeOut(attendance.getTimeOut());
+		event.setNotes(attendance.getNotes());
+		event.setStudent(attendance.getStudent());
+		return event;
+	}
+}
@@ -0,0 +1,19 @@
+package com.pshs.ams.app.attendances.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Sent to a real-time dashboard that asked to resume from a sequence number that is no longer in the replay buffer.
+ * It holds today's attendances matching the dashboard's subscription; live events continue after {@link #seq}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AttendanceSnapshot {
+	private long seq;
+	private List<AttendanceDTO> attendances;
+}
@@ -0,0 +1,26 @@
+package com.pshs.ams.app.attendances.models.dto;
+
+import com.pshs.ams.app.attendances.models.entities.Attendance;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalTime;
+
+/**
+ * Immutable snapshot of a student's {@link Attendance} for the current day.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AttendanceState {
+	private final Integer id;
+	private final AttendanceStatus status;
+	private final LocalTime timeIn;
+	private final LocalTime timeOut;
+
+	public static AttendanceState of(Attendance attendance) {
+		return new AttendanceState(attendance.getId(), attendance.getStatus(), attendance.getTimeIn(), attendance.getTimeOut());
+	}
+}
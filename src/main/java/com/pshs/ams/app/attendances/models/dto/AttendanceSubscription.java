@@ -0,0 +1,35 @@
+package com.pshs.ams.app.attendances.models.dto;
+
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.Set;
+
+/**
+ * Filter sent by a real-time dashboard to only receive the attendances it cares about.
+ * Every field is optional; a subscription without any field receives every attendance.
+ * <p>
+ * {@link #resumeFrom} is not part of the filter: when set, the dashboard is first sent the matching events it
+ * missed after that sequence number.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Accessors(chain = true)
+public class AttendanceSubscription {
+	private Integer classroomId;
+	private Integer gradeLevelId;
+	private Integer strandId;
+	private Set<AttendanceStatus> statuses;
+	private Long resumeFrom;
+
+	public boolean matches(Integer classroomId, Integer gradeLevelId, Integer strandId, AttendanceStatus status) {
+		return (this.classroomId == null || this.classroomId.equals(classroomId))
+			&& (this.gradeLevelId == null || this.gradeLevelId.equals(gradeLevelId))
+			&& (this.strandId == null || this.strandId.equals(strandId))
+			&& (statuses == null || statuses.isEmpty() || statuses.contains(status));
+	}
+}
@@ -0,0 +1,44 @@
+package com.pshs.ams.app.attendances.models.dto;
+
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A scan result that has been acknowledged to the scanner but not yet written to the database.
+ * <p>
+ * Writes are keyed by student and date rather than by attendance id, because the attendance row of a buffered
+ * {@link Type#INSERT} only gets its id once the batch is flushed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PendingAttendanceWrite {
+
+	public enum Type {
+		INSERT,
+		UPDATE
+	}
+
+	private final Type type;
+	private final Long studentId;
+	private final LocalDate date;
+	private final AttendanceStatus status;
+	private final LocalTime timeIn;
+	private final LocalTime timeOut;
+	private final String notes;
+
+	/**
+	 * The state the scan put in {@code TodayAttendanceCache}, restored to {@link #previous} if the write fails.
+	 */
+	private final AttendanceState state;
+
+	/**
+	 * The state the scan replaced, or null if the student had no attendance for the day.
+	 */
+	private final AttendanceState previous;
+}
@@ -0,0 +1,36 @@
+package com.pshs.ams.app.attendances.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.app.attendances.models.enums.ScanMessage;
+import com.pshs.ams.global.models.custom.MessageResponse;
+import com.pshs.ams.global.models.enums.CodeStatus;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Reply to a scan. JSON clients only see the {@link MessageResponse} fields, binary clients get the
+ * {@link ScanMessage} id and the attendance status instead of the message text.
+ */
+@Getter
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class ScanResponse extends MessageResponse {
+
+	@JsonIgnore
+	private final ScanMessage messageId;
+
+	@JsonIgnore
+	private final AttendanceStatus attendanceStatus;
+
+	public ScanResponse(String message, CodeStatus status, ScanMessage messageId) {
+		this(message, status, messageId, null);
+	}
+
+	public ScanResponse(String message, CodeStatus status, ScanMessage messageId, AttendanceStatus attendanceStatus) {
+		super(message, status);
+		this.messageId = messageId;
+		this.attendanceStatus = attendanceStatus;
+	}
+}
@@ -0,0 +1,48 @@
+package com.pshs.ams.app.attendances.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Attendance of a student over one school year, in the compact form kept in {@code student_attendance_histories}.
+ * <p>
+ * Day {@code n} is {@code startDate + n days}. Bit {@code n} of {@link #recorded} (bit {@code n % 8} of byte
+ * {@code n / 8}) is set when the student has an attendance on that day, and bits {@code 2n} and {@code 2n + 1} of
+ * {@link #statuses} hold its status: 0 ON_TIME, 1 LATE, 2 EXCUSED, 3 ABSENT. When requested, {@link #timeIn} holds
+ * two bytes per day, big endian, with the minutes since midnight plus one, or 0 without a time in. Byte arrays are
+ * serialized as Base64.
+ */
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StudentAttendanceHistory implements Serializable {
+	private Long studentId;
+
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+	private LocalDate startDate;
+
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+	private LocalDate endDate;
+
+	private byte[] recorded;
+	private byte[] statuses;
+	private byte[] timeIn;
+
+	private long onTime;
+	private long late;
+	private long excused;
+	private long absent;
+
+	/**
+	 * Present days in a row up to the latest recorded day. Days without an attendance do not break a streak.
+	 */
+	private int currentStreak;
+	private int longestStreak;
+}
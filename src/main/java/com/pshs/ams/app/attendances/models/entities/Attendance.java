@@ -19,7 +19,30 @@ import java.time.LocalTime;
 @Setter
 @Entity
 @Table(name = "attendances")
+@NamedEntityGraph(
+	name = Attendance.WITH_STUDENT,
+	attributeNodes = @NamedAttributeNode(value = "student", subgraph = "student"),
+	subgraphs = {
+		@NamedSubgraph(name = "student", attributeNodes = {
+			@NamedAttributeNode(value = "classroom", subgraph = "classroom"),
+			@NamedAttributeNode("gradeLevel"),
+			@NamedAttributeNode("strand"),
+			@NamedAttributeNode("guardian"),
+			@NamedAttributeNode("studentSchedule")
+		}),
+		@NamedSubgraph(name = "classroom", attributeNodes = {
+			@NamedAttributeNode("teacher"),
+			@NamedAttributeNode("gradeLevel")
+		})
+	}
+)
 public class Attendance extends PanacheEntityBase {
+
+	/**
+	 * Fetch plan of an attendance with its student, as {@code AttendanceDTO} reads it.
+	 */
+	public static final String WITH_STUDENT = "Attendance.withStudent";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attendances_id_gen")
 	@SequenceGenerator(name = "attendances_id_gen", sequenceName = "attendances_id_seq", allocationSize = 1)
@@ -0,0 +1,20 @@
+package com.pshs.ams.app.attendances.models.enums;
+
+import lombok.Getter;
+
+/**
+ * Formats of the attendance export, one attendance per line.
+ */
+@Getter
+public enum AttendanceExportFormat {
+	NDJSON("application/x-ndjson", "ndjson"),
+	CSV("text/csv", "csv");
+
+	private final String mediaType;
+	private final String extension;
+
+	AttendanceExportFormat(String mediaType, String extension) {
+		this.mediaType = mediaType;
+		this.extension = extension;
+	}
+}
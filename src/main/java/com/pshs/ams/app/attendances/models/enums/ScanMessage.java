@@ -0,0 +1,20 @@
+package com.pshs.ams.app.attendances.models.enums;
+
+/**
+ * Short identifiers for the replies of a scan, sent instead of the message text to binary scan clients.
+ * The id of each value on the wire is fixed by {@code BinaryScanFrame}.
+ */
+public enum ScanMessage {
+	WELCOME,
+	ALREADY_CHECKED_IN,
+	CARD_NOT_FOUND,
+	NOT_CHECKED_IN,
+	TIME_OUT_UPDATED,
+	CHECKED_OUT,
+	EXCUSED,
+	ALREADY_EXCUSED,
+	CONSULT_ADMIN,
+	BUSY,
+	INVALID_FRAME,
+	FAILED
+}
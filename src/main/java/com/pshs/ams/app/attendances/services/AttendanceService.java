@@ -4,6 +4,12 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.pshs.ams.app.attendances.models.dto.AttendanceDTO;
 import com.pshs.ams.app.attendances.models.dto.ClassroomDemographicsAttendances;
 import com.pshs.ams.app.attendances.models.dto.FingerprintAttendance;
+import com.pshs.ams.app.attendances.models.dto.ScanResponse;
+import com.pshs.ams.app.attendances.models.dto.StudentAttendanceHistory;
+import com.pshs.ams.app.attendances.models.enums.AttendanceExportFormat;
+import com.pshs.ams.app.attendances.models.enums.AttendanceMode;
+import com.pshs.ams.app.rfid_credentials.models.dto.HashedLrnKey;
+import com.pshs.ams.global.models.custom.CursorPage;
 import com.pshs.ams.global.models.custom.DateRange;
 import com.pshs.ams.global.models.custom.LineChart;
 import com.pshs.ams.global.models.custom.MessageResponse;
@@ -18,13 +24,28 @@ import com.pshs.ams.global.models.enums.AttendanceForeignEntity;
 import com.pshs.ams.app.classrooms.models.dto.ClassroomRankingDTO;
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface AttendanceService {
 
 	CodeStatus createAttendance(Attendance attendance, Boolean override, Boolean checkForAbsent) throws IllegalArgumentException;
 
-	MessageResponse fromWebSocket(RFIDCard rfidCard) throws JsonProcessingException;
+	ScanResponse fromWebSocket(RFIDCard rfidCard) throws JsonProcessingException;
+
+	/**
+	 * Records a scan received as a binary frame.
+	 *
+	 * @param hashedLrn the hashed LRN read from the frame
+	 * @param mode      the scan mode
+	 * @return the response for the scanner
+	 */
+	ScanResponse fromWebSocket(HashedLrnKey hashedLrn, AttendanceMode mode) throws JsonProcessingException;
 
 	void fromFingerprint(FingerprintAttendance attendance) throws IllegalArgumentException, JsonProcessingException;
 
@@ -48,6 +69,15 @@ public interface AttendanceService {
 
 	// Region: Get All Attendance
 
+	/**
+	 * Get all attendance
+	 *
+	 * @param page
+	 * @param sort
+	 * @return list of {@link AttendanceDTO} objects
+	 */
+	List<AttendanceDTO> getAllAttendances(Page page, Sort sort);
+
 	/**
 	 * Get all attendance by status and date range
 	 *
@@ -55,9 +85,23 @@ public interface AttendanceService {
 	 * @param dateRange        range of dates to filter by
 	 * @return list of {@link AttendanceDTO} objects
 	 */
-	List<Attendance> getAllAttendanceByStatusAndDateRange(List<AttendanceStatus> attendanceStatus, DateRange dateRange,
+	List<AttendanceDTO> getAllAttendanceByStatusAndDateRange(List<AttendanceStatus> attendanceStatus, DateRange dateRange,
 			Page page, Sort sort);
 
+	/**
+	 * Get a page of attendance by status and date range, read in (date, id) order after a cursor
+	 *
+	 * @param attendanceStatus Attendance Status
+	 * @param dateRange        range of dates to filter by
+	 * @param cursor           cursor of the previous page, or null or empty for the first page
+	 * @param size             page size
+	 * @param direction        direction of the listing
+	 * @return page of {@link AttendanceDTO} objects
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	CursorPage<AttendanceDTO> getAllAttendanceByStatusAndDateRange(List<AttendanceStatus> attendanceStatus,
+			DateRange dateRange, String cursor, int size, Sort.Direction direction);
+
 	/**
 	 * Get all attendance by status, date range, and foreign entity
 	 *
@@ -66,9 +110,25 @@ public interface AttendanceService {
 	 * @param foreignEntity    the foreign entity to filter by
 	 * @return list of {@link AttendanceDTO} objects
 	 */
-	List<Attendance> getAllAttendanceByStatusAndDateRange(List<AttendanceStatus> attendanceStatus, DateRange dateRange,
+	List<AttendanceDTO> getAllAttendanceByStatusAndDateRange(List<AttendanceStatus> attendanceStatus, DateRange dateRange,
 			AttendanceForeignEntity foreignEntity, Integer id, Page page, Sort sort);
 
+	/**
+	 * Get a page of attendance by status, date range, and foreign entity, read in (date, id) order after a cursor
+	 *
+	 * @param attendanceStatus Attendance Status
+	 * @param dateRange        range of dates to filter by
+	 * @param foreignEntity    the foreign entity to filter by
+	 * @param cursor           cursor of the previous page, or null or empty for the first page
+	 * @param size             page size
+	 * @param direction        direction of the listing
+	 * @return page of {@link AttendanceDTO} objects
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	CursorPage<AttendanceDTO> getAllAttendanceByStatusAndDateRange(List<AttendanceStatus> attendanceStatus,
+			DateRange dateRange, AttendanceForeignEntity foreignEntity, Integer id, String cursor, int size,
+			Sort.Direction direction);
+
 	/**
 	 * Get line chart data
 	 *
@@ -148,9 +208,32 @@ public interface AttendanceService {
 	 */
 	long totalStudentAttendance(Long studentId);
 
-	List<Attendance> getFilteredAttendances(DateRange dateRange, Integer classroomId, Integer gradeLevelId,
+	/**
+	 * Get the compact attendance history of a student for one school year
+	 *
+	 * @param studentId     student id
+	 * @param date          any date of the school year
+	 * @param includeTimeIn whether to include the time in of every day
+	 * @return the history, or empty if the student has no attendance in that school year
+	 */
+	Optional<StudentAttendanceHistory> getStudentAttendanceHistory(Long studentId, LocalDate date, boolean includeTimeIn);
+
+	List<AttendanceDTO> getFilteredAttendances(DateRange dateRange, Integer classroomId, Integer gradeLevelId,
 			Integer strandId, Long studentId, Page page, Sort sort);
 
+	CursorPage<AttendanceDTO> getFilteredAttendances(DateRange dateRange, Integer classroomId, Integer gradeLevelId,
+			Integer strandId, Long studentId, String cursor, int size, Sort.Direction direction);
+
+	/**
+	 * Streams the attendance matching the filters of {@code getFilteredAttendances}, in (date, id) order
+	 *
+	 * @param format format of the export
+	 * @param output stream to write the export to
+	 * @throws IOException if the output cannot be written
+	 */
+	void exportFilteredAttendances(DateRange dateRange, Integer classroomId, Integer gradeLevelId, Integer strandId,
+			Long studentId, AttendanceExportFormat format, OutputStream output) throws IOException;
+
 	long countFilteredAttendances(DateRange dateRange, Integer classroomId, Integer gradeLevelId, Integer strandId,
 			Long studentId);
 
@@ -180,6 +263,25 @@ public interface AttendanceService {
 	 */
 	List<Student> getAbsentStudents(DateRange dateRange);
 
+	/**
+	 * Marks every student without an attendance on the date as absent, once their schedule's absent time has passed.
+	 * Running it again for the same date only adds the students that became absent since.
+	 *
+	 * @param date the date to mark absences for
+	 * @param time the time of day to compare the schedules' absent times with
+	 * @return number of absences created
+	 */
+	int markAbsentStudents(LocalDate date, LocalTime time);
+
+	/**
+	 * Marks the students on the given schedules who have no attendance on the date as absent.
+	 *
+	 * @param date        the date to mark absences for
+	 * @param scheduleIds the schedules whose absent time has just passed
+	 * @return number of absences created
+	 */
+	int markAbsentStudents(LocalDate date, Collection<Integer> scheduleIds);
+
 	/**
 	 * Get last hour attendance
 	 *
@@ -26,7 +26,6 @@ import org.modelmapper.PropertyMap;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @ApplicationScoped
 @Path("/api/v1/classrooms")
@@ -45,12 +44,9 @@ public class ClassroomController {
 	public Response listAll(@BeanParam SortRequest sort, @BeanParam PageRequest page) {
 		return Response.ok(
 				classroomService.listAll(
-						Sort.by(sort.sortBy, sort.sortDirection),
-						Page.of(page.page, page.size)
-					)
-					.stream()
-					.map(classroom -> mapper.map(classroom, ClassroomDTO.class))
-					.collect(Collectors.toList()))
+					Sort.by(sort.sortBy, sort.sortDirection),
+					Page.of(page.page, page.size)
+				))
 			.build();
 	}
 
@@ -169,8 +165,7 @@ public class ClassroomController {
 		return Response.ok(
 				classroomService
 					.searchByName(name, Page.of(pageRequest.page, pageRequest.size),
-						Sort.by(sortRequest.sortBy, sortRequest.sortDirection))
-					.stream().map(cls -> mapper.map(cls, ClassroomDTO.class)).toList())
+						Sort.by(sortRequest.sortBy, sortRequest.sortDirection)))
 			.build();
 	}
 
@@ -184,7 +179,7 @@ public class ClassroomController {
 						CodeStatus.BAD_REQUEST))
 				.build();
 		}
-		Optional<Classroom> classroom = classroomService.get(id);
+		Optional<Classroom> classroom = classroomService.getWithStudents(id);
 		return classroom
 			.map(cls -> Response.ok(mapper.map(cls, ClassroomDTO.class)).build())
 			.orElseGet(() -> Response.status(Response.Status.NOT_FOUND).entity(
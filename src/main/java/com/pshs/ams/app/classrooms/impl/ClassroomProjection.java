@@ -0,0 +1,85 @@
+package com.pshs.ams.app.classrooms.impl;
+
+import com.pshs.ams.app.classrooms.models.dto.ClassroomDTO;
+import com.pshs.ams.app.classrooms.models.dto.ClassroomStudentDTO;
+import com.pshs.ams.utils.Projections;
+import com.pshs.ams.utils.Projections.Row;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projection of {@link ClassroomDTO} with its teacher, grade level and students.
+ * <p>
+ * Classrooms are read with one query, and the students of the whole page with a second one, instead of loading the
+ * student collection of every classroom. Conditions and sorts refer to the classroom as {@code c}.
+ */
+final class ClassroomProjection {
+
+	static final String SELECT = "SELECT " +
+		Projections.columns("c", "id", "room", "classroomName", "profilePicture") + ", " +
+		Projections.columns("c_t", Projections.TEACHER) + ", " +
+		Projections.columns("c_g", Projections.GRADE_LEVEL) +
+		" FROM Classroom c LEFT JOIN c.teacher c_t LEFT JOIN c.gradeLevel c_g";
+
+	static final String SELECT_STUDENTS = "SELECT s.classroom.id, " +
+		Projections.columns("s", "id", "firstName", "middleInitial", "lastName", "prefix", "address", "sex", "birthdate") + ", " +
+		Projections.columns("s_g", Projections.GRADE_LEVEL) + ", " +
+		Projections.columns("s_st", Projections.STRAND) + ", " +
+		Projections.columns("s_gu", Projections.GUARDIAN) + ", " +
+		Projections.columns("s_sc", Projections.SCHEDULE) +
+		" FROM Student s LEFT JOIN s.gradeLevel s_g LEFT JOIN s.strand s_st LEFT JOIN s.guardian s_gu LEFT JOIN s.studentSchedule s_sc" +
+		" WHERE s.classroom.id IN :classroomIds";
+
+	private ClassroomProjection() {
+	}
+
+	/**
+	 * @param where  the conditions, or an empty string for every classroom
+	 * @param params named parameters of the conditions
+	 * @param sort   the sort on classroom properties, or null
+	 * @param page   the page to read, or null for every classroom
+	 * @return the classrooms with their students
+	 */
+	static List<ClassroomDTO> list(String where, Map<String, Object> params, Sort sort, Page page) {
+		List<ClassroomDTO> classrooms = Projections.list(
+			where.isEmpty() ? SELECT : SELECT + " WHERE " + where, params, sort, "c", page, ClassroomProjection::read
+		);
+		if (classrooms.isEmpty()) {
+			return classrooms;
+		}
+
+		Map<Integer, ClassroomDTO> byId = new HashMap<>();
+		classrooms.forEach(classroom -> byId.put(classroom.getId(), classroom));
+		Projections.list(
+			SELECT_STUDENTS, Map.of("classroomIds", byId.keySet()), Sort.by("lastName").and("firstName"), "s", null,
+			row -> {
+				ClassroomDTO classroom = byId.get(row.<Integer>next());
+				classroom.getStudents().add(readStudent(row));
+				return classroom;
+			}
+		);
+		return classrooms;
+	}
+
+	static ClassroomDTO read(Row row) {
+		return new ClassroomDTO()
+			.setId(row.next())
+			.setRoom(row.next())
+			.setClassroomName(row.next())
+			.setProfilePicture(row.next())
+			.setTeacher(Projections.readTeacher(row))
+			.setGradeLevel(Projections.readGradeLevel(row));
+	}
+
+	static ClassroomStudentDTO readStudent(Row row) {
+		return new ClassroomStudentDTO(
+			row.next(), row.next(), row.next(), row.next(), row.next(), row.next(), row.next(), row.next(),
+			Projections.readGradeLevel(row), Projections.readStrand(row), Projections.readGuardian(row),
+			Projections.readSchedule(row)
+		);
+	}
+}
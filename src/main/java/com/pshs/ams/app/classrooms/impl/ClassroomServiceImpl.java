@@ -1,10 +1,14 @@
 package com.pshs.ams.app.classrooms.impl;
 
+import com.pshs.ams.app.classrooms.models.dto.ClassroomDTO;
 import com.pshs.ams.app.classrooms.exceptions.ClassroomExistsException;
 import com.pshs.ams.app.classrooms.models.entities.Classroom;
 import com.pshs.ams.app.classrooms.services.ClassroomService;
+import com.pshs.ams.app.rfid_credentials.impl.StudentCredentialIndex;
 import com.pshs.ams.app.students.models.entities.Student;
 import com.pshs.ams.global.models.enums.CodeStatus;
+import com.pshs.ams.utils.FetchPlans;
+import com.pshs.ams.utils.TransactionCallbacks;
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -16,6 +20,7 @@ import org.jboss.logging.Logger;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @ApplicationScoped
@@ -24,18 +29,24 @@ public class ClassroomServiceImpl implements ClassroomService {
 	@Inject
 	Logger logger;
 
+	@Inject
+	StudentCredentialIndex studentCredentialIndex;
+
+	@Inject
+	TransactionCallbacks transactionCallbacks;
+
 	/**
 	 * Retrieves a list of all classes with optional sorting and pagination.
 	 *
 	 * @param sort a sorting object containing sorting parameters (sortBy,
 	 *             sortDirection)
 	 * @param page a pagination object containing pagination parameters (page, size)
-	 * @return a list of Classroom objects
+	 * @return a list of ClassroomDTO objects, read with one query for the classrooms and one for their students
 	 */
 	@Override
-	public List<Classroom> listAll(Sort sort, Page page) {
+	public List<ClassroomDTO> listAll(Sort sort, Page page) {
 		logger.debug("Get all classes: " + sort + ", " + page);
-		return Classroom.findAll(sort).page(page).list();
+		return ClassroomProjection.list("", Map.of(), sort, page);
 	}
 
 	/**
@@ -100,6 +111,18 @@ public class ClassroomServiceImpl implements ClassroomService {
 		return Classroom.findByIdOptional(id);
 	}
 
+	/**
+	 * Retrieves the class with the given id, along with its teacher, grade level and students.
+	 *
+	 * @param id the id of the class to retrieve
+	 * @return the retrieved Classroom object
+	 */
+	@Override
+	public Optional<Classroom> getWithStudents(Long id) {
+		logger.debug("Get Class with students: " + id);
+		return FetchPlans.findById(Classroom.class, id, Classroom.DETAILS);
+	}
+
 	/**
 	 * Assigns a list of students to a specified classroom.
 	 *
@@ -124,6 +147,7 @@ public class ClassroomServiceImpl implements ClassroomService {
 		Classroom classroom = classroomOptional.get();
 		List<Long> studentIds = students.stream().map(Student::getId).toList();
 		Student.update("classroom = ?1 where id in ?2", classroom, studentIds);
+		transactionCallbacks.afterCommit(() -> studentCredentialIndex.assignClassroom(studentIds, classroom.getId()));
 		return students;
 	}
 
@@ -136,9 +160,9 @@ public class ClassroomServiceImpl implements ClassroomService {
 	 * @return a list of Classroom objects
 	 */
 	@Override
-	public List<Classroom> searchByName(String name, Page page, Sort sort) {
+	public List<ClassroomDTO> searchByName(String name, Page page, Sort sort) {
 		logger.debug("Search Class: " + name);
-		return Classroom.find("classroomName LIKE ?1", sort, "%" + name + "%").page(page).list();
+		return ClassroomProjection.list("c.classroomName LIKE :name", Map.of("name", "%" + name + "%"), sort, page);
 	}
 
 	@Override
@@ -21,7 +21,27 @@ import java.util.Set;
 @Setter
 @Entity
 @Table(name = "classrooms")
+@NamedEntityGraph(
+	name = Classroom.DETAILS,
+	attributeNodes = {
+		@NamedAttributeNode("teacher"),
+		@NamedAttributeNode("gradeLevel"),
+		@NamedAttributeNode(value = "students", subgraph = "students")
+	},
+	subgraphs = @NamedSubgraph(name = "students", attributeNodes = {
+		@NamedAttributeNode("gradeLevel"),
+		@NamedAttributeNode("strand"),
+		@NamedAttributeNode("guardian"),
+		@NamedAttributeNode("studentSchedule")
+	})
+)
 public class Classroom extends PanacheEntityBase {
+
+	/**
+	 * Fetch plan of a classroom with its teacher, grade level and students, as {@code ClassroomDTO} reads it.
+	 */
+	public static final String DETAILS = "Classroom.details";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "classrooms_id_gen")
 	@SequenceGenerator(name = "classrooms_id_gen", sequenceName = "classrooms_id_seq", allocationSize = 1)
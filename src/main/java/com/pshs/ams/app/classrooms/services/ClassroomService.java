@@ -1,5 +1,6 @@
 package com.pshs.ams.app.classrooms.services;
 
+import com.pshs.ams.app.classrooms.models.dto.ClassroomDTO;
 import com.pshs.ams.app.classrooms.exceptions.ClassroomExistsException;
 import com.pshs.ams.app.classrooms.models.entities.Classroom;
 import com.pshs.ams.app.students.models.entities.Student;
@@ -18,9 +19,9 @@ public interface ClassroomService {
 	 *
 	 * @param sort a sorting object containing sorting parameters (sortBy, sortDirection)
 	 * @param page a pagination object containing pagination parameters (page, size)
-	 * @return a list of Classroom objects
+	 * @return a list of ClassroomDTO objects
 	 */
-	List<Classroom> listAll(Sort sort, Page page);
+	List<ClassroomDTO> listAll(Sort sort, Page page);
 
 	/**
 	 * Creates a new class.
@@ -68,6 +69,14 @@ public interface ClassroomService {
 	 */
 	Optional<Classroom> get(Long id);
 
+	/**
+	 * Retrieves the class with the given id, along with its teacher, grade level and students.
+	 *
+	 * @param id the id of the class to retrieve
+	 * @return the retrieved Classroom object
+	 */
+	Optional<Classroom> getWithStudents(Long id);
+
 	/**
 	 * Uploads a profile picture for a classroom.
 	 *
@@ -83,7 +92,7 @@ public interface ClassroomService {
 	 * @param name the name to search for
 	 * @param page the pagination object containing pagination parameters (page, size)
 	 * @param sort a sorting object containing sorting parameters (sortBy, sortDirection)
-	 * @return a list of Classroom objects
+	 * @return a list of ClassroomDTO objects
 	 */
-	List<Classroom> searchByName(String name, Page page, Sort sort);
+	List<ClassroomDTO> searchByName(String name, Page page, Sort sort);
 }
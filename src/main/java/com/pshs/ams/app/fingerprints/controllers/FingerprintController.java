@@ -1,12 +1,9 @@
 package com.pshs.ams.app.fingerprints.controllers;
 
-import com.pshs.ams.app.attendances.models.dto.FingerprintAttendance;
-import com.pshs.ams.app.attendances.models.enums.AttendanceMode;
-import com.pshs.ams.app.attendances.services.AttendanceService;
 import com.pshs.ams.app.fingerprints.models.AttendanceFileUpload;
+import com.pshs.ams.app.fingerprints.models.FingerprintImportJob;
 import com.pshs.ams.global.models.custom.MessageResponse;
 import com.pshs.ams.app.fingerprints.services.FingerprintService;
-import com.pshs.ams.global.models.custom.RFIDCard;
 import com.pshs.ams.global.models.enums.CodeStatus;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -15,15 +12,10 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.jboss.logging.Logger;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @ApplicationScoped
 @Path("/api")
@@ -32,9 +24,6 @@ public class FingerprintController {
 	@Inject
 	FingerprintService fingerprintService;
 
-	@Inject
-	AttendanceService attendanceService;
-
 	@Inject
 	Logger log;
 
@@ -58,11 +47,13 @@ public class FingerprintController {
 		try {
 			log.debug("Attendance file upload requested.");
 			if (form != null && form.file != null) {
-				// Process CSV file
+				// Store the file and queue its import
 				log.debug("Processing attendance file...");
-				processAttendanceFile(form.file);
-				log.debug("File uploaded successfully.");
-				return Response.ok("File uploaded successfully").build();
+				try (InputStream file = form.file) {
+					FingerprintImportJob job = fingerprintService.submitImport(file);
+					log.debug("File uploaded successfully, import job: " + job.getId());
+					return Response.accepted(job).build();
+				}
 			}
 
 			log.debug("Invalid input");
@@ -74,6 +65,13 @@ public class FingerprintController {
 					"File can't be opened",
 					CodeStatus.FAILED
 				)).build();
+		} catch (RejectedExecutionException e) {
+			log.warn("Too many attendance imports waiting, upload rejected");
+			return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+				.entity(new MessageResponse(
+					"Too many imports in progress, try again later",
+					CodeStatus.BUSY
+				)).build();
 		} catch (IllegalArgumentException e) {
 			log.error(e.getMessage());
 			return Response.status(Response.Status.BAD_REQUEST).entity(
@@ -84,36 +82,18 @@ public class FingerprintController {
 		}
 	}
 
-	private void processAttendanceFile(InputStream fileInputStream) throws IOException {
-		// Implement your CSV processing logic here
-		// Example: Parse CSV, save to database, etc.
-		try (BufferedReader reader = new BufferedReader(new InputStreamReader(fileInputStream))) {
-			// Define a formatter that handles dates without leading zeros in month, day, and seconds
-			DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-M-d H:m:s");
-
-			String line;
-			while ((line = reader.readLine()) != null) {
-				log.debug(line);
-				// Read CSV data and save to database
-				String[] values = line.split(",");
-				try {
-					int fingerprintId = Integer.parseInt(values[0]);
-					// Use the formatter to parse the date string
-					LocalDateTime dateTime = LocalDateTime.parse(values[1], formatter);
-					AttendanceMode mode = AttendanceMode.valueOf(values[2]);
-					FingerprintAttendance fingerprintAttendance = new FingerprintAttendance(
-						fingerprintId,
-						dateTime,
-						mode
-					);
-					log.debug("Enrolling fingerprint with ID: " + fingerprintId + ", date: " + dateTime + ", mode: " + mode);
-
-					// Register attendance
-					attendanceService.fromFingerprint(fingerprintAttendance);
-				} catch (Exception e) {
-					log.error("Error parsing line: " + line + " - " + e.getMessage(), e);
-				}
-			}
+	@GET
+	@Path("/fingerprint/upload-attendances/{jobId}")
+	public Response getImportJob(@PathParam("jobId") String jobId) {
+		Optional<FingerprintImportJob> job = fingerprintService.getImportJob(jobId);
+		if (job.isEmpty()) {
+			return Response.status(Response.Status.NOT_FOUND)
+				.entity(new MessageResponse(
+					"Import job not found",
+					CodeStatus.NOT_FOUND
+				)).build();
 		}
+
+		return Response.ok(job.get()).build();
 	}
 }
@@ -0,0 +1,356 @@
+package com.pshs.ams.app.fingerprints.impl;
+
+import com.pshs.ams.app.attendances.impl.MonthlyAttendanceSummaries;
+import com.pshs.ams.app.attendances.impl.TodayAttendanceCache;
+import com.pshs.ams.app.attendances.models.enums.AttendanceMode;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.app.fingerprints.models.FingerprintImportSummary;
+import com.pshs.ams.app.rfid_credentials.impl.StudentCredentialIndex;
+import com.pshs.ams.app.rfid_credentials.models.dto.CredentialEntry;
+import com.pshs.ams.app.rfid_credentials.models.dto.ScheduleEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+import lombok.Value;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bulk import of fingerprint device dumps.
+ * <p>
+ * The file is read as a stream of {@code fingerprintId,yyyy-M-d H:m:s,MODE} lines. Every
+ * {@code attendance.import.chunk-size} lines, the scans are merged per student and date, so that a check-in and
+ * check-out of the same day become a single row, and are written with JDBC batches in one transaction. Memory use
+ * therefore depends on the chunk size, not on the size of the file. Imported attendances are historical, so they
+ * are not broadcast to the real-time dashboards.
+ */
+@ApplicationScoped
+public class FingerprintAttendanceImporter {
+
+	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-M-d H:m:s");
+
+	private static final String INSERT_SQL = "INSERT INTO attendances (status, date, time_in, time_out, notes, student_id) " +
+		"SELECT ?, ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM attendances WHERE student_id = ? AND date = ?)";
+
+	private static final String UPDATE_SQL = "UPDATE attendances SET status = COALESCE(?, status), time_out = ?, notes = COALESCE(?, notes) " +
+		"WHERE student_id = ? AND date = ?";
+
+	private static final String EXCUSED_NOTE = "This student was scanned as excused.";
+
+	@Inject
+	Logger logger;
+
+	@Inject
+	DataSource dataSource;
+
+	@Inject
+	StudentCredentialIndex studentCredentialIndex;
+
+	@Inject
+	TodayAttendanceCache todayAttendanceCache;
+
+	@Inject
+	MonthlyAttendanceSummaries monthlyAttendanceSummaries;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@ConfigProperty(name = "attendance.import.chunk-size", defaultValue = "5000")
+	int chunkSize;
+
+	/**
+	 * Imports a fingerprint attendance file.
+	 * <p>
+	 * Runs on the import pool rather than in a request, so a request context is activated for the lookups of
+	 * fingerprints and schedules that are not in {@link StudentCredentialIndex}.
+	 *
+	 * @param input    the file contents, left open
+	 * @param progress receives a snapshot of the counts after every chunk
+	 * @return the number of scans per outcome
+	 * @throws IOException if the file cannot be read
+	 */
+	@ActivateRequestContext
+	public FingerprintImportSummary importFile(InputStream input, Consumer<FingerprintImportSummary> progress) throws IOException {
+		FingerprintImportSummary summary = new FingerprintImportSummary();
+		Timer.Sample sample = Timer.start(meterRegistry);
+
+		// Fingerprints missing from the index are looked up in the database once, not once per line.
+		Set<Integer> unknownFingerprints = new HashSet<>();
+		Map<MergeKey, MergedScan> chunk = new LinkedHashMap<>();
+		int lines = 0;
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isBlank()) {
+				continue;
+			}
+
+			summary.setRows(summary.getRows() + 1);
+			merge(line, chunk, unknownFingerprints, summary);
+			if (++lines >= chunkSize) {
+				flush(chunk, summary);
+				chunk.clear();
+				lines = 0;
+				progress.accept(summary.copy());
+			}
+		}
+		flush(chunk, summary);
+
+		long elapsed = sample.stop(meterRegistry.timer("ams.fingerprint.import"));
+		summary.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(elapsed));
+		logger.info("Fingerprint attendance import finished: " + summary);
+		return summary;
+	}
+
+	private void merge(String line, Map<MergeKey, MergedScan> chunk, Set<Integer> unknownFingerprints, FingerprintImportSummary summary) {
+		int fingerprintId;
+		LocalDateTime dateTime;
+		AttendanceMode mode;
+		try {
+			String[] values = line.split(",");
+			fingerprintId = Integer.parseInt(values[0].trim());
+			dateTime = LocalDateTime.parse(values[1].trim(), DATE_TIME_FORMATTER);
+			mode = AttendanceMode.valueOf(values[2].trim());
+		} catch (RuntimeException e) {
+			logger.debug("Unable to parse line: " + line + " - " + e.getMessage());
+			summary.setParseErrors(summary.getParseErrors() + 1);
+			return;
+		}
+
+		Optional<CredentialEntry> credential = unknownFingerprints.contains(fingerprintId)
+			? Optional.empty()
+			: studentCredentialIndex.findByFingerprintId(fingerprintId);
+		Optional<ScheduleEntry> schedule = credential.flatMap(entry -> studentCredentialIndex.findSchedule(entry.getScheduleId()));
+		if (schedule.isEmpty()) {
+			unknownFingerprints.add(fingerprintId);
+			summary.setUnknownFingerprints(summary.getUnknownFingerprints() + 1);
+			return;
+		}
+
+		MergedScan scan = chunk.computeIfAbsent(new MergeKey(credential.get().getStudentId(), dateTime.toLocalDate()), key -> new MergedScan());
+		LocalTime time = dateTime.toLocalTime();
+		switch (mode) {
+			case IN -> {
+				if (scan.timeIn != null) {
+					summary.setDuplicates(summary.getDuplicates() + 1);
+					return;
+				}
+
+				scan.timeIn = time;
+				// Classified by the time of the scan, not by the time of the import.
+				scan.inStatus = time.isBefore(schedule.get().getLateTime()) ? AttendanceStatus.ON_TIME : AttendanceStatus.LATE;
+			}
+			case OUT -> {
+				scan.timeOut = scan.timeOut == null || time.isAfter(scan.timeOut) ? time : scan.timeOut;
+				scan.updates++;
+			}
+			case EXCUSED -> {
+				scan.excused = true;
+				scan.timeOut = time;
+				scan.updates++;
+			}
+			default -> summary.setParseErrors(summary.getParseErrors() + 1);
+		}
+	}
+
+	/**
+	 * Writes a chunk in one transaction. Check-ins are inserted first, then check-outs and excuses update the rows,
+	 * unless they were already folded into a freshly inserted row.
+	 */
+	private void flush(Map<MergeKey, MergedScan> chunk, FingerprintImportSummary summary) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+
+		List<Map.Entry<MergeKey, MergedScan>> inserts = new ArrayList<>();
+		List<Map.Entry<MergeKey, MergedScan>> updates = new ArrayList<>();
+		for (Map.Entry<MergeKey, MergedScan> entry : chunk.entrySet()) {
+			if (entry.getValue().timeIn != null) {
+				inserts.add(entry);
+			} else {
+				updates.add(entry);
+			}
+		}
+
+		FingerprintImportSummary chunkSummary = new FingerprintImportSummary();
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setAutoCommit(false);
+			try {
+				int[] inserted = insert(connection, inserts);
+				for (int i = 0; i < inserts.size(); i++) {
+					MergedScan scan = inserts.get(i).getValue();
+					if (inserted[i] == 0) {
+						// The student already had an attendance, the check-in is a duplicate but the rest still applies.
+						chunkSummary.setDuplicates(chunkSummary.getDuplicates() + 1);
+						updates.add(inserts.get(i));
+					} else {
+						chunkSummary.setAccepted(chunkSummary.getAccepted() + 1 + scan.updates);
+					}
+				}
+
+				updates.removeIf(entry -> entry.getValue().updates == 0);
+				int[] updated = update(connection, updates);
+				for (int i = 0; i < updates.size(); i++) {
+					MergedScan scan = updates.get(i).getValue();
+					if (updated[i] == 0) {
+						chunkSummary.setNotCheckedIn(chunkSummary.getNotCheckedIn() + scan.updates);
+					} else {
+						chunkSummary.setAccepted(chunkSummary.getAccepted() + scan.updates);
+					}
+				}
+
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			logger.error("Unable to import " + chunk.size() + " fingerprint attendances: " + e.getMessage(), e);
+			long scans = chunk.values().stream().mapToLong(scan -> (scan.timeIn != null ? 1 : 0) + scan.updates).sum();
+			summary.setFailed(summary.getFailed() + scans);
+			return;
+		}
+
+		summary.setAccepted(summary.getAccepted() + chunkSummary.getAccepted());
+		summary.setDuplicates(summary.getDuplicates() + chunkSummary.getDuplicates());
+		summary.setNotCheckedIn(summary.getNotCheckedIn() + chunkSummary.getNotCheckedIn());
+
+		// Imports normally cover past days, but a dump taken during the day must not leave stale cache entries.
+		LocalDate today = LocalDate.now();
+		chunk.keySet().stream()
+			.filter(key -> key.date.equals(today))
+			.forEach(key -> todayAttendanceCache.evict(key.studentId, key.date));
+
+		// Closed months that are already summarized are refreshed for the students of the chunk.
+		YearMonth currentMonth = YearMonth.from(today);
+		Map<YearMonth, Set<Long>> studentsByMonth = new HashMap<>();
+		for (MergeKey key : chunk.keySet()) {
+			YearMonth month = YearMonth.from(key.date);
+			if (month.isBefore(currentMonth)) {
+				studentsByMonth.computeIfAbsent(month, ignored -> new HashSet<>()).add(key.studentId);
+			}
+		}
+		studentsByMonth.forEach((month, studentIds) -> {
+			try {
+				monthlyAttendanceSummaries.touch(month, studentIds);
+			} catch (RuntimeException e) {
+				logger.error("Unable to refresh the attendance summaries of " + month + ": " + e.getMessage(), e);
+			}
+		});
+	}
+
+	private int[] insert(Connection connection, List<Map.Entry<MergeKey, MergedScan>> inserts) throws SQLException {
+		if (inserts.isEmpty()) {
+			return new int[0];
+		}
+
+		try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+			for (Map.Entry<MergeKey, MergedScan> entry : inserts) {
+				MergeKey key = entry.getKey();
+				MergedScan scan = entry.getValue();
+				statement.setString(1, (scan.excused ? AttendanceStatus.EXCUSED : scan.inStatus).name());
+				statement.setDate(2, Date.valueOf(key.date));
+				setTime(statement, 3, scan.timeIn);
+				setTime(statement, 4, scan.timeOut);
+				statement.setString(5, scan.excused ? EXCUSED_NOTE : null);
+				statement.setLong(6, key.studentId);
+				statement.setLong(7, key.studentId);
+				statement.setDate(8, Date.valueOf(key.date));
+				statement.addBatch();
+			}
+			return counts(statement.executeBatch());
+		}
+	}
+
+	private int[] update(Connection connection, List<Map.Entry<MergeKey, MergedScan>> updates) throws SQLException {
+		if (updates.isEmpty()) {
+			return new int[0];
+		}
+
+		try (PreparedStatement statement = connection.prepareStatement(UPDATE_SQL)) {
+			for (Map.Entry<MergeKey, MergedScan> entry : updates) {
+				MergeKey key = entry.getKey();
+				MergedScan scan = entry.getValue();
+				statement.setString(1, scan.excused ? AttendanceStatus.EXCUSED.name() : null);
+				setTime(statement, 2, scan.timeOut);
+				statement.setString(3, scan.excused ? EXCUSED_NOTE : null);
+				statement.setLong(4, key.studentId);
+				statement.setDate(5, Date.valueOf(key.date));
+				statement.addBatch();
+			}
+			return counts(statement.executeBatch());
+		}
+	}
+
+	/**
+	 * Treats statements the driver did not report a count for as successful.
+	 */
+	private int[] counts(int[] counts) {
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] == Statement.SUCCESS_NO_INFO) {
+				counts[i] = 1;
+			}
+		}
+		return counts;
+	}
+
+	private void setTime(PreparedStatement statement, int index, LocalTime time) throws SQLException {
+		if (time == null) {
+			statement.setNull(index, Types.TIME);
+		} else {
+			statement.setTime(index, Time.valueOf(time));
+		}
+	}
+
+	@Value
+	private static class MergeKey {
+		Long studentId;
+		LocalDate date;
+	}
+
+	/**
+	 * Scans of one student on one date within a chunk.
+	 */
+	private static class MergedScan {
+		private LocalTime timeIn;
+		private AttendanceStatus inStatus;
+		private LocalTime timeOut;
+		private boolean excused;
+		/**
+		 * Number of check-out and excuse scans folded into {@link #timeOut} and {@link #excused}.
+		 */
+		private int updates;
+	}
+}
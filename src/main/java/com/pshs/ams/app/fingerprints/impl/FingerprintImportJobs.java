@@ -0,0 +1,166 @@
+package com.pshs.ams.app.fingerprints.impl;
+
+import com.pshs.ams.app.fingerprints.models.FingerprintImportJob;
+import com.pshs.ams.app.fingerprints.models.FingerprintImportStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs fingerprint attendance imports in the background.
+ * <p>
+ * Uploads are copied to a temporary file while their SHA-256 is computed, so the HTTP request only lasts as long as
+ * the upload itself. The import then runs on a pool of {@code attendance.import.threads} threads with room for
+ * {@code attendance.import.queue-capacity} waiting jobs. Uploading a file identical to one that is queued, running or
+ * completed returns the existing job instead of importing it again. Finished jobs are kept for
+ * {@code attendance.import.retention}.
+ */
+@ApplicationScoped
+public class FingerprintImportJobs {
+
+	@Inject
+	Logger logger;
+
+	@Inject
+	FingerprintAttendanceImporter fingerprintAttendanceImporter;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@ConfigProperty(name = "attendance.import.threads", defaultValue = "2")
+	int threads;
+
+	@ConfigProperty(name = "attendance.import.queue-capacity", defaultValue = "10")
+	int queueCapacity;
+
+	@ConfigProperty(name = "attendance.import.retention", defaultValue = "PT24H")
+	Duration retention;
+
+	private final Map<String, FingerprintImportJob> jobs = new ConcurrentHashMap<>();
+	private final Map<String, FingerprintImportJob> jobsBySha256 = new ConcurrentHashMap<>();
+
+	private ThreadPoolExecutor executor;
+
+	void onStart(@Observes StartupEvent event) {
+		executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+			Thread.ofPlatform().name("fingerprint-import-", 0).daemon().factory());
+		meterRegistry.gaugeCollectionSize("ams.fingerprint.import.queue.depth", List.of(), executor.getQueue());
+	}
+
+	void onStop(@Observes ShutdownEvent event) {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Stores an upload and queues its import.
+	 *
+	 * @param input the uploaded file, left open
+	 * @return the new job, or the existing job of an identical file
+	 * @throws IOException                if the upload cannot be stored
+	 * @throws RejectedExecutionException if too many imports are already waiting
+	 */
+	public FingerprintImportJob submit(InputStream input) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		Path file = Files.createTempFile("fingerprint-import-", ".csv");
+		try {
+			Files.copy(new DigestInputStream(input, digest), file, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+		String sha256 = HexFormat.of().formatHex(digest.digest());
+
+		FingerprintImportJob job = new FingerprintImportJob(UUID.randomUUID().toString(), sha256, Files.size(file));
+		FingerprintImportJob existing = jobsBySha256.compute(sha256, (key, current) ->
+			current == null || current.getStatus() == FingerprintImportStatus.FAILED ? job : current);
+		if (existing != job) {
+			logger.info("Fingerprint attendance file " + sha256 + " was already uploaded as job " + existing.getId());
+			Files.deleteIfExists(file);
+			return existing;
+		}
+
+		jobs.put(job.getId(), job);
+		try {
+			executor.execute(() -> run(job, file));
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.getId());
+			jobsBySha256.remove(sha256, job);
+			Files.deleteIfExists(file);
+			throw e;
+		}
+		return job;
+	}
+
+	/**
+	 * @param id the job id
+	 * @return the job if it exists and has not expired
+	 */
+	public Optional<FingerprintImportJob> get(String id) {
+		return Optional.ofNullable(jobs.get(id));
+	}
+
+	private void run(FingerprintImportJob job, Path file) {
+		job.setStartedAt(Instant.now());
+		job.setStatus(FingerprintImportStatus.RUNNING);
+		try (InputStream input = Files.newInputStream(file)) {
+			job.setProgress(fingerprintAttendanceImporter.importFile(input, job::setProgress));
+			job.setStatus(FingerprintImportStatus.COMPLETED);
+		} catch (Exception e) {
+			logger.error("Fingerprint import " + job.getId() + " failed: " + e.getMessage(), e);
+			job.setError(e.getMessage());
+			job.setStatus(FingerprintImportStatus.FAILED);
+		} finally {
+			job.setFinishedAt(Instant.now());
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				logger.warn("Unable to delete " + file + ": " + e.getMessage());
+			}
+		}
+	}
+
+	@Scheduled(every = "1h", identity = "fingerprint-import-job-cleanup")
+	void removeExpiredJobs() {
+		Instant expiry = Instant.now().minus(retention);
+		jobs.values().removeIf(job -> {
+			boolean expired = job.getFinishedAt() != null && job.getFinishedAt().isBefore(expiry);
+			if (expired) {
+				jobsBySha256.remove(job.getSha256(), job);
+			}
+			return expired;
+		});
+	}
+}
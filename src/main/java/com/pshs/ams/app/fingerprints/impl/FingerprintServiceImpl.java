@@ -3,15 +3,19 @@ package com.pshs.ams.app.fingerprints.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.pshs.ams.global.models.custom.MessageResponse;
 import com.pshs.ams.global.models.custom.RFIDCard;
-import com.pshs.ams.app.rfid_credentials.models.entities.StudentCredential;
+import com.pshs.ams.app.rfid_credentials.impl.StudentCredentialIndex;
+import com.pshs.ams.app.rfid_credentials.models.dto.CredentialEntry;
 import com.pshs.ams.app.attendances.models.enums.AttendanceMode;
 import com.pshs.ams.app.attendances.services.AttendanceService;
+import com.pshs.ams.app.fingerprints.models.FingerprintImportJob;
 import com.pshs.ams.app.fingerprints.services.FingerprintService;
 import com.pshs.ams.global.models.enums.CodeStatus;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
 
 @ApplicationScoped
@@ -21,6 +25,12 @@ public class FingerprintServiceImpl implements FingerprintService {
 	@Inject
 	AttendanceService attendanceService;
 
+	@Inject
+	StudentCredentialIndex studentCredentialIndex;
+
+	@Inject
+	FingerprintImportJobs fingerprintImportJobs;
+
 	@Override
 	public Optional<MessageResponse> enrollFingerprint(Integer fingerprintId) {
 		if (fingerprintId <= 0) {
@@ -28,7 +38,7 @@ public class FingerprintServiceImpl implements FingerprintService {
 			return Optional.empty();
 		}
 
-		Optional<StudentCredential> rfidCredential = StudentCredential.find("fingerprintId", fingerprintId).firstResultOptional();
+		Optional<CredentialEntry> rfidCredential = studentCredentialIndex.findByFingerprintId(fingerprintId);
 		RFIDCard rfidCard = new RFIDCard();
 		if (rfidCredential.isPresent()) {
 			rfidCard.setHashedLrn(rfidCredential.get().getHashedLrn());
@@ -53,4 +63,14 @@ public class FingerprintServiceImpl implements FingerprintService {
 			return Optional.empty();
 		}
 	}
+
+	@Override
+	public FingerprintImportJob submitImport(InputStream file) throws IOException {
+		return fingerprintImportJobs.submit(file);
+	}
+
+	@Override
+	public Optional<FingerprintImportJob> getImportJob(String jobId) {
+		return fingerprintImportJobs.get(jobId);
+	}
 }
@@ -0,0 +1,56 @@
+package com.pshs.ams.app.fingerprints.models;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Progress and outcome of an uploaded fingerprint attendance file that is imported in the background.
+ */
+@Getter
+@Setter
+public class FingerprintImportJob {
+
+	private final String id;
+
+	/**
+	 * SHA-256 of the uploaded file, used to recognize the same file being uploaded twice.
+	 */
+	private final String sha256;
+
+	private final long fileSize;
+
+	private final Instant submittedAt = Instant.now();
+
+	private volatile FingerprintImportStatus status = FingerprintImportStatus.QUEUED;
+
+	private volatile Instant startedAt;
+
+	private volatile Instant finishedAt;
+
+	/**
+	 * Counts so far while the job runs, the final report once it completed.
+	 */
+	private volatile FingerprintImportSummary progress = new FingerprintImportSummary();
+
+	private volatile String error;
+
+	public FingerprintImportJob(String id, String sha256, long fileSize) {
+		this.id = id;
+		this.sha256 = sha256;
+		this.fileSize = fileSize;
+	}
+
+	public double getRowsPerSecond() {
+		Instant start = startedAt;
+		if (start == null) {
+			return 0;
+		}
+
+		Instant end = finishedAt != null ? finishedAt : Instant.now();
+		long millis = Math.max(Duration.between(start, end).toMillis(), 1);
+		return progress.getRows() * 1000.0 / millis;
+	}
+}
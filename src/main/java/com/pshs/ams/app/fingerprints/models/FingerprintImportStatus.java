@@ -0,0 +1,8 @@
+package com.pshs.ams.app.fingerprints.models;
+
+public enum FingerprintImportStatus {
+	QUEUED,
+	RUNNING,
+	COMPLETED,
+	FAILED
+}
@@ -0,0 +1,61 @@
+package com.pshs.ams.app.fingerprints.models;
+
+import lombok.Data;
+
+/**
+ * Outcome of a fingerprint attendance file import. Every line of the file is counted in exactly one of the
+ * outcome fields.
+ */
+@Data
+public class FingerprintImportSummary {
+
+	/**
+	 * Lines read, excluding blank lines.
+	 */
+	private long rows;
+
+	/**
+	 * Scans that created or updated an attendance.
+	 */
+	private long accepted;
+
+	/**
+	 * Check-ins of students who already had an attendance on that date.
+	 */
+	private long duplicates;
+
+	/**
+	 * Check-outs and excuses of students who had not checked in on that date.
+	 */
+	private long notCheckedIn;
+
+	/**
+	 * Scans of fingerprints that are not enrolled, or of students without a schedule.
+	 */
+	private long unknownFingerprints;
+
+	/**
+	 * Lines that could not be parsed.
+	 */
+	private long parseErrors;
+
+	/**
+	 * Scans that could not be written to the database.
+	 */
+	private long failed;
+
+	private long durationMillis;
+
+	public FingerprintImportSummary copy() {
+		FingerprintImportSummary copy = new FingerprintImportSummary();
+		copy.setRows(rows);
+		copy.setAccepted(accepted);
+		copy.setDuplicates(duplicates);
+		copy.setNotCheckedIn(notCheckedIn);
+		copy.setUnknownFingerprints(unknownFingerprints);
+		copy.setParseErrors(parseErrors);
+		copy.setFailed(failed);
+		copy.setDurationMillis(durationMillis);
+		return copy;
+	}
+}
@@ -1,10 +1,32 @@
 package com.pshs.ams.app.fingerprints.services;
 
+import com.pshs.ams.app.fingerprints.models.FingerprintImportJob;
 import com.pshs.ams.global.models.custom.MessageResponse;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 public interface FingerprintService {
 
 	Optional<MessageResponse> enrollFingerprint(Integer fingerprintId);
+
+	/**
+	 * Stores a fingerprint device dump and imports its attendances in the background.
+	 *
+	 * @param file CSV lines of fingerprint id, date time and mode
+	 * @return the import job, or the existing job if the same file was already uploaded
+	 * @throws IOException                if the file cannot be stored
+	 * @throws RejectedExecutionException if too many imports are already waiting
+	 */
+	FingerprintImportJob submitImport(InputStream file) throws IOException;
+
+	/**
+	 * Gets the progress, or the final report, of an import job.
+	 *
+	 * @param jobId the job id
+	 * @return the job if it exists
+	 */
+	Optional<FingerprintImportJob> getImportJob(String jobId);
 }
@@ -1,6 +1,7 @@
 package com.pshs.ams.app.reports.controllers;
 
 import com.pshs.ams.app.classrooms.exceptions.ClassroomNotFoundException;
+import com.pshs.ams.app.reports.models.dto.SF2Report;
 import com.pshs.ams.app.reports.services.ReportService;
 import com.pshs.ams.global.models.custom.MessageResponse;
 import com.pshs.ams.global.models.enums.CodeStatus;
@@ -8,15 +9,23 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import lombok.extern.log4j.Log4j2;
 import org.jboss.logging.Logger;
 
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
 @ApplicationScoped
 @Path("/api/v1/reports")
 public class ReportController {
 
+	private static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
 	@Inject
 	ReportService reportService;
 
@@ -27,11 +36,7 @@ public class ReportController {
 	@Path("/generate/sf2")
 	public Response generateSF2Report(@QueryParam("classroomId") Integer id) {
 		try {
-			reportService.generateSF2Report(id);
-			return Response.ok(new MessageResponse(
-				"SF2 report generated successfully",
-				CodeStatus.OK
-			)).build();
+			return download(reportService.generateSF2Report(id, YearMonth.now()));
 		} catch (ClassroomNotFoundException e) {
 			log.error("Classroom not found with ID: " + id);
 			return Response.status(Response.Status.NOT_FOUND).entity(new MessageResponse(
@@ -56,4 +61,82 @@ public class ReportController {
 			).build();
 		}
 	}
+
+	@GET
+	@Path("/sf2/{classroomId}")
+	public Response downloadSF2Report(@PathParam("classroomId") Integer id, @QueryParam("month") String month) {
+		try {
+			return download(reportService.generateSF2Report(id, parseMonth(month)));
+		} catch (ClassroomNotFoundException e) {
+			log.error("Classroom not found with ID: " + id);
+			return Response.status(Response.Status.NOT_FOUND).entity(new MessageResponse(
+				e.getMessage(),
+				CodeStatus.FAILED
+			)).build();
+		} catch (DateTimeParseException e) {
+			return Response.status(Response.Status.BAD_REQUEST).entity(new MessageResponse(
+				"Invalid month, expected yyyy-MM",
+				CodeStatus.BAD_REQUEST
+			)).build();
+		} catch (RuntimeException e) {
+			log.error("Error generating SF2 report", e);
+			return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(
+				new MessageResponse(
+					"Error generating SF2 report",
+					CodeStatus.FAILED
+				)
+			).build();
+		}
+	}
+
+	/**
+	 * Downloads the SF2 reports of several classrooms, or of every classroom of a grade level, as a ZIP archive.
+	 * Classrooms whose report could not be generated are listed in an {@code ERRORS.txt} entry of the archive.
+	 */
+	@GET
+	@Path("/sf2")
+	public Response downloadSF2Reports(
+		@QueryParam("classroomId") List<Integer> classroomIds,
+		@QueryParam("gradeLevelId") Integer gradeLevelId,
+		@QueryParam("month") String month
+	) {
+		try {
+			YearMonth yearMonth = parseMonth(month);
+			List<Integer> ids = reportService.getSF2Classrooms(classroomIds, gradeLevelId);
+			if (ids.isEmpty()) {
+				return Response.status(Response.Status.BAD_REQUEST).entity(new MessageResponse(
+					"No classrooms selected",
+					CodeStatus.BAD_REQUEST
+				)).build();
+			}
+
+			StreamingOutput zip = output -> reportService.generateSF2Reports(ids, yearMonth, output);
+			return Response.ok(zip, "application/zip")
+				.header("Content-Disposition", "attachment; filename=\"SF2_" + yearMonth + ".zip\"")
+				.build();
+		} catch (ClassroomNotFoundException e) {
+			return Response.status(Response.Status.NOT_FOUND).entity(new MessageResponse(
+				e.getMessage(),
+				CodeStatus.FAILED
+			)).build();
+		} catch (DateTimeParseException e) {
+			return Response.status(Response.Status.BAD_REQUEST).entity(new MessageResponse(
+				"Invalid month, expected yyyy-MM",
+				CodeStatus.BAD_REQUEST
+			)).build();
+		}
+	}
+
+	private Response download(SF2Report report) {
+		StreamingOutput workbook = output -> output.write(report.getContent());
+		return Response.ok(workbook, XLSX)
+			.header("Content-Disposition", "attachment; filename=\"" + report.getFileName() + "\"")
+			.header("Content-Length", report.getContent().length)
+			.tag(report.getContentHash())
+			.build();
+	}
+
+	private YearMonth parseMonth(String month) {
+		return month == null || month.isBlank() ? YearMonth.now() : YearMonth.parse(month);
+	}
 }
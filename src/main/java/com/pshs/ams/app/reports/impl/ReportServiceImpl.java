@@ -1,147 +1,455 @@
 package com.pshs.ams.app.reports.impl;
 
 import com.pshs.ams.app.classrooms.exceptions.ClassroomNotFoundException;
+import com.pshs.ams.app.reports.models.dto.AttendanceMatrix;
+import com.pshs.ams.app.reports.models.dto.SF2Report;
 import com.pshs.ams.app.reports.services.ReportService;
 import com.pshs.ams.app.reports.utils.ExcelUtils;
-import com.pshs.ams.app.students.services.StudentService;
+import com.pshs.ams.app.reports.utils.StreamingWorkbooks;
+import com.pshs.ams.app.reports.utils.StyleCache;
 import com.pshs.ams.app.students.models.entities.Student;
 import com.pshs.ams.app.classrooms.models.entities.Classroom;
 import com.pshs.ams.app.classrooms.services.ClassroomService;
-import com.pshs.ams.app.attendances.services.AttendanceService;
 import com.pshs.ams.app.attendances.models.entities.Attendance;
+import com.pshs.ams.app.attendances.impl.MonthlyAttendanceSummaries;
 import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
-import com.pshs.ams.global.models.custom.DateRange;
 import com.pshs.ams.global.models.enums.Sex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
-import org.apache.poi.ss.usermodel.CellStyle;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.*;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.HashMap;
-import java.util.Comparator;
-import java.util.stream.Collectors;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import io.quarkus.panache.common.Sort;
-import io.quarkus.panache.common.Page;
 
 @ApplicationScoped
 public class ReportServiceImpl implements ReportService {
 
-	@Inject
-	Logger log;
+	/**
+	 * First student row of the SF2 template (1-indexed, as in Excel).
+	 */
+	private static final int FIRST_STUDENT_ROW = 19;
 
-	@Inject
-	StudentService studentService;
+	/**
+	 * Row of the day numbers in the SF2 template (1-indexed, as in Excel), followed by the row of their weekdays.
+	 */
+	private static final int DAY_ROW = 17;
+
+	/**
+	 * Columns of the school days in the SF2 template, D to AB (0-indexed).
+	 */
+	private static final int FIRST_DAY_COLUMN = 3;
+	private static final int LAST_DAY_COLUMN = 27;
+
+	/**
+	 * Weekday letters of the SF2 template, weekends have no column.
+	 */
+	private static final Map<DayOfWeek, String> WEEKDAYS = Map.of(
+		DayOfWeek.MONDAY, "M",
+		DayOfWeek.TUESDAY, "T",
+		DayOfWeek.WEDNESDAY, "W",
+		DayOfWeek.THURSDAY, "TH",
+		DayOfWeek.FRIDAY, "F"
+	);
+
+	private static final String SF2_ERRORS_FILE_NAME = "ERRORS.txt";
 
 	@Inject
-	AttendanceService attendanceService;
+	Logger log;
 
 	@Inject
 	ClassroomService classroomService;
 
+	@Inject
+	MonthlyAttendanceSummaries monthlyAttendanceSummaries;
+
 	@ConfigProperty(name = "report.sf2_template")
 	String sf2TemplatePath;
 
 	@ConfigProperty(name = "report.sf2_report")
 	String sf2ReportPath;
 
+	@ConfigProperty(name = "report.sf2.threads", defaultValue = "4")
+	int reportThreads;
+
+	@ConfigProperty(name = "report.sf2.row-window", defaultValue = "100")
+	int rowWindow;
+
+	@ConfigProperty(name = "report.sf2.save-to-disk", defaultValue = "false")
+	boolean saveToDisk;
+
+	@Inject
+	@CacheName("sf2-reports")
+	Cache sf2Reports;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	private volatile byte[] sf2Template;
+
+	private ExecutorService reportExecutor;
+
+	void onStart(@Observes StartupEvent event) {
+		reportExecutor = Executors.newFixedThreadPool(reportThreads, Thread.ofPlatform().name("sf2-report-", 0).daemon().factory());
+	}
+
+	void onStop(@Observes ShutdownEvent event) {
+		reportExecutor.shutdownNow();
+	}
+
+	/**
+	 * Generates an SF2 report for a classroom and month
+	 * <p>
+	 * Reports are cached by a hash of everything they are built from, so an unchanged report is served again without
+	 * being rendered. When {@code report.sf2.save-to-disk} is set, rendered reports are also written next to
+	 * {@code report.sf2_report}.
+	 *
+	 * @param classroomId the ID of the classroom to generate the report for
+	 * @param yearMonth   the month of the report
+	 * @return the report as an xlsx file
+	 */
+	@Override
+	public SF2Report generateSF2Report(Integer classroomId, YearMonth yearMonth) throws ClassroomNotFoundException {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			SF2Classroom classroom = loadSF2ClassroomInTransaction(classroomId, yearMonth);
+			String fileName = getSF2FileName(classroom.getClassroomName(), yearMonth);
+			String contentHash = getContentHash(classroom, yearMonth);
+			byte[] content = sf2Reports.get(contentHash, key -> {
+				byte[] report = renderSF2Report(classroom, yearMonth);
+				if (saveToDisk) {
+					saveReport(report, classroomId, fileName);
+				}
+				return report;
+			}).await().indefinitely();
+			return new SF2Report(classroomId, fileName, contentHash, content);
+		} finally {
+			sample.stop(meterRegistry.timer("ams.report.sf2"));
+		}
+	}
+
+	/**
+	 * Resolves the classrooms of a batch of SF2 reports
+	 *
+	 * @param classroomIds the IDs of the classrooms, may be empty
+	 * @param gradeLevelId the grade level whose classrooms are also included, may be null
+	 * @return the classroom IDs, without duplicates
+	 * @throws ClassroomNotFoundException if one of the classrooms does not exist
+	 */
+	@Override
+	public List<Integer> getSF2Classrooms(List<Integer> classroomIds, Integer gradeLevelId) throws ClassroomNotFoundException {
+		Set<Integer> ids = new LinkedHashSet<>(classroomIds);
+		if (!ids.isEmpty()) {
+			List<Integer> found = Classroom.getEntityManager()
+				.createQuery("SELECT c.id FROM Classroom c WHERE c.id IN ?1", Integer.class)
+				.setParameter(1, ids)
+				.getResultList();
+			for (Integer id : ids) {
+				if (!found.contains(id)) {
+					throw new ClassroomNotFoundException("Classroom not found with ID: " + id);
+				}
+			}
+		}
+
+		if (gradeLevelId != null) {
+			ids.addAll(Classroom.getEntityManager()
+				.createQuery("SELECT c.id FROM Classroom c WHERE c.gradeLevel.id = ?1 ORDER BY c.classroomName", Integer.class)
+				.setParameter(1, gradeLevelId)
+				.getResultList());
+		}
+
+		return List.copyOf(ids);
+	}
+
 	/**
-	 * Generates an SF2 report for a specific classroom
+	 * Generates the SF2 reports of several classrooms in parallel and writes them as a ZIP archive
+	 * <p>
+	 * Classrooms whose report fails are left out of the archive and listed in a {@value #SF2_ERRORS_FILE_NAME} entry
+	 * at its end.
 	 *
-	 * @param classroomId The ID of the classroom to generate the report for
+	 * @param classroomIds the IDs of the classrooms, as returned by {@link #getSF2Classrooms(List, Integer)}
+	 * @param yearMonth    the month of the reports
+	 * @param output       the stream to write the archive to
+	 * @throws IOException if the archive cannot be written
+	 */
+	@Override
+	public void generateSF2Reports(List<Integer> classroomIds, YearMonth yearMonth, OutputStream output) throws IOException {
+		log.info("Generating " + classroomIds.size() + " SF2 reports for " + yearMonth);
+		Timer.Sample sample = Timer.start(meterRegistry);
+
+		// At most two reports per thread are generated ahead of the one being zipped, so finished reports waiting for
+		// their turn do not pile up in memory on large batches
+		int window = reportThreads * 2;
+		List<CompletableFuture<SF2Report>> reports = new ArrayList<>(classroomIds.size());
+		for (int i = 0; i < Math.min(window, classroomIds.size()); i++) {
+			reports.add(submitSF2Report(classroomIds.get(i), yearMonth));
+		}
+
+		// Entries are written in request order, each as soon as it and the ones before it are ready.
+		List<String> errors = new ArrayList<>();
+		try (ZipOutputStream zip = new ZipOutputStream(output)) {
+			for (int i = 0; i < classroomIds.size(); i++) {
+				if (i + window < classroomIds.size()) {
+					reports.add(submitSF2Report(classroomIds.get(i + window), yearMonth));
+				}
+
+				SF2Report report;
+				try {
+					report = reports.get(i).join();
+					reports.set(i, null);
+				} catch (CompletionException e) {
+					log.error("Error generating SF2 report for classroom ID: " + classroomIds.get(i), e.getCause());
+					errors.add("Classroom ID " + classroomIds.get(i) + ": " + e.getCause().getMessage());
+					reports.set(i, null);
+					continue;
+				}
+
+				zip.putNextEntry(new ZipEntry(report.getFileName()));
+				zip.write(report.getContent());
+				zip.closeEntry();
+			}
+
+			// The response is already streaming, so failed classrooms are reported inside the archive
+			if (!errors.isEmpty()) {
+				zip.putNextEntry(new ZipEntry(SF2_ERRORS_FILE_NAME));
+				zip.write(("The SF2 reports of these classrooms could not be generated:\n" + String.join("\n", errors) + "\n")
+					.getBytes(StandardCharsets.UTF_8));
+				zip.closeEntry();
+			}
+		} finally {
+			reports.stream().filter(Objects::nonNull).forEach(report -> report.cancel(false));
+			long elapsed = sample.stop(meterRegistry.timer("ams.report.sf2.batch"));
+			log.info("Generated " + classroomIds.size() + " SF2 reports in " + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms");
+		}
+	}
+
+	/**
+	 * Hashes the template, the month and every value written into the report
 	 */
-	public void generateSF2Report(Integer classroomId) throws ClassroomNotFoundException, RuntimeException {
+	private String getContentHash(SF2Classroom classroom, YearMonth yearMonth) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		try (DataOutputStream data = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+			data.write(getSF2Template());
+			data.writeUTF(yearMonth.toString());
+			data.writeUTF(classroom.getClassroomName());
+			data.writeUTF(classroom.getGradeLevel());
+			int row = 0;
+			for (List<Student> students : List.of(classroom.getMaleStudents(), classroom.getFemaleStudents())) {
+				data.writeInt(students.size());
+				for (Student student : students) {
+					data.writeUTF(String.valueOf(student.getLastName()));
+					data.writeUTF(String.valueOf(student.getFirstName()));
+					data.writeUTF(String.valueOf(student.getMiddleInitial()));
+					data.write(classroom.getMatrix().getRow(row++));
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private CompletableFuture<SF2Report> submitSF2Report(Integer classroomId, YearMonth yearMonth) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return generateSF2Report(classroomId, yearMonth);
+			} catch (ClassroomNotFoundException e) {
+				throw new CompletionException(e);
+			}
+		}, reportExecutor);
+	}
+
+	private String getSF2FileName(String classroomName, YearMonth yearMonth) {
+		return "SF2_" + classroomName.replaceAll("[^a-zA-Z0-9]", "_") + "_" + yearMonth + ".xlsx";
+	}
+
+	private SF2Classroom loadSF2ClassroomInTransaction(Integer classroomId, YearMonth yearMonth) throws ClassroomNotFoundException {
+		try {
+			return QuarkusTransaction.requiringNew().call(() -> loadSF2Classroom(classroomId, yearMonth));
+		} catch (RuntimeException e) {
+			if (e.getCause() instanceof ClassroomNotFoundException notFound) {
+				throw notFound;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Loads everything an SF2 report needs, so that the workbook can be rendered without a database session
+	 */
+	private SF2Classroom loadSF2Classroom(Integer classroomId, YearMonth yearMonth) throws ClassroomNotFoundException {
 		log.info("Generating SF2 Report for classroom ID: " + classroomId);
 
 		// Get the classroom
 		Classroom classroom = classroomService.get(classroomId.longValue()).orElseThrow(
 				() -> new ClassroomNotFoundException("Classroom not found with ID: " + classroomId));
 
-		if (classroom == null) {
-			log.error("Classroom not found with ID: " + classroomId);
-			throw new IllegalArgumentException("Classroom not found with ID: " + classroomId);
-		}
+		// One roster query, split by sex in the order of the report
+		List<Student> roster = Student.list("classroom.id = ?1", Sort.by("lastName").and("firstName"), classroomId);
+		List<Student> maleStudents = roster.stream().filter(student -> student.getSex() == Sex.MALE).toList();
+		List<Student> femaleStudents = roster.stream().filter(student -> student.getSex() == Sex.FEMALE).toList();
 
-		// Get current month and create date range
-		LocalDate today = LocalDate.now();
-		YearMonth yearMonth = YearMonth.from(today);
-		LocalDate startOfMonth = yearMonth.atDay(1);
-		LocalDate endOfMonth = yearMonth.atEndOfMonth();
-		DateRange monthDateRange = new DateRange(startOfMonth, endOfMonth);
+		// Rows of the matrix follow the report: male students first, then female students
+		Map<Long, Integer> rows = new HashMap<>();
+		for (Student student : maleStudents) {
+			rows.put(student.getId(), rows.size());
+		}
+		for (Student student : femaleStudents) {
+			rows.put(student.getId(), rows.size());
+		}
 
-		// Calculate school days (excluding weekends)
-		int schoolDays = countSchoolDays(startOfMonth, endOfMonth);
+		AttendanceMatrix matrix = new AttendanceMatrix(yearMonth, rows.size());
+		if (yearMonth.isBefore(YearMonth.now())) {
+			// Closed months only need the present days of each student, which are kept in the monthly summaries
+			monthlyAttendanceSummaries.getPresentDays(yearMonth, classroomId).forEach((studentId, presentDays) -> {
+				Integer row = rows.get(studentId);
+				if (row != null) {
+					matrix.setPresentDays(row, presentDays);
+				}
+			});
+			return toSF2Classroom(classroom, maleStudents, femaleStudents, matrix);
+		}
 
-		// Load the SF2 template instead of creating a new workbook
-		XSSFWorkbook workbook;
-		XSSFSheet sheet;
-		try {
-			// Load the template file
-			java.io.FileInputStream fis = new java.io.FileInputStream(sf2TemplatePath);
-			workbook = new XSSFWorkbook(fis);
-			// Set formula calculation to automatic
-			workbook.setForceFormulaRecalculation(true);
-			sheet = workbook.getSheetAt(0); // Get the first sheet
-			fis.close();
+		// One attendance query for the whole classroom and month, pivoted into the matrix
+		List<Object[]> attendances = Attendance.getEntityManager().createQuery(
+				"SELECT a.student.id, a.date, a.status FROM Attendance a " +
+					"WHERE a.student.classroom.id = ?1 AND a.date BETWEEN ?2 AND ?3", Object[].class)
+			.setParameter(1, classroomId)
+			.setParameter(2, yearMonth.atDay(1))
+			.setParameter(3, yearMonth.atEndOfMonth())
+			.getResultList();
+		for (Object[] attendance : attendances) {
+			Integer row = rows.get((Long) attendance[0]);
+			if (row != null) {
+				matrix.set(row, (LocalDate) attendance[1], (AttendanceStatus) attendance[2]);
+			}
+		}
 
-			log.info("Successfully loaded SF2 template from: " + sf2TemplatePath);
+		return toSF2Classroom(classroom, maleStudents, femaleStudents, matrix);
+	}
 
-			// Update header information in the template
-			updateHeaderInformation(sheet, classroom, yearMonth, schoolDays);
-		} catch (IOException e) {
-			log.error("Error loading SF2 template: " + e.getMessage(), e);
-			throw new RuntimeException("Failed to load SF2 template: " + e.getMessage(), e);
-		}
+	private SF2Classroom toSF2Classroom(Classroom classroom, List<Student> maleStudents, List<Student> femaleStudents, AttendanceMatrix matrix) {
+		String gradeLevel = classroom.getGradeLevel() != null && classroom.getGradeLevel().getName() != null ?
+			classroom.getGradeLevel().getName() : "Not Set";
 
-		// Get male and female students from the classroom sorted by last name
-		List<Student> maleStudents = getStudentsByClassroomAndGenderSortedByLastName(classroomId, Sex.MALE);
-		List<Student> femaleStudents = getStudentsByClassroomAndGenderSortedByLastName(classroomId, Sex.FEMALE);
+		return new SF2Classroom(classroom.getClassroomName(), gradeLevel, maleStudents, femaleStudents, matrix);
+	}
 
-		// Starting row for student data (at row 19 as specified in the template)
-		int currentRow = 19; // Corresponds to row 19 in Excel (1-indexed)
+	private byte[] renderSF2Report(SF2Classroom classroom, YearMonth yearMonth) {
+		LocalDate startOfMonth = yearMonth.atDay(1);
+		LocalDate endOfMonth = yearMonth.atEndOfMonth();
 
-		// Remove gender section headers as requested and directly fill student data
-		currentRow = fillStudentData(sheet, maleStudents, startOfMonth, endOfMonth, currentRow);
+		// Each report gets its own copy of the template, parsed from the bytes read once from disk
+		try (XSSFWorkbook template = new XSSFWorkbook(new ByteArrayInputStream(getSF2Template()))) {
+			// Set formula calculation to automatic
+			template.setForceFormulaRecalculation(true);
 
-		// Add male totals
-		currentRow = addGenderTotals(sheet, "MALE DAILY TOTALS (Present)", maleStudents.size(), startOfMonth, endOfMonth, currentRow);
+			// Update header information in the template, before its rows are handed to the streaming workbook
+			updateHeaderInformation(template.getSheetAt(0), classroom, yearMonth);
 
-		// Remove spacing between sections
+			// Student rows are streamed, so only a window of rows is held in memory however large the class is
+			SXSSFWorkbook workbook = StreamingWorkbooks.fromTemplate(template, FIRST_STUDENT_ROW - 1, rowWindow);
+			Sheet sheet = workbook.getSheetAt(0); // Get the first sheet
+			StyleCache styles = new StyleCache(workbook);
 
-		// Fill female students data
-		currentRow = fillStudentData(sheet, femaleStudents, startOfMonth, endOfMonth, currentRow);
+			// Starting row for student data (at row 19 as specified in the template)
+			int currentRow = FIRST_STUDENT_ROW; // Corresponds to row 19 in Excel (1-indexed)
 
-		// Add female totals
-		currentRow = addGenderTotals(sheet, "FEMALE DAILY TOTALS (Present)", femaleStudents.size(), startOfMonth, endOfMonth, currentRow);
+			// Remove gender section headers as requested and directly fill student data
+			currentRow = fillStudentData(sheet, styles, classroom.getMaleStudents(), classroom.getMatrix(), 0, startOfMonth, endOfMonth, currentRow);
 
-		// Remove spacing and total totals section
+			// Add male totals
+			currentRow = addGenderTotals(sheet, styles, "MALE DAILY TOTALS (Present)", classroom.getMaleStudents().size(), startOfMonth, endOfMonth, currentRow);
 
-		// Add borders to all cells in additional columns (AE onwards) for all student and total rows
-		addBordersToAdditionalColumns(sheet, 19, currentRow - 1);
+			// Fill female students data
+			currentRow = fillStudentData(sheet, styles, classroom.getFemaleStudents(), classroom.getMatrix(), classroom.getMaleStudents().size(),
+				startOfMonth, endOfMonth, currentRow);
 
-		try {
-			// Generate filename with classroom name
-			String classroomName = classroom.getClassroomName().replaceAll("[^a-zA-Z0-9]", "_");
-			String reportPath = sf2ReportPath.replace(".xlsx", "_" + classroomName + ".xlsx");
+			// Add female totals
+			addGenderTotals(sheet, styles, "FEMALE DAILY TOTALS (Present)", classroom.getFemaleStudents().size(), startOfMonth, endOfMonth, currentRow);
 
-			// Save the report
-			saveReport(workbook, reportPath);
-			log.info("SF2 Report generated successfully at: " + reportPath);
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			StreamingWorkbooks.write(workbook, output);
+			return output.toByteArray();
 		} catch (IOException e) {
-			log.error("Error generating SF2 Report", e);
+			log.error("Error rendering SF2 report: " + e.getMessage(), e);
+			throw new RuntimeException("Failed to render SF2 report: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reads the SF2 template from disk on first use
+	 */
+	private byte[] getSF2Template() {
+		byte[] template = sf2Template;
+		if (template == null) {
+			synchronized (this) {
+				template = sf2Template;
+				if (template == null) {
+					try {
+						template = Files.readAllBytes(Paths.get(sf2TemplatePath));
+					} catch (IOException e) {
+						log.error("Error loading SF2 template: " + e.getMessage(), e);
+						throw new RuntimeException("Failed to load SF2 template: " + e.getMessage(), e);
+					}
+					log.info("Successfully loaded SF2 template from: " + sf2TemplatePath);
+					sf2Template = template;
+				}
+			}
 		}
+		return template;
 	}
 
 	/**
@@ -162,39 +470,21 @@ public class ReportServiceImpl implements ReportService {
 		return schoolDays;
 	}
 
-	/**
-	 * Gets students of a specific classroom and gender sorted by last name
-	 *
-	 * @param classroomId the classroom ID
-	 * @param gender      the gender to filter by
-	 * @return list of students
-	 */
-	private List<Student> getStudentsByClassroomAndGenderSortedByLastName(Integer classroomId, Sex gender) {
-		// Get all students
-		List<Student> allStudents = studentService.getAllStudents(Sort.by("lastName"), Page.ofSize(1000));
-
-		// Filter students by classroom and gender
-		return allStudents.stream()
-				.filter(student -> student.getClassroom() != null &&
-						student.getClassroom().getId().equals(classroomId) &&
-						student.getSex() == gender)
-				.sorted(Comparator.comparing(Student::getLastName))
-				.collect(Collectors.toList());
-	}
-
 	/**
 	 * Fills student data into the template at the specified row
 	 *
-	 * @param sheet      the sheet to update
-	 * @param students   the list of students
-	 * @param startDate  the start date of the month
+	 * @param sheet       the sheet to update
+	 * @param styles      the styles of the workbook
+	 * @param students    the list of students
+	 * @param matrix      the attendance matrix of the classroom
+	 * @param firstRow    the matrix row of the first student
+	 * @param startDate   the start date of the month
 	 * @param endDate    the end date of the month
 	 * @param startRow   the starting row index (0-based)
 	 * @return the next available row index
 	 */
-	private int fillStudentData(XSSFSheet sheet, List<Student> students, LocalDate startDate, LocalDate endDate,
-			int startRow) {
-		int daysInMonth = YearMonth.from(startDate).lengthOfMonth();
+	private int fillStudentData(Sheet sheet, StyleCache styles, List<Student> students, AttendanceMatrix matrix, int firstRow,
+			LocalDate startDate, LocalDate endDate, int startRow) {
 		int currentRow = startRow;
 
 		// Fill student data
@@ -207,73 +497,57 @@ public class ReportServiceImpl implements ReportService {
 			}
 
 			// Add student number in column B (index 1)
-			XSSFCell numberCell = (XSSFCell) row.getCell(1);
+			Cell numberCell = row.getCell(1);
 			if (numberCell == null) {
-				numberCell = (XSSFCell) row.createCell(1);
+				numberCell = row.createCell(1);
 			}
 			numberCell.setCellValue(i + 1);
-			addBlackBorder(numberCell);
+			ExcelUtils.addThinBorder(numberCell, styles);
 
 			// Fill student name in column C (index 2)
-			XSSFCell nameCell = (XSSFCell) row.getCell(2);
+			Cell nameCell = row.getCell(2);
 			if (nameCell == null) {
-				nameCell = (XSSFCell) row.createCell(2);
+				nameCell = row.createCell(2);
 			}
 			String middleInitial = student.getMiddleInitial() != null ? student.getMiddleInitial() : "";
 			String fullName = student.getLastName() + ", " + student.getFirstName() + " " + middleInitial;
 			nameCell.setCellValue(fullName);
-			addBlackBorder(nameCell);
-
-			// Get student attendance for the month
-			Map<LocalDate, AttendanceStatus> studentAttendance = getStudentAttendanceForMonth(student.getId(),
-					startDate, endDate);
+			ExcelUtils.addThinBorder(nameCell, styles);
 
 			// Fill attendance data for each day starting at column D (index 3)
 			int columnIndex = 3;
             // First make sure to add borders to all potential day cells (D-Z, AA-AD)
             // even if they don't contain attendance data
             for (int dayColIndex = 3; dayColIndex <= 29; dayColIndex++) {
-                XSSFCell dayCell = (XSSFCell) row.getCell(dayColIndex);
+                Cell dayCell = row.getCell(dayColIndex);
                 if (dayCell == null) {
-                    dayCell = (XSSFCell) row.createCell(dayColIndex);
+                    dayCell = row.createCell(dayColIndex);
                 }
-                addBlackBorder(dayCell);
+                ExcelUtils.addThinBorder(dayCell, styles);
             }
 
-			for (int day = 1; day <= daysInMonth; day++) {
-				LocalDate date = startDate.plusDays(day - 1);
-
-				// Skip weekends
-				if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
-					continue;
-				}
-
-				XSSFCell dayCell = (XSSFCell) row.getCell(columnIndex);
+			for (int schoolDay = 0; schoolDay < matrix.getSchoolDays().size(); schoolDay++) {
+				Cell dayCell = row.getCell(columnIndex);
 				if (dayCell == null) {
-					dayCell = (XSSFCell) row.createCell(columnIndex);
+					dayCell = row.createCell(columnIndex);
 				}
 
-				if (studentAttendance.containsKey(date)) {
-					AttendanceStatus status = studentAttendance.get(date);
-					if (status == AttendanceStatus.ABSENT) {
-						dayCell.setCellValue("X"); // Mark absent with X
-					} else {
-						// Present (ON_TIME, LATE, or any other status that's not ABSENT)
-						dayCell.setCellValue(""); // Leave cell empty for present
-					}
+				if (matrix.isPresent(firstRow + i, schoolDay)) {
+					// Present (ON_TIME, LATE, or any other status that's not ABSENT)
+					dayCell.setCellValue(""); // Leave cell empty for present
 				} else {
-					// No attendance record for this day (default to absent)
+					// Absent, or no attendance record for this day (default to absent)
 					dayCell.setCellValue("X");
 				}
-				addBlackBorder(dayCell);
+				ExcelUtils.addThinBorder(dayCell, styles);
 				columnIndex++;
 			}
 
 			// Set formulas for absent and present counts instead of calculating values
 			// Column AC (index 28) - Absent count - counts cells with "X"
-			XSSFCell absentCell = (XSSFCell) row.getCell(28);
+			Cell absentCell = row.getCell(28);
 			if (absentCell == null) {
-				absentCell = (XSSFCell) row.createCell(28);
+				absentCell = row.createCell(28);
 			}
 
 			// Create a formula to count cells with "X" in the range D to AB columns
@@ -281,19 +555,26 @@ public class ReportServiceImpl implements ReportService {
 			String endColumn = getExcelColumnName(27); // Column AB or whatever is the last day column
 			String formula = "COUNTIF(" + startColumn + currentRow + ":" + endColumn + currentRow + ",\"X\")";
 			absentCell.setCellFormula(formula);
-			addBlackBorder(absentCell);
+			ExcelUtils.addThinBorder(absentCell, styles);
 
 			// Column AD (index 29) - Present count - counts school days minus absent days
-			XSSFCell presentCell = (XSSFCell) row.getCell(29);
+			Cell presentCell = row.getCell(29);
 			if (presentCell == null) {
-				presentCell = (XSSFCell) row.createCell(29);
+				presentCell = row.createCell(29);
 			}
 
 			// Count school days minus absent days
 			int schoolDays = countSchoolDays(startDate, endDate);
 			formula = schoolDays + "-AC" + currentRow;
 			presentCell.setCellFormula(formula);
-			addBlackBorder(presentCell);
+			ExcelUtils.addThinBorder(presentCell, styles);
+
+			// Column AE (index 30) is bordered while the row is still in the streaming window
+			Cell aeCell = row.getCell(30);
+			if (aeCell == null) {
+				aeCell = row.createCell(30);
+			}
+			ExcelUtils.addThinBorder(aeCell, styles);
 
 			currentRow++;
 		}
@@ -301,31 +582,11 @@ public class ReportServiceImpl implements ReportService {
 		return currentRow;
 	}
 
-	/**
-	 * Gets a student's attendance records for a specified month
-	 */
-	private Map<LocalDate, AttendanceStatus> getStudentAttendanceForMonth(Long studentId, LocalDate startDate,
-			LocalDate endDate) {
-		// Create a date range for the month
-		DateRange dateRange = new DateRange(startDate, endDate);
-
-		// Get all attendance records for this student in the date range
-		List<Attendance> attendances = attendanceService.getFilteredAttendances(
-				dateRange, null, null, null, studentId, Page.ofSize(100), Sort.by("date"));
-
-		// Map the attendance records by date
-		Map<LocalDate, AttendanceStatus> attendanceMap = new HashMap<>();
-		for (Attendance attendance : attendances) {
-			attendanceMap.put(attendance.getDate(), attendance.getStatus());
-		}
-
-		return attendanceMap;
-	}
-
 	/**
 	 * Add gender-specific totals (male or female) to the sheet
 	 *
 	 * @param sheet      the sheet to update
+	 * @param styles     the styles of the workbook
 	 * @param label      the label for the totals row
 	 * @param count      the number of students in this gender
 	 * @param startDate  the start date of the month
@@ -333,7 +594,7 @@ public class ReportServiceImpl implements ReportService {
 	 * @param rowNum     the row where to add the totals
 	 * @return the next available row index
 	 */
-	private int addGenderTotals(XSSFSheet sheet, String label, int count, LocalDate startDate, LocalDate endDate, int rowNum) {
+	private int addGenderTotals(Sheet sheet, StyleCache styles, String label, int count, LocalDate startDate, LocalDate endDate, int rowNum) {
 		int daysInMonth = YearMonth.from(startDate).lengthOfMonth();
 
 		// Get or create gender totals row
@@ -343,20 +604,20 @@ public class ReportServiceImpl implements ReportService {
 		}
 
 		// Empty cell for column B
-		XSSFCell emptyCell = (XSSFCell) totalsRow.getCell(1);
+		Cell emptyCell = totalsRow.getCell(1);
 		if (emptyCell == null) {
-			emptyCell = (XSSFCell) totalsRow.createCell(1);
+			emptyCell = totalsRow.createCell(1);
 		}
 		emptyCell.setCellValue("");
-		addBlackBorder(emptyCell);
+		ExcelUtils.addThinBorder(emptyCell, styles);
 
 		// Label for gender totals row in column C
-		XSSFCell labelCell = (XSSFCell) totalsRow.getCell(2);
+		Cell labelCell = totalsRow.getCell(2);
 		if (labelCell == null) {
-			labelCell = (XSSFCell) totalsRow.createCell(2);
+			labelCell = totalsRow.createCell(2);
 		}
 		labelCell.setCellValue(label);
-		addBlackBorder(labelCell);
+		ExcelUtils.addThinBorder(labelCell, styles);
 
 		// Find the rows where this gender's data starts and ends
 		int startRow = rowNum - count;
@@ -364,26 +625,22 @@ public class ReportServiceImpl implements ReportService {
 
 		// The header row is row 17 (0-based index 16) where day numbers are displayed starting column D
 		int headerRowIndex = 17;
-		Row headerRow = sheet.getRow(headerRowIndex - 1);
-		if (headerRow == null) {
-			headerRow = sheet.createRow(headerRowIndex - 1);
-		}
 
 		// First make sure all the day cells have borders
 		for (int dayColIndex = 3; dayColIndex <= 29; dayColIndex++) {
-			XSSFCell dayCell = (XSSFCell) totalsRow.getCell(dayColIndex);
+			Cell dayCell = totalsRow.getCell(dayColIndex);
 			if (dayCell == null) {
-				dayCell = (XSSFCell) totalsRow.createCell(dayColIndex);
+				dayCell = totalsRow.createCell(dayColIndex);
 			}
-			addBlackBorder(dayCell);
+			ExcelUtils.addThinBorder(dayCell, styles);
 		}
 
 		// Also add border to column AE for this row
-		XSSFCell aeCell = (XSSFCell) totalsRow.getCell(30); // Column AE (index 30)
+		Cell aeCell = totalsRow.getCell(30); // Column AE (index 30)
 		if (aeCell == null) {
-			aeCell = (XSSFCell) totalsRow.createCell(30);
+			aeCell = totalsRow.createCell(30);
 		}
-		addBlackBorder(aeCell);
+		ExcelUtils.addThinBorder(aeCell, styles);
 
 		// Calculate daily totals for all weekdays (D-AD) using formulas
 		// Use conditional formulas that check if the day is valid
@@ -396,9 +653,9 @@ public class ReportServiceImpl implements ReportService {
 				continue;
 			}
 
-			XSSFCell dayTotalCell = (XSSFCell) totalsRow.getCell(columnIndex);
+			Cell dayTotalCell = totalsRow.getCell(columnIndex);
 			if (dayTotalCell == null) {
-				dayTotalCell = (XSSFCell) totalsRow.createCell(columnIndex);
+				dayTotalCell = totalsRow.createCell(columnIndex);
 			}
 
 			// Calculate present students using a conditional formula
@@ -409,16 +666,16 @@ public class ReportServiceImpl implements ReportService {
 				count + "-COUNTIF(" + column + startRow + ":" + column + endRow + ",\"X\"),0)";
 
 			dayTotalCell.setCellFormula(formula);
-			addBlackBorder(dayTotalCell);
+			ExcelUtils.addThinBorder(dayTotalCell, styles);
 
 			columnIndex++;
 		}
 
 		// Apply conditional formulas for all remaining day columns up to AD (index 29)
 		while (columnIndex <= 29) {
-			XSSFCell dayTotalCell = (XSSFCell) totalsRow.getCell(columnIndex);
+			Cell dayTotalCell = totalsRow.getCell(columnIndex);
 			if (dayTotalCell == null) {
-				dayTotalCell = (XSSFCell) totalsRow.createCell(columnIndex);
+				dayTotalCell = totalsRow.createCell(columnIndex);
 			}
 
 			// Use the same conditional formula approach for all cells
@@ -429,80 +686,30 @@ public class ReportServiceImpl implements ReportService {
 				count + "-COUNTIF(" + column + startRow + ":" + column + endRow + ",\"X\"),0)";
 
 			dayTotalCell.setCellFormula(formula);
-			addBlackBorder(dayTotalCell);
+			ExcelUtils.addThinBorder(dayTotalCell, styles);
 
 			columnIndex++;
 		}
 
 		// Total absent for this gender in column AC (index 28)
-		XSSFCell totalAbsentCell = (XSSFCell) totalsRow.getCell(28);
+		Cell totalAbsentCell = totalsRow.getCell(28);
 		if (totalAbsentCell == null) {
-			totalAbsentCell = (XSSFCell) totalsRow.createCell(28);
+			totalAbsentCell = totalsRow.createCell(28);
 		}
 		totalAbsentCell.setCellFormula("SUM(AC" + startRow + ":AC" + endRow + ")");
-		addBlackBorder(totalAbsentCell);
+		ExcelUtils.addThinBorder(totalAbsentCell, styles);
 
 		// Total present for this gender in column AD (index 29)
-		XSSFCell totalPresentCell = (XSSFCell) totalsRow.getCell(29);
+		Cell totalPresentCell = totalsRow.getCell(29);
 		if (totalPresentCell == null) {
-			totalPresentCell = (XSSFCell) totalsRow.createCell(29);
+			totalPresentCell = totalsRow.createCell(29);
 		}
 		totalPresentCell.setCellFormula("SUM(AD" + startRow + ":AD" + endRow + ")");
-		addBlackBorder(totalPresentCell);
+		ExcelUtils.addThinBorder(totalPresentCell, styles);
 
 		return rowNum + 1;
 	}
 
-	/**
-	 * Adds black borders to all cells in column AE
-	 * from startRow to endRow
-	 *
-	 * @param sheet     the sheet to update
-	 * @param startRow  the starting Excel row (1-indexed)
-	 * @param endRow    the ending Excel row (1-indexed)
-	 */
-	private void addBordersToAdditionalColumns(XSSFSheet sheet, int startRow, int endRow) {
-		// Add borders to column AE only
-		int colIndex = 30; // Column AE (0-indexed)
-
-		for (int rowIndex = startRow - 1; rowIndex <= endRow - 1; rowIndex++) {
-			Row row = sheet.getRow(rowIndex);
-			if (row == null) {
-				row = sheet.createRow(rowIndex);
-			}
-
-			XSSFCell cell = (XSSFCell) row.getCell(colIndex);
-			if (cell == null) {
-				cell = (XSSFCell) row.createCell(colIndex);
-			}
-			addBlackBorder(cell);
-		}
-	}
-
-	/**
-	 * Adds a black border to a cell
-	 *
-	 * @param cell the cell to add borders to
-	 */
-	private void addBlackBorder(XSSFCell cell) {
-		CellStyle style = cell.getCellStyle();
-		if (style == null) {
-			style = cell.getSheet().getWorkbook().createCellStyle();
-		} else {
-			// We need to clone the style to modify it
-			style = cell.getSheet().getWorkbook().createCellStyle();
-			style.cloneStyleFrom(cell.getCellStyle());
-		}
-
-		// Add black borders on all sides
-		style.setBorderTop(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-		style.setBorderBottom(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-		style.setBorderLeft(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-		style.setBorderRight(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-
-		cell.setCellStyle(style);
-	}
-
 	/**
 	 * Converts a 0-based column index to Excel column name (A, B, C, ... Z, AA, AB, etc.)
 	 *
@@ -522,109 +729,113 @@ public class ReportServiceImpl implements ReportService {
 	}
 
 	/**
-	 * Updates the header information in the template (classroom details, month, school days, etc.)
+	 * Fills the header of the template: the section, grade level and month next to their labels, then the day number
+	 * and weekday of every school day of the month in rows 17 and 18
 	 *
-	 * @param sheet       the sheet to update
-	 * @param classroom   the classroom details
-	 * @param yearMonth   the current year and month
-	 * @param schoolDays  the number of school days
+	 * @param sheet     the sheet to update
+	 * @param classroom the classroom details
+	 * @param yearMonth the year and month of the report
 	 */
-	private void updateHeaderInformation(XSSFSheet sheet, Classroom classroom, YearMonth yearMonth, int schoolDays) {
-		// Format month and year
-		String monthYear = yearMonth.format(DateTimeFormatter.ofPattern("MMMM yyyy"));
-
-		// Specific cells in the template may vary - assuming these positions based on common SF2 templates
-		// Get or create row for month/year (commonly in row 2 or 3)
-		Row monthRow = sheet.getRow(2);
-		if (monthRow != null) {
-			// Find cell that typically shows month/year and update it
-			XSSFCell monthCell = findCellInRow(monthRow, "Month:");
-			if (monthCell != null) {
-				monthCell.setCellValue("Month: " + monthYear + " - School Days: " + schoolDays);
+	private void updateHeaderInformation(XSSFSheet sheet, SF2Classroom classroom, YearMonth yearMonth) {
+		setLabelledValue(sheet, "Section", classroom.getClassroomName());
+		setLabelledValue(sheet, "Grade Level", classroom.getGradeLevel());
+		setLabelledValue(sheet, "Month of", yearMonth.format(DateTimeFormatter.ofPattern("MMMM yyyy")));
+
+		// The daily totals only count columns with a day number
+		Row dayRow = getOrCreateRow(sheet, DAY_ROW - 1);
+		Row weekdayRow = getOrCreateRow(sheet, DAY_ROW);
+		int columnIndex = FIRST_DAY_COLUMN;
+		for (LocalDate date = yearMonth.atDay(1); !date.isAfter(yearMonth.atEndOfMonth()); date = date.plusDays(1)) {
+			String weekday = WEEKDAYS.get(date.getDayOfWeek());
+			if (weekday != null) {
+				getOrCreateCell(dayRow, columnIndex).setCellValue(date.getDayOfMonth());
+				getOrCreateCell(weekdayRow, columnIndex).setCellValue(weekday);
+				columnIndex++;
 			}
 		}
+		while (columnIndex <= LAST_DAY_COLUMN) {
+			getOrCreateCell(dayRow, columnIndex).setBlank();
+			getOrCreateCell(weekdayRow, columnIndex).setBlank();
+			columnIndex++;
+		}
+	}
 
-		// Update classroom information (commonly in rows 3-7)
-		updateCellValueIfFound(sheet, "Classroom:", classroom.getClassroomName());
-
-		// Update teacher information
-		String teacherName = classroom.getTeacher() != null ?
-			classroom.getTeacher().getLastName() + ", " +
-			classroom.getTeacher().getFirstName() + " " +
-			(classroom.getTeacher().getMiddleInitial() != null ? classroom.getTeacher().getMiddleInitial() : "") :
-			"Not Assigned";
-		updateCellValueIfFound(sheet, "Teacher:", teacherName);
-
-		// Update grade level
-		String gradeLevel = classroom.getGradeLevel() != null && classroom.getGradeLevel().getName() != null ?
-			classroom.getGradeLevel().getName() : "Not Set";
-		updateCellValueIfFound(sheet, "Grade Level:", gradeLevel);
-
-		// Update room
-		String room = classroom.getRoom() != null ? classroom.getRoom() : "Not Set";
-		updateCellValueIfFound(sheet, "Room:", room);
+	private Row getOrCreateRow(Sheet sheet, int rowIndex) {
+		Row row = sheet.getRow(rowIndex);
+		return row != null ? row : sheet.createRow(rowIndex);
 	}
 
-	/**
-	 * Helper method to find a cell in a row that contains specific text
-	 *
-	 * @param row  the row to search in
-	 * @param text the text to search for
-	 * @return the cell if found, null otherwise
-	 */
-	private XSSFCell findCellInRow(Row row, String text) {
-		for (int i = 0; i < row.getLastCellNum(); i++) {
-			XSSFCell cell = (XSSFCell) row.getCell(i);
-			if (cell != null && cell.getCellType() == org.apache.poi.ss.usermodel.CellType.STRING
-					&& cell.getStringCellValue().contains(text)) {
-				return cell;
-			}
-		}
-		return null;
+	private XSSFCell getOrCreateCell(Row row, int columnIndex) {
+		XSSFCell cell = (XSSFCell) row.getCell(columnIndex);
+		return cell != null ? cell : (XSSFCell) row.createCell(columnIndex);
 	}
 
 	/**
-	 * Updates a cell value if a matching label cell is found in the sheet
+	 * Writes a value into the cell following a label of the header. Labels may span merged cells, in which case the
+	 * value goes right after the merged region.
 	 *
-	 * @param sheet      the sheet to search in
-	 * @param labelText  the label text to search for
-	 * @param value      the value to set in the adjacent cell
+	 * @param sheet the sheet to update
+	 * @param label the exact text of the label cell
+	 * @param value the value to write
 	 */
-	private void updateCellValueIfFound(XSSFSheet sheet, String labelText, String value) {
-		// Search rows that typically contain header information (rows 0-10)
-		for (int rowIndex = 0; rowIndex <= 10; rowIndex++) {
+	private void setLabelledValue(XSSFSheet sheet, String label, String value) {
+		for (int rowIndex = 0; rowIndex < DAY_ROW - 2; rowIndex++) {
 			Row row = sheet.getRow(rowIndex);
-			if (row != null) {
-				XSSFCell labelCell = findCellInRow(row, labelText);
-				if (labelCell != null) {
-					// Assume the value cell is next to the label cell
-					int labelColIndex = labelCell.getColumnIndex();
-					XSSFCell valueCell = (XSSFCell) row.getCell(labelColIndex + 1);
-					if (valueCell == null) {
-						valueCell = (XSSFCell) row.createCell(labelColIndex + 1);
+			if (row == null) {
+				continue;
+			}
+
+			for (Cell cell : row) {
+				if (cell.getCellType() == org.apache.poi.ss.usermodel.CellType.STRING
+					&& cell.getStringCellValue().trim().equals(label)) {
+					int valueColumn = cell.getColumnIndex() + 1;
+					for (CellRangeAddress region : sheet.getMergedRegions()) {
+						if (region.isInRange(cell)) {
+							valueColumn = region.getLastColumn() + 1;
+						}
 					}
-					valueCell.setCellValue(value);
+					getOrCreateCell(row, valueColumn).setCellValue(value);
 					return;
 				}
 			}
 		}
+		log.warn("SF2 template has no \"" + label + "\" label, leaving it out of the report");
 	}
 
 	/**
-	 * Saves the report to the specified path
+	 * Saves a copy of the report next to {@code report.sf2_report}, prefixed with the classroom ID so that classrooms
+	 * with similar names do not overwrite each other
 	 *
-	 * @param workbook   the workbook to save
-	 * @param reportPath the path to save the report to
-	 * @throws IOException if an I/O error occurs
+	 * @param report      the xlsx file to save
+	 * @param classroomId the ID of the classroom
+	 * @param fileName    the file name of the report
 	 */
-	private void saveReport(XSSFWorkbook workbook, String reportPath) throws IOException {
-		// Create parent directories if they don't exist
-		java.nio.file.Path path = java.nio.file.Paths.get(reportPath);
-		java.nio.file.Files.createDirectories(path.getParent());
-
-		// Save the workbook
-		try (FileOutputStream outputStream = new FileOutputStream(reportPath)) {
-			workbook.write(outputStream);
+	private void saveReport(byte[] report, Integer classroomId, String fileName) {
+		try {
+			java.nio.file.Path path = Paths.get(sf2ReportPath).resolveSibling(classroomId + "_" + fileName);
+			// Create parent directories if they don't exist
+			Files.createDirectories(path.toAbsolutePath().getParent());
+
+			// Written to a temporary file first so that concurrent requests never see a partial report
+			java.nio.file.Path temporary = Files.createTempFile(path.toAbsolutePath().getParent(), fileName, ".tmp");
+			Files.write(temporary, report);
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.info("SF2 Report saved at: " + path);
+		} catch (IOException e) {
+			log.error("Error saving SF2 Report", e);
 		}
 	}
+
+	/**
+	 * Classroom details, students and attendances of an SF2 report
+	 */
+	@Getter
+	@AllArgsConstructor
+	private static class SF2Classroom {
+		private final String classroomName;
+		private final String gradeLevel;
+		private final List<Student> maleStudents;
+		private final List<Student> femaleStudents;
+		private final AttendanceMatrix matrix;
+	}
 }
@@ -0,0 +1,121 @@
+package com.pshs.ams.app.reports.models.dto;
+
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Attendance statuses of a classroom for one month, with one row per student and one column per school day.
+ * <p>
+ * Each row is a byte array holding {@code ordinal + 1} of the status, 0 when the student has no attendance on
+ * that day, or {@link #PRESENT} when only the presence of the student is known, as for months read from the monthly
+ * attendance summaries.
+ */
+public class AttendanceMatrix {
+
+	private static final AttendanceStatus[] STATUSES = AttendanceStatus.values();
+
+	private static final byte PRESENT = (byte) (STATUSES.length + 1);
+
+	private static final byte ABSENT = (byte) (AttendanceStatus.ABSENT.ordinal() + 1);
+
+	private final List<LocalDate> schoolDays;
+
+	/**
+	 * Column of each day of the month, indexed by day of month, or -1 on weekends.
+	 */
+	private final int[] columnByDayOfMonth;
+
+	private final byte[][] statuses;
+
+	public AttendanceMatrix(YearMonth yearMonth, int students) {
+		List<LocalDate> days = new ArrayList<>();
+		columnByDayOfMonth = new int[yearMonth.lengthOfMonth() + 1];
+		columnByDayOfMonth[0] = -1;
+		for (int day = 1; day <= yearMonth.lengthOfMonth(); day++) {
+			LocalDate date = yearMonth.atDay(day);
+			if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+				columnByDayOfMonth[day] = -1;
+			} else {
+				columnByDayOfMonth[day] = days.size();
+				days.add(date);
+			}
+		}
+
+		schoolDays = Collections.unmodifiableList(days);
+		statuses = new byte[students][days.size()];
+	}
+
+	/**
+	 * @return the school days of the month, in order
+	 */
+	public List<LocalDate> getSchoolDays() {
+		return schoolDays;
+	}
+
+	/**
+	 * Records a status, ignoring dates outside the school days of the month.
+	 *
+	 * @param student index of the student row
+	 * @param date    the date of the attendance
+	 * @param status  the attendance status
+	 */
+	public void set(int student, LocalDate date, AttendanceStatus status) {
+		if (date.getDayOfMonth() >= columnByDayOfMonth.length) {
+			return;
+		}
+
+		int column = columnByDayOfMonth[date.getDayOfMonth()];
+		if (column >= 0 && schoolDays.get(column).equals(date)) {
+			statuses[student][column] = (byte) (status.ordinal() + 1);
+		}
+	}
+
+	/**
+	 * Marks the school days on which a student was present, without recording the status.
+	 *
+	 * @param student     index of the student row
+	 * @param presentDays bitmap of present days, bit {@code day - 1} being set for a present day
+	 */
+	public void setPresentDays(int student, int presentDays) {
+		for (int day = 1; day < columnByDayOfMonth.length; day++) {
+			int column = columnByDayOfMonth[day];
+			if (column >= 0 && (presentDays & 1 << (day - 1)) != 0) {
+				statuses[student][column] = PRESENT;
+			}
+		}
+	}
+
+	/**
+	 * @param student index of the student row
+	 * @return a copy of the encoded statuses of the student, one byte per school day
+	 */
+	public byte[] getRow(int student) {
+		return statuses[student].clone();
+	}
+
+	/**
+	 * @param student   index of the student row
+	 * @param schoolDay index of the school day
+	 * @return the status, or null if the student has no attendance on that day or only their presence is known
+	 */
+	public AttendanceStatus get(int student, int schoolDay) {
+		byte status = statuses[student][schoolDay];
+		return status == 0 || status == PRESENT ? null : STATUSES[status - 1];
+	}
+
+	/**
+	 * @param student   index of the student row
+	 * @param schoolDay index of the school day
+	 * @return whether the student has an attendance on that day that is not ABSENT
+	 */
+	public boolean isPresent(int student, int schoolDay) {
+		byte status = statuses[student][schoolDay];
+		return status != 0 && status != ABSENT;
+	}
+}
@@ -0,0 +1,20 @@
+package com.pshs.ams.app.reports.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A generated SF2 report of a classroom.
+ */
+@Getter
+@AllArgsConstructor
+public class SF2Report {
+	private final Integer classroomId;
+	private final String fileName;
+
+	/**
+	 * SHA-256 of the template and data the report was rendered from.
+	 */
+	private final String contentHash;
+	private final byte[] content;
+}
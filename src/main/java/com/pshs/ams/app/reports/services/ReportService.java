@@ -1,8 +1,18 @@
 package com.pshs.ams.app.reports.services;
 
 import com.pshs.ams.app.classrooms.exceptions.ClassroomNotFoundException;
+import com.pshs.ams.app.reports.models.dto.SF2Report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.YearMonth;
+import java.util.List;
 
 public interface ReportService {
 
-	void generateSF2Report(Integer classroomId) throws ClassroomNotFoundException, RuntimeException;
+	SF2Report generateSF2Report(Integer classroomId, YearMonth yearMonth) throws ClassroomNotFoundException;
+
+	List<Integer> getSF2Classrooms(List<Integer> classroomIds, Integer gradeLevelId) throws ClassroomNotFoundException;
+
+	void generateSF2Reports(List<Integer> classroomIds, YearMonth yearMonth, OutputStream output) throws IOException;
 }
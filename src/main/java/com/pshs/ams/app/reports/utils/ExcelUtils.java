@@ -1,6 +1,7 @@
 package com.pshs.ams.app.reports.utils;
 
 import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.Font;
@@ -10,12 +11,14 @@ import org.apache.poi.ss.usermodel.VerticalAlignment;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFColor;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.awt.Color;
 
 /**
  * Utility class for Excel-related operations
+ * <p>
+ * Styles are handed out through a {@link StyleCache}, so each style is created once per workbook no matter how many
+ * cells use it.
  */
 public class ExcelUtils {
 
@@ -32,10 +35,101 @@ public class ExcelUtils {
     private static final byte[] WEEKEND_COLOR = new byte[] {(byte)221, (byte)221, (byte)221}; // #DDDDDD
     private static final byte[] TOTAL_COLOR = new byte[] {(byte)255, (byte)215, (byte)0}; // #FFD700
 
+    /**
+     * Gets the header style of a workbook, creating it on first use
+     */
+    public static CellStyle getHeaderStyle(StyleCache styles) {
+        return styles.named("header", ExcelUtils::createHeaderStyle);
+    }
+
+    /**
+     * Gets the sub header style of a workbook, creating it on first use
+     */
+    public static CellStyle getSubHeaderStyle(StyleCache styles) {
+        return styles.named("subHeader", ExcelUtils::createSubHeaderStyle);
+    }
+
+    /**
+     * Gets the day header style of a workbook, creating it on first use
+     */
+    public static CellStyle getDayHeaderStyle(StyleCache styles) {
+        return styles.named("dayHeader", ExcelUtils::createDayHeaderStyle);
+    }
+
+    /**
+     * Gets the day abbrev style of a workbook, creating it on first use
+     */
+    public static CellStyle getDayAbbrevStyle(StyleCache styles) {
+        return styles.named("dayAbbrev", ExcelUtils::createDayAbbrevStyle);
+    }
+
+    /**
+     * Gets the info style of a workbook, creating it on first use
+     */
+    public static CellStyle getInfoStyle(StyleCache styles) {
+        return styles.named("info", ExcelUtils::createInfoStyle);
+    }
+
+    /**
+     * Gets the section header style of a workbook, creating it on first use
+     */
+    public static CellStyle getSectionHeaderStyle(StyleCache styles, boolean isMale) {
+        return styles.named("sectionHeader:" + (isMale ? "male" : "female"), workbook -> createSectionHeaderStyle(workbook, isMale));
+    }
+
+    /**
+     * Gets the data style of a workbook, creating it on first use
+     */
+    public static CellStyle getDataStyle(StyleCache styles, boolean isMale) {
+        return styles.named("data:" + (isMale ? "male" : "female"), workbook -> createDataStyle(workbook, isMale));
+    }
+
+    /**
+     * Gets the name style of a workbook, creating it on first use
+     */
+    public static CellStyle getNameStyle(StyleCache styles, boolean isMale) {
+        return styles.named("name:" + (isMale ? "male" : "female"), workbook -> createNameStyle(workbook, isMale));
+    }
+
+    /**
+     * Gets the weekend style of a workbook, creating it on first use
+     */
+    public static CellStyle getWeekendStyle(StyleCache styles, boolean isMale) {
+        return styles.named("weekend:" + (isMale ? "male" : "female"), workbook -> createWeekendStyle(workbook, isMale));
+    }
+
+    /**
+     * Gets the present style of a workbook, creating it on first use
+     */
+    public static CellStyle getPresentStyle(StyleCache styles, boolean isMale) {
+        return styles.named("present:" + (isMale ? "male" : "female"), workbook -> createPresentStyle(workbook, isMale));
+    }
+
+    /**
+     * Gets the absent style of a workbook, creating it on first use
+     */
+    public static CellStyle getAbsentStyle(StyleCache styles, boolean isMale) {
+        return styles.named("absent:" + (isMale ? "male" : "female"), workbook -> createAbsentStyle(workbook, isMale));
+    }
+
+    /**
+     * Gets the totals style of a workbook, creating it on first use
+     */
+    public static CellStyle getTotalsStyle(StyleCache styles) {
+        return styles.named("totals", ExcelUtils::createTotalsStyle);
+    }
+
+    /**
+     * Adds thin borders on all sides of a cell, sharing the bordered style with every cell of the same base style
+     */
+    public static void addThinBorder(Cell cell, StyleCache styles) {
+        cell.setCellStyle(styles.withBorder(cell.getCellStyle(), BorderStyle.THIN));
+    }
+
     /**
      * Creates a style for the main header
      */
-    public static CellStyle createHeaderStyle(Workbook workbook) {
+    private static CellStyle createHeaderStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
         font.setBold(true);
@@ -49,7 +143,7 @@ public class ExcelUtils {
         style.setBorderLeft(BorderStyle.THIN);
         style.setBorderRight(BorderStyle.THIN);
 
-        if (workbook instanceof XSSFWorkbook && style instanceof XSSFCellStyle) {
+        if (style instanceof XSSFCellStyle) {
             XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
             XSSFColor color = new XSSFColor(HEADER_COLOR, null);
             xssfStyle.setFillForegroundColor(color);
@@ -63,7 +157,7 @@ public class ExcelUtils {
     /**
      * Creates a style for sub-headers
      */
-    public static CellStyle createSubHeaderStyle(Workbook workbook) {
+    private static CellStyle createSubHeaderStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
         font.setBold(true);
@@ -76,7 +170,7 @@ public class ExcelUtils {
         style.setBorderLeft(BorderStyle.THIN);
         style.setBorderRight(BorderStyle.THIN);
 
-        if (workbook instanceof XSSFWorkbook && style instanceof XSSFCellStyle) {
+        if (style instanceof XSSFCellStyle) {
             XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
             XSSFColor color = new XSSFColor(PRIMARY_COLOR, null);
             xssfStyle.setFillForegroundColor(color);
@@ -90,7 +184,7 @@ public class ExcelUtils {
     /**
      * Creates a style for day headers (vertical text)
      */
-    public static CellStyle createDayHeaderStyle(Workbook workbook) {
+    private static CellStyle createDayHeaderStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
         font.setBold(true);
@@ -103,7 +197,7 @@ public class ExcelUtils {
         style.setBorderLeft(BorderStyle.THIN);
         style.setBorderRight(BorderStyle.THIN);
 
-        if (workbook instanceof XSSFWorkbook && style instanceof XSSFCellStyle) {
+        if (style instanceof XSSFCellStyle) {
             XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
             XSSFColor color = new XSSFColor(SECONDARY_COLOR, null);
             xssfStyle.setFillForegroundColor(color);
@@ -118,7 +212,7 @@ public class ExcelUtils {
     /**
      * Creates a style for day abbreviations
      */
-    public static CellStyle createDayAbbrevStyle(Workbook workbook) {
+    private static CellStyle createDayAbbrevStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
         font.setBold(true);
@@ -131,7 +225,7 @@ public class ExcelUtils {
         style.setBorderLeft(BorderStyle.THIN);
         style.setBorderRight(BorderStyle.THIN);
 
-        if (workbook instanceof XSSFWorkbook && style instanceof XSSFCellStyle) {
+        if (style instanceof XSSFCellStyle) {
             XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
             XSSFColor color = new XSSFColor(TERTIARY_COLOR, null);
             xssfStyle.setFillForegroundColor(color);
@@ -145,7 +239,7 @@ public class ExcelUtils {
     /**
      * Creates a style for information labels and values
      */
-    public static CellStyle createInfoStyle(Workbook workbook) {
+    private static CellStyle createInfoStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
         font.setBold(true);
@@ -158,7 +252,7 @@ public class ExcelUtils {
         style.setBorderLeft(BorderStyle.THIN);
         style.setBorderRight(BorderStyle.THIN);
 
-        if (workbook instanceof XSSFWorkbook && style instanceof XSSFCellStyle) {
+        if (style instanceof XSSFCellStyle) {
             XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
             XSSFColor color = new XSSFColor(BACKGROUND_COLOR, null);
             xssfStyle.setFillForegroundColor(color);
@@ -172,7 +266,7 @@ public class ExcelUtils {
     /**
      * Creates a section header style with custom color
      */
-    public static CellStyle createSectionHeaderStyle(Workbook workbook, boolean isMale) {
+    private static CellStyle createSectionHeaderStyle(Workbook workbook, boolean isMale) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
         font.setBold(true);
@@ -185,7 +279,7 @@ public class ExcelUtils {
         style.setBorderLeft(BorderStyle.THIN);
         style.setBorderRight(BorderStyle.THIN);
 
-        if (workbook instanceof XSSFWorkbook && style instanceof XSSFCellStyle) {
+        if (style instanceof XSSFCellStyle) {
             XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
             byte[] colorBytes = isMale ? MALE_COLOR : FEMALE_COLOR;
             XSSFColor color = new XSSFColor(colorBytes, null);
@@ -200,7 +294,7 @@ public class ExcelUtils {
     /**
      * Creates a data cell style with custom color
      */
-    public static CellStyle createDataStyle(Workbook workbook, boolean isMale) {
+    private static CellStyle createDataStyle(Workbook workbook, boolean isMale) {
         CellStyle style = workbook.createCellStyle();
         style.setAlignment(HorizontalAlignment.CENTER);
         style.setVerticalAlignment(VerticalAlignment.CENTER);
@@ -209,7 +303,7 @@ public class ExcelUtils {
         style.setBorderLeft(BorderStyle.THIN);
         style.setBorderRight(BorderStyle.THIN);
 
-        if (workbook instanceof XSSFWorkbook && style instanceof XSSFCellStyle) {
+        if (style instanceof XSSFCellStyle) {
             XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
             // Use custom color with lighter shade
             byte[] baseColorBytes = isMale ? MALE_COLOR : FEMALE_COLOR;
@@ -230,7 +324,7 @@ public class ExcelUtils {
     /**
      * Creates a name cell style with custom color
      */
-    public static CellStyle createNameStyle(Workbook workbook, boolean isMale) {
+    private static CellStyle createNameStyle(Workbook workbook, boolean isMale) {
         CellStyle style = workbook.createCellStyle();
         style.setAlignment(HorizontalAlignment.LEFT);
         style.setVerticalAlignment(VerticalAlignment.CENTER);
@@ -240,7 +334,7 @@ public class ExcelUtils {
         style.setBorderRight(BorderStyle.THIN);
         style.setIndention((short) 1); // Add minimal indentation
 
-        if (workbook instanceof XSSFWorkbook && style instanceof XSSFCellStyle) {
+        if (style instanceof XSSFCellStyle) {
             XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
             // Use custom color with lighter shade
             byte[] baseColorBytes = isMale ? MALE_COLOR : FEMALE_COLOR;
@@ -261,10 +355,10 @@ public class ExcelUtils {
     /**
      * Create style for weekend cells
      */
-    public static CellStyle createWeekendStyle(Workbook workbook, boolean isMale) {
+    private static CellStyle createWeekendStyle(Workbook workbook, boolean isMale) {
         CellStyle style = createDataStyle(workbook, isMale);
 
-        if (workbook instanceof XSSFWorkbook && style instanceof XSSFCellStyle) {
+        if (style instanceof XSSFCellStyle) {
             XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
             XSSFColor color = new XSSFColor(WEEKEND_COLOR, null);
             xssfStyle.setFillForegroundColor(color);
@@ -278,7 +372,7 @@ public class ExcelUtils {
     /**
      * Create style for present marker
      */
-    public static CellStyle createPresentStyle(Workbook workbook, boolean isMale) {
+    private static CellStyle createPresentStyle(Workbook workbook, boolean isMale) {
         CellStyle style = createDataStyle(workbook, isMale);
         Font font = workbook.createFont();
         font.setBold(true);
@@ -290,7 +384,7 @@ public class ExcelUtils {
     /**
      * Create style for absent marker
      */
-    public static CellStyle createAbsentStyle(Workbook workbook, boolean isMale) {
+    private static CellStyle createAbsentStyle(Workbook workbook, boolean isMale) {
         CellStyle style = createDataStyle(workbook, isMale);
         Font font = workbook.createFont();
         font.setBold(true);
@@ -302,7 +396,7 @@ public class ExcelUtils {
     /**
      * Create style for totals row
      */
-    public static CellStyle createTotalsStyle(Workbook workbook) {
+    private static CellStyle createTotalsStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font boldFont = workbook.createFont();
         boldFont.setBold(true);
@@ -315,7 +409,7 @@ public class ExcelUtils {
         style.setAlignment(HorizontalAlignment.CENTER);
         style.setVerticalAlignment(VerticalAlignment.CENTER);
 
-        if (workbook instanceof XSSFWorkbook && style instanceof XSSFCellStyle) {
+        if (style instanceof XSSFCellStyle) {
             XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
             XSSFColor color = new XSSFColor(TOTAL_COLOR, null);
             xssfStyle.setFillForegroundColor(color);
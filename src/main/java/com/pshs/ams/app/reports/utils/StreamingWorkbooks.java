@@ -0,0 +1,73 @@
+package com.pshs.ams.app.reports.utils;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Helpers for writing large workbooks with POI's streaming SXSSF API.
+ * <p>
+ * An {@link SXSSFWorkbook} only keeps a window of the most recent rows in memory and flushes older rows to a
+ * temporary file, so rows must be written in ascending order and cannot be revisited once they left the window.
+ * Rows that already exist in a template cannot be written through the streaming sheet at all, which is why
+ * {@link #fromTemplate(XSSFWorkbook, int, int)} removes the template rows that will be streamed.
+ */
+public final class StreamingWorkbooks {
+
+	private StreamingWorkbooks() {
+	}
+
+	/**
+	 * Wraps a template in a streaming workbook. Edits to the template's fixed rows must be made before calling this.
+	 *
+	 * @param template  the template, already filled in above {@code firstRow}
+	 * @param firstRow  the first row (0-based) that will be streamed; template rows from here on are removed
+	 * @param rowWindow the number of rows kept in memory
+	 * @return the streaming workbook
+	 */
+	public static SXSSFWorkbook fromTemplate(XSSFWorkbook template, int firstRow, int rowWindow) {
+		for (int i = 0; i < template.getNumberOfSheets(); i++) {
+			XSSFSheet sheet = template.getSheetAt(i);
+			for (int rowIndex = sheet.getLastRowNum(); rowIndex >= firstRow; rowIndex--) {
+				Row row = sheet.getRow(rowIndex);
+				if (row != null) {
+					sheet.removeRow(row);
+				}
+			}
+		}
+		return new SXSSFWorkbook(template, rowWindow);
+	}
+
+	/**
+	 * Gets a row of a streaming sheet, creating it if it is not in the window yet.
+	 *
+	 * @param sheet    the sheet
+	 * @param rowIndex the row (0-based)
+	 * @return the row
+	 */
+	public static Row row(Sheet sheet, int rowIndex) {
+		Row row = sheet.getRow(rowIndex);
+		return row != null ? row : sheet.createRow(rowIndex);
+	}
+
+	/**
+	 * Writes a streaming workbook and deletes its temporary files.
+	 *
+	 * @param workbook the workbook
+	 * @param output   the stream to write to, left open
+	 * @throws IOException if the workbook cannot be written
+	 */
+	public static void write(SXSSFWorkbook workbook, OutputStream output) throws IOException {
+		try {
+			workbook.write(output);
+		} finally {
+			workbook.dispose();
+			workbook.close();
+		}
+	}
+}
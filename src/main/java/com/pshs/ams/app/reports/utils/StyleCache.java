@@ -0,0 +1,97 @@
+package com.pshs.ams.app.reports.utils;
+
+import lombok.Value;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Creates each distinct cell style of a workbook once.
+ * <p>
+ * Workbooks are limited to 64000 cell styles, and every style is kept in memory until the workbook is written, so
+ * styles must be shared between cells instead of being created per cell. A cache belongs to one workbook and, like
+ * the workbook, must not be shared between threads.
+ */
+public class StyleCache {
+
+	private final Workbook workbook;
+	private final Map<String, CellStyle> named = new HashMap<>();
+	private final Map<BorderedKey, CellStyle> bordered = new HashMap<>();
+
+	public StyleCache(Workbook workbook) {
+		this.workbook = workbook;
+	}
+
+	public Workbook getWorkbook() {
+		return workbook;
+	}
+
+	/**
+	 * Gets a style by name, creating it on first use.
+	 *
+	 * @param name    the name of the style
+	 * @param factory creates the style in the workbook
+	 * @return the style
+	 */
+	public CellStyle named(String name, Function<Workbook, CellStyle> factory) {
+		return named.computeIfAbsent(name, key -> factory.apply(workbook));
+	}
+
+	/**
+	 * Gets a copy of a style with the same border on all sides.
+	 *
+	 * @param base   the style to copy
+	 * @param border the border of every side
+	 * @return the style
+	 */
+	public CellStyle withBorder(CellStyle base, BorderStyle border) {
+		return withBorders(base, border, border, border, border);
+	}
+
+	/**
+	 * Gets a copy of a style with the given borders, creating it the first time this combination is requested.
+	 *
+	 * @param base   the style to copy
+	 * @param top    the top border
+	 * @param bottom the bottom border
+	 * @param left   the left border
+	 * @param right  the right border
+	 * @return the style
+	 */
+	public CellStyle withBorders(CellStyle base, BorderStyle top, BorderStyle bottom, BorderStyle left, BorderStyle right) {
+		if (base.getBorderTop() == top && base.getBorderBottom() == bottom
+			&& base.getBorderLeft() == left && base.getBorderRight() == right) {
+			return base;
+		}
+
+		return bordered.computeIfAbsent(new BorderedKey(base.getIndex(), top, bottom, left, right), key -> {
+			CellStyle style = workbook.createCellStyle();
+			style.cloneStyleFrom(base);
+			style.setBorderTop(top);
+			style.setBorderBottom(bottom);
+			style.setBorderLeft(left);
+			style.setBorderRight(right);
+			return style;
+		});
+	}
+
+	/**
+	 * @return the number of styles created through this cache
+	 */
+	public int size() {
+		return named.size() + bordered.size();
+	}
+
+	@Value
+	private static class BorderedKey {
+		short baseIndex;
+		BorderStyle top;
+		BorderStyle bottom;
+		BorderStyle left;
+		BorderStyle right;
+	}
+}
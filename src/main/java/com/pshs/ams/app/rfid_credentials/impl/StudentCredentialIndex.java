@@ -0,0 +1,324 @@
+package com.pshs.ams.app.rfid_credentials.impl;
+
+import com.pshs.ams.app.rfid_credentials.models.dto.CredentialEntry;
+import com.pshs.ams.app.rfid_credentials.models.dto.HashedLrnKey;
+import com.pshs.ams.app.rfid_credentials.models.dto.ScheduleEntry;
+import com.pshs.ams.app.rfid_credentials.models.entities.StudentCredential;
+import com.pshs.ams.app.student_schedules.models.entities.StudentSchedule;
+import com.pshs.ams.app.students.models.entities.Student;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application-wide, in-memory index of student credentials used by the RFID and fingerprint scan path.
+ * <p>
+ * The index is loaded once at startup and kept current by {@link StudentCredentialIndexListener} whenever a
+ * {@link StudentCredential}, {@link Student} or {@link StudentSchedule} is written through Hibernate. Lookups that
+ * miss fall back to the database and populate the index with the result.
+ */
+@ApplicationScoped
+public class StudentCredentialIndex {
+
+	@Inject
+	Logger logger;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	private final Map<String, CredentialEntry> byHashedLrn = new ConcurrentHashMap<>();
+	private final Map<HashedLrnKey, CredentialEntry> byHashedLrnKey = new ConcurrentHashMap<>();
+	private final Map<Integer, CredentialEntry> byFingerprintId = new ConcurrentHashMap<>();
+	private final Map<Long, CredentialEntry> byStudentId = new ConcurrentHashMap<>();
+	private final Map<Integer, ScheduleEntry> schedules = new ConcurrentHashMap<>();
+
+	private Counter rfidHits;
+	private Counter rfidMisses;
+	private Counter fingerprintHits;
+	private Counter fingerprintMisses;
+
+	@PostConstruct
+	void registerMetrics() {
+		rfidHits = meterRegistry.counter("ams.credential.index.lookups", "type", "rfid", "result", "hit");
+		rfidMisses = meterRegistry.counter("ams.credential.index.lookups", "type", "rfid", "result", "miss");
+		fingerprintHits = meterRegistry.counter("ams.credential.index.lookups", "type", "fingerprint", "result", "hit");
+		fingerprintMisses = meterRegistry.counter("ams.credential.index.lookups", "type", "fingerprint", "result", "miss");
+		meterRegistry.gaugeMapSize("ams.credential.index.size", List.of(), byStudentId);
+		meterRegistry.gaugeMapSize("ams.credential.index.schedules", List.of(), schedules);
+	}
+
+	void onStart(@Observes StartupEvent event) {
+		try {
+			reload();
+		} catch (Exception e) {
+			// The index still works as a read-through cache, so a cold start is not fatal.
+			logger.error("Unable to warm up the credential index: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reloads every credential and schedule from the database, replacing the current contents.
+	 */
+	@Transactional
+	public void reload() {
+		List<Object[]> rows = StudentCredential.getEntityManager().createQuery(
+			"SELECT s.id, sc.id, s.lastName, s.firstName, s.middleInitial, c.hashedLrn, c.fingerprintId, cl.id, g.id, st.id " +
+				"FROM StudentCredential c JOIN c.student s LEFT JOIN s.studentSchedule sc " +
+				"LEFT JOIN s.classroom cl LEFT JOIN s.gradeLevel g LEFT JOIN s.strand st", Object[].class
+		).getResultList();
+		List<StudentSchedule> studentSchedules = StudentSchedule.listAll();
+
+		byHashedLrn.clear();
+		byHashedLrnKey.clear();
+		byFingerprintId.clear();
+		byStudentId.clear();
+		schedules.clear();
+
+		for (Object[] row : rows) {
+			put(new CredentialEntry((Long) row[0], (Integer) row[1], (String) row[2], (String) row[3], (String) row[4],
+				(String) row[5], (Integer) row[6], (Integer) row[7], (Integer) row[8], (Integer) row[9]));
+		}
+		studentSchedules.forEach(this::putSchedule);
+		logger.info("Credential index loaded: " + byStudentId.size() + " credentials, " + schedules.size() + " schedules");
+	}
+
+	/**
+	 * Finds the credential of an RFID card, querying the database only when the card is not indexed yet.
+	 *
+	 * @param hashedLrn the hashed LRN stored on the card
+	 * @return the credential entry if the card is registered
+	 */
+	public Optional<CredentialEntry> findByHashedLrn(String hashedLrn) {
+		CredentialEntry entry = byHashedLrn.get(hashedLrn);
+		if (entry != null) {
+			rfidHits.increment();
+			return Optional.of(entry);
+		}
+
+		rfidMisses.increment();
+		return findByHashedLrnInDatabase(hashedLrn);
+	}
+
+	/**
+	 * Finds the credential of an RFID card read from a binary scan frame, querying the database only when the card
+	 * is not indexed yet.
+	 *
+	 * @param key the hashed LRN stored on the card
+	 * @return the credential entry if the card is registered
+	 */
+	public Optional<CredentialEntry> findByHashedLrn(HashedLrnKey key) {
+		CredentialEntry entry = byHashedLrnKey.get(key);
+		if (entry != null) {
+			rfidHits.increment();
+			return Optional.of(entry);
+		}
+
+		rfidMisses.increment();
+		return findByHashedLrnInDatabase(key.toString());
+	}
+
+	/**
+	 * Finds the credential of an enrolled fingerprint, querying the database only when it is not indexed yet.
+	 *
+	 * @param fingerprintId the fingerprint id assigned by the reader
+	 * @return the credential entry if the fingerprint is enrolled
+	 */
+	public Optional<CredentialEntry> findByFingerprintId(Integer fingerprintId) {
+		CredentialEntry entry = byFingerprintId.get(fingerprintId);
+		if (entry != null) {
+			fingerprintHits.increment();
+			return Optional.of(entry);
+		}
+
+		fingerprintMisses.increment();
+		return StudentCredential.<StudentCredential>find("fingerprintId = ?1", fingerprintId)
+			.firstResultOptional()
+			.map(this::put);
+	}
+
+	/**
+	 * Gets the indexed credential of a student without querying the database.
+	 *
+	 * @param studentId the student id
+	 * @return the credential entry if the student has an indexed credential
+	 */
+	public Optional<CredentialEntry> getByStudentId(Long studentId) {
+		return Optional.ofNullable(byStudentId.get(studentId));
+	}
+
+	/**
+	 * Finds a student schedule, querying the database only when it is not indexed yet.
+	 *
+	 * @param scheduleId the schedule id
+	 * @return the schedule entry if it exists
+	 */
+	public Optional<ScheduleEntry> findSchedule(Integer scheduleId) {
+		if (scheduleId == null) {
+			return Optional.empty();
+		}
+
+		ScheduleEntry entry = schedules.get(scheduleId);
+		if (entry != null) {
+			return Optional.of(entry);
+		}
+
+		return StudentSchedule.<StudentSchedule>findByIdOptional(scheduleId).map(this::putSchedule);
+	}
+
+	/**
+	 * Gets every indexed student schedule without querying the database.
+	 *
+	 * @return the indexed schedules
+	 */
+	public Collection<ScheduleEntry> getSchedules() {
+		return List.copyOf(schedules.values());
+	}
+
+	private Optional<CredentialEntry> findByHashedLrnInDatabase(String hashedLrn) {
+		return StudentCredential.<StudentCredential>find("hashedLrn = ?1", hashedLrn)
+			.firstResultOptional()
+			.map(this::put);
+	}
+
+	CredentialEntry put(StudentCredential credential) {
+		return put(entryOf(credential));
+	}
+
+	/**
+	 * Updates the indexed credential of a student with the student's current fields, keeping its card and
+	 * fingerprint.
+	 *
+	 * @param student the entry of the student, as built by {@link #entryOf(Student)}
+	 */
+	void refreshStudent(CredentialEntry student) {
+		CredentialEntry current = byStudentId.get(student.getStudentId());
+		if (current == null) {
+			return;
+		}
+
+		put(new CredentialEntry(
+			student.getStudentId(),
+			student.getScheduleId(),
+			student.getLastName(),
+			student.getFirstName(),
+			student.getMiddleInitial(),
+			current.getHashedLrn(),
+			current.getFingerprintId(),
+			student.getClassroomId(),
+			student.getGradeLevelId(),
+			student.getStrandId()
+		));
+	}
+
+	/**
+	 * Moves students to another classroom after a bulk update, which does not go through the entity listener.
+	 *
+	 * @param studentIds  the students that were moved
+	 * @param classroomId the classroom they were moved to
+	 */
+	public void assignClassroom(Collection<Long> studentIds, Integer classroomId) {
+		for (Long studentId : studentIds) {
+			CredentialEntry current = byStudentId.get(studentId);
+			if (current != null) {
+				put(new CredentialEntry(
+					current.getStudentId(),
+					current.getScheduleId(),
+					current.getLastName(),
+					current.getFirstName(),
+					current.getMiddleInitial(),
+					current.getHashedLrn(),
+					current.getFingerprintId(),
+					classroomId,
+					current.getGradeLevelId(),
+					current.getStrandId()
+				));
+			}
+		}
+	}
+
+	void removeStudent(Long studentId) {
+		CredentialEntry removed = byStudentId.remove(studentId);
+		if (removed != null) {
+			unlink(removed);
+		}
+	}
+
+	ScheduleEntry putSchedule(StudentSchedule schedule) {
+		return putSchedule(ScheduleEntry.of(schedule));
+	}
+
+	ScheduleEntry putSchedule(ScheduleEntry entry) {
+		schedules.put(entry.getId(), entry);
+		return entry;
+	}
+
+	void removeSchedule(Integer scheduleId) {
+		schedules.remove(scheduleId);
+	}
+
+	static CredentialEntry entryOf(StudentCredential credential) {
+		return entryOf(credential.getStudent(), credential.getHashedLrn(), credential.getFingerprintId());
+	}
+
+	/**
+	 * @return the entry of a student without a card or fingerprint, for {@link #refreshStudent(CredentialEntry)}
+	 */
+	static CredentialEntry entryOf(Student student) {
+		return entryOf(student, null, null);
+	}
+
+	private static CredentialEntry entryOf(Student student, String hashedLrn, Integer fingerprintId) {
+		return new CredentialEntry(
+			student.getId(),
+			student.getStudentSchedule() != null ? student.getStudentSchedule().getId() : null,
+			student.getLastName(),
+			student.getFirstName(),
+			student.getMiddleInitial(),
+			hashedLrn,
+			fingerprintId,
+			student.getClassroom() != null ? student.getClassroom().getId() : null,
+			student.getGradeLevel() != null ? student.getGradeLevel().getId() : null,
+			student.getStrand() != null ? student.getStrand().getId() : null
+		);
+	}
+
+	CredentialEntry put(CredentialEntry entry) {
+		CredentialEntry previous = byStudentId.put(entry.getStudentId(), entry);
+		if (previous != null) {
+			unlink(previous);
+		}
+
+		byHashedLrn.put(entry.getHashedLrn(), entry);
+		HashedLrnKey key = HashedLrnKey.of(entry.getHashedLrn());
+		if (key != null) {
+			byHashedLrnKey.put(key, entry);
+		}
+		if (entry.getFingerprintId() != null) {
+			byFingerprintId.put(entry.getFingerprintId(), entry);
+		}
+		return entry;
+	}
+
+	private void unlink(CredentialEntry entry) {
+		byHashedLrn.remove(entry.getHashedLrn(), entry);
+		HashedLrnKey key = HashedLrnKey.of(entry.getHashedLrn());
+		if (key != null) {
+			byHashedLrnKey.remove(key, entry);
+		}
+		if (entry.getFingerprintId() != null) {
+			byFingerprintId.remove(entry.getFingerprintId(), entry);
+		}
+	}
+}
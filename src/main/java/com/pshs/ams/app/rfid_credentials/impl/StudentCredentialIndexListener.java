@@ -0,0 +1,58 @@
+package com.pshs.ams.app.rfid_credentials.impl;
+
+import com.pshs.ams.app.rfid_credentials.models.dto.CredentialEntry;
+import com.pshs.ams.app.rfid_credentials.models.dto.ScheduleEntry;
+import com.pshs.ams.app.rfid_credentials.models.entities.StudentCredential;
+import com.pshs.ams.app.student_schedules.models.entities.StudentSchedule;
+import com.pshs.ams.app.students.models.entities.Student;
+import com.pshs.ams.utils.TransactionCallbacks;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Keeps {@link StudentCredentialIndex} in sync with entity writes.
+ * <p>
+ * The entries are built from the entity right away, while its session is still open, but only applied to the index
+ * once the transaction commits, so a rolled back write never reaches the scan path.
+ */
+@ApplicationScoped
+public class StudentCredentialIndexListener {
+
+	@Inject
+	StudentCredentialIndex studentCredentialIndex;
+
+	@Inject
+	TransactionCallbacks transactionCallbacks;
+
+	@PostPersist
+	@PostUpdate
+	void onSave(Object entity) {
+		if (entity instanceof StudentCredential credential) {
+			CredentialEntry entry = StudentCredentialIndex.entryOf(credential);
+			transactionCallbacks.afterCommit(() -> studentCredentialIndex.put(entry));
+		} else if (entity instanceof Student student) {
+			CredentialEntry entry = StudentCredentialIndex.entryOf(student);
+			transactionCallbacks.afterCommit(() -> studentCredentialIndex.refreshStudent(entry));
+		} else if (entity instanceof StudentSchedule schedule) {
+			ScheduleEntry entry = ScheduleEntry.of(schedule);
+			transactionCallbacks.afterCommit(() -> studentCredentialIndex.putSchedule(entry));
+		}
+	}
+
+	@PostRemove
+	void onRemove(Object entity) {
+		if (entity instanceof StudentCredential credential) {
+			Long studentId = credential.getStudent().getId();
+			transactionCallbacks.afterCommit(() -> studentCredentialIndex.removeStudent(studentId));
+		} else if (entity instanceof Student student) {
+			Long studentId = student.getId();
+			transactionCallbacks.afterCommit(() -> studentCredentialIndex.removeStudent(studentId));
+		} else if (entity instanceof StudentSchedule schedule) {
+			Integer scheduleId = schedule.getId();
+			transactionCallbacks.afterCommit(() -> studentCredentialIndex.removeSchedule(scheduleId));
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.pshs.ams.app.rfid_credentials.models.dto;
+
+import com.pshs.ams.app.rfid_credentials.models.entities.StudentCredential;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Immutable snapshot of a {@link StudentCredential} and the student fields the scan path needs.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CredentialEntry {
+	private final Long studentId;
+	private final Integer scheduleId;
+	private final String lastName;
+	private final String firstName;
+	private final String middleInitial;
+	private final String hashedLrn;
+	private final Integer fingerprintId;
+	private final Integer classroomId;
+	private final Integer gradeLevelId;
+	private final Integer strandId;
+}
@@ -0,0 +1,79 @@
+package com.pshs.ams.app.rfid_credentials.models.dto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The 32 single-byte characters of a hashed LRN packed into four longs, so a hashed LRN can be read straight from a
+ * binary scan frame and looked up without decoding it into a {@link String}.
+ */
+public final class HashedLrnKey {
+
+	public static final int LENGTH = 32;
+
+	private final long a;
+	private final long b;
+	private final long c;
+	private final long d;
+
+	private HashedLrnKey(long a, long b, long c, long d) {
+		this.a = a;
+		this.b = b;
+		this.c = c;
+		this.d = d;
+	}
+
+	/**
+	 * Reads a key from the next {@value #LENGTH} bytes of the buffer.
+	 *
+	 * @param buffer the buffer, positioned at the first byte of the hashed LRN
+	 * @return the key
+	 */
+	public static HashedLrnKey read(ByteBuffer buffer) {
+		return new HashedLrnKey(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+	}
+
+	/**
+	 * Builds the key of a hashed LRN.
+	 *
+	 * @param hashedLrn the hashed LRN
+	 * @return the key, or null if the hashed LRN is not exactly {@value #LENGTH} single-byte characters
+	 */
+	public static HashedLrnKey of(String hashedLrn) {
+		if (hashedLrn == null || hashedLrn.length() != LENGTH) {
+			return null;
+		}
+
+		long[] words = new long[4];
+		for (int i = 0; i < LENGTH; i++) {
+			char ch = hashedLrn.charAt(i);
+			if (ch > 0xFF) {
+				return null;
+			}
+			words[i / 8] = (words[i / 8] << 8) | ch;
+		}
+		return new HashedLrnKey(words[0], words[1], words[2], words[3]);
+	}
+
+	/**
+	 * Decodes the key back into a hashed LRN. Only needed when the key is not indexed and has to be queried.
+	 */
+	@Override
+	public String toString() {
+		char[] chars = new char[LENGTH];
+		long[] words = {a, b, c, d};
+		for (int i = 0; i < LENGTH; i++) {
+			chars[i] = (char) ((words[i / 8] >>> (56 - (i % 8) * 8)) & 0xFF);
+		}
+		return new String(chars);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof HashedLrnKey key && a == key.a && b == key.b && c == key.c && d == key.d;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(a ^ Long.rotateLeft(b, 16) ^ Long.rotateLeft(c, 32) ^ Long.rotateLeft(d, 48));
+	}
+}
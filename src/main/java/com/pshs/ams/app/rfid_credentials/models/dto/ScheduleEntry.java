@@ -0,0 +1,25 @@
+package com.pshs.ams.app.rfid_credentials.models.dto;
+
+import com.pshs.ams.app.student_schedules.models.entities.StudentSchedule;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalTime;
+
+/**
+ * Immutable snapshot of a {@link StudentSchedule}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ScheduleEntry {
+	private final Integer id;
+	private final LocalTime onTime;
+	private final LocalTime lateTime;
+	private final LocalTime absentTime;
+
+	public static ScheduleEntry of(StudentSchedule schedule) {
+		return new ScheduleEntry(schedule.getId(), schedule.getOnTime(), schedule.getLateTime(), schedule.getAbsentTime());
+	}
+}
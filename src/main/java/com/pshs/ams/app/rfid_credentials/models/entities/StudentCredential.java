@@ -1,6 +1,7 @@
 package com.pshs.ams.app.rfid_credentials.models.entities;
 
 import com.pshs.ams.app.students.models.entities.Student;
+import com.pshs.ams.app.rfid_credentials.impl.StudentCredentialIndexListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -13,6 +14,7 @@ import org.hibernate.annotations.OnDeleteAction;
 @Getter
 @Setter
 @Entity
+@EntityListeners(StudentCredentialIndexListener.class)
 @Table(name = "student_credentials")
 public class StudentCredential extends PanacheEntityBase {
 	@Id
@@ -2,9 +2,12 @@ package com.pshs.ams.app.student_schedules.impl;
 
 import com.pshs.ams.app.student_schedules.models.entities.StudentSchedule;
 import com.pshs.ams.app.student_schedules.services.StudentSchedulesService;
+import com.pshs.ams.global.schedulers.AbsentSchedule;
+import com.pshs.ams.utils.TransactionCallbacks;
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -16,6 +19,12 @@ public class StudentSchedulesServiceImpl implements StudentSchedulesService {
 
 	Logger logger = LogManager.getLogger(this.getClass());
 
+	@Inject
+	AbsentSchedule absentSchedule;
+
+	@Inject
+	TransactionCallbacks transactionCallbacks;
+
 	/**
 	 * Create a new student schedule.
 	 *
@@ -33,6 +42,7 @@ public class StudentSchedulesServiceImpl implements StudentSchedulesService {
 		}
 
 		studentSchedule.persist();
+		transactionCallbacks.afterCommit(absentSchedule::reschedule);
 		return Optional.of(studentSchedule);
 	}
 
@@ -57,6 +67,7 @@ public class StudentSchedulesServiceImpl implements StudentSchedulesService {
 			currentSchedule.setLateTime(studentSchedule.getLateTime());
 			currentSchedule.setId(id);
 			currentSchedule.persist();
+			transactionCallbacks.afterCommit(absentSchedule::reschedule);
 			logger.debug("Schedule with ID {} updated", id);
 			return schedule;
 		}
@@ -79,6 +90,7 @@ public class StudentSchedulesServiceImpl implements StudentSchedulesService {
 		if (schedule.isPresent()) {
 			logger.debug("Deleting Schedule with ID {}", id);
 			schedule.get().delete();
+			transactionCallbacks.afterCommit(absentSchedule::reschedule);
 			logger.debug("Schedule with ID {} deleted", id);
 			return schedule;
 		}
@@ -1,5 +1,6 @@
 package com.pshs.ams.app.student_schedules.models.entities;
 
+import com.pshs.ams.app.rfid_credentials.impl.StudentCredentialIndexListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -12,6 +13,7 @@ import java.time.LocalTime;
 @Getter
 @Setter
 @Entity
+@EntityListeners(StudentCredentialIndexListener.class)
 @Table(name = "student_schedules")
 public class StudentSchedule extends PanacheEntityBase {
 	@Id
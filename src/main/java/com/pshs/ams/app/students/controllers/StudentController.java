@@ -1,7 +1,6 @@
 package com.pshs.ams.app.students.controllers;
 
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 
 import com.pshs.ams.app.students.exceptions.StudentExistsException;
@@ -51,8 +50,9 @@ public class StudentController {
 	 *
 	 * @param sortRequest an object containing sorting parameters (sortBy,
 	 *                    sortDirection)
-	 * @param pageRequest an object containing pagination parameters (page, size)
-	 * @return a list of StudentDTO objects
+	 * @param pageRequest an object containing pagination parameters (page, size),
+	 *                    or the cursor of a keyset-paginated listing
+	 * @return a list of StudentDTO objects, or a page of them when a cursor is given
 	 */
 	@GET
 	@Path("/all")
@@ -63,15 +63,29 @@ public class StudentController {
 	// 		@Parameter(name = "sortBy", in = ParameterIn.QUERY, schema = @Schema(type = SchemaType.STRING)),
 	// 		@Parameter(name = "sortDirection", in = ParameterIn.QUERY, schema = @Schema(type = SchemaType.STRING))
 	// })
-	public List<StudentDTO> getAllStudent(
+	public Response getAllStudent(
 		@BeanParam SortRequest sortRequest,
 		@BeanParam PageRequest pageRequest
 	) {
-		return this.studentService.getAllStudents(
+		if (pageRequest.isCursor()) {
+			try {
+				return Response.ok(
+					studentService.getAllStudents(pageRequest.cursor, pageRequest.size, sortRequest.sortDirection)
+				).build();
+			} catch (IllegalArgumentException e) {
+				return Response.status(Response.Status.BAD_REQUEST).entity(new MessageResponse(
+					e.getMessage(),
+					CodeStatus.BAD_REQUEST
+				)).build();
+			}
+		}
+
+		return Response.ok(
+			this.studentService.getAllStudents(
 				Sort.by(sortRequest.sortBy, sortRequest.sortDirection),
 				Page.of(pageRequest.page, pageRequest.size)
-			).stream()
-			.map(student -> this.modelMapper.map(student, StudentDTO.class)).toList();
+			)
+		).build();
 	}
 
 	@POST
@@ -169,14 +183,25 @@ public class StudentController {
 		@BeanParam SortRequest sortRequest,
 		@BeanParam PageRequest pageRequest
 	) {
+		if (pageRequest.isCursor()) {
+			try {
+				return Response.ok(
+					studentService.searchStudentByName(name, pageRequest.cursor, pageRequest.size, sortRequest.sortDirection)
+				).build();
+			} catch (IllegalArgumentException e) {
+				return Response.status(Response.Status.BAD_REQUEST).entity(new MessageResponse(
+					e.getMessage(),
+					CodeStatus.BAD_REQUEST
+				)).build();
+			}
+		}
+
 		return Response.ok(
 				studentService.searchStudentByName(
-						name,
-						Sort.by(sortRequest.sortBy, sortRequest.sortDirection),
-						Page.of(pageRequest.page, pageRequest.size)
-					)
-					.stream()
-					.map(student -> modelMapper.map(student, StudentDTO.class)).toList())
+					name,
+					Sort.by(sortRequest.sortBy, sortRequest.sortDirection),
+					Page.of(pageRequest.page, pageRequest.size)
+				))
 			.build();
 	}
 
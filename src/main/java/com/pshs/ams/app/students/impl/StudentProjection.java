@@ -0,0 +1,147 @@
+package com.pshs.ams.app.students.impl;
+
+import com.pshs.ams.app.students.models.dto.StudentClassroomDTO;
+import com.pshs.ams.app.students.models.dto.StudentDTO;
+import com.pshs.ams.global.models.custom.CursorPage;
+import com.pshs.ams.utils.Cursors;
+import com.pshs.ams.utils.Projections;
+import com.pshs.ams.utils.Projections.Row;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projection of {@link StudentDTO}, including its classroom, grade level, strand, guardian and schedule.
+ * <p>
+ * The columns and joins are built for a student alias, so the projection can be embedded in queries of other
+ * entities, such as attendances.
+ */
+public final class StudentProjection {
+
+	private static final String[] STUDENT = {
+		"id", "firstName", "middleInitial", "lastName", "profilePicture", "prefix", "address", "sex", "birthdate"
+	};
+
+	private static final String[] CLASSROOM = {"id", "room", "classroomName"};
+
+	private StudentProjection() {
+	}
+
+	/**
+	 * @param where  the conditions on the student {@code s}, or an empty string for every student
+	 * @param params named parameters of the conditions
+	 * @param sort   the sort on student properties, or null
+	 * @param page   the page to read, or null for every student
+	 * @return the students
+	 */
+	public static List<StudentDTO> list(String where, Map<String, Object> params, Sort sort, Page page) {
+		String select = "SELECT " + columns("s") + " FROM Student s" + joins("s");
+		return Projections.list(where.isEmpty() ? select : select + " WHERE " + where, params, sort, "s", page, StudentProjection::read);
+	}
+
+	/**
+	 * Reads a page of students in (lastName, firstName, id) order, starting after a cursor.
+	 *
+	 * @param where     the conditions on the student {@code s}, or an empty string for every student
+	 * @param params    named parameters of the conditions
+	 * @param cursor    the cursor of the previous page, or null or empty for the first page
+	 * @param size      the page size
+	 * @param direction the direction of the listing
+	 * @return the page of students
+	 * @throws IllegalArgumentException if the cursor is malformed or the page size is not positive
+	 */
+	public static CursorPage<StudentDTO> seek(String where, Map<String, Object> params, String cursor, int size, Sort.Direction direction) {
+		Cursors.checkSize(size);
+		Map<String, Object> seekParams = new HashMap<>(params);
+		if (cursor != null && !cursor.isEmpty()) {
+			String[] key = Cursors.decode(cursor, 3);
+			try {
+				seekParams.put("cursorId", Long.valueOf(key[2]));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+			}
+			seekParams.put("cursorLastName", key[0]);
+			seekParams.put("cursorFirstName", key[1]);
+
+			String after = Cursors.after(
+				"s.lastName, s.firstName, s.id", ":cursorLastName, :cursorFirstName, :cursorId",
+				direction == Sort.Direction.Descending
+			);
+			where = where.isEmpty() ? after : "(" + where + ") AND " + after;
+		}
+
+		List<StudentDTO> rows = list(where, seekParams, Cursors.sort(direction, "lastName", "firstName", "id"), Page.ofSize(size + 1));
+		return Cursors.page(rows, size, student -> Cursors.encode(student.getLastName(), student.getFirstName(), student.getId()));
+	}
+
+	/**
+	 * @param s the alias of the student
+	 * @return the selected columns, to be read with {@link #read(Row)}
+	 */
+	public static String columns(String s) {
+		return String.join(", ",
+			Projections.columns(s, STUDENT),
+			Projections.columns(s + "_c", CLASSROOM),
+			Projections.columns(s + "_ct", Projections.TEACHER),
+			Projections.columns(s + "_cg", Projections.GRADE_LEVEL),
+			Projections.columns(s + "_g", Projections.GRADE_LEVEL),
+			Projections.columns(s + "_st", Projections.STRAND),
+			Projections.columns(s + "_gu", Projections.GUARDIAN),
+			Projections.columns(s + "_sc", Projections.SCHEDULE)
+		);
+	}
+
+	/**
+	 * @param s the alias of the student
+	 * @return the joins the columns refer to
+	 */
+	public static String joins(String s) {
+		return " LEFT JOIN " + s + ".classroom " + s + "_c" +
+			" LEFT JOIN " + s + "_c.teacher " + s + "_ct" +
+			" LEFT JOIN " + s + "_c.gradeLevel " + s + "_cg" +
+			" LEFT JOIN " + s + ".gradeLevel " + s + "_g" +
+			" LEFT JOIN " + s + ".strand " + s + "_st" +
+			" LEFT JOIN " + s + ".guardian " + s + "_gu" +
+			" LEFT JOIN " + s + ".studentSchedule " + s + "_sc";
+	}
+
+	/**
+	 * Reads a student, or null when the student id is null.
+	 */
+	public static StudentDTO read(Row row) {
+		if (row.isNull()) {
+			row.skipNull(STUDENT.length + CLASSROOM.length + Projections.TEACHER.length + Projections.GRADE_LEVEL.length * 2 +
+				Projections.STRAND.length + Projections.GUARDIAN.length + Projections.SCHEDULE.length);
+			return null;
+		}
+
+		StudentDTO student = new StudentDTO()
+			.setId(row.next())
+			.setFirstName(row.next())
+			.setMiddleInitial(row.next())
+			.setLastName(row.next())
+			.setProfilePicture(row.next())
+			.setPrefix(row.next())
+			.setAddress(row.next())
+			.setSex(row.next())
+			.setBirthDate(row.next());
+		return student
+			.setClassroom(readClassroom(row))
+			.setGradeLevel(Projections.readGradeLevel(row))
+			.setStrand(Projections.readStrand(row))
+			.setGuardian(Projections.readGuardian(row))
+			.setSchedule(Projections.readSchedule(row));
+	}
+
+	private static StudentClassroomDTO readClassroom(Row row) {
+		if (row.isNull()) {
+			row.skipNull(CLASSROOM.length + Projections.TEACHER.length + Projections.GRADE_LEVEL.length);
+			return null;
+		}
+
+		return new StudentClassroomDTO(row.next(), row.next(), row.next(), Projections.readTeacher(row), Projections.readGradeLevel(row));
+	}
+}
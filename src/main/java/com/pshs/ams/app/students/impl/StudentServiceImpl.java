@@ -1,15 +1,18 @@
 package com.pshs.ams.app.students.impl;
 
+import com.pshs.ams.app.students.models.dto.StudentDTO;
 import com.pshs.ams.app.classrooms.models.entities.Classroom;
 import com.pshs.ams.app.students.exceptions.StudentExistsException;
 import com.pshs.ams.app.students.models.entities.Student;
 import com.pshs.ams.app.strands.models.entities.Strand;
 import com.pshs.ams.global.models.enums.CodeStatus;
+import com.pshs.ams.global.models.custom.CursorPage;
 import com.pshs.ams.global.models.custom.LineChart;
 import com.pshs.ams.app.strands.models.dto.MostPopularStrandDTO;
 import com.pshs.ams.app.classrooms.services.ClassroomService;
 import com.pshs.ams.app.students.services.StudentService;
 import com.pshs.ams.global.models.enums.Sex;
+import com.pshs.ams.utils.FetchPlans;
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -22,6 +25,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -40,12 +44,26 @@ public class StudentServiceImpl implements StudentService {
 	 * @param sort a sorting object containing sorting parameters (sortBy,
 	 *             sortDirection)
 	 * @param page a pagination object containing pagination parameters (page, size)
-	 * @return a list of Student objects
+	 * @return a list of StudentDTO objects, read with one query
 	 */
 	@Override
-	public List<Student> getAllStudents(Sort sort, Page page) {
+	public List<StudentDTO> getAllStudents(Sort sort, Page page) {
 		logger.debug("Get all students: " + sort + ", " + page);
-		return Student.findAll(sort).page(page).list();
+		return StudentProjection.list("", Map.of(), sort, page);
+	}
+
+	/**
+	 * Retrieves a page of all students in (lastName, firstName, id) order, starting after a cursor.
+	 *
+	 * @param cursor    the cursor of the previous page, or null or empty for the first page
+	 * @param size      the page size
+	 * @param direction the direction of the listing
+	 * @return a page of StudentDTO objects
+	 */
+	@Override
+	public CursorPage<StudentDTO> getAllStudents(String cursor, int size, Sort.Direction direction) {
+		logger.debug("Get all students after cursor: " + cursor + ", " + size);
+		return StudentProjection.seek("", Map.of(), cursor, size, direction);
 	}
 
 	/**
@@ -154,8 +172,8 @@ public class StudentServiceImpl implements StudentService {
 			throw new IllegalArgumentException("Invalid id: " + id);
 		}
 
-		// Return the student
-		return Student.findByIdOptional(id);
+		// Return the student with everything its DTO reads
+		return FetchPlans.findById(Student.class, id, Student.DETAILS);
 	}
 
 	@Override
@@ -212,9 +230,15 @@ public class StudentServiceImpl implements StudentService {
 	}
 
 	@Override
-	public List<Student> searchStudentByName(String name, Sort sort, Page page) {
-		return Student.find("firstName LIKE ?1 OR lastName LIKE ?1", Sort.by("lastName"), "%" + name + "%").page(page)
-			.list();
+	public List<StudentDTO> searchStudentByName(String name, Sort sort, Page page) {
+		return StudentProjection.list("s.firstName LIKE :name OR s.lastName LIKE :name", Map.of("name", "%" + name + "%"),
+			Sort.by("lastName"), page);
+	}
+
+	@Override
+	public CursorPage<StudentDTO> searchStudentByName(String name, String cursor, int size, Sort.Direction direction) {
+		return StudentProjection.seek("s.firstName LIKE :name OR s.lastName LIKE :name", Map.of("name", "%" + name + "%"),
+			cursor, size, direction);
 	}
 
 	@Override
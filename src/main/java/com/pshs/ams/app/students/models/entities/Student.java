@@ -4,6 +4,7 @@ import com.pshs.ams.app.guardians.models.entities.Guardian;
 import com.pshs.ams.app.classrooms.models.entities.Classroom;
 import com.pshs.ams.app.grade_levels.models.entities.GradeLevel;
 import com.pshs.ams.app.strands.models.entities.Strand;
+import com.pshs.ams.app.rfid_credentials.impl.StudentCredentialIndexListener;
 import com.pshs.ams.app.student_schedules.models.entities.StudentSchedule;
 import com.pshs.ams.global.models.enums.Sex;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
@@ -22,8 +23,29 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
+@EntityListeners(StudentCredentialIndexListener.class)
 @Table(name = "students")
+@NamedEntityGraph(
+	name = Student.DETAILS,
+	attributeNodes = {
+		@NamedAttributeNode(value = "classroom", subgraph = "classroom"),
+		@NamedAttributeNode("gradeLevel"),
+		@NamedAttributeNode("strand"),
+		@NamedAttributeNode("guardian"),
+		@NamedAttributeNode("studentSchedule")
+	},
+	subgraphs = @NamedSubgraph(name = "classroom", attributeNodes = {
+		@NamedAttributeNode("teacher"),
+		@NamedAttributeNode("gradeLevel")
+	})
+)
 public class Student extends PanacheEntityBase {
+
+	/**
+	 * Fetch plan of a student with everything {@code StudentDTO} reads.
+	 */
+	public static final String DETAILS = "Student.details";
+
 	@Id
 	@Column(name = "id", nullable = false)
 	private Long id;
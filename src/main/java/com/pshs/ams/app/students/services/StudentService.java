@@ -1,8 +1,10 @@
 package com.pshs.ams.app.students.services;
 
+import com.pshs.ams.app.students.models.dto.StudentDTO;
 import com.pshs.ams.app.students.exceptions.StudentExistsException;
 import com.pshs.ams.app.students.models.entities.Student;
 import com.pshs.ams.global.models.enums.CodeStatus;
+import com.pshs.ams.global.models.custom.CursorPage;
 import com.pshs.ams.global.models.custom.LineChart;
 import com.pshs.ams.app.strands.models.dto.MostPopularStrandDTO;
 
@@ -22,9 +24,20 @@ public interface StudentService {
 	 *
 	 * @param sort a sorting object containing sorting parameters (sortBy, sortDirection)
 	 * @param page a pagination object containing pagination parameters (page, size)
-	 * @return a list of Student objects
+	 * @return a list of StudentDTO objects
 	 */
-	List<Student> getAllStudents(Sort sort, Page page);
+	List<StudentDTO> getAllStudents(Sort sort, Page page);
+
+	/**
+	 * Retrieves a page of all students in (lastName, firstName, id) order, starting after a cursor.
+	 *
+	 * @param cursor    the cursor of the previous page, or null or empty for the first page
+	 * @param size      the page size
+	 * @param direction the direction of the listing
+	 * @return a page of StudentDTO objects
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	CursorPage<StudentDTO> getAllStudents(String cursor, int size, Sort.Direction direction);
 
 	/**
 	 * Creates a new student.
@@ -72,9 +85,22 @@ public interface StudentService {
 	 * Searches for students by name.
 	 *
 	 * @param name the name of the student to search for
-	 * @return a list of Student objects that match the search criteria
+	 * @return a list of StudentDTO objects that match the search criteria
+	 */
+	List<StudentDTO> searchStudentByName(String name, Sort sort, Page page) throws IllegalArgumentException;
+
+	/**
+	 * Searches for students by name, reading a page in (lastName, firstName, id) order after a cursor.
+	 *
+	 * @param name      the name of the student to search for
+	 * @param cursor    the cursor of the previous page, or null or empty for the first page
+	 * @param size      the page size
+	 * @param direction the direction of the listing
+	 * @return a page of StudentDTO objects that match the search criteria
+	 * @throws IllegalArgumentException if the cursor is malformed
 	 */
-	List<Student> searchStudentByName(String name, Sort sort, Page page) throws IllegalArgumentException;
+	CursorPage<StudentDTO> searchStudentByName(String name, String cursor, int size, Sort.Direction direction)
+		throws IllegalArgumentException;
 
 	/**
 	 * Assigns the student with the given id to the given classroom.
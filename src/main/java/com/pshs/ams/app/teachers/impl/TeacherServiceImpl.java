@@ -3,6 +3,7 @@ package com.pshs.ams.app.teachers.impl;
 import com.pshs.ams.app.teachers.models.entities.Teacher;
 import com.pshs.ams.global.models.enums.CodeStatus;
 import com.pshs.ams.app.teachers.services.TeacherService;
+import com.pshs.ams.utils.FetchPlans;
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -30,7 +31,7 @@ public class TeacherServiceImpl implements TeacherService {
 	 */
 	@Override
 	public List<Teacher> getAllTeacher(Sort sort, Page page) {
-		return Teacher.findAll(sort).page(page).list();
+		return FetchPlans.apply(Teacher.findAll(sort), Teacher.WITH_USER).page(page).list();
 	}
 
 	/**
@@ -41,7 +42,7 @@ public class TeacherServiceImpl implements TeacherService {
 	 */
 	@Override
 	public Optional<Teacher> getTeacher(Long id) {
-		return Teacher.findByIdOptional(id);
+		return FetchPlans.findById(Teacher.class, id, Teacher.WITH_USER);
 	}
 
 	/**
@@ -125,8 +126,9 @@ public class TeacherServiceImpl implements TeacherService {
 			return List.of();
 		}
 
-		return Teacher.find("firstName LIKE ?1 OR lastName LIKE ?2", sort, "%" + name + "%", "%" + name + "%").page(page)
-			.list();
+		return FetchPlans.apply(
+			Teacher.find("firstName LIKE ?1 OR lastName LIKE ?2", sort, "%" + name + "%", "%" + name + "%"), Teacher.WITH_USER
+		).page(page).list();
 	}
 
 	@Override
@@ -17,7 +17,14 @@ import java.time.Instant;
 @Setter
 @Entity
 @Table(name = "teachers")
+@NamedEntityGraph(name = Teacher.WITH_USER, attributeNodes = @NamedAttributeNode("user"))
 public class Teacher extends PanacheEntityBase {
+
+	/**
+	 * Fetch plan of a teacher with its user account.
+	 */
+	public static final String WITH_USER = "Teacher.withUser";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "teachers_id_gen")
 	@SequenceGenerator(name = "teachers_id_gen", sequenceName = "teachers_id_seq", allocationSize = 1)
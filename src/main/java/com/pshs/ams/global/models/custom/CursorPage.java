@@ -0,0 +1,23 @@
+package com.pshs.ams.global.models.custom;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * A page of a keyset-paginated listing.
+ * <p>
+ * {@code nextCursor} is passed back as the {@code cursor} query parameter to read the following page, and is null
+ * on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Accessors(chain = true)
+public class CursorPage<T> {
+	private List<T> items;
+	private String nextCursor;
+}
@@ -11,6 +11,17 @@ public class PageRequest {
 	@QueryParam("size")
 	public int size = 10;
 
+	/**
+	 * Cursor of a keyset-paginated listing. When present, even empty for the first page, listings that support it
+	 * return a {@link CursorPage} read after the cursor instead of an offset page.
+	 */
+	@QueryParam("cursor")
+	public String cursor;
+
+	public boolean isCursor() {
+		return cursor != null;
+	}
+
 	public Page toPage() {
 		return Page.of(page, size);
 	}
@@ -6,5 +6,6 @@ public enum CodeStatus {
 	BAD_REQUEST,
 	NOT_FOUND,
 	BAD_INPUT,
-	CONFLICT
+	CONFLICT,
+	BUSY
 }
@@ -0,0 +1,64 @@
+package com.pshs.ams.global.query_budget;
+
+import com.pshs.ams.global.models.custom.MessageResponse;
+import com.pshs.ams.global.models.enums.CodeStatus;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.Map;
+
+/**
+ * Checks the number of SQL statements of every request against {@code query-budget.max-statements}.
+ * <p>
+ * A request over the budget usually loads an association once per row. It is logged along with its most repeated
+ * statement, and with {@code query-budget.fail} set it is answered with a 500 instead, so tests catch the
+ * regression. The count is also returned in the {@code X-Statement-Count} header.
+ */
+@Provider
+public class QueryBudgetFilter implements ContainerResponseFilter {
+
+	@Inject
+	Logger logger;
+
+	@Inject
+	RequestStatements requestStatements;
+
+	@ConfigProperty(name = "query-budget.enabled", defaultValue = "false")
+	boolean enabled;
+
+	@ConfigProperty(name = "query-budget.max-statements", defaultValue = "20")
+	int maxStatements;
+
+	@ConfigProperty(name = "query-budget.fail", defaultValue = "false")
+	boolean fail;
+
+	@Override
+	public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+		if (!enabled) {
+			return;
+		}
+
+		int total = requestStatements.getTotal();
+		responseContext.getHeaders().putSingle("X-Statement-Count", total);
+		if (total <= maxStatements) {
+			return;
+		}
+
+		Map.Entry<String, Integer> mostRepeated = requestStatements.getMostRepeated();
+		String message = requestContext.getMethod() + " " + requestContext.getUriInfo().getPath() + " ran " + total +
+			" statements, over the budget of " + maxStatements;
+		logger.warn(message + "; most repeated (" + mostRepeated.getValue() + " times): " + mostRepeated.getKey());
+
+		if (fail) {
+			responseContext.setStatus(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+			responseContext.setEntity(new MessageResponse(message, CodeStatus.FAILED), null, MediaType.APPLICATION_JSON_TYPE);
+		}
+	}
+}
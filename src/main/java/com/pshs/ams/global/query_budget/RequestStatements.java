@@ -0,0 +1,35 @@
+package com.pshs.ams.global.query_budget;
+
+import jakarta.enterprise.context.RequestScoped;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The SQL statements run while handling the current HTTP request, counted by {@link StatementCounter}.
+ */
+@RequestScoped
+public class RequestStatements {
+
+	private final Map<String, Integer> counts = new HashMap<>();
+	private int total;
+
+	void add(String sql) {
+		counts.merge(sql, 1, Integer::sum);
+		total++;
+	}
+
+	/**
+	 * @return the number of statements run so far
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return the statement run the most times, or null if none was run
+	 */
+	public Map.Entry<String, Integer> getMostRepeated() {
+		return counts.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+	}
+}
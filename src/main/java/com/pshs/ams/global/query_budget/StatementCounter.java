@@ -0,0 +1,33 @@
+package com.pshs.ams.global.query_budget;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares for the current HTTP request when {@code query-budget.enabled} is set.
+ * <p>
+ * Statements prepared outside a request, such as by the schedulers and the write-behind drainer, are not counted.
+ * Statements run directly through JDBC do not go through Hibernate and are not counted either.
+ */
+@ApplicationScoped
+@PersistenceUnitExtension
+public class StatementCounter implements StatementInspector {
+
+	@Inject
+	RequestStatements requestStatements;
+
+	@ConfigProperty(name = "query-budget.enabled", defaultValue = "false")
+	boolean enabled;
+
+	@Override
+	public String inspect(String sql) {
+		if (enabled && Arc.container().requestContext().isActive()) {
+			requestStatements.add(sql);
+		}
+		return sql;
+	}
+}
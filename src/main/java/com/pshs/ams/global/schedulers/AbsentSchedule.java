@@ -1,39 +1,115 @@
 package com.pshs.ams.global.schedulers;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
-import com.pshs.ams.global.models.custom.DateRange;
-import com.pshs.ams.app.attendances.models.entities.Attendance;
-import com.pshs.ams.app.students.models.entities.Student;
-import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
 import com.pshs.ams.app.attendances.services.AttendanceService;
+import com.pshs.ams.app.rfid_credentials.impl.StudentCredentialIndex;
+import com.pshs.ams.app.rfid_credentials.models.dto.ScheduleEntry;
+import io.quarkus.runtime.StartupEvent;
 import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduler;
+import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
 
+/**
+ * Marks students absent as soon as their schedule's absent time passes.
+ * <p>
+ * One job is scheduled per distinct absent time of the student schedules, and each job only marks the students on
+ * the schedules sharing that time. Weekends and the dates listed in {@code attendance.non-school-days} are skipped.
+ * Jobs are rebuilt whenever the student schedules change.
+ */
 @ApplicationScoped
 public class AbsentSchedule {
 
+	private static final String JOB_PREFIX = "absent-students-";
+
 	@Inject
 	Logger logger;
 
 	@Inject
 	AttendanceService attendanceService;
 
-	@Scheduled(cron = "0 0 * * * ?") // Runs every hour
-	public void checkAbsent() {
-		logger.info("Checking absent students");
-		List<Student> absentStudents =
-			attendanceService.getAbsentStudents(new DateRange(LocalDate.now(), LocalDate.now()));
-		// Create absent attendance for each student
-		Attendance attendance = new Attendance();
-		for (Student student : absentStudents) {
-			attendance.setStudent(student);
-			attendance.setDate(LocalDate.now());
-			attendance.setStatus(AttendanceStatus.ABSENT);
-			attendanceService.createAttendance(attendance, true, true);
+	@Inject
+	StudentCredentialIndex studentCredentialIndex;
+
+	@Inject
+	Scheduler scheduler;
+
+	@ConfigProperty(name = "attendance.non-school-days")
+	Optional<List<LocalDate>> nonSchoolDays;
+
+	/**
+	 * Schedule ids of each scheduled job, keyed by absent time.
+	 */
+	private Map<LocalTime, List<Integer>> cohorts = Map.of();
+
+	// Runs after the credential index has loaded the schedules.
+	void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent event) {
+		reschedule();
+
+		LocalDate today = LocalDate.now();
+		if (isSchoolDay(today)) {
+			// Catch up on the cutoffs that passed while the application was down.
+			logger.info("Marking students absent for cutoffs missed before startup");
+			try {
+				attendanceService.markAbsentStudents(today, LocalTime.now());
+			} catch (Exception e) {
+				// The scheduled jobs are already in place, so a failed catch-up must not stop the application.
+				logger.error("Unable to mark students absent for cutoffs missed before startup: " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds the jobs from the current student schedules. Does nothing if the absent times did not change.
+	 */
+	public synchronized void reschedule() {
+		Map<LocalTime, List<Integer>> current = studentCredentialIndex.getSchedules().stream()
+			.filter(schedule -> schedule.getAbsentTime() != null)
+			.collect(Collectors.groupingBy(ScheduleEntry::getAbsentTime, TreeMap::new,
+				Collectors.mapping(ScheduleEntry::getId, Collectors.toList())));
+		if (current.equals(cohorts)) {
+			return;
+		}
+
+		cohorts.keySet().forEach(absentTime -> scheduler.unscheduleJob(JOB_PREFIX + absentTime));
+		current.forEach((absentTime, scheduleIds) -> scheduler.newJob(JOB_PREFIX + absentTime)
+			.setCron(absentTime.getSecond() + " " + absentTime.getMinute() + " " + absentTime.getHour() + " ? * MON-FRI")
+			.setConcurrentExecution(Scheduled.ConcurrentExecution.SKIP)
+			.setTask(execution -> checkAbsent(scheduleIds))
+			.schedule());
+		cohorts = current;
+		logger.info("Scheduled absence checks at " + current.keySet());
+	}
+
+	void checkAbsent(List<Integer> scheduleIds) {
+		LocalDate today = LocalDate.now();
+		if (!isSchoolDay(today)) {
+			return;
 		}
+
+		logger.info("Checking absent students on schedules " + scheduleIds);
+		attendanceService.markAbsentStudents(today, scheduleIds);
+	}
+
+	private boolean isSchoolDay(LocalDate date) {
+		DayOfWeek dayOfWeek = date.getDayOfWeek();
+		if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+			return false;
+		}
+
+		return nonSchoolDays.map(days -> !days.contains(date)).orElse(true);
 	}
 }
@@ -0,0 +1,114 @@
+package com.pshs.ams.utils;
+
+import com.pshs.ams.global.models.custom.CursorPage;
+import io.quarkus.panache.common.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for keyset (seek) pagination.
+ * <p>
+ * A listing is read in the order of a unique sort key, and a page starts right after the key of the last row of the
+ * previous page, so reading a deep page costs the same as reading the first one. The key of the last row is handed
+ * to the client as an opaque cursor.
+ */
+public final class Cursors {
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private Cursors() {
+	}
+
+	/**
+	 * @param key the values of the sort key of a row
+	 * @return the cursor of the row
+	 */
+	public static String encode(Object... key) {
+		return Arrays.stream(key)
+			.map(value -> ENCODER.encodeToString(String.valueOf(value).getBytes(StandardCharsets.UTF_8)))
+			.collect(Collectors.joining("."));
+	}
+
+	/**
+	 * @param cursor a cursor built by {@link #encode(Object...)}
+	 * @param length the number of values of the sort key
+	 * @return the values of the sort key
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	public static String[] decode(String cursor, int length) {
+		String[] parts = cursor.split("\\.", -1);
+		if (parts.length != length) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		}
+
+		String[] key = new String[length];
+		for (int i = 0; i < length; i++) {
+			key[i] = new String(DECODER.decode(parts[i]), StandardCharsets.UTF_8);
+		}
+		return key;
+	}
+
+	/**
+	 * Builds the condition that seeks past a cursor.
+	 *
+	 * @param columns    the columns of the sort key, such as {@code a.date, a.id}
+	 * @param params     the named parameters holding the key of the cursor, in the same order
+	 * @param descending whether the listing is in descending order
+	 * @return the row value comparison of the key with the cursor
+	 */
+	public static String after(String columns, String params, boolean descending) {
+		return "(" + columns + ") " + (descending ? "<" : ">") + " (" + params + ")";
+	}
+
+	/**
+	 * @param properties the properties of the sort key
+	 * @param direction  the direction of the listing
+	 * @return the sort on every property of the key in the same direction
+	 */
+	public static Sort sort(Sort.Direction direction, String... properties) {
+		Sort sort = Sort.by(properties[0], direction);
+		for (int i = 1; i < properties.length; i++) {
+			sort.and(properties[i], direction);
+		}
+		return sort;
+	}
+
+	/**
+	 * @param size the requested page size
+	 * @return the page size
+	 * @throws IllegalArgumentException if the page size is not positive
+	 */
+	public static int checkSize(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Invalid page size: " + size);
+		}
+		return size;
+	}
+
+	/**
+	 * Builds a page from rows read with a limit of one more than the page size, the extra row telling whether
+	 * there is a next page.
+	 *
+	 * @param rows  the rows read
+	 * @param size  the page size
+	 * @param keyOf the cursor of a row
+	 * @return the page
+	 * @throws IllegalArgumentException if the page size is not positive
+	 */
+	public static <T> CursorPage<T> page(List<T> rows, int size, Function<T, String> keyOf) {
+		checkSize(size);
+		if (rows.size() <= size) {
+			return new CursorPage<>(rows, null);
+		}
+
+		List<T> items = new ArrayList<>(rows.subList(0, size));
+		return new CursorPage<>(items, keyOf.apply(items.getLast()));
+	}
+}
@@ -0,0 +1,47 @@
+package com.pshs.ams.utils;
+
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import jakarta.persistence.EntityGraph;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Applies the named entity graphs declared on the entities, so a read loads the associations its DTO needs in the
+ * same query instead of one lazy select per row and association.
+ * <p>
+ * The graphs are applied as load graphs: attributes outside the graph keep their mapped fetch type.
+ */
+public final class FetchPlans {
+
+	private static final String LOAD_GRAPH = "jakarta.persistence.loadgraph";
+
+	private FetchPlans() {
+	}
+
+	/**
+	 * @param query the query to load with the plan
+	 * @param plan  the name of a {@link jakarta.persistence.NamedEntityGraph}
+	 * @return the query
+	 */
+	public static <T> PanacheQuery<T> apply(PanacheQuery<T> query, String plan) {
+		return query.withHint(LOAD_GRAPH, graph(plan));
+	}
+
+	/**
+	 * Finds an entity by id with a fetch plan.
+	 *
+	 * @param type the entity class
+	 * @param id   the id of the entity
+	 * @param plan the name of a {@link jakarta.persistence.NamedEntityGraph} of the entity
+	 * @return the entity, or empty if it does not exist
+	 */
+	public static <T> Optional<T> findById(Class<T> type, Object id, String plan) {
+		return Optional.ofNullable(Panache.getEntityManager().find(type, id, Map.of(LOAD_GRAPH, graph(plan))));
+	}
+
+	private static EntityGraph<?> graph(String plan) {
+		return Panache.getEntityManager().getEntityGraph(plan);
+	}
+}
@@ -0,0 +1,161 @@
+package com.pshs.ams.utils;
+
+import com.pshs.ams.app.classrooms.models.dto.ClassroomTeacherDTO;
+import com.pshs.ams.app.grade_levels.models.dto.GradeLevelDTO;
+import com.pshs.ams.app.strands.models.dto.StrandDTO;
+import com.pshs.ams.app.student_schedules.models.dto.StudentScheduleDTO;
+import com.pshs.ams.app.students.models.dto.StudentGuardianDTO;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for reading DTOs straight from JPQL projections instead of loading entities and mapping them.
+ * <p>
+ * A projection selects the DTO columns as a flat row, joining the related entities with LEFT JOINs, and a
+ * hand-written reader walks the row with a {@link Row} cursor, building the nested DTOs in the same order as the
+ * columns. A related entity whose id is null is read as a null DTO.
+ */
+public final class Projections {
+
+	private static final Pattern PROPERTY = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)*");
+
+	public static final String[] GRADE_LEVEL = {"id", "name", "description"};
+	public static final String[] STRAND = {"id", "name", "description"};
+	public static final String[] GUARDIAN = {"id", "fullName", "contactNumber"};
+	public static final String[] SCHEDULE = {"id", "name", "onTime", "lateTime", "absentTime", "isFlag"};
+	public static final String[] TEACHER = {
+		"id", "firstName", "lastName", "middleInitial", "age", "contactNumber", "emergencyContact", "sex", "position"
+	};
+
+	private Projections() {
+	}
+
+	/**
+	 * @param alias  the alias of an entity in the query
+	 * @param fields the properties to select
+	 * @return the properties prefixed with the alias, separated by commas
+	 */
+	public static String columns(String alias, String... fields) {
+		return Arrays.stream(fields).map(field -> alias + "." + field).collect(Collectors.joining(", "));
+	}
+
+	/**
+	 * Runs a projection query and reads every row.
+	 *
+	 * @param jpql   the query, without ORDER BY
+	 * @param params named parameters of the query
+	 * @param sort   the sort, applied to properties of {@code alias}, or null
+	 * @param alias  the alias the sort applies to
+	 * @param page   the page to read, or null for every row
+	 * @param reader reads one DTO from a row
+	 * @return the DTOs, in query order
+	 */
+	public static <T> List<T> list(
+		String jpql, Map<String, Object> params, Sort sort, String alias, Page page, Function<Row, T> reader
+	) {
+		TypedQuery<Object[]> query = Panache.getEntityManager().createQuery(jpql + orderBy(sort, alias), Object[].class);
+		params.forEach(query::setParameter);
+		if (page != null) {
+			query.setFirstResult(page.index * page.size).setMaxResults(page.size);
+		}
+
+		List<Object[]> rows = query.getResultList();
+		List<T> results = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			results.add(reader.apply(new Row(row)));
+		}
+		return results;
+	}
+
+	/**
+	 * Builds the ORDER BY clause of a Panache {@link Sort} for properties of an alias.
+	 *
+	 * @throws IllegalArgumentException if a sort column is not a property path
+	 */
+	public static String orderBy(Sort sort, String alias) {
+		if (sort == null || sort.getColumns().isEmpty()) {
+			return "";
+		}
+
+		List<String> columns = new ArrayList<>();
+		for (Sort.Column column : sort.getColumns()) {
+			if (column.getName() == null || !PROPERTY.matcher(column.getName()).matches()) {
+				throw new IllegalArgumentException("Invalid sort column: " + column.getName());
+			}
+			columns.add(alias + "." + column.getName() + (column.getDirection() == Sort.Direction.Descending ? " DESC" : ""));
+		}
+		return " ORDER BY " + String.join(", ", columns);
+	}
+
+	public static GradeLevelDTO readGradeLevel(Row row) {
+		return row.isNull() ? row.skipNull(GRADE_LEVEL.length) : new GradeLevelDTO(row.next(), row.next(), row.next());
+	}
+
+	public static StrandDTO readStrand(Row row) {
+		return row.isNull() ? row.skipNull(STRAND.length) : new StrandDTO(row.next(), row.next(), row.next());
+	}
+
+	public static StudentGuardianDTO readGuardian(Row row) {
+		return row.isNull() ? row.skipNull(GUARDIAN.length) : new StudentGuardianDTO(row.next(), row.next(), row.next());
+	}
+
+	public static StudentScheduleDTO readSchedule(Row row) {
+		return row.isNull() ? row.skipNull(SCHEDULE.length) : new StudentScheduleDTO(
+			row.next(), row.next(), row.next(), row.next(), row.next(), row.next()
+		);
+	}
+
+	public static ClassroomTeacherDTO readTeacher(Row row) {
+		return row.isNull() ? row.skipNull(TEACHER.length) : new ClassroomTeacherDTO(
+			row.next(), row.next(), row.next(), row.next(), row.next(), row.next(), row.next(), row.next(), row.next()
+		);
+	}
+
+	/**
+	 * Cursor over the columns of a projection row.
+	 */
+	public static final class Row {
+		private final Object[] values;
+		private int index;
+
+		public Row(Object[] values) {
+			this.values = values;
+		}
+
+		/**
+		 * @return the next column
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> T next() {
+			return (T) values[index++];
+		}
+
+		/**
+		 * @return whether the next column is null, without moving past it
+		 */
+		public boolean isNull() {
+			return values[index] == null;
+		}
+
+		/**
+		 * Moves past the columns of a related entity that is not set.
+		 *
+		 * @param count the number of columns of the entity
+		 * @return null
+		 */
+		public <T> T skipNull(int count) {
+			index += count;
+			return null;
+		}
+	}
+}
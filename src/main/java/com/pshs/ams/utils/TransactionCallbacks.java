@@ -0,0 +1,43 @@
+package com.pshs.ams.utils;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Defers work until the current JTA transaction has committed.
+ */
+@ApplicationScoped
+public class TransactionCallbacks {
+
+	@Inject
+	TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+	/**
+	 * Runs the action once the current transaction commits, or right away if there is no active transaction.
+	 * The action is discarded if the transaction rolls back.
+	 *
+	 * @param action the action to run
+	 */
+	public void afterCommit(Runnable action) {
+		if (transactionSynchronizationRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+			action.run();
+			return;
+		}
+
+		transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+			@Override
+			public void beforeCompletion() {
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				if (status == Status.STATUS_COMMITTED) {
+					action.run();
+				}
+			}
+		});
+	}
+}
@@ -1,40 +1,90 @@
 package com.pshs.ams.websockets;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import org.jboss.logging.Logger;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pshs.ams.app.attendances.models.dto.ScanResponse;
+import com.pshs.ams.global.models.custom.MessageResponse;
 import com.pshs.ams.global.models.custom.RFIDCard;
+import com.pshs.ams.global.models.enums.CodeStatus;
 import com.pshs.ams.app.attendances.services.AttendanceService;
 
-import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.infrastructure.Infrastructure;
-import io.smallrye.mutiny.unchecked.Unchecked;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.virtual.threads.VirtualThreads;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.websocket.OnClose;
 import jakarta.websocket.OnError;
 import jakarta.websocket.OnMessage;
 import jakarta.websocket.OnOpen;
-import jakarta.websocket.RemoteEndpoint;
 import jakarta.websocket.Session;
 import jakarta.websocket.server.ServerEndpoint;
 
+/**
+ * Scan endpoint for the RFID readers.
+ * <p>
+ * Readers either send JSON {@link RFIDCard} text messages and receive a JSON {@link MessageResponse}, or send
+ * binary frames as described in {@link BinaryScanFrame} and receive a binary reply.
+ * <p>
+ * Scans are handled on virtual threads so that many readers can be in flight without tying up the worker pool.
+ * Scans coming from the same session are chained, so an IN followed by an OUT from one reader is always processed
+ * in that order. A failed scan does not stop the scans queued behind it, and a session with
+ * {@code attendance.scan.max-pending} scans already waiting is answered BUSY instead of queuing more.
+ */
 @ApplicationScoped
 @ServerEndpoint(value = "/ws/attendances")
 public class AttendanceWebSocket {
 
 	private final Map<String, Session> sessions = new ConcurrentHashMap<>();
 
+	/**
+	 * Last scan queued for each session; the next scan of the session runs after it completes.
+	 */
+	private final Map<String, CompletableFuture<Void>> pendingScans = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of scans queued or running for each session.
+	 */
+	private final Map<String, AtomicInteger> pendingCounts = new ConcurrentHashMap<>();
+
 	@Inject
 	AttendanceService attendanceService;
 
+	@Inject
+	ObjectMapper objectMapper;
+
+	@Inject
+	@VirtualThreads
+	ExecutorService virtualThreads;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
 	@Inject
 	Logger logger;
 
+	@ConfigProperty(name = "attendance.scan.max-pending", defaultValue = "16")
+	int maxPendingScans;
+
+	private Timer clientLatency;
+
+	@PostConstruct
+	void registerMetrics() {
+		clientLatency = meterRegistry.timer("ams.scan.client.latency");
+	}
+
 	@OnOpen
 	public void onOpen(Session session) {
 		logger.debug("Session opened: " + session.getId());
@@ -45,6 +95,8 @@ public class AttendanceWebSocket {
 	public void onClose(Session session) {
 		try {
 			sessions.remove(session.getId());
+			pendingScans.remove(session.getId());
+			pendingCounts.remove(session.getId());
 		} catch (Exception e) {
 			logger.error("Error while removing session: " + session.getId());
 		}
@@ -59,40 +111,89 @@ public class AttendanceWebSocket {
 	public void onMessage(String message, Session session) {
 		logger.debug("Received message: " + message + " from session: " + session.getId());
 		try {
-			RFIDCard rfidCard = new ObjectMapper().readValue(message, RFIDCard.class);
+			RFIDCard rfidCard = objectMapper.readValue(message, RFIDCard.class);
 			// Validate
 			if (rfidCard.getMode() == null) {
 				logger.debug("Mode is null");
 			} else if (rfidCard.getHashedLrn() == null) {
 				logger.debug("Hashed Lrn is null");
 			} else {
-				// Run from the blocking thread using vertx executeBlocking
-				Uni.createFrom().item(Unchecked.supplier(() -> {
-					try {
-						return this.attendanceService.fromWebSocket(rfidCard);
-					} catch (JsonProcessingException e) {
-						throw new RuntimeException(e);
-					}
-				}))
-						.emitOn(Infrastructure.getDefaultExecutor())
-						.runSubscriptionOn(Infrastructure.getDefaultExecutor())
-						.subscribe().with(
-								Unchecked.consumer(result -> {
-									logger.debug("Scan Result: " + result);
-									RemoteEndpoint.Async async = session.getAsyncRemote();
-									try {
-										async.sendText(
-												new ObjectMapper().writeValueAsString(result));
-									} catch (JsonProcessingException e) {
-										throw new RuntimeException(e);
-									}
-								}),
-								failure -> {
-									logger.error(failure.getMessage());
-								});
+				if (!enqueue(session, () -> scan(rfidCard, session))) {
+					session.getAsyncRemote().sendText(objectMapper.writeValueAsString(
+						new MessageResponse("Scanner busy, please tap again", CodeStatus.BUSY)));
+				}
 			}
 		} catch (Exception e) {
 			logger.error(e.getMessage());
 		}
 	}
+
+	@OnMessage
+	public void onMessage(ByteBuffer message, Session session) {
+		BinaryScanFrame frame = BinaryScanFrame.decode(message);
+		if (frame == null) {
+			logger.debug("Invalid binary scan frame from session: " + session.getId());
+			session.getAsyncRemote().sendBinary(BinaryScanFrame.invalidFrame());
+			return;
+		}
+
+		if (!enqueue(session, () -> scan(frame, session))) {
+			session.getAsyncRemote().sendBinary(BinaryScanFrame.busy());
+		}
+	}
+
+	/**
+	 * Runs a scan on a virtual thread once every earlier scan of the same session has completed.
+	 *
+	 * @return false if the session already has the maximum number of pending scans, in which case the scan is dropped
+	 */
+	private boolean enqueue(Session session, Runnable scan) {
+		String id = session.getId();
+		AtomicInteger pending = pendingCounts.computeIfAbsent(id, key -> new AtomicInteger());
+		if (pending.incrementAndGet() > maxPendingScans) {
+			pending.decrementAndGet();
+			logger.debug("Too many pending scans for session: " + id);
+			return false;
+		}
+
+		Runnable counted = () -> {
+			try {
+				scan.run();
+			} finally {
+				pending.decrementAndGet();
+			}
+		};
+		// Chain on the completion of the previous scan whatever its outcome, so one failure does not fail the rest.
+		CompletableFuture<Void> next = pendingScans.compute(id, (key, previous) -> previous == null
+			? CompletableFuture.runAsync(counted, virtualThreads)
+			: previous.handle((result, failure) -> null).thenRunAsync(counted, virtualThreads));
+		// Drop the chain once it is idle so closed or quiet sessions do not keep completed futures around.
+		next.whenComplete((ignored, failure) -> pendingScans.remove(id, next));
+		return true;
+	}
+
+	private void scan(BinaryScanFrame frame, Session session) {
+		try {
+			ScanResponse result = attendanceService.fromWebSocket(frame.getHashedLrn(), frame.getMode());
+			session.getAsyncRemote().sendBinary(BinaryScanFrame.encode(result));
+			if (frame.getClientTimestamp() > 0) {
+				// Time from the card tap on the reader until the reply is queued, including the network.
+				long latency = System.currentTimeMillis() - frame.getClientTimestamp();
+				clientLatency.record(Math.max(latency, 0), TimeUnit.MILLISECONDS);
+			}
+		} catch (Exception e) {
+			logger.error(e.getMessage());
+			session.getAsyncRemote().sendBinary(BinaryScanFrame.failed());
+		}
+	}
+
+	private void scan(RFIDCard rfidCard, Session session) {
+		try {
+			MessageResponse result = attendanceService.fromWebSocket(rfidCard);
+			logger.debug("Scan Result: " + result);
+			session.getAsyncRemote().sendText(objectMapper.writeValueAsString(result));
+		} catch (Exception e) {
+			logger.error(e.getMessage());
+		}
+	}
 }
@@ -0,0 +1,186 @@
+package com.pshs.ams.websockets;
+
+import com.pshs.ams.app.attendances.models.dto.ScanResponse;
+import com.pshs.ams.app.attendances.models.enums.AttendanceMode;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.app.attendances.models.enums.ScanMessage;
+import com.pshs.ams.app.rfid_credentials.models.dto.HashedLrnKey;
+import com.pshs.ams.global.models.enums.CodeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary scan frame accepted on {@code /ws/attendances} next to the JSON {@code RFIDCard} messages.
+ * <p>
+ * Version 1 request, big-endian:
+ * <pre>
+ * offset  size  field
+ * 0       1     version, always 1
+ * 1       1     mode, 0 = IN, 1 = OUT, 2 = EXCUSED
+ * 2       32    hashed LRN, one byte per character
+ * 34      8     optional client timestamp, epoch milliseconds
+ * </pre>
+ * Version 1 reply:
+ * <pre>
+ * offset  size  field
+ * 0       1     version, always 1
+ * 1       1     status code, see below
+ * 2       1     message id, see below
+ * 3       1     attendance status, 0 = ON_TIME, 1 = LATE, 2 = ABSENT, 3 = EXCUSED, or 0xFF when the scan did not
+ *               produce one
+ * </pre>
+ * Status codes: 0 = OK, 1 = FAILED, 2 = BAD_REQUEST, 3 = NOT_FOUND, 4 = BAD_INPUT, 5 = CONFLICT, 6 = BUSY.
+ * <p>
+ * Message ids: 0 = WELCOME, 1 = ALREADY_CHECKED_IN, 2 = CARD_NOT_FOUND, 3 = NOT_CHECKED_IN, 4 = TIME_OUT_UPDATED,
+ * 5 = CHECKED_OUT, 6 = EXCUSED, 7 = ALREADY_EXCUSED, 8 = CONSULT_ADMIN, 9 = BUSY, 10 = INVALID_FRAME, 11 = FAILED.
+ * <p>
+ * Every code is fixed by a switch here rather than taken from the order of its enum, so reordering or inserting a
+ * constant does not change the protocol, and a new constant does not compile until it is given a code.
+ */
+@Getter
+@AllArgsConstructor
+public class BinaryScanFrame {
+
+	public static final byte VERSION_1 = 1;
+
+	private static final int HEADER_LENGTH = 2;
+	private static final int LENGTH = HEADER_LENGTH + HashedLrnKey.LENGTH;
+	private static final int LENGTH_WITH_TIMESTAMP = LENGTH + Long.BYTES;
+	private static final int REPLY_LENGTH = 4;
+	private static final int NO_ATTENDANCE_STATUS = 0xFF;
+
+	private final HashedLrnKey hashedLrn;
+	private final AttendanceMode mode;
+
+	/**
+	 * Client timestamp in epoch milliseconds, or -1 if the reader did not send one.
+	 */
+	private final long clientTimestamp;
+
+	/**
+	 * Decodes a request frame.
+	 *
+	 * @param buffer the received frame
+	 * @return the decoded frame, or null if the frame is malformed or of an unknown version
+	 */
+	public static BinaryScanFrame decode(ByteBuffer buffer) {
+		int length = buffer.remaining();
+		if ((length != LENGTH && length != LENGTH_WITH_TIMESTAMP) || buffer.get() != VERSION_1) {
+			return null;
+		}
+
+		AttendanceMode mode = modeOf(buffer.get());
+		if (mode == null) {
+			return null;
+		}
+
+		HashedLrnKey hashedLrn = HashedLrnKey.read(buffer);
+		long clientTimestamp = buffer.hasRemaining() ? buffer.getLong() : -1;
+		return new BinaryScanFrame(hashedLrn, mode, clientTimestamp);
+	}
+
+	/**
+	 * Encodes the reply to a scan.
+	 *
+	 * @param response the scan response
+	 * @return the reply frame, ready to be sent
+	 */
+	public static ByteBuffer encode(ScanResponse response) {
+		return reply(
+			response.getStatus(),
+			response.getMessageId(),
+			response.getAttendanceStatus() != null ? attendanceStatusCode(response.getAttendanceStatus()) : NO_ATTENDANCE_STATUS
+		);
+	}
+
+	/**
+	 * @return the reply sent back for a frame that could not be decoded
+	 */
+	public static ByteBuffer invalidFrame() {
+		return reply(CodeStatus.BAD_INPUT, ScanMessage.INVALID_FRAME, NO_ATTENDANCE_STATUS);
+	}
+
+	/**
+	 * @return the reply sent back when the scan could not be processed
+	 */
+	public static ByteBuffer failed() {
+		return reply(CodeStatus.FAILED, ScanMessage.FAILED, NO_ATTENDANCE_STATUS);
+	}
+
+	/**
+	 * @return the reply sent back when the session already has too many scans pending
+	 */
+	public static ByteBuffer busy() {
+		return reply(CodeStatus.BUSY, ScanMessage.BUSY, NO_ATTENDANCE_STATUS);
+	}
+
+	/**
+	 * @return the code of a status on the wire; a new status needs a new code here, never a reused one
+	 */
+	static byte statusCode(CodeStatus status) {
+		return switch (status) {
+			case OK -> 0;
+			case FAILED -> 1;
+			case BAD_REQUEST -> 2;
+			case NOT_FOUND -> 3;
+			case BAD_INPUT -> 4;
+			case CONFLICT -> 5;
+			case BUSY -> 6;
+		};
+	}
+
+	/**
+	 * @return the code of a message on the wire; a new message needs a new code here, never a reused one
+	 */
+	static byte messageCode(ScanMessage message) {
+		return switch (message) {
+			case WELCOME -> 0;
+			case ALREADY_CHECKED_IN -> 1;
+			case CARD_NOT_FOUND -> 2;
+			case NOT_CHECKED_IN -> 3;
+			case TIME_OUT_UPDATED -> 4;
+			case CHECKED_OUT -> 5;
+			case EXCUSED -> 6;
+			case ALREADY_EXCUSED -> 7;
+			case CONSULT_ADMIN -> 8;
+			case BUSY -> 9;
+			case INVALID_FRAME -> 10;
+			case FAILED -> 11;
+		};
+	}
+
+	/**
+	 * @return the code of an attendance status on the wire; a new status needs a new code here, never a reused one
+	 */
+	static byte attendanceStatusCode(AttendanceStatus status) {
+		return switch (status) {
+			case ON_TIME -> 0;
+			case LATE -> 1;
+			case ABSENT -> 2;
+			case EXCUSED -> 3;
+		};
+	}
+
+	/**
+	 * @return the mode of a code on the wire, or null if the code is unknown
+	 */
+	static AttendanceMode modeOf(int code) {
+		return switch (code) {
+			case 0 -> AttendanceMode.IN;
+			case 1 -> AttendanceMode.OUT;
+			case 2 -> AttendanceMode.EXCUSED;
+			default -> null;
+		};
+	}
+
+	private static ByteBuffer reply(CodeStatus status, ScanMessage messageId, int attendanceStatus) {
+		ByteBuffer reply = ByteBuffer.allocate(REPLY_LENGTH)
+			.put(VERSION_1)
+			.put(statusCode(status))
+			.put(messageCode(messageId))
+			.put((byte) attendanceStatus);
+		return reply.flip();
+	}
+}
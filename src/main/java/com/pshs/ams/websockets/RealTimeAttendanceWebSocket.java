@@ -1,20 +1,33 @@
 package com.pshs.ams.websockets;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pshs.ams.app.attendances.impl.RealTimeAttendanceService;
+import com.pshs.ams.app.attendances.models.dto.AttendanceSubscription;
 import jakarta.inject.Inject;
 import jakarta.websocket.OnClose;
 import jakarta.websocket.OnError;
+import jakarta.websocket.OnMessage;
 import jakarta.websocket.OnOpen;
 import jakarta.websocket.Session;
 import jakarta.websocket.server.ServerEndpoint;
 import org.jboss.logging.Logger;
 
+/**
+ * Pushes attendances to the real-time dashboards as JSON arrays.
+ * <p>
+ * A dashboard receives every attendance until it sends an {@link AttendanceSubscription} as a text message, for
+ * example {@code {"classroomId": 12, "statuses": ["LATE", "ABSENT"]}}. Sending an empty object subscribes to
+ * everything again.
+ */
 @ServerEndpoint(value = "/ws/real-time-attendances")
 public class RealTimeAttendanceWebSocket {
 
 	@Inject
 	RealTimeAttendanceService realTimeAttendanceService;
 
+	@Inject
+	ObjectMapper objectMapper;
+
 	@Inject
 	Logger logger;
 
@@ -28,6 +41,15 @@ public class RealTimeAttendanceWebSocket {
 		realTimeAttendanceService.unregisterSession(session);
 	}
 
+	@OnMessage
+	public void onMessage(String message, Session session) {
+		try {
+			realTimeAttendanceService.subscribe(session, objectMapper.readValue(message, AttendanceSubscription.class));
+		} catch (Exception e) {
+			logger.debug("Invalid subscription from session " + session.getId() + ": " + e.getMessage());
+		}
+	}
+
 	@OnError
 	public void onError(Throwable t) {
 		logger.error(t.getMessage());
@@ -152,6 +152,9 @@ CREATE INDEX students_section_id_idx ON students (classroom_id);
 
 CREATE INDEX students_grade_level_idx ON students (grade_level_id);
 
+-- Sort key of the keyset-paginated student listings.
+CREATE INDEX students_name_idx ON students (last_name, first_name, id);
+
 -- * RFID CREDENTIALS
 CREATE TABLE IF NOT EXISTS student_credentials (
     id SERIAL PRIMARY KEY,
@@ -189,11 +192,203 @@ CREATE TABLE IF NOT EXISTS announcements (
     FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE SET NULL ON UPDATE CASCADE
 );
 
-CREATE INDEX attendance_date_idx on attendances (date);
+-- Also the sort key of the keyset-paginated attendance listings.
+CREATE INDEX attendance_date_idx on attendances (date, id);
 
 CREATE INDEX attendance_status_idx on attendances (status);
 
 CREATE INDEX attendance_student_id_idx on attendances (student_id);
 
 -- * MAKE ATTENDANCE ENUM TYPE CHARACTER VARYING
-ALTER TABLE attendances ALTER COLUMN status TYPE CHARACTER VARYING;
\ No newline at end of file
+ALTER TABLE attendances ALTER COLUMN status TYPE CHARACTER VARYING;
+-- * MONTHLY ATTENDANCE SUMMARIES
+-- Per student and closed month: attendance counts by status and a bitmap of present days (bit day - 1).
+CREATE TABLE IF NOT EXISTS monthly_attendance_summaries (
+    student_id BIGINT NOT NULL,
+    month DATE NOT NULL,
+    on_time INT NOT NULL DEFAULT 0,
+    late INT NOT NULL DEFAULT 0,
+    absent INT NOT NULL DEFAULT 0,
+    excused INT NOT NULL DEFAULT 0,
+    present_days INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (student_id, month),
+    FOREIGN KEY (student_id) REFERENCES students (id) ON DELETE CASCADE ON UPDATE CASCADE
+);
+
+CREATE INDEX monthly_attendance_summaries_month_idx ON monthly_attendance_summaries (month);
+
+-- Months whose summaries have been built; later writes to these months refresh the affected rows.
+CREATE TABLE IF NOT EXISTS monthly_attendance_summary_months (
+    month DATE PRIMARY KEY,
+    refreshed_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- * DAILY ATTENDANCE COUNTS
+-- Number of attendances per day, status and student attributes, kept current by the triggers below.
+-- Students without a classroom, grade level or strand are counted under 0.
+CREATE TABLE IF NOT EXISTS daily_attendance_counts (
+    date DATE NOT NULL,
+    classroom_id INT NOT NULL DEFAULT 0,
+    grade_level_id INT NOT NULL DEFAULT 0,
+    strand_id INT NOT NULL DEFAULT 0,
+    sex VARCHAR(8) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (date, classroom_id, grade_level_id, strand_id, sex, status)
+);
+
+CREATE INDEX daily_attendance_counts_classroom_idx ON daily_attendance_counts (classroom_id, date);
+
+CREATE OR REPLACE FUNCTION add_daily_attendance_count(student BIGINT, attendance_date DATE, attendance_status VARCHAR, delta INT)
+RETURNS VOID AS $$
+BEGIN
+    INSERT INTO daily_attendance_counts (date, classroom_id, grade_level_id, strand_id, sex, status, count)
+    SELECT attendance_date, COALESCE(s.classroom_id, 0), COALESCE(s.grade_level_id, 0), COALESCE(s.strand_id, 0),
+           CAST(s.sex AS VARCHAR), attendance_status, delta
+    FROM students s WHERE s.id = student
+    ON CONFLICT (date, classroom_id, grade_level_id, strand_id, sex, status)
+    DO UPDATE SET count = daily_attendance_counts.count + EXCLUDED.count;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Attendances of deleted students have their student set to null; they were already subtracted below.
+CREATE OR REPLACE FUNCTION count_daily_attendance() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND NEW.student_id IS NOT DISTINCT FROM OLD.student_id
+        AND NEW.date IS NOT DISTINCT FROM OLD.date AND NEW.status IS NOT DISTINCT FROM OLD.status THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.student_id IS NOT NULL AND OLD.date IS NOT NULL THEN
+        PERFORM add_daily_attendance_count(OLD.student_id, OLD.date, OLD.status, -1);
+    END IF;
+    IF TG_OP IN ('UPDATE', 'INSERT') AND NEW.student_id IS NOT NULL AND NEW.date IS NOT NULL THEN
+        PERFORM add_daily_attendance_count(NEW.student_id, NEW.date, NEW.status, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER attendances_daily_counts AFTER INSERT OR UPDATE OR DELETE ON attendances
+    FOR EACH ROW EXECUTE FUNCTION count_daily_attendance();
+
+-- Counts follow the current classroom, grade level, strand and sex of the students, like the queries they replace.
+CREATE OR REPLACE FUNCTION move_daily_attendance_counts() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND NEW.classroom_id IS NOT DISTINCT FROM OLD.classroom_id
+        AND NEW.grade_level_id IS NOT DISTINCT FROM OLD.grade_level_id
+        AND NEW.strand_id IS NOT DISTINCT FROM OLD.strand_id AND NEW.sex = OLD.sex THEN
+        RETURN NULL;
+    END IF;
+    UPDATE daily_attendance_counts d SET count = d.count - a.count
+    FROM (SELECT date, status, COUNT(*) AS count FROM attendances
+          WHERE student_id = OLD.id AND date IS NOT NULL GROUP BY date, status) a
+    WHERE d.date = a.date AND d.status = a.status AND d.classroom_id = COALESCE(OLD.classroom_id, 0)
+        AND d.grade_level_id = COALESCE(OLD.grade_level_id, 0) AND d.strand_id = COALESCE(OLD.strand_id, 0)
+        AND d.sex = CAST(OLD.sex AS VARCHAR);
+    IF TG_OP = 'UPDATE' THEN
+        INSERT INTO daily_attendance_counts (date, classroom_id, grade_level_id, strand_id, sex, status, count)
+        SELECT date, COALESCE(NEW.classroom_id, 0), COALESCE(NEW.grade_level_id, 0), COALESCE(NEW.strand_id, 0),
+               CAST(NEW.sex AS VARCHAR), status, COUNT(*)
+        FROM attendances WHERE student_id = NEW.id AND date IS NOT NULL GROUP BY date, status
+        ON CONFLICT (date, classroom_id, grade_level_id, strand_id, sex, status)
+        DO UPDATE SET count = daily_attendance_counts.count + EXCLUDED.count;
+    END IF;
+    -- Also runs before deletes, which must go ahead
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER students_daily_attendance_counts AFTER UPDATE OF classroom_id, grade_level_id, strand_id, sex ON students
+    FOR EACH ROW EXECUTE FUNCTION move_daily_attendance_counts();
+
+CREATE TRIGGER students_delete_daily_attendance_counts BEFORE DELETE ON students
+    FOR EACH ROW EXECUTE FUNCTION move_daily_attendance_counts();
+
+-- Backfill from the attendances recorded before the triggers existed.
+INSERT INTO daily_attendance_counts (date, classroom_id, grade_level_id, strand_id, sex, status, count)
+SELECT a.date, COALESCE(s.classroom_id, 0), COALESCE(s.grade_level_id, 0), COALESCE(s.strand_id, 0),
+       CAST(s.sex AS VARCHAR), a.status, COUNT(*)
+FROM attendances a JOIN students s ON s.id = a.student_id
+WHERE a.date IS NOT NULL
+GROUP BY a.date, s.classroom_id, s.grade_level_id, s.strand_id, s.sex, a.status
+ON CONFLICT DO NOTHING;
+
+-- * STUDENT ATTENDANCE HISTORIES
+-- One row per student and school year, indexed by days since starts_on (bit and byte order as in set_bit):
+--   recorded: 1 bit per day, set when the student has an attendance on that day
+--   statuses: 2 bits per day, 0 ON_TIME, 1 LATE, 2 EXCUSED, 3 ABSENT
+--   time_in:  2 bytes per day (big endian), minutes since midnight + 1, or 0 without a time in
+CREATE TABLE IF NOT EXISTS student_attendance_histories (
+    student_id BIGINT NOT NULL,
+    starts_on DATE NOT NULL,
+    recorded BYTEA NOT NULL DEFAULT decode(repeat('00', 46), 'hex'),
+    statuses BYTEA NOT NULL DEFAULT decode(repeat('00', 92), 'hex'),
+    time_in BYTEA NOT NULL DEFAULT decode(repeat('00', 732), 'hex'),
+    PRIMARY KEY (student_id, starts_on),
+    FOREIGN KEY (student_id) REFERENCES students (id) ON DELETE CASCADE ON UPDATE CASCADE
+);
+
+-- School years start in June.
+CREATE OR REPLACE FUNCTION school_year_start(on_date DATE) RETURNS DATE AS $$
+    SELECT make_date(CAST(EXTRACT(YEAR FROM on_date) AS INT) - CASE WHEN EXTRACT(MONTH FROM on_date) < 6 THEN 1 ELSE 0 END, 6, 1);
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Copies the latest attendance of a student on a day into their history, or clears the day if there is none.
+CREATE OR REPLACE FUNCTION sync_attendance_history_day(student BIGINT, on_date DATE) RETURNS VOID AS $$
+DECLARE
+    year_start DATE := school_year_start(on_date);
+    idx INT := on_date - year_start;
+    day_status VARCHAR;
+    day_time_in TIME;
+    code INT;
+    minutes INT := 0;
+BEGIN
+    SELECT a.status, a.time_in INTO day_status, day_time_in FROM attendances a
+    WHERE a.student_id = student AND a.date = on_date ORDER BY a.id DESC LIMIT 1;
+
+    IF NOT FOUND THEN
+        UPDATE student_attendance_histories h
+        SET recorded = set_bit(h.recorded, idx, 0),
+            statuses = set_bit(set_bit(h.statuses, idx * 2, 0), idx * 2 + 1, 0),
+            time_in = set_byte(set_byte(h.time_in, idx * 2, 0), idx * 2 + 1, 0)
+        WHERE h.student_id = student AND h.starts_on = year_start;
+        RETURN;
+    END IF;
+
+    code := CASE day_status WHEN 'ON_TIME' THEN 0 WHEN 'LATE' THEN 1 WHEN 'EXCUSED' THEN 2 ELSE 3 END;
+    IF day_time_in IS NOT NULL THEN
+        minutes := CAST(EXTRACT(HOUR FROM day_time_in) * 60 + EXTRACT(MINUTE FROM day_time_in) AS INT) + 1;
+    END IF;
+
+    INSERT INTO student_attendance_histories (student_id, starts_on) VALUES (student, year_start) ON CONFLICT DO NOTHING;
+    UPDATE student_attendance_histories h
+    SET recorded = set_bit(h.recorded, idx, 1),
+        statuses = set_bit(set_bit(h.statuses, idx * 2, code & 1), idx * 2 + 1, code >> 1),
+        time_in = set_byte(set_byte(h.time_in, idx * 2, minutes >> 8), idx * 2 + 1, minutes & 255)
+    WHERE h.student_id = student AND h.starts_on = year_start;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION track_attendance_history() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND NEW.student_id IS NOT DISTINCT FROM OLD.student_id
+        AND NEW.date IS NOT DISTINCT FROM OLD.date AND NEW.status IS NOT DISTINCT FROM OLD.status
+        AND NEW.time_in IS NOT DISTINCT FROM OLD.time_in THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.student_id IS NOT NULL AND OLD.date IS NOT NULL THEN
+        PERFORM sync_attendance_history_day(OLD.student_id, OLD.date);
+    END IF;
+    IF TG_OP IN ('UPDATE', 'INSERT') AND NEW.student_id IS NOT NULL AND NEW.date IS NOT NULL THEN
+        PERFORM sync_attendance_history_day(NEW.student_id, NEW.date);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER attendances_student_history AFTER INSERT OR UPDATE OR DELETE ON attendances
+    FOR EACH ROW EXECUTE FUNCTION track_attendance_history();
+
+-- Backfill from the attendances recorded before the trigger existed.
+SELECT sync_attendance_history_day(d.student_id, d.date)
+FROM (SELECT DISTINCT student_id, date FROM attendances WHERE student_id IS NOT NULL AND date IS NOT NULL) d;
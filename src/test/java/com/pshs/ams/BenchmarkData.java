@@ -0,0 +1,160 @@
+package com.pshs.ams;
+
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.global.models.custom.DateRange;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Seeds a classroom of students with a daily attendance each for the benchmarks, and removes it afterwards.
+ * <p>
+ * The rows are written with set-based native inserts so that seeding stays fast next to what is measured. Student
+ * ids are drawn from a range far above real LRNs, and every name carries a random tag, so the seed does not collide
+ * with existing data.
+ */
+@ApplicationScoped
+public class BenchmarkData {
+
+	@Inject
+	EntityManager entityManager;
+
+	/**
+	 * A seeded classroom.
+	 *
+	 * @param tag            random text in the names of the classroom, grade level and students of the seed
+	 * @param gradeLevelId   the grade level created for the seed
+	 * @param classroomId    the classroom created for the seed
+	 * @param firstStudentId the id of the first student; the others follow without gaps
+	 * @param students       the number of students
+	 * @param from           the date of the first attendance
+	 * @param days           the number of consecutive days with an attendance for every student
+	 */
+	public record Seed(String tag, int gradeLevelId, int classroomId, long firstStudentId, int students, LocalDate from, int days) {
+
+		/**
+		 * @return the number of attendances seeded
+		 */
+		public long attendances() {
+			return (long) students * days;
+		}
+
+		/**
+		 * @return the date right after the last attendance
+		 */
+		public LocalDate to() {
+			return from.plusDays(days);
+		}
+	}
+
+	/**
+	 * Creates a grade level, a classroom, its students and one attendance per student and day.
+	 *
+	 * @param students the number of students
+	 * @param from     the date of the first attendance
+	 * @param days     the number of days
+	 * @return the seed, to pass to {@link #remove(Seed)}
+	 */
+	@Transactional
+	public Seed seed(int students, LocalDate from, int days) {
+		String tag = Long.toString(ThreadLocalRandom.current().nextLong(1L << 40), 36);
+		long firstStudentId = 900_000_000_000L + ThreadLocalRandom.current().nextLong(1_000_000) * 100_000;
+
+		int gradeLevelId = ((Number) entityManager.createNativeQuery(
+				"INSERT INTO grade_levels (name, description) VALUES (:name, 'Benchmark') RETURNING id")
+			.setParameter("name", "Benchmark " + tag)
+			.getSingleResult()).intValue();
+		int classroomId = ((Number) entityManager.createNativeQuery(
+				"INSERT INTO classrooms (room, classroom_name, grade_level_id) VALUES ('B-1', :name, :gradeLevelId) RETURNING id")
+			.setParameter("name", "Benchmark " + tag)
+			.setParameter("gradeLevelId", gradeLevelId)
+			.getSingleResult()).intValue();
+
+		entityManager.createNativeQuery(
+				"INSERT INTO students (id, first_name, middle_initial, last_name, sex, birthdate, classroom_id, grade_level_id) " +
+					"SELECT :firstId + n, 'First' || n, 'M', 'Bench' || :tag || '-' || n, " +
+					"CAST(CASE WHEN n % 2 = 0 THEN 'MALE' ELSE 'FEMALE' END AS Sex), DATE '2008-01-01', :classroomId, :gradeLevelId " +
+					"FROM generate_series(0, :students - 1) n")
+			.setParameter("firstId", firstStudentId)
+			.setParameter("tag", tag)
+			.setParameter("classroomId", classroomId)
+			.setParameter("gradeLevelId", gradeLevelId)
+			.setParameter("students", students)
+			.executeUpdate();
+
+		entityManager.createNativeQuery(
+				"INSERT INTO attendances (status, date, time_in, time_out, student_id) " +
+					"SELECT CAST((ARRAY['ON_TIME', 'LATE', 'ABSENT', 'EXCUSED'])[1 + (n + d) % 4] AS AttendanceStatus), " +
+						"CAST(:from AS DATE) + d, " +
+					"TIME '07:00', TIME '16:00', :firstId + n " +
+					"FROM generate_series(0, :students - 1) n CROSS JOIN generate_series(0, :days - 1) d")
+			.setParameter("from", from)
+			.setParameter("firstId", firstStudentId)
+			.setParameter("students", students)
+			.setParameter("days", days)
+			.executeUpdate();
+
+		return new Seed(tag, gradeLevelId, classroomId, firstStudentId, students, from, days);
+	}
+
+	/**
+	 * Removes everything a seed created.
+	 *
+	 * @param seed the seed to remove
+	 */
+	@Transactional
+	public void remove(Seed seed) {
+		List<String> statements = List.of(
+			"DELETE FROM attendances WHERE student_id BETWEEN :firstId AND :lastId",
+			"DELETE FROM students WHERE id BETWEEN :firstId AND :lastId"
+		);
+		for (String statement : statements) {
+			entityManager.createNativeQuery(statement)
+				.setParameter("firstId", seed.firstStudentId())
+				.setParameter("lastId", seed.firstStudentId() + seed.students() - 1)
+				.executeUpdate();
+		}
+		entityManager.createNativeQuery("DELETE FROM classrooms WHERE id = :id")
+			.setParameter("id", seed.classroomId())
+			.executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM grade_levels WHERE id = :id")
+			.setParameter("id", seed.gradeLevelId())
+			.executeUpdate();
+	}
+
+	/**
+	 * Counts attendances per chart period the way the line chart did before it grouped by date: one {@code COUNT}
+	 * query per period. Kept here as the baseline the benchmarks compare against.
+	 *
+	 * @param periods     the chart periods, each including its start date and excluding its end date
+	 * @param statuses    the statuses to count
+	 * @param classroomId the classroom to count, or null for the whole school
+	 * @return the count of each period, in the same order as the periods
+	 */
+	@Transactional
+	public List<Long> countPerPeriod(List<DateRange> periods, List<AttendanceStatus> statuses, Integer classroomId) {
+		String scope = classroomId == null ? "" : " AND a.student.classroom.id = :id";
+		List<Long> counts = new ArrayList<>(periods.size());
+		for (DateRange period : periods) {
+			TypedQuery<Long> query = entityManager.createQuery(
+					"SELECT COUNT(a) FROM Attendance a " +
+						"WHERE a.status IN :statuses AND a.date >= :startDate AND a.date < :endDate" + scope, Long.class
+				)
+				.setParameter("statuses", statuses)
+				.setParameter("startDate", period.getStartDate())
+				.setParameter("endDate", period.getEndDate());
+			if (classroomId != null) {
+				query.setParameter("id", classroomId);
+			}
+			counts.add(query.getSingleResult());
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,171 @@
+package com.pshs.ams;
+
+import com.pshs.ams.app.attendances.models.dto.AttendanceDTO;
+import com.pshs.ams.app.attendances.models.entities.Attendance;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.app.attendances.services.AttendanceService;
+import com.pshs.ams.app.classrooms.models.dto.ClassroomDTO;
+import com.pshs.ams.app.classrooms.models.dto.ClassroomStudentDTO;
+import com.pshs.ams.app.classrooms.models.entities.Classroom;
+import com.pshs.ams.app.classrooms.services.ClassroomService;
+import com.pshs.ams.app.students.models.dto.StudentDTO;
+import com.pshs.ams.app.students.models.entities.Student;
+import com.pshs.ams.app.students.services.StudentService;
+import com.pshs.ams.global.models.custom.DateRange;
+import com.pshs.ams.global.models.enums.AttendanceForeignEntity;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.modelmapper.ModelMapper;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Times the student, classroom and attendance list queries over 10k rows, read through the DTO projections and the
+ * way they were read before: loading the entities and copying them into DTOs with ModelMapper. Both ways must return
+ * the same rows.
+ * <p>
+ * Needs the database and seeds 10k students with one attendance each, so it only runs with
+ * {@code -DskipTests=false -Dbenchmark=true}.
+ */
+@QuarkusTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ListProjectionBenchmarkTest {
+
+	private static final Logger LOGGER = Logger.getLogger(ListProjectionBenchmarkTest.class);
+	private static final int ROWS = 10_000;
+	private static final int WARMUP = 2;
+	private static final int RUNS = 7;
+
+	private final ModelMapper mapper = new ModelMapper();
+
+	@Inject
+	BenchmarkData benchmarkData;
+
+	@Inject
+	StudentService studentService;
+
+	@Inject
+	ClassroomService classroomService;
+
+	@Inject
+	AttendanceService attendanceService;
+
+	private BenchmarkData.Seed seed;
+
+	@BeforeAll
+	void seed() {
+		seed = benchmarkData.seed(ROWS, LocalDate.now().minusDays(30), 1);
+	}
+
+	@AfterAll
+	void remove() {
+		if (seed != null) {
+			benchmarkData.remove(seed);
+		}
+	}
+
+	@Test
+	void students() {
+		String name = "%" + seed.tag() + "%";
+		benchmark("students", StudentDTO::getId,
+			() -> studentService.searchStudentByName(seed.tag(), null, Page.ofSize(ROWS)),
+			() -> Student.<Student>find("firstName LIKE ?1 OR lastName LIKE ?1", Sort.by("lastName"), name)
+				.page(Page.ofSize(ROWS)).stream()
+				.map(student -> mapper.map(student, StudentDTO.class))
+				.toList()
+		);
+	}
+
+	@Test
+	void classroomStudents() {
+		String name = "%" + seed.tag() + "%";
+		benchmark("classroom students", ClassroomStudentDTO::getId,
+			() -> studentsOf(classroomService.searchByName(seed.tag(), Page.ofSize(10), Sort.by("classroomName"))),
+			() -> studentsOf(Classroom.<Classroom>find("classroomName LIKE ?1", Sort.by("classroomName"), name)
+				.page(Page.ofSize(10)).stream()
+				.map(classroom -> mapper.map(classroom, ClassroomDTO.class))
+				.toList())
+		);
+	}
+
+	@Test
+	void attendances() {
+		List<AttendanceStatus> statuses = List.of(AttendanceStatus.values());
+		DateRange dateRange = new DateRange(seed.from(), seed.to());
+		Sort sort = Sort.by("date", "timeIn", "timeOut").descending();
+		benchmark("attendances", AttendanceDTO::getId,
+			() -> attendanceService.getAllAttendanceByStatusAndDateRange(
+				statuses, dateRange, AttendanceForeignEntity.CLASSROOM, seed.classroomId(), Page.ofSize(ROWS), sort
+			),
+			() -> Attendance.<Attendance>find(
+					"student.classroom.id = ?1 AND status IN ?2 AND date BETWEEN ?3 AND ?4", sort,
+					seed.classroomId(), statuses, dateRange.getStartDate(), dateRange.getEndDate()
+				)
+				.page(Page.ofSize(ROWS)).stream()
+				.map(attendance -> mapper.map(attendance, AttendanceDTO.class))
+				.toList()
+		);
+	}
+
+	private static List<ClassroomStudentDTO> studentsOf(List<ClassroomDTO> classrooms) {
+		assertEquals(1, classrooms.size());
+		return List.copyOf(classrooms.getFirst().getStudents());
+	}
+
+	private <T> void benchmark(String list, Function<T, Number> id, Callable<List<T>> projection, Callable<List<T>> entities) {
+		List<T> projected = QuarkusTransaction.requiringNew().call(projection);
+		List<T> mapped = QuarkusTransaction.requiringNew().call(entities);
+		assertEquals(ROWS, projected.size());
+		// Compared by id, since the seeded rows tie on some of the sort columns and the entities keep no order
+		// for the students of a classroom.
+		assertEquals(sortedIds(mapped, id), sortedIds(projected, id));
+
+		long[] projectionTimes = time(projection);
+		long[] entityTimes = time(entities);
+		LOGGER.infof(
+			"%d %s: projection median %.1f ms, p95 %.1f ms; entities with ModelMapper median %.1f ms, p95 %.1f ms",
+			ROWS, list, percentile(projectionTimes, 50), percentile(projectionTimes, 95),
+			percentile(entityTimes, 50), percentile(entityTimes, 95)
+		);
+	}
+
+	private static <T> List<Long> sortedIds(List<T> rows, Function<T, Number> id) {
+		return rows.stream().map(id).map(Number::longValue).sorted().toList();
+	}
+
+	private static long[] time(Callable<?> run) {
+		for (int i = 0; i < WARMUP; i++) {
+			QuarkusTransaction.requiringNew().call(run);
+		}
+
+		long[] times = new long[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			QuarkusTransaction.requiringNew().call(run);
+			times[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(times);
+		return times;
+	}
+
+	private static double percentile(long[] sortedTimes, int percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sortedTimes.length) - 1;
+		return sortedTimes[Math.max(index, 0)] / 1_000_000.0;
+	}
+}
@@ -0,0 +1,146 @@
+package com.pshs.ams.app.attendances.controllers;
+
+import com.pshs.ams.BenchmarkData;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.global.models.custom.DateRange;
+import com.pshs.ams.global.models.enums.TimeStack;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.specification.RequestSpecification;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Times {@code GET /api/v1/attendances/chart/line} over 30, 90 and 365 days against the one-{@code COUNT}-per-period
+ * query it replaced, and checks both give the same counts.
+ * <p>
+ * Needs the database and seeds about 15k attendances, so it only runs with {@code -DskipTests=false -Dbenchmark=true}.
+ * The chart is timed end to end over HTTP while the baseline runs its queries directly, so the chart's figures also
+ * carry the request overhead.
+ */
+@QuarkusTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LineChartBenchmarkTest {
+
+	private static final Logger LOGGER = Logger.getLogger(LineChartBenchmarkTest.class);
+	private static final int STUDENTS = 40;
+	private static final int DAYS = 365;
+	private static final int WARMUP = 3;
+	private static final int RUNS = 15;
+	private static final List<AttendanceStatus> STATUSES = List.of(AttendanceStatus.ON_TIME, AttendanceStatus.LATE);
+
+	@Inject
+	BenchmarkData benchmarkData;
+
+	private BenchmarkData.Seed seed;
+
+	@BeforeAll
+	void seed() {
+		// Far enough in the past for every range to end before today.
+		seed = benchmarkData.seed(STUDENTS, LocalDate.now().minusDays(DAYS + 30L), DAYS);
+	}
+
+	@AfterAll
+	void remove() {
+		if (seed != null) {
+			benchmarkData.remove(seed);
+		}
+	}
+
+	@ParameterizedTest(name = "{0} days by {1}, classroom scope: {2}")
+	@CsvSource({
+		"30, DAY, true", "90, DAY, true", "365, DAY, true",
+		"30, WEEK, true", "90, WEEK, true", "365, WEEK, true",
+		"30, DAY, false", "90, DAY, false", "365, DAY, false"
+	})
+	void lineChart(int days, TimeStack stack, boolean classroomScope) {
+		DateRange dateRange = new DateRange(seed.from(), seed.from().plusDays(days));
+		List<DateRange> periods = periodsOf(dateRange, stack);
+		Integer classroomId = classroomScope ? seed.classroomId() : null;
+
+		Supplier<List<Long>> chart = () -> lineChart(dateRange, stack, classroomId);
+		Supplier<List<Long>> baseline = () -> benchmarkData.countPerPeriod(periods, STATUSES, classroomId);
+
+		List<Long> expected = baseline.get();
+		assertEquals(expected, chart.get());
+		if (classroomScope) {
+			// Every seeded student is on time or late on half of the days.
+			assertEquals((long) STUDENTS * days / 2, expected.stream().mapToLong(Long::longValue).sum());
+		}
+
+		long[] chartTimes = time(chart);
+		long[] baselineTimes = time(baseline);
+		LOGGER.infof(
+			"Line chart over %d days by %s (%s, %d periods): median %.2f ms, p95 %.2f ms; " +
+				"one COUNT per period: median %.2f ms, p95 %.2f ms",
+			days, stack, classroomScope ? "classroom" : "school", periods.size(),
+			percentile(chartTimes, 50), percentile(chartTimes, 95),
+			percentile(baselineTimes, 50), percentile(baselineTimes, 95)
+		);
+	}
+
+	private List<Long> lineChart(DateRange dateRange, TimeStack stack, Integer classroomId) {
+		RequestSpecification request = given()
+			.queryParam("attendanceStatuses", String.join(",", STATUSES.stream().map(Enum::name).toList()))
+			.queryParam("startDate", dateRange.getStartDate().toString())
+			.queryParam("endDate", dateRange.getEndDate().toString())
+			.queryParam("stack", stack.name());
+		if (classroomId != null) {
+			request.queryParam("entity", "CLASSROOM").queryParam("id", classroomId);
+		}
+
+		List<String> data = request.when()
+			.get("/api/v1/attendances/chart/line")
+			.then()
+			.statusCode(200)
+			.extract()
+			.jsonPath()
+			.getList("data", String.class);
+		return data.stream().map(Long::valueOf).toList();
+	}
+
+	private static List<DateRange> periodsOf(DateRange dateRange, TimeStack stack) {
+		List<DateRange> periods = new ArrayList<>();
+		for (LocalDate start = dateRange.getStartDate(); start.isBefore(dateRange.getEndDate()); ) {
+			LocalDate end = stack == TimeStack.WEEK ? start.plusWeeks(1) : start.plusDays(1);
+			periods.add(new DateRange(start, end));
+			start = end;
+		}
+		return periods;
+	}
+
+	private static long[] time(Supplier<?> run) {
+		for (int i = 0; i < WARMUP; i++) {
+			run.get();
+		}
+
+		long[] times = new long[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			run.get();
+			times[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(times);
+		return times;
+	}
+
+	private static double percentile(long[] sortedTimes, int percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sortedTimes.length) - 1;
+		return sortedTimes[Math.max(index, 0)] / 1_000_000.0;
+	}
+}
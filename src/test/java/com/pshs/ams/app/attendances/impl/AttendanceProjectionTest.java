@@ -0,0 +1,51 @@
+package com.pshs.ams.app.attendances.impl;
+
+import com.pshs.ams.app.attendances.models.dto.AttendanceDTO;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.app.students.impl.StudentProjection;
+import com.pshs.ams.utils.Projections;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static com.pshs.ams.utils.ProjectionRows.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AttendanceProjectionTest {
+
+	private static final Object[] ATTENDANCE = {
+		42, AttendanceStatus.LATE, LocalDate.of(2025, 3, 4), LocalTime.of(7, 41), LocalTime.of(16, 5), "Jeepney was late"
+	};
+
+	@Test
+	void selectsTheAttendanceThenItsStudent() {
+		assertTrue(AttendanceProjection.SELECT.startsWith(
+			"SELECT a.id, a.status, a.date, a.timeIn, a.timeOut, a.notes, " + StudentProjection.columns("s") + " FROM "
+		));
+		assertEquals(ATTENDANCE.length + studentRow().length, columnCount(AttendanceProjection.SELECT));
+	}
+
+	@Test
+	void readsEveryColumn() {
+		Projections.Row row = cursor(row(ATTENDANCE, studentRow()));
+
+		assertEquals(new AttendanceDTO(
+			42, AttendanceStatus.LATE, LocalDate.of(2025, 3, 4), LocalTime.of(7, 41), LocalTime.of(16, 5), "Jeepney was late",
+			studentDTO()
+		), AttendanceProjection.read(row));
+		assertEquals(END, row.next());
+	}
+
+	@Test
+	void readsAttendancesWithoutStudent() {
+		Projections.Row row = cursor(row(ATTENDANCE, nulls(studentRow().length)));
+
+		AttendanceDTO attendance = AttendanceProjection.read(row);
+		assertEquals(42, attendance.getId());
+		assertNull(attendance.getStudent());
+		assertEquals(END, row.next());
+	}
+}
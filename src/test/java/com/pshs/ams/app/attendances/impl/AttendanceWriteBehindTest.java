@@ -0,0 +1,437 @@
+package com.pshs.ams.app.attendances.impl;
+
+import com.pshs.ams.app.attendances.models.dto.AttendanceDTO;
+import com.pshs.ams.app.attendances.models.dto.AttendanceState;
+import com.pshs.ams.app.attendances.models.dto.PendingAttendanceWrite;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Time;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the write-behind pipeline against an in-memory attendances table behind JDBC proxies, so the flush, retry,
+ * promotion and undo paths are covered without a database.
+ */
+class AttendanceWriteBehindTest {
+
+	private static final LocalDate TODAY = LocalDate.now();
+	private static final LocalTime NOW = LocalTime.of(7, 30);
+
+	private FakeDatabase database;
+	private SimpleMeterRegistry meterRegistry;
+	private RecordingCache cache;
+	private RecordingBroadcast broadcast;
+	private AttendanceWriteBehind writeBehind;
+
+	@BeforeEach
+	void setUp() {
+		database = new FakeDatabase();
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new RecordingCache();
+		broadcast = new RecordingBroadcast();
+
+		writeBehind = new AttendanceWriteBehind();
+		writeBehind.logger = Logger.getLogger(AttendanceWriteBehind.class);
+		writeBehind.meterRegistry = meterRegistry;
+		writeBehind.dataSource = database.dataSource();
+		writeBehind.realTimeAttendanceService = broadcast;
+		writeBehind.todayAttendanceCache = cache;
+		writeBehind.enabled = true;
+		writeBehind.queueCapacity = 100;
+		writeBehind.batchSize = 10;
+		writeBehind.maxLatency = Duration.ofMillis(10);
+		writeBehind.offerTimeout = Duration.ofMillis(10);
+		writeBehind.maxRetries = 3;
+		writeBehind.retryBackoff = Duration.ofMillis(1);
+	}
+
+	@Test
+	void insertsScan() {
+		AttendanceState state = new AttendanceState(null, AttendanceStatus.ON_TIME, NOW, null);
+		cache.putIfAbsent(1L, state);
+
+		run(checkIn(1L, state));
+
+		Row row = database.row(1L);
+		assertEquals(AttendanceStatus.ON_TIME, row.status);
+		assertEquals(NOW, row.timeIn);
+		assertEquals(List.of(row.id), broadcast.ids());
+		assertSame(state, cache.get(1L).orElseThrow());
+		assertEquals(0, failed());
+	}
+
+	@Test
+	void promotesAbsence() {
+		Row absent = database.insert(2L, AttendanceStatus.ABSENT, null);
+		AttendanceState state = new AttendanceState(null, AttendanceStatus.LATE, NOW, null);
+		// The absence job recorded ABSENT over the state of the scan once it committed.
+		cache.put(2L, new AttendanceState(absent.id, AttendanceStatus.ABSENT, null, null));
+
+		run(checkIn(2L, state, AttendanceStatus.LATE));
+
+		Row row = database.row(2L);
+		assertEquals(absent.id, row.id);
+		assertEquals(AttendanceStatus.LATE, row.status);
+		assertEquals(NOW, row.timeIn);
+		assertEquals(List.of(absent.id), broadcast.ids());
+		assertSame(state, cache.get(2L).orElseThrow());
+		assertEquals(0, failed());
+	}
+
+	@Test
+	void dropsConflictingScans() {
+		Row saved = database.insert(3L, AttendanceStatus.EXCUSED, null);
+		AttendanceState checkedIn = new AttendanceState(null, AttendanceStatus.ON_TIME, NOW, null);
+		AttendanceState checkedOut = new AttendanceState(null, AttendanceStatus.ON_TIME, NOW, NOW.plusHours(8));
+		cache.put(3L, checkedOut);
+
+		run(checkIn(3L, checkedIn), checkOut(3L, checkedOut, checkedIn));
+
+		Row row = database.row(3L);
+		assertEquals(AttendanceStatus.EXCUSED, row.status);
+		assertNull(row.timeOut);
+		assertTrue(broadcast.ids().isEmpty());
+		assertEquals(saved.id, cache.get(3L).orElseThrow().getId());
+		assertEquals(AttendanceStatus.EXCUSED, cache.get(3L).orElseThrow().getStatus());
+		assertEquals(2, failed());
+	}
+
+	@Test
+	void dropsUpdateOfMissingAttendance() {
+		AttendanceState previous = new AttendanceState(null, AttendanceStatus.ON_TIME, NOW, null);
+		AttendanceState checkedOut = new AttendanceState(null, AttendanceStatus.ON_TIME, NOW, NOW.plusHours(8));
+		cache.put(4L, checkedOut);
+
+		run(checkOut(4L, checkedOut, previous));
+
+		assertNull(database.row(4L));
+		assertTrue(broadcast.ids().isEmpty());
+		assertTrue(cache.get(4L).isEmpty());
+		assertEquals(1, failed());
+	}
+
+	@Test
+	void updatesAttendance() {
+		Row saved = database.insert(5L, AttendanceStatus.ON_TIME, NOW);
+		AttendanceState previous = new AttendanceState(saved.id, AttendanceStatus.ON_TIME, NOW, null);
+		AttendanceState checkedOut = new AttendanceState(saved.id, AttendanceStatus.ON_TIME, NOW, NOW.plusHours(8));
+		cache.put(5L, checkedOut);
+
+		run(checkOut(5L, checkedOut, previous));
+
+		assertEquals(NOW.plusHours(8), database.row(5L).timeOut);
+		assertEquals(List.of(saved.id), broadcast.ids());
+		assertEquals(0, failed());
+	}
+
+	@Test
+	void retriesWhileDatabaseIsUnreachable() {
+		database.unreachableFor(2);
+		AttendanceState state = new AttendanceState(null, AttendanceStatus.ON_TIME, NOW, null);
+		cache.putIfAbsent(6L, state);
+
+		run(checkIn(6L, state));
+
+		assertEquals(AttendanceStatus.ON_TIME, database.row(6L).status);
+		assertEquals(List.of(database.row(6L).id), broadcast.ids());
+		assertSame(state, cache.get(6L).orElseThrow());
+		assertEquals(0, failed());
+	}
+
+	@Test
+	void undoesCacheWhenRetriesRunOut() {
+		database.unreachableFor(Integer.MAX_VALUE);
+		AttendanceState state = new AttendanceState(null, AttendanceStatus.ON_TIME, NOW, null);
+		cache.putIfAbsent(7L, state);
+
+		run(checkIn(7L, state));
+
+		assertNull(database.row(7L));
+		assertTrue(broadcast.ids().isEmpty());
+		assertTrue(cache.get(7L).isEmpty());
+		assertEquals(1, failed());
+	}
+
+	private void run(PendingAttendanceWrite... writes) {
+		writeBehind.onStart(null);
+		for (PendingAttendanceWrite write : writes) {
+			assertTrue(writeBehind.offer(write));
+		}
+		writeBehind.onStop(null);
+	}
+
+	private double failed() {
+		return meterRegistry.counter("ams.attendance.write-behind.failed").count();
+	}
+
+	private static PendingAttendanceWrite checkIn(Long studentId, AttendanceState state) {
+		return checkIn(studentId, state, AttendanceStatus.ON_TIME);
+	}
+
+	private static PendingAttendanceWrite checkIn(Long studentId, AttendanceState state, AttendanceStatus status) {
+		return new PendingAttendanceWrite(PendingAttendanceWrite.Type.INSERT, studentId, TODAY, status, NOW, null,
+			null, state, null);
+	}
+
+	private static PendingAttendanceWrite checkOut(Long studentId, AttendanceState state, AttendanceState previous) {
+		return new PendingAttendanceWrite(PendingAttendanceWrite.Type.UPDATE, studentId, TODAY, state.getStatus(),
+			state.getTimeIn(), state.getTimeOut(), null, state, previous);
+	}
+
+	private static class RecordingCache extends TodayAttendanceCache {
+		private final Map<Long, AttendanceState> states = new ConcurrentHashMap<>();
+
+		@Override
+		public Optional<AttendanceState> get(Long studentId) {
+			return Optional.ofNullable(states.get(studentId));
+		}
+
+		@Override
+		public boolean putIfAbsent(Long studentId, AttendanceState state) {
+			return states.putIfAbsent(studentId, state) == null;
+		}
+
+		@Override
+		public boolean replace(Long studentId, AttendanceState expected, AttendanceState state) {
+			return states.replace(studentId, expected, state);
+		}
+
+		@Override
+		public void remove(Long studentId, AttendanceState expected) {
+			states.remove(studentId, expected);
+		}
+
+		@Override
+		public void put(Long studentId, AttendanceState state) {
+			states.put(studentId, state);
+		}
+
+		@Override
+		public void replaceStatus(Long studentId, AttendanceStatus status, AttendanceState state) {
+			states.compute(studentId, (id, current) -> current == null || current.getStatus() == status ? state : current);
+		}
+	}
+
+	private static class RecordingBroadcast extends RealTimeAttendanceService {
+		private final List<AttendanceDTO> published = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public void publish(AttendanceDTO attendance, Long studentId) {
+			published.add(attendance);
+		}
+
+		private List<Integer> ids() {
+			return published.stream().map(AttendanceDTO::getId).toList();
+		}
+	}
+
+	private static class Row {
+		private final int id;
+		private AttendanceStatus status;
+		private LocalTime timeIn;
+		private LocalTime timeOut;
+
+		private Row(int id, AttendanceStatus status, LocalTime timeIn, LocalTime timeOut) {
+			this.id = id;
+			this.status = status;
+			this.timeIn = timeIn;
+			this.timeOut = timeOut;
+		}
+
+		private Row copy() {
+			return new Row(id, status, timeIn, timeOut);
+		}
+	}
+
+	/**
+	 * Today's attendances by student id, with just enough JDBC to run the statements of the write-behind pipeline.
+	 */
+	private static class FakeDatabase {
+		private final AtomicInteger ids = new AtomicInteger(100);
+		private final AtomicInteger unreachable = new AtomicInteger();
+		private Map<Long, Row> rows = new HashMap<>();
+
+		private synchronized Row insert(Long studentId, AttendanceStatus status, LocalTime timeIn) {
+			Row row = new Row(ids.incrementAndGet(), status, timeIn, null);
+			rows.put(studentId, row);
+			return row;
+		}
+
+		private synchronized Row row(Long studentId) {
+			return rows.get(studentId);
+		}
+
+		private void unreachableFor(int connections) {
+			unreachable.set(connections);
+		}
+
+		private DataSource dataSource() {
+			return proxy(DataSource.class, (method, args) -> {
+				if (!method.equals("getConnection")) {
+					throw new UnsupportedOperationException(method);
+				}
+				if (unreachable.getAndUpdate(left -> Math.max(left - 1, 0)) > 0) {
+					throw new SQLTransientConnectionException("Connection refused", "08001");
+				}
+				return connection();
+			});
+		}
+
+		private Connection connection() {
+			Map<Long, Row>[] committed = new Map[] {snapshot()};
+			return proxy(Connection.class, (method, args) -> switch (method) {
+				case "prepareStatement" -> statement((String) args[0]);
+				case "commit" -> {
+					committed[0] = snapshot();
+					yield null;
+				}
+				case "rollback" -> {
+					restore(committed[0]);
+					yield null;
+				}
+				case "setAutoCommit", "close" -> null;
+				default -> throw new UnsupportedOperationException(method);
+			});
+		}
+
+		private synchronized Map<Long, Row> snapshot() {
+			Map<Long, Row> copy = new HashMap<>();
+			rows.forEach((studentId, row) -> copy.put(studentId, row.copy()));
+			return copy;
+		}
+
+		private synchronized void restore(Map<Long, Row> snapshot) {
+			rows = new HashMap<>();
+			snapshot.forEach((studentId, row) -> rows.put(studentId, row.copy()));
+		}
+
+		private PreparedStatement statement(String sql) {
+			Map<Integer, Object> params = new HashMap<>();
+			List<Map<Integer, Object>> batch = new ArrayList<>();
+			List<Object[]> keys = new ArrayList<>();
+			return proxy(PreparedStatement.class, (method, args) -> switch (method) {
+				case "setString", "setLong" -> params.put((Integer) args[0], args[1]);
+				case "setDate" -> params.put((Integer) args[0], ((Date) args[1]).toLocalDate());
+				case "setTime" -> params.put((Integer) args[0], ((Time) args[1]).toLocalTime());
+				case "setNull" -> params.put((Integer) args[0], null);
+				case "addBatch" -> {
+					batch.add(new HashMap<>(params));
+					yield null;
+				}
+				case "executeBatch" -> {
+					int[] counts = new int[batch.size()];
+					for (int i = 0; i < batch.size(); i++) {
+						Row row = execute(sql, batch.get(i));
+						counts[i] = row != null ? 1 : 0;
+						if (row != null) {
+							keys.add(new Object[] {row.id});
+						}
+					}
+					batch.clear();
+					yield counts;
+				}
+				case "getGeneratedKeys" -> resultSet(keys);
+				case "executeQuery" -> {
+					Row row = execute(sql, params);
+					if (row == null) {
+						yield resultSet(List.of());
+					}
+					yield resultSet(List.<Object[]>of(new Object[] {row.id, row.status.name(), time(row.timeIn), time(row.timeOut)}));
+				}
+				case "close" -> null;
+				default -> throw new UnsupportedOperationException(method);
+			});
+		}
+
+		/**
+		 * @return the row the statement wrote or read, or null if it matched none
+		 */
+		private synchronized Row execute(String sql, Map<Integer, Object> params) {
+			if (sql.startsWith("INSERT")) {
+				Long studentId = (Long) params.get(6);
+				if (rows.containsKey(studentId)) {
+					return null;
+				}
+				return insertRow(studentId, params);
+			} else if (sql.startsWith("SELECT")) {
+				return rows.get((Long) params.get(1));
+			} else if (sql.contains("time_in = ?")) {
+				Row row = rows.get((Long) params.get(5));
+				if (row == null || row.status != AttendanceStatus.ABSENT) {
+					return null;
+				}
+				row.status = AttendanceStatus.valueOf((String) params.get(1));
+				row.timeIn = (LocalTime) params.get(2);
+				row.timeOut = (LocalTime) params.get(3);
+				return row;
+			} else {
+				Row row = rows.get((Long) params.get(4));
+				if (row == null) {
+					return null;
+				}
+				row.status = AttendanceStatus.valueOf((String) params.get(1));
+				row.timeOut = (LocalTime) params.get(2);
+				return row;
+			}
+		}
+
+		private Row insertRow(Long studentId, Map<Integer, Object> params) {
+			Row row = new Row(ids.incrementAndGet(), AttendanceStatus.valueOf((String) params.get(1)),
+				(LocalTime) params.get(3), (LocalTime) params.get(4));
+			rows.put(studentId, row);
+			return row;
+		}
+
+		private static Time time(LocalTime time) {
+			return time == null ? null : Time.valueOf(time);
+		}
+
+		private static ResultSet resultSet(List<Object[]> rows) {
+			int[] cursor = {-1};
+			return proxy(ResultSet.class, (method, args) -> switch (method) {
+				case "next" -> ++cursor[0] < rows.size();
+				case "getInt" -> (Integer) rows.get(cursor[0])[(Integer) args[0] - 1];
+				case "getString" -> (String) rows.get(cursor[0])[(Integer) args[0] - 1];
+				case "getTime" -> (Time) rows.get(cursor[0])[(Integer) args[0] - 1];
+				case "close" -> null;
+				default -> throw new UnsupportedOperationException(method);
+			});
+		}
+
+		@FunctionalInterface
+		private interface Handler {
+			Object handle(String method, Object[] args) throws Exception;
+		}
+
+		private static <T> T proxy(Class<T> type, Handler handler) {
+			return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+				(proxy, method, args) -> handler.handle(method.getName(), args)));
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.pshs.ams.app.classrooms.impl;
+
+import com.pshs.ams.app.classrooms.models.dto.ClassroomDTO;
+import com.pshs.ams.app.classrooms.models.dto.ClassroomStudentDTO;
+import com.pshs.ams.global.models.enums.Sex;
+import com.pshs.ams.utils.Projections;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+
+import static com.pshs.ams.utils.ProjectionRows.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassroomProjectionTest {
+
+	private static final Object[] CLASSROOM_ROW = {7, "B-204", "Einstein", "einstein.png"};
+
+	private static final Object[] STUDENT_ROW = {
+		136514110001L, "Juan", "D", "Dela Cruz", "Mr.", "Punturin, Valenzuela", Sex.MALE, LocalDate.of(2008, 5, 17)
+	};
+
+	@Test
+	void selectsTheClassroomThenItsTeacherAndGradeLevel() {
+		assertTrue(ClassroomProjection.SELECT.startsWith("SELECT c.id, c.room, c.classroomName, c.profilePicture, " +
+			Projections.columns("c_t", Projections.TEACHER) + ", " + Projections.columns("c_g", Projections.GRADE_LEVEL) + " FROM "));
+		assertEquals(CLASSROOM_ROW.length + TEACHER.length + GRADE_LEVEL.length, columnCount(ClassroomProjection.SELECT));
+	}
+
+	@Test
+	void selectsTheClassroomIdThenTheStudent() {
+		assertTrue(ClassroomProjection.SELECT_STUDENTS.startsWith("SELECT s.classroom.id, " +
+			"s.id, s.firstName, s.middleInitial, s.lastName, s.prefix, s.address, s.sex, s.birthdate, " +
+			Projections.columns("s_g", Projections.GRADE_LEVEL) + ", " +
+			Projections.columns("s_st", Projections.STRAND) + ", " +
+			Projections.columns("s_gu", Projections.GUARDIAN) + ", " +
+			Projections.columns("s_sc", Projections.SCHEDULE) + " FROM "));
+		assertEquals(1 + STUDENT_ROW.length + GRADE_LEVEL.length + STRAND.length + GUARDIAN.length + SCHEDULE.length,
+			columnCount(ClassroomProjection.SELECT_STUDENTS));
+	}
+
+	@Test
+	void readsEveryClassroomColumn() {
+		Projections.Row row = cursor(row(CLASSROOM_ROW, TEACHER, GRADE_LEVEL));
+
+		assertEquals(new ClassroomDTO(7, "B-204", "Einstein", "einstein.png", TEACHER_DTO, GRADE_LEVEL_DTO, new LinkedHashSet<>()),
+			ClassroomProjection.read(row));
+		assertEquals(END, row.next());
+	}
+
+	@Test
+	void readsClassroomsWithoutTeacher() {
+		Projections.Row row = cursor(row(CLASSROOM_ROW, nulls(TEACHER.length), GRADE_LEVEL));
+
+		ClassroomDTO classroom = ClassroomProjection.read(row);
+		assertNull(classroom.getTeacher());
+		assertEquals(GRADE_LEVEL_DTO, classroom.getGradeLevel());
+		assertEquals(END, row.next());
+	}
+
+	@Test
+	void readsEveryStudentColumn() {
+		// The classroom id is read by the caller before the student.
+		Projections.Row row = cursor(row(STUDENT_ROW, GRADE_LEVEL, STRAND, GUARDIAN, SCHEDULE));
+
+		assertEquals(new ClassroomStudentDTO(
+			136514110001L, "Juan", "D", "Dela Cruz", "Mr.", "Punturin, Valenzuela", Sex.MALE, LocalDate.of(2008, 5, 17),
+			GRADE_LEVEL_DTO, STRAND_DTO, GUARDIAN_DTO, SCHEDULE_DTO
+		), ClassroomProjection.readStudent(row));
+		assertEquals(END, row.next());
+	}
+}
@@ -0,0 +1,113 @@
+package com.pshs.ams.app.fingerprints.impl;
+
+import com.pshs.ams.app.fingerprints.models.FingerprintImportJob;
+import com.pshs.ams.app.fingerprints.models.FingerprintImportStatus;
+import com.pshs.ams.app.fingerprints.models.FingerprintImportSummary;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs imports through the job pool, where the fingerprints and schedules missing from the credential index are
+ * looked up outside of any request.
+ */
+@QuarkusTest
+class FingerprintImportJobsTest {
+
+	@Inject
+	FingerprintImportJobs fingerprintImportJobs;
+
+	@Inject
+	EntityManager entityManager;
+
+	private long studentId;
+	private int scheduleId;
+	private int fingerprintId;
+
+	@BeforeEach
+	void seed() {
+		// Seeded after startup, so the credential index has to fall back to the database for them.
+		studentId = 900_000_000_000L + ThreadLocalRandom.current().nextLong(1_000_000_000);
+		QuarkusTransaction.requiringNew().run(() -> {
+			scheduleId = ((Number) entityManager.createNativeQuery(
+					"INSERT INTO student_schedules (name, on_time, late_time, absent_time, is_flag) " +
+						"VALUES ('Fingerprint import', TIME '06:00', TIME '07:30', TIME '09:00', true) RETURNING id")
+				.getSingleResult()).intValue();
+			entityManager.createNativeQuery(
+					"INSERT INTO students (id, first_name, last_name, sex, birthdate, student_schedule_id) " +
+						"VALUES (:id, 'Finger', 'Print', CAST('MALE' AS Sex), DATE '2008-01-01', :scheduleId)")
+				.setParameter("id", studentId)
+				.setParameter("scheduleId", scheduleId)
+				.executeUpdate();
+			fingerprintId = ((Number) entityManager.createNativeQuery(
+					"SELECT COALESCE(MAX(fingerprint_id), 0) + 1000 FROM student_credentials")
+				.getSingleResult()).intValue();
+			entityManager.createNativeQuery(
+					"INSERT INTO student_credentials (student_id, fingerprint_id, hashed_lrn, salt) " +
+						"VALUES (:studentId, :fingerprintId, :hashedLrn, 'fingerprinttest1')")
+				.setParameter("studentId", studentId)
+				.setParameter("fingerprintId", fingerprintId)
+				.setParameter("hashedLrn", UUID.randomUUID().toString().replace("-", ""))
+				.executeUpdate();
+		});
+	}
+
+	@AfterEach
+	void remove() {
+		QuarkusTransaction.requiringNew().run(() -> {
+			entityManager.createNativeQuery("DELETE FROM attendances WHERE student_id = :id")
+				.setParameter("id", studentId)
+				.executeUpdate();
+			entityManager.createNativeQuery("DELETE FROM students WHERE id = :id")
+				.setParameter("id", studentId)
+				.executeUpdate();
+			entityManager.createNativeQuery("DELETE FROM student_schedules WHERE id = :id")
+				.setParameter("id", scheduleId)
+				.executeUpdate();
+		});
+	}
+
+	@Test
+	void skipsUnknownFingerprints() throws Exception {
+		int unknownFingerprintId = fingerprintId + 1;
+		String file = String.join("\n",
+			fingerprintId + ",2024-3-4 7:10:00,IN",
+			unknownFingerprintId + ",2024-3-4 7:12:00,IN",
+			fingerprintId + ",2024-3-4 16:00:00,OUT",
+			fingerprintId + ",2024-3-5 7:45:00,IN"
+		);
+
+		FingerprintImportJob job = fingerprintImportJobs.submit(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+		Instant deadline = Instant.now().plus(Duration.ofSeconds(30));
+		while (job.getFinishedAt() == null && Instant.now().isBefore(deadline)) {
+			Thread.sleep(50);
+		}
+
+		assertEquals(FingerprintImportStatus.COMPLETED, job.getStatus(), job.getError());
+		FingerprintImportSummary summary = job.getProgress();
+		assertEquals(4, summary.getRows());
+		assertEquals(3, summary.getAccepted());
+		assertEquals(1, summary.getUnknownFingerprints());
+		assertEquals(0, summary.getFailed());
+
+		List<String> statuses = QuarkusTransaction.requiringNew().call(() -> entityManager.createNativeQuery(
+				"SELECT CAST(status AS VARCHAR) FROM attendances WHERE student_id = :id ORDER BY date", String.class)
+			.setParameter("id", studentId)
+			.getResultList());
+		assertEquals(List.of("ON_TIME", "LATE"), statuses);
+	}
+}
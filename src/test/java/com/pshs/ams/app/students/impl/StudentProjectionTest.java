@@ -0,0 +1,80 @@
+package com.pshs.ams.app.students.impl;
+
+import com.pshs.ams.app.students.models.dto.StudentDTO;
+import com.pshs.ams.utils.Projections;
+import org.junit.jupiter.api.Test;
+
+import static com.pshs.ams.utils.ProjectionRows.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StudentProjectionTest {
+
+	@Test
+	void selectsTheStudentThenItsRelatedEntities() {
+		assertEquals(String.join(", ",
+			"s.id, s.firstName, s.middleInitial, s.lastName, s.profilePicture, s.prefix, s.address, s.sex, s.birthdate",
+			"s_c.id, s_c.room, s_c.classroomName",
+			Projections.columns("s_ct", Projections.TEACHER),
+			Projections.columns("s_cg", Projections.GRADE_LEVEL),
+			Projections.columns("s_g", Projections.GRADE_LEVEL),
+			Projections.columns("s_st", Projections.STRAND),
+			Projections.columns("s_gu", Projections.GUARDIAN),
+			Projections.columns("s_sc", Projections.SCHEDULE)
+		), StudentProjection.columns("s"));
+	}
+
+	@Test
+	void joinsEveryAliasTheColumnsUse() {
+		assertEquals(" LEFT JOIN s.classroom s_c LEFT JOIN s_c.teacher s_ct LEFT JOIN s_c.gradeLevel s_cg" +
+			" LEFT JOIN s.gradeLevel s_g LEFT JOIN s.strand s_st LEFT JOIN s.guardian s_gu LEFT JOIN s.studentSchedule s_sc",
+			StudentProjection.joins("s"));
+	}
+
+	@Test
+	void readsEveryColumn() {
+		Object[] values = studentRow();
+		assertEquals(columnCount("SELECT " + StudentProjection.columns("s") + " FROM Student s"), values.length);
+
+		Projections.Row row = cursor(values);
+		assertEquals(studentDTO(), StudentProjection.read(row));
+		assertEquals(END, row.next());
+	}
+
+	@Test
+	void readsStudentsWithoutClassroom() {
+		Projections.Row row = cursor(row(
+			STUDENT, nulls(CLASSROOM.length + TEACHER.length + CLASSROOM_GRADE_LEVEL.length),
+			GRADE_LEVEL, STRAND, GUARDIAN, SCHEDULE
+		));
+
+		StudentDTO student = StudentProjection.read(row);
+		assertNull(student.getClassroom());
+		assertEquals(GRADE_LEVEL_DTO, student.getGradeLevel());
+		assertEquals(SCHEDULE_DTO, student.getSchedule());
+		assertEquals(END, row.next());
+	}
+
+	@Test
+	void readsClassroomsWithoutTeacher() {
+		Projections.Row row = cursor(row(
+			STUDENT, CLASSROOM, nulls(TEACHER.length), CLASSROOM_GRADE_LEVEL,
+			nulls(GRADE_LEVEL.length), nulls(STRAND.length), nulls(GUARDIAN.length), nulls(SCHEDULE.length)
+		));
+
+		StudentDTO student = StudentProjection.read(row);
+		assertNull(student.getClassroom().getTeacher());
+		assertEquals(CLASSROOM_GRADE_LEVEL_DTO, student.getClassroom().getGradeLevel());
+		assertNull(student.getGradeLevel());
+		assertNull(student.getSchedule());
+		assertEquals(END, row.next());
+	}
+
+	@Test
+	void skipsEveryColumnOfAMissingStudent() {
+		Projections.Row row = cursor(nulls(studentRow().length));
+
+		assertNull(StudentProjection.read(row));
+		assertEquals(END, row.next());
+	}
+}
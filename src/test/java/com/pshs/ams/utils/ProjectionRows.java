@@ -0,0 +1,114 @@
+package com.pshs.ams.utils;
+
+import com.pshs.ams.app.classrooms.models.dto.ClassroomTeacherDTO;
+import com.pshs.ams.app.grade_levels.models.dto.GradeLevelDTO;
+import com.pshs.ams.app.strands.models.dto.StrandDTO;
+import com.pshs.ams.app.student_schedules.models.dto.StudentScheduleDTO;
+import com.pshs.ams.app.students.models.dto.StudentClassroomDTO;
+import com.pshs.ams.app.students.models.dto.StudentDTO;
+import com.pshs.ams.app.students.models.dto.StudentGuardianDTO;
+import com.pshs.ams.global.models.enums.Sex;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Projection rows for the reader tests, each value typed as Hibernate returns it, along with the DTO it must be read
+ * as. Every value is distinct, so a column read into the wrong field does not go unnoticed.
+ */
+public final class ProjectionRows {
+
+	/**
+	 * Column after the last one of a row, to check that a reader stops where its columns end.
+	 */
+	public static final Object END = "end of row";
+
+	public static final Object[] GRADE_LEVEL = {11, "Grade 11", "Senior high, first year"};
+	public static final GradeLevelDTO GRADE_LEVEL_DTO = new GradeLevelDTO(11, "Grade 11", "Senior high, first year");
+
+	public static final Object[] CLASSROOM_GRADE_LEVEL = {12, "Grade 12", "Senior high, second year"};
+	public static final GradeLevelDTO CLASSROOM_GRADE_LEVEL_DTO = new GradeLevelDTO(12, "Grade 12", "Senior high, second year");
+
+	public static final Object[] STRAND = {3, "STEM", "Science, Technology, Engineering and Mathematics"};
+	public static final StrandDTO STRAND_DTO = new StrandDTO(3, "STEM", "Science, Technology, Engineering and Mathematics");
+
+	public static final Object[] GUARDIAN = {21, "Maria Dela Cruz", "09171234567"};
+	public static final StudentGuardianDTO GUARDIAN_DTO = new StudentGuardianDTO(21, "Maria Dela Cruz", "09171234567");
+
+	public static final Object[] SCHEDULE = {
+		5, "Morning", LocalTime.of(6, 0), LocalTime.of(7, 30), LocalTime.of(9, 0), Boolean.TRUE
+	};
+	public static final StudentScheduleDTO SCHEDULE_DTO = new StudentScheduleDTO(
+		5, "Morning", LocalTime.of(6, 0), LocalTime.of(7, 30), LocalTime.of(9, 0), Boolean.TRUE
+	);
+
+	public static final Object[] TEACHER = {
+		8, "Albert", "Santos", "R", 41, "09281234567", "09391234567", "MALE", "Teacher III"
+	};
+	public static final ClassroomTeacherDTO TEACHER_DTO = new ClassroomTeacherDTO(
+		8, "Albert", "Santos", "R", 41, "09281234567", "09391234567", "MALE", "Teacher III"
+	);
+
+	public static final Object[] CLASSROOM = {7, "B-204", "Einstein"};
+
+	public static final Object[] STUDENT = {
+		136514110001L, "Juan", "D", "Dela Cruz", "juan.png", "Mr.", "Punturin, Valenzuela", Sex.MALE, LocalDate.of(2008, 5, 17)
+	};
+
+	private ProjectionRows() {
+	}
+
+	/**
+	 * @param parts the columns of each related entity, in query order
+	 * @return the columns of all parts in one row
+	 */
+	public static Object[] row(Object[]... parts) {
+		return Arrays.stream(parts).flatMap(Arrays::stream).toArray();
+	}
+
+	/**
+	 * @param count the number of columns of a related entity that is not set
+	 * @return that many null columns
+	 */
+	public static Object[] nulls(int count) {
+		return new Object[count];
+	}
+
+	/**
+	 * @param values the columns
+	 * @return a row cursor over the columns followed by {@link #END}
+	 */
+	public static Projections.Row cursor(Object[] values) {
+		return new Projections.Row(Stream.concat(Arrays.stream(values), Stream.of(END)).toArray());
+	}
+
+	/**
+	 * @return the columns of {@link com.pshs.ams.app.students.impl.StudentProjection#columns(String)} with every
+	 * related entity set
+	 */
+	public static Object[] studentRow() {
+		return row(STUDENT, CLASSROOM, TEACHER, CLASSROOM_GRADE_LEVEL, GRADE_LEVEL, STRAND, GUARDIAN, SCHEDULE);
+	}
+
+	/**
+	 * @return the student read from {@link #studentRow()}
+	 */
+	public static StudentDTO studentDTO() {
+		return new StudentDTO(
+			136514110001L, "Juan", "D", "Dela Cruz", "juan.png", "Mr.", "Punturin, Valenzuela", Sex.MALE,
+			LocalDate.of(2008, 5, 17),
+			new StudentClassroomDTO(7, "B-204", "Einstein", TEACHER_DTO, CLASSROOM_GRADE_LEVEL_DTO),
+			GRADE_LEVEL_DTO, STRAND_DTO, GUARDIAN_DTO, SCHEDULE_DTO
+		);
+	}
+
+	/**
+	 * @param select a projection query
+	 * @return the number of columns between its {@code SELECT} and {@code FROM}
+	 */
+	public static int columnCount(String select) {
+		return select.substring("SELECT ".length(), select.indexOf(" FROM ")).split(", ").length;
+	}
+}
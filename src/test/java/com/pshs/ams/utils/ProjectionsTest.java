@@ -0,0 +1,72 @@
+package com.pshs.ams.utils;
+
+import io.quarkus.panache.common.Sort;
+import org.junit.jupiter.api.Test;
+
+import static com.pshs.ams.utils.ProjectionRows.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProjectionsTest {
+
+	@Test
+	void prefixesColumnsWithTheAlias() {
+		assertEquals("g.id, g.name, g.description", Projections.columns("g", Projections.GRADE_LEVEL));
+		assertEquals("st.id, st.name, st.description", Projections.columns("st", Projections.STRAND));
+		assertEquals("gu.id, gu.fullName, gu.contactNumber", Projections.columns("gu", Projections.GUARDIAN));
+		assertEquals("sc.id, sc.name, sc.onTime, sc.lateTime, sc.absentTime, sc.isFlag",
+			Projections.columns("sc", Projections.SCHEDULE));
+		assertEquals("t.id, t.firstName, t.lastName, t.middleInitial, t.age, t.contactNumber, t.emergencyContact, t.sex, t.position",
+			Projections.columns("t", Projections.TEACHER));
+	}
+
+	@Test
+	void ordersByPropertiesOfTheAlias() {
+		assertEquals("", Projections.orderBy(null, "s"));
+		assertEquals("", Projections.orderBy(Sort.empty(), "s"));
+		assertEquals(" ORDER BY s.lastName, s.classroom.id DESC",
+			Projections.orderBy(Sort.by("lastName").and("classroom.id", Sort.Direction.Descending), "s"));
+	}
+
+	@Test
+	void rejectsSortColumnsThatAreNotProperties() {
+		assertThrows(IllegalArgumentException.class, () -> Projections.orderBy(Sort.by("id; DROP TABLE students"), "s"));
+		assertThrows(IllegalArgumentException.class, () -> Projections.orderBy(Sort.by("lower(lastName)"), "s"));
+	}
+
+	@Test
+	void readsRelatedEntitiesInColumnOrder() {
+		Projections.Row row = cursor(row(GRADE_LEVEL, STRAND, GUARDIAN, SCHEDULE, TEACHER));
+
+		assertEquals(GRADE_LEVEL_DTO, Projections.readGradeLevel(row));
+		assertEquals(STRAND_DTO, Projections.readStrand(row));
+		assertEquals(GUARDIAN_DTO, Projections.readGuardian(row));
+		assertEquals(SCHEDULE_DTO, Projections.readSchedule(row));
+		assertEquals(TEACHER_DTO, Projections.readTeacher(row));
+		assertEquals(END, row.next());
+	}
+
+	@Test
+	void skipsTheColumnsOfUnsetEntities() {
+		Projections.Row row = cursor(row(
+			nulls(GRADE_LEVEL.length), nulls(STRAND.length), nulls(GUARDIAN.length), nulls(SCHEDULE.length), nulls(TEACHER.length)
+		));
+
+		assertNull(Projections.readGradeLevel(row));
+		assertNull(Projections.readStrand(row));
+		assertNull(Projections.readGuardian(row));
+		assertNull(Projections.readSchedule(row));
+		assertNull(Projections.readTeacher(row));
+		assertEquals(END, row.next());
+	}
+
+	@Test
+	void columnListsMatchTheRows() {
+		assertEquals(GRADE_LEVEL.length, Projections.GRADE_LEVEL.length);
+		assertEquals(STRAND.length, Projections.STRAND.length);
+		assertEquals(GUARDIAN.length, Projections.GUARDIAN.length);
+		assertEquals(SCHEDULE.length, Projections.SCHEDULE.length);
+		assertEquals(TEACHER.length, Projections.TEACHER.length);
+	}
+}
@@ -0,0 +1,166 @@
+package com.pshs.ams.websockets;
+
+import com.pshs.ams.app.attendances.models.dto.ScanResponse;
+import com.pshs.ams.app.attendances.models.enums.AttendanceMode;
+import com.pshs.ams.app.attendances.models.enums.AttendanceStatus;
+import com.pshs.ams.app.attendances.models.enums.ScanMessage;
+import com.pshs.ams.app.rfid_credentials.models.dto.HashedLrnKey;
+import com.pshs.ams.global.models.enums.CodeStatus;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryScanFrameTest {
+
+	private static final String HASHED_LRN = "0123456789abcdef0123456789ABCDEF";
+
+	@Test
+	void decodesRequestWithTimestamp() {
+		BinaryScanFrame frame = BinaryScanFrame.decode(request(AttendanceMode.OUT, HASHED_LRN, 1_700_000_000_000L));
+
+		assertNotNull(frame);
+		assertEquals(AttendanceMode.OUT, frame.getMode());
+		assertEquals(HashedLrnKey.of(HASHED_LRN), frame.getHashedLrn());
+		assertEquals(HASHED_LRN, frame.getHashedLrn().toString());
+		assertEquals(1_700_000_000_000L, frame.getClientTimestamp());
+	}
+
+	@Test
+	void decodesRequestWithoutTimestamp() {
+		for (AttendanceMode mode : AttendanceMode.values()) {
+			BinaryScanFrame frame = BinaryScanFrame.decode(request(mode, HASHED_LRN, null));
+
+			assertNotNull(frame);
+			assertEquals(mode, frame.getMode());
+			assertEquals(HASHED_LRN, frame.getHashedLrn().toString());
+			assertEquals(-1, frame.getClientTimestamp());
+		}
+	}
+
+	@Test
+	void rejectsMalformedRequests() {
+		ByteBuffer unknownVersion = request(AttendanceMode.IN, HASHED_LRN, null);
+		unknownVersion.put(0, (byte) 2);
+		ByteBuffer unknownMode = request(AttendanceMode.IN, HASHED_LRN, null);
+		unknownMode.put(1, (byte) 3);
+
+		assertNull(BinaryScanFrame.decode(unknownVersion));
+		assertNull(BinaryScanFrame.decode(unknownMode));
+		assertNull(BinaryScanFrame.decode(ByteBuffer.allocate(10)));
+	}
+
+	@Test
+	void encodesReply() {
+		ByteBuffer reply = BinaryScanFrame.encode(
+			new ScanResponse("Welcome", CodeStatus.OK, ScanMessage.WELCOME, AttendanceStatus.LATE));
+
+		assertReply(reply, 0, 0, 1);
+	}
+
+	@Test
+	void encodesReplyWithoutAttendanceStatus() {
+		ByteBuffer reply = BinaryScanFrame.encode(new ScanResponse("Not found", CodeStatus.NOT_FOUND, ScanMessage.CARD_NOT_FOUND));
+
+		assertReply(reply, 3, 2, 0xFF);
+	}
+
+	@Test
+	void encodesFixedReplies() {
+		assertReply(BinaryScanFrame.invalidFrame(), 4, 10, 0xFF);
+		assertReply(BinaryScanFrame.failed(), 1, 11, 0xFF);
+		assertReply(BinaryScanFrame.busy(), 6, 9, 0xFF);
+	}
+
+	@Test
+	void keepsStatusCodesStable() {
+		assertEquals(0, BinaryScanFrame.statusCode(CodeStatus.OK));
+		assertEquals(1, BinaryScanFrame.statusCode(CodeStatus.FAILED));
+		assertEquals(2, BinaryScanFrame.statusCode(CodeStatus.BAD_REQUEST));
+		assertEquals(3, BinaryScanFrame.statusCode(CodeStatus.NOT_FOUND));
+		assertEquals(4, BinaryScanFrame.statusCode(CodeStatus.BAD_INPUT));
+		assertEquals(5, BinaryScanFrame.statusCode(CodeStatus.CONFLICT));
+		assertEquals(6, BinaryScanFrame.statusCode(CodeStatus.BUSY));
+
+		Set<Byte> codes = new HashSet<>();
+		for (CodeStatus status : CodeStatus.values()) {
+			assertTrue(codes.add(BinaryScanFrame.statusCode(status)), "Duplicate code for " + status);
+		}
+	}
+
+	@Test
+	void keepsMessageCodesStable() {
+		assertEquals(0, BinaryScanFrame.messageCode(ScanMessage.WELCOME));
+		assertEquals(1, BinaryScanFrame.messageCode(ScanMessage.ALREADY_CHECKED_IN));
+		assertEquals(2, BinaryScanFrame.messageCode(ScanMessage.CARD_NOT_FOUND));
+		assertEquals(3, BinaryScanFrame.messageCode(ScanMessage.NOT_CHECKED_IN));
+		assertEquals(4, BinaryScanFrame.messageCode(ScanMessage.TIME_OUT_UPDATED));
+		assertEquals(5, BinaryScanFrame.messageCode(ScanMessage.CHECKED_OUT));
+		assertEquals(6, BinaryScanFrame.messageCode(ScanMessage.EXCUSED));
+		assertEquals(7, BinaryScanFrame.messageCode(ScanMessage.ALREADY_EXCUSED));
+		assertEquals(8, BinaryScanFrame.messageCode(ScanMessage.CONSULT_ADMIN));
+		assertEquals(9, BinaryScanFrame.messageCode(ScanMessage.BUSY));
+		assertEquals(10, BinaryScanFrame.messageCode(ScanMessage.INVALID_FRAME));
+		assertEquals(11, BinaryScanFrame.messageCode(ScanMessage.FAILED));
+
+		Set<Byte> codes = new HashSet<>();
+		for (ScanMessage message : ScanMessage.values()) {
+			assertTrue(codes.add(BinaryScanFrame.messageCode(message)), "Duplicate code for " + message);
+		}
+	}
+
+	@Test
+	void keepsAttendanceStatusCodesStable() {
+		assertEquals(0, BinaryScanFrame.attendanceStatusCode(AttendanceStatus.ON_TIME));
+		assertEquals(1, BinaryScanFrame.attendanceStatusCode(AttendanceStatus.LATE));
+		assertEquals(2, BinaryScanFrame.attendanceStatusCode(AttendanceStatus.ABSENT));
+		assertEquals(3, BinaryScanFrame.attendanceStatusCode(AttendanceStatus.EXCUSED));
+
+		Set<Byte> codes = new HashSet<>();
+		for (AttendanceStatus status : AttendanceStatus.values()) {
+			assertTrue(codes.add(BinaryScanFrame.attendanceStatusCode(status)), "Duplicate code for " + status);
+		}
+	}
+
+	@Test
+	void keepsModeCodesStable() {
+		assertEquals(AttendanceMode.IN, BinaryScanFrame.modeOf(0));
+		assertEquals(AttendanceMode.OUT, BinaryScanFrame.modeOf(1));
+		assertEquals(AttendanceMode.EXCUSED, BinaryScanFrame.modeOf(2));
+		assertNull(BinaryScanFrame.modeOf(3));
+	}
+
+	private static ByteBuffer request(AttendanceMode mode, String hashedLrn, Long clientTimestamp) {
+		ByteBuffer request = ByteBuffer.allocate(2 + HashedLrnKey.LENGTH + (clientTimestamp != null ? Long.BYTES : 0))
+			.put(BinaryScanFrame.VERSION_1)
+			.put(modeCode(mode))
+			.put(hashedLrn.getBytes(StandardCharsets.ISO_8859_1));
+		if (clientTimestamp != null) {
+			request.putLong(clientTimestamp);
+		}
+		return request.flip();
+	}
+
+	private static byte modeCode(AttendanceMode mode) {
+		return switch (mode) {
+			case IN -> 0;
+			case OUT -> 1;
+			case EXCUSED -> 2;
+		};
+	}
+
+	private static void assertReply(ByteBuffer reply, int status, int messageId, int attendanceStatus) {
+		assertEquals(4, reply.remaining());
+		assertEquals(BinaryScanFrame.VERSION_1, reply.get());
+		assertEquals(status, reply.get());
+		assertEquals(messageId, reply.get());
+		assertEquals(attendanceStatus, reply.get() & 0xFF);
+	}
+}